@@ -31,18 +31,22 @@ public class DataLoader implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        // Solo cargar si no hay datos
-        if (categoryRepository.count() == 0) {
+        // Solo cargar si no hay datos (se cuenta una vez y solo se recuenta si se cargó algo)
+        long categories = categoryRepository.count();
+        if (categories == 0) {
             loadCategories();
+            categories = categoryRepository.count();
         }
         
-        if (productRepository.count() == 0) {
+        long products = productRepository.count();
+        if (products == 0) {
             loadProducts();
+            products = productRepository.count();
         }
         
         System.out.println("[Inventario] Datos precargados correctamente");
-        System.out.println("   Categorías: " + categoryRepository.count());
-        System.out.println("   Productos: " + productRepository.count());
+        System.out.println("   Categorías: " + categories);
+        System.out.println("   Productos: " + products);
     }
 
     private void loadCategories() {
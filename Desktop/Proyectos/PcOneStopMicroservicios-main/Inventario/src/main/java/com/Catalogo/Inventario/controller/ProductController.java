@@ -1,6 +1,10 @@
 package com.Catalogo.Inventario.controller;
 
 import com.Catalogo.Inventario.dto.ApiResponse;
+import com.Catalogo.Inventario.dto.BulkPriceRequest;
+import com.Catalogo.Inventario.dto.LowStockAlert;
+import com.Catalogo.Inventario.dto.PriceChange;
+import com.Catalogo.Inventario.dto.SellerSummary;
 import com.Catalogo.Inventario.model.Category;
 import com.Catalogo.Inventario.model.Product;
 import com.Catalogo.Inventario.service.ProductService;
@@ -13,10 +17,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -228,6 +234,123 @@ public class ProductController {
         }
     }
 
+    // Precios modificados desde una fecha
+    @Operation(
+        summary = "Precios modificados",
+        description = "Devuelve el precio y el vendedor de los productos modificados desde la fecha indicada " +
+                      "(o de todo el catálogo si no se indica). Lo usa Pagos para mantener su caché de precios " +
+                      "con consultas incrementales."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Precios obtenidos (puede estar vacía)"
+        )
+    })
+    @GetMapping("/prices")
+    public ResponseEntity<ApiResponse<List<PriceChange>>> getPriceChanges(
+            @Parameter(description = "Fecha desde la cual buscar cambios (ISO-8601)", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since
+    ) {
+        List<PriceChange> changes = productService.findPriceChanges(since);
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, 200, "Precios modificados", changes, (long) changes.size()));
+    }
+
+    // Resumen del vendedor
+    @Operation(
+        summary = "Resumen del catálogo del vendedor",
+        description = "Devuelve la cantidad de productos, los productos sin stock y el valor total del " +
+                      "inventario del vendedor sin recorrer su catálogo."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Resumen obtenido (en cero si el vendedor no tiene productos)"
+        )
+    })
+    @GetMapping("/seller/{sellerId}/summary")
+    public ResponseEntity<ApiResponse<SellerSummary>> getSellerSummary(
+            @Parameter(description = "ID del vendedor", example = "2", required = true)
+            @PathVariable Long sellerId
+    ) {
+        SellerSummary summary = productService.getSellerSummary(sellerId);
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, 200, "Resumen del vendedor", summary, summary.getProductCount()));
+    }
+
+    // Alertas de stock bajo del vendedor
+    @Operation(
+        summary = "Alertas de stock bajo del vendedor",
+        description = "Devuelve las alertas generadas cuando el stock de un producto del vendedor bajó de su " +
+                      "umbral (lowStockThreshold), de la más reciente a la más antigua."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Alertas obtenidas (puede estar vacía)"
+        )
+    })
+    @GetMapping("/seller/{sellerId}/alerts")
+    public ResponseEntity<ApiResponse<List<LowStockAlert>>> getLowStockAlerts(
+            @Parameter(description = "ID del vendedor", example = "2", required = true)
+            @PathVariable Long sellerId
+    ) {
+        List<LowStockAlert> alerts = productService.getLowStockAlerts(sellerId);
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, 200, "Alertas de stock bajo", alerts, (long) alerts.size()));
+    }
+
+    // Ajuste masivo de precios
+    @Operation(
+        summary = "Ajustar precios masivamente",
+        description = "Aplica un porcentaje o un monto fijo a todos los productos de un vendedor, " +
+                      "filtrando opcionalmente por categoría y marca. Se ejecuta en una sola operación " +
+                      "y devuelve la cantidad de productos modificados."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Precios ajustados exitosamente"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Ajuste inválido o categoría no encontrada"
+        )
+    })
+    @PutMapping("/seller/{sellerId}/prices")
+    public ResponseEntity<ApiResponse<Integer>> adjustPrices(
+            @Parameter(description = "ID del vendedor", example = "2", required = true)
+            @PathVariable Long sellerId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Ajuste a aplicar",
+                required = true,
+                content = @Content(
+                    schema = @Schema(implementation = BulkPriceRequest.class),
+                    examples = @ExampleObject(
+                        name = "10% de descuento en GPUs",
+                        value = """
+                            {
+                                "category": "GPU",
+                                "mode": "PERCENTAGE",
+                                "value": -10
+                            }
+                            """
+                    )
+                )
+            )
+            @Valid @RequestBody BulkPriceRequest request
+    ) {
+        try {
+            int updated = productService.adjustPrices(sellerId, request);
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, 200, "Precios actualizados: " + updated + " producto(s)", updated, (long) updated));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null, 0L));
+        }
+    }
+
     // Eliminar producto
     @Operation(
         summary = "Eliminar producto",
@@ -305,6 +428,41 @@ public class ProductController {
         }
     }
 
+    // Productos por categoría y rango de precios
+    @Operation(
+        summary = "Filtrar por categoría y rango de precios",
+        description = "Obtiene los productos de una categoría cuyo precio está entre min y max (inclusive), " +
+                      "ordenados de menor a mayor precio."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Lista de productos en el rango obtenida (puede estar vacía)"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Categoría no encontrada en el sistema"
+        )
+    })
+    @GetMapping("/category/{categoryName}/price")
+    public ResponseEntity<ApiResponse<List<Product>>> getByCategoryAndPrice(
+            @Parameter(description = "Nombre de la categoría", example = "GPU", required = true)
+            @PathVariable String categoryName,
+            @Parameter(description = "Precio mínimo", example = "1500")
+            @RequestParam(required = false) Double min,
+            @Parameter(description = "Precio máximo", example = "3000")
+            @RequestParam(required = false) Double max
+    ) {
+        try {
+            List<Product> products = productService.findByCategoryAndPriceRange(categoryName, min, max);
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, 200, "Productos de categoría: " + categoryName, products, (long) products.size()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, 404, e.getMessage(), null, 0L));
+        }
+    }
+
     // Productos por vendedor
     @Operation(
         summary = "Filtrar por vendedor",
@@ -0,0 +1,35 @@
+package com.Catalogo.Inventario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Ajuste masivo de precios sobre los productos de un vendedor")
+public class BulkPriceRequest {
+
+    public enum Mode {
+        PERCENTAGE,
+        ABSOLUTE
+    }
+
+    @Schema(description = "Categoría a filtrar (opcional)", example = "GPU")
+    private String category;
+
+    @Schema(description = "Marca a filtrar (opcional)", example = "MSI")
+    private String brand;
+
+    @NotNull(message = "El tipo de ajuste es obligatorio")
+    @Schema(description = "PERCENTAGE aplica un porcentaje, ABSOLUTE suma un monto fijo", example = "PERCENTAGE",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private Mode mode;
+
+    @NotNull(message = "El valor del ajuste es obligatorio")
+    @Schema(description = "Porcentaje (-10 = 10% de descuento) o monto en soles a sumar/restar", example = "-10",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private Double value;
+}
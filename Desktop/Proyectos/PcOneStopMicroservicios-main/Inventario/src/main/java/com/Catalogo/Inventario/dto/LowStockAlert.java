@@ -0,0 +1,33 @@
+package com.Catalogo.Inventario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Alerta generada cuando el stock de un producto baja de su umbral")
+public class LowStockAlert {
+
+    @Schema(description = "ID del producto", example = "1")
+    private Long productId;
+
+    @Schema(description = "Nombre del producto", example = "GeForce RTX 4070 Super")
+    private String productName;
+
+    @Schema(description = "ID del vendedor dueño del producto", example = "2")
+    private Long sellerId;
+
+    @Schema(description = "Stock al momento de la alerta", example = "2")
+    private Integer stock;
+
+    @Schema(description = "Umbral configurado para el producto", example = "3")
+    private Integer threshold;
+
+    @Schema(description = "Fecha de la alerta")
+    private LocalDateTime createdAt;
+}
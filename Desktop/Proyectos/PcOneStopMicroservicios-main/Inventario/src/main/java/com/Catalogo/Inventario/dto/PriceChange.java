@@ -0,0 +1,27 @@
+package com.Catalogo.Inventario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Precio vigente de un producto, para los servicios que mantienen una copia local")
+public class PriceChange {
+
+    @Schema(description = "ID del producto", example = "1")
+    private Long productId;
+
+    @Schema(description = "Precio unitario en soles", example = "2599.99")
+    private Double price;
+
+    @Schema(description = "ID del vendedor dueño del producto", example = "2")
+    private Long sellerId;
+
+    @Schema(description = "Fecha de la última modificación del producto")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.Catalogo.Inventario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resumen del catálogo de un vendedor")
+public class SellerSummary {
+
+    @Schema(description = "ID del vendedor", example = "2")
+    private Long sellerId;
+
+    @Schema(description = "Cantidad de productos publicados", example = "8")
+    private Long productCount;
+
+    @Schema(description = "Cantidad de productos sin stock", example = "1")
+    private Long outOfStockCount;
+
+    @Schema(description = "Valor total del inventario (precio x stock) en soles", example = "104520.00")
+    private Double totalInventoryValue;
+}
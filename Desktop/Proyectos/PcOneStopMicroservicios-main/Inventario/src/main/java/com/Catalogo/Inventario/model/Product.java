@@ -8,6 +8,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "products")
 @Data
@@ -65,6 +67,10 @@ public class Product {
     @Schema(description = "ID del vendedor dueño del producto", example = "5", requiredMode = Schema.RequiredMode.REQUIRED)
     private Long sellerId;
 
+    @Min(value = 0, message = "El umbral de stock bajo no puede ser negativo")
+    @Schema(description = "Umbral de stock bajo: se alerta al vendedor cuando el stock baja de este valor", example = "3")
+    private Integer lowStockThreshold;
+
     @Column(length = 1000)
     @Schema(description = "Descripción detallada del producto", example = "Tarjeta gráfica de última generación con 12GB GDDR6X")
     private String description;
@@ -73,6 +79,15 @@ public class Product {
     @Schema(description = "URL de la imagen del producto", example = "https://example.com/images/rtx4070.jpg")
     private String imageUrl;
 
+    @Schema(description = "Fecha de la última modificación", accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
     // Getter para serialización JSON
     @JsonProperty("category")
     public String getCategory() {
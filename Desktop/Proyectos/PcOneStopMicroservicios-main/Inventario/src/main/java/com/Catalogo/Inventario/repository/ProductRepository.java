@@ -3,8 +3,12 @@ package com.Catalogo.Inventario.repository;
 import com.Catalogo.Inventario.model.Category;
 import com.Catalogo.Inventario.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -29,4 +33,89 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * Busca productos por marca.
      */
     List<Product> findByBrand(String brand);
+
+    /**
+     * Busca productos de una categoría en un rango de precios (consulta SQL directa).
+     */
+    List<Product> findByCategoryEntityAndPriceBetweenOrderByPriceAsc(Category category, Double min, Double max);
+
+    /**
+     * Filas {id, categoryId, price} para construir el índice de precios sin cargar entidades.
+     */
+    @Query("select p.id, p.categoryEntity.id, p.price from Product p")
+    List<Object[]> findPriceIndexRows();
+
+    /**
+     * Filas {id, categoryId, price} de un vendedor.
+     */
+    @Query("select p.id, p.categoryEntity.id, p.price from Product p where p.sellerId = :sellerId")
+    List<Object[]> findPriceIndexRowsBySellerId(@Param("sellerId") Long sellerId);
+
+    /**
+     * IDs de todos los productos, para quitar del índice restaurado los que se eliminaron.
+     */
+    @Query("select p.id from Product p")
+    List<Long> findAllIds();
+
+    /**
+     * Asigna fecha de modificación a los productos cargados antes de que existiera la columna,
+     * para que las consultas por fecha no los devuelvan siempre.
+     */
+    @Modifying
+    @Query("update Product p set p.updatedAt = :now where p.updatedAt is null")
+    int backfillUpdatedAt(@Param("now") LocalDateTime now);
+
+    /**
+     * Filas {id, categoryId, price} modificadas desde una fecha.
+     */
+    @Query("select p.id, p.categoryEntity.id, p.price from Product p where p.updatedAt >= :since")
+    List<Object[]> findPriceIndexRowsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Filas {id, price, sellerId, updatedAt} modificadas desde una fecha; con since nulo
+     * devuelve el catálogo completo.
+     */
+    @Query("""
+            select p.id, p.price, p.sellerId, p.updatedAt from Product p
+            where :since is null or p.updatedAt >= :since
+            order by p.id
+            """)
+    List<Object[]> findPriceFeedRows(@Param("since") LocalDateTime since);
+
+    /**
+     * Agregados por vendedor: {sellerId, cantidad, valor de inventario, productos sin stock}.
+     */
+    @Query("""
+            select p.sellerId, count(p), sum(p.price * p.stock), sum(case when p.stock = 0 then 1 else 0 end)
+            from Product p group by p.sellerId
+            """)
+    List<Object[]> summarizeBySeller();
+
+    /**
+     * Agregados de un vendedor: {cantidad, valor de inventario, productos sin stock}.
+     */
+    @Query("""
+            select count(p), sum(p.price * p.stock), sum(case when p.stock = 0 then 1 else 0 end)
+            from Product p where p.sellerId = :sellerId
+            """)
+    List<Object[]> summarizeSeller(@Param("sellerId") Long sellerId);
+
+    /**
+     * Ajusta en un solo UPDATE los precios de un vendedor: precio * factor + delta,
+     * filtrando opcionalmente por categoría y marca. Las filas cuyo precio quedaría
+     * negativo no se modifican. Devuelve la cantidad de filas afectadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Product p set p.price = round(p.price * :factor + :delta, 2), p.updatedAt = local datetime
+            where p.sellerId = :sellerId
+              and (:categoryId is null or p.categoryEntity.id = :categoryId)
+              and (:brand is null or p.brand = :brand)
+              and p.price * :factor + :delta >= 0
+            """)
+    int adjustPrices(@Param("sellerId") Long sellerId,
+                     @Param("categoryId") Long categoryId,
+                     @Param("brand") String brand,
+                     @Param("factor") double factor,
+                     @Param("delta") double delta);
 }
@@ -0,0 +1,114 @@
+package com.Catalogo.Inventario.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Snapshot binario del modelo de lectura del catálogo (índice de precios por categoría)
+ * en un archivo mapeado en memoria.
+ *
+ * Se escribe periódicamente y al apagar la aplicación. Al iniciar, el archivo se mapea
+ * antes de que corran el DataLoader y las consultas a BD, así el índice responde desde
+ * el primer momento; luego ProductService aplica solo los productos modificados
+ * después de {@link #getRestoredAt()}.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final int MAGIC = 0x494E5643; // "INVC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Value("${inventario.snapshot.path:${java.io.tmpdir}/inventario-catalog.snap}")
+    private String snapshotPath;
+
+    private volatile LocalDateTime restoredAt;
+
+    /**
+     * Carga el último snapshot (si existe) en el índice de precios.
+     */
+    @PostConstruct
+    public void restore() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                System.out.println("[Inventario] Snapshot del catálogo inválido, se ignora: " + path);
+                return;
+            }
+            LocalDateTime takenAt = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+            priceIndex.readFrom(buffer);
+            restoredAt = takenAt;
+            System.out.println("[Inventario] Snapshot del catálogo restaurado: "
+                    + priceIndex.size() + " productos (" + takenAt + ")");
+        } catch (IOException | RuntimeException e) {
+            System.out.println("[Inventario] No se pudo leer el snapshot del catálogo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe el snapshot en un archivo temporal mapeado y lo reemplaza de forma atómica.
+     */
+    @Scheduled(initialDelayString = "${inventario.snapshot.interval-ms:60000}",
+               fixedDelayString = "${inventario.snapshot.interval-ms:60000}")
+    @PreDestroy
+    public synchronized void write() {
+        if (!priceIndex.isReady()) {
+            return;
+        }
+
+        Path path = Paths.get(snapshotPath);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        LocalDateTime takenAt = LocalDateTime.now();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // El tamaño se toma dentro del mismo bloqueo del índice que la escritura
+                synchronized (priceIndex) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                            HEADER_SIZE + priceIndex.snapshotSize());
+                    buffer.putInt(MAGIC);
+                    buffer.putInt(VERSION);
+                    buffer.putLong(takenAt.toEpochSecond(ZoneOffset.UTC));
+                    priceIndex.writeTo(buffer);
+                    buffer.force();
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("[Inventario] No se pudo escribir el snapshot del catálogo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Momento en que se tomó el snapshot restaurado al iniciar, o null si se inició en frío.
+     */
+    public LocalDateTime getRestoredAt() {
+        return restoredAt;
+    }
+}
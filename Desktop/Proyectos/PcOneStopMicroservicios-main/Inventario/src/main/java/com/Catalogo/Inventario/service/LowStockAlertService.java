@@ -0,0 +1,89 @@
+package com.Catalogo.Inventario.service;
+
+import com.Catalogo.Inventario.dto.LowStockAlert;
+import com.Catalogo.Inventario.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detecta cuándo el stock de un producto cruza su umbral de stock bajo y lo publica
+ * en el feed de alertas del vendedor.
+ *
+ * La detección se hace en el mismo momento en que cambia el stock comparando el estado
+ * anterior con el nuevo, sin recorrer el catálogo. Si el producto vuelve a cruzar el
+ * umbral dentro de la ventana de debounce no se repite la alerta.
+ */
+@Service
+public class LowStockAlertService {
+
+    private static final int MAX_ALERTS_PER_SELLER = 100;
+
+    @Value("${inventario.alerts.debounce-ms:600000}")
+    private long debounceMillis = 600_000;
+
+    private final Map<Long, Long> lastAlertByProduct = new ConcurrentHashMap<>();
+    private final Map<Long, Deque<LowStockAlert>> alertsBySeller = new ConcurrentHashMap<>();
+
+    /**
+     * Revisa si el producto acaba de quedar bajo su umbral.
+     *
+     * @param previousStock     stock antes del cambio
+     * @param previousThreshold umbral antes del cambio
+     */
+    public void check(Product product, int previousStock, Integer previousThreshold) {
+        Integer threshold = product.getLowStockThreshold();
+        if (threshold == null || product.getStock() == null) {
+            return;
+        }
+        boolean wasLow = previousThreshold != null && previousStock < previousThreshold;
+        boolean isLow = product.getStock() < threshold;
+        if (wasLow || !isLow) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Long last = lastAlertByProduct.get(product.getId());
+        if (last != null && now - last < debounceMillis) {
+            return;
+        }
+        lastAlertByProduct.put(product.getId(), now);
+
+        LowStockAlert alert = new LowStockAlert(product.getId(), product.getName(), product.getSellerId(),
+                product.getStock(), threshold, LocalDateTime.now());
+        Deque<LowStockAlert> feed = alertsBySeller.computeIfAbsent(product.getSellerId(), k -> new ArrayDeque<>());
+        synchronized (feed) {
+            feed.addFirst(alert);
+            if (feed.size() > MAX_ALERTS_PER_SELLER) {
+                feed.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Alertas de un vendedor, de la más reciente a la más antigua.
+     */
+    public List<LowStockAlert> getAlerts(Long sellerId) {
+        Deque<LowStockAlert> feed = alertsBySeller.get(sellerId);
+        if (feed == null) {
+            return new ArrayList<>();
+        }
+        synchronized (feed) {
+            return new ArrayList<>(feed);
+        }
+    }
+
+    /**
+     * Olvida el estado de un producto eliminado.
+     */
+    public void forget(Long productId) {
+        lastAlertByProduct.remove(productId);
+    }
+}
@@ -0,0 +1,293 @@
+package com.Catalogo.Inventario.service;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de productos ordenados por precio dentro de cada categoría.
+ *
+ * Cada categoría guarda dos arreglos primitivos paralelos (precios e IDs) ordenados
+ * por (precio, id), así un rango de precios se resuelve con dos búsquedas binarias.
+ * Las lecturas no bloquean: cada escritura reemplaza los arreglos de su categoría.
+ */
+@Component
+public class PriceIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final class Bucket {
+        final double[] prices;
+        final long[] ids;
+
+        Bucket(double[] prices, long[] ids) {
+            this.prices = prices;
+            this.ids = ids;
+        }
+    }
+
+    private record Entry(long categoryId, double price) {}
+
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+
+    // Posición actual de cada producto, para poder moverlo o quitarlo. Protegido por "this".
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private volatile boolean ready = false;
+
+    /**
+     * Indica si el índice ya fue construido y puede responder consultas.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reconstruye el índice completo. Cada fila es {id, categoryId, price}.
+     */
+    public synchronized void rebuild(List<Object[]> rows) {
+        Map<Long, List<Object[]>> byCategory = new HashMap<>();
+        entries.clear();
+        for (Object[] row : rows) {
+            if (row[0] == null || row[1] == null || row[2] == null) {
+                continue;
+            }
+            long id = ((Number) row[0]).longValue();
+            long categoryId = ((Number) row[1]).longValue();
+            double price = ((Number) row[2]).doubleValue();
+            byCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(row);
+            entries.put(id, new Entry(categoryId, price));
+        }
+
+        Map<Long, Bucket> rebuilt = new HashMap<>();
+        byCategory.forEach((categoryId, list) -> {
+            list.sort(Comparator.<Object[]>comparingDouble(r -> ((Number) r[2]).doubleValue())
+                    .thenComparingLong(r -> ((Number) r[0]).longValue()));
+            double[] prices = new double[list.size()];
+            long[] ids = new long[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                ids[i] = ((Number) list.get(i)[0]).longValue();
+                prices[i] = ((Number) list.get(i)[2]).doubleValue();
+            }
+            rebuilt.put(categoryId, new Bucket(prices, ids));
+        });
+        swapBuckets(rebuilt);
+        ready = true;
+    }
+
+    /**
+     * Inserta o mueve un producto a su posición según categoría y precio.
+     */
+    public synchronized void put(long id, long categoryId, double price) {
+        Entry previous = entries.get(id);
+        if (previous != null) {
+            if (previous.categoryId() == categoryId && previous.price() == price) {
+                return;
+            }
+            removeFromBucket(id, previous);
+        }
+
+        Bucket bucket = buckets.get(categoryId);
+        double[] prices = bucket != null ? bucket.prices : new double[0];
+        long[] ids = bucket != null ? bucket.ids : EMPTY;
+
+        int pos = -(search(prices, ids, price, id) + 1);
+        double[] newPrices = new double[prices.length + 1];
+        long[] newIds = new long[ids.length + 1];
+        System.arraycopy(prices, 0, newPrices, 0, pos);
+        System.arraycopy(ids, 0, newIds, 0, pos);
+        newPrices[pos] = price;
+        newIds[pos] = id;
+        System.arraycopy(prices, pos, newPrices, pos + 1, prices.length - pos);
+        System.arraycopy(ids, pos, newIds, pos + 1, ids.length - pos);
+
+        buckets.put(categoryId, new Bucket(newPrices, newIds));
+        entries.put(id, new Entry(categoryId, price));
+    }
+
+    /**
+     * Quita un producto del índice (si estaba indexado).
+     */
+    public synchronized void remove(long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            removeFromBucket(id, previous);
+        }
+    }
+
+    /**
+     * Devuelve los IDs de la categoría con precio entre min y max (inclusive),
+     * ordenados de menor a mayor precio.
+     */
+    public long[] findIds(long categoryId, double min, double max) {
+        Bucket bucket = buckets.get(categoryId);
+        if (bucket == null || min > max) {
+            return EMPTY;
+        }
+        int from = lowerBound(bucket.prices, min);
+        int to = upperBound(bucket.prices, max);
+        if (from >= to) {
+            return EMPTY;
+        }
+        long[] result = new long[to - from];
+        System.arraycopy(bucket.ids, from, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * Bytes necesarios para serializar el índice con {@link #writeTo(ByteBuffer)}.
+     */
+    public synchronized int snapshotSize() {
+        int size = Integer.BYTES;
+        for (Bucket bucket : buckets.values()) {
+            size += Long.BYTES + Integer.BYTES + bucket.ids.length * (Long.BYTES + Double.BYTES);
+        }
+        return size;
+    }
+
+    /**
+     * Serializa el índice en formato binario: cantidad de categorías y, por cada una,
+     * categoryId, n, n IDs y n precios (ya ordenados).
+     */
+    public synchronized void writeTo(ByteBuffer buffer) {
+        buffer.putInt(buckets.size());
+        for (Map.Entry<Long, Bucket> e : buckets.entrySet()) {
+            Bucket bucket = e.getValue();
+            buffer.putLong(e.getKey());
+            buffer.putInt(bucket.ids.length);
+            for (long id : bucket.ids) {
+                buffer.putLong(id);
+            }
+            for (double price : bucket.prices) {
+                buffer.putDouble(price);
+            }
+        }
+    }
+
+    /**
+     * Reemplaza el contenido del índice con uno serializado por {@link #writeTo(ByteBuffer)}.
+     * Los arreglos ya vienen ordenados, así que no se vuelve a ordenar.
+     */
+    public synchronized void readFrom(ByteBuffer buffer) {
+        Map<Long, Bucket> restored = new HashMap<>();
+        Map<Long, Entry> restoredEntries = new HashMap<>();
+        int bucketCount = buffer.getInt();
+        for (int b = 0; b < bucketCount; b++) {
+            long categoryId = buffer.getLong();
+            int n = buffer.getInt();
+            long[] ids = new long[n];
+            double[] prices = new double[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = buffer.getLong();
+            }
+            for (int i = 0; i < n; i++) {
+                prices[i] = buffer.getDouble();
+                restoredEntries.put(ids[i], new Entry(categoryId, prices[i]));
+            }
+            restored.put(categoryId, new Bucket(prices, ids));
+        }
+
+        swapBuckets(restored);
+        entries.clear();
+        entries.putAll(restoredEntries);
+        ready = true;
+    }
+
+    /**
+     * Copia de los IDs indexados en este momento.
+     */
+    public synchronized Set<Long> ids() {
+        return new HashSet<>(entries.keySet());
+    }
+
+    /**
+     * Cantidad de productos indexados.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Reemplaza las categorías sin dejar una ventana en la que el índice quede vacío para los lectores
+    private void swapBuckets(Map<Long, Bucket> replacement) {
+        buckets.putAll(replacement);
+        buckets.keySet().retainAll(replacement.keySet());
+    }
+
+    private void removeFromBucket(long id, Entry entry) {
+        Bucket bucket = buckets.get(entry.categoryId());
+        if (bucket == null) {
+            return;
+        }
+        int pos = search(bucket.prices, bucket.ids, entry.price(), id);
+        if (pos < 0) {
+            return;
+        }
+        int length = bucket.ids.length;
+        double[] newPrices = new double[length - 1];
+        long[] newIds = new long[length - 1];
+        System.arraycopy(bucket.prices, 0, newPrices, 0, pos);
+        System.arraycopy(bucket.ids, 0, newIds, 0, pos);
+        System.arraycopy(bucket.prices, pos + 1, newPrices, pos, length - pos - 1);
+        System.arraycopy(bucket.ids, pos + 1, newIds, pos, length - pos - 1);
+        buckets.put(entry.categoryId(), new Bucket(newPrices, newIds));
+    }
+
+    // Búsqueda binaria por (precio, id). Devuelve la posición o -(punto de inserción) - 1.
+    private static int search(double[] prices, long[] ids, double price, long id) {
+        int low = 0;
+        int high = prices.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(prices[mid], price);
+            if (cmp == 0) {
+                cmp = Long.compare(ids[mid], id);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Primera posición con precio >= value
+    private static int lowerBound(double[] prices, double value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Primera posición con precio > value
+    private static int upperBound(double[] prices, double value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,5 +1,9 @@
 package com.Catalogo.Inventario.service;
 
+import com.Catalogo.Inventario.dto.BulkPriceRequest;
+import com.Catalogo.Inventario.dto.LowStockAlert;
+import com.Catalogo.Inventario.dto.PriceChange;
+import com.Catalogo.Inventario.dto.SellerSummary;
 import com.Catalogo.Inventario.model.Category;
 import com.Catalogo.Inventario.model.Product;
 import com.Catalogo.Inventario.repository.CategoryRepository;
@@ -7,9 +11,18 @@ import com.Catalogo.Inventario.repository.ProductRepository;
 import com.Catalogo.Inventario.repository.ReportRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -24,6 +37,57 @@ public class ProductService {
     @Autowired
     private ReportRepository reportRepository;
 
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private LowStockAlertService lowStockAlertService;
+
+    @Autowired
+    private SellerSummaryService sellerSummaryService;
+
+    /**
+     * Pone al día el índice de precios una vez que la aplicación terminó de iniciar
+     * (después del DataLoader). Si se restauró un snapshot solo se aplican los productos
+     * modificados desde entonces y se quitan los eliminados; si no, se construye completo.
+     * Antes completa updatedAt en los productos antiguos que no lo tienen: una sola vez,
+     * en lugar de reenviarlos en cada consulta por fecha.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildPriceIndex() {
+        int backfilled = productRepository.backfillUpdatedAt(LocalDateTime.now());
+        if (backfilled > 0) {
+            System.out.println("[Inventario] Productos sin fecha de modificación completados: " + backfilled);
+        }
+        LocalDateTime restoredAt = catalogSnapshotService.getRestoredAt();
+        if (restoredAt == null) {
+            priceIndex.rebuild(productRepository.findPriceIndexRows());
+            return;
+        }
+
+        // Los IDs indexados se toman antes de leer la BD: un producto creado mientras tanto
+        // no está en esta copia y no se quita por error
+        Set<Long> indexed = priceIndex.ids();
+
+        // Margen para escrituras en curso al momento de tomar el snapshot
+        for (Object[] row : productRepository.findPriceIndexRowsUpdatedSince(restoredAt.minusMinutes(1))) {
+            priceIndex.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                    ((Number) row[2]).doubleValue());
+        }
+
+        // Productos eliminados después del snapshot: no aparecen por fecha de modificación
+        indexed.removeAll(productRepository.findAllIds());
+        for (Long id : indexed) {
+            priceIndex.remove(id);
+        }
+        if (!indexed.isEmpty()) {
+            System.out.println("[Inventario] Productos eliminados quitados del índice restaurado: " + indexed.size());
+        }
+    }
+
     /**
      * Obtiene todos los productos del catálogo.
      */
@@ -45,7 +109,10 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Categoría no encontrada: " + categoryName));
 
         product.setCategoryEntity(category);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        indexPrice(saved);
+        applyToSummary(saved.getSellerId(), null, null, saved.getPrice(), saved.getStock());
+        return saved;
     }
 
     /**
@@ -68,8 +135,12 @@ public class ProductService {
                     ". Disponible: " + product.getStock() + ", Solicitado: " + quantity);
         }
 
-        product.setStock(product.getStock() - quantity);
-        return productRepository.save(product);
+        int previousStock = product.getStock();
+        product.setStock(previousStock - quantity);
+        Product saved = productRepository.save(product);
+        afterCommit(() -> lowStockAlertService.check(saved, previousStock, saved.getLowStockThreshold()));
+        applyToSummary(saved.getSellerId(), saved.getPrice(), previousStock, saved.getPrice(), saved.getStock());
+        return saved;
     }
 
     /**
@@ -77,15 +148,22 @@ public class ProductService {
      */
     public Product addStock(Long id, Integer quantity) {
         Product product = findById(id);
-        product.setStock(product.getStock() + quantity);
-        return productRepository.save(product);
+        int previousStock = product.getStock();
+        product.setStock(previousStock + quantity);
+        Product saved = productRepository.save(product);
+        applyToSummary(saved.getSellerId(), saved.getPrice(), previousStock, saved.getPrice(), saved.getStock());
+        return saved;
     }
 
     /**
      * Actualiza la información de un producto.
+     * El umbral de stock bajo solo se cambia si viene en la solicitud.
      */
     public Product update(Long id, Product productDetails) {
         Product product = findById(id);
+        int previousStock = product.getStock();
+        Double previousPrice = product.getPrice();
+        Integer previousThreshold = product.getLowStockThreshold();
         
         product.setName(productDetails.getName());
         product.setBrand(productDetails.getBrand());
@@ -94,6 +172,9 @@ public class ProductService {
         product.setStock(productDetails.getStock());
         product.setDescription(productDetails.getDescription());
         product.setImageUrl(productDetails.getImageUrl());
+        if (productDetails.getLowStockThreshold() != null) {
+            product.setLowStockThreshold(productDetails.getLowStockThreshold());
+        }
 
         if (productDetails.getCategory() != null) {
             Category category = categoryRepository.findByName(productDetails.getCategory())
@@ -101,15 +182,65 @@ public class ProductService {
             product.setCategoryEntity(category);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        indexPrice(saved);
+        afterCommit(() -> lowStockAlertService.check(saved, previousStock, previousThreshold));
+        applyToSummary(saved.getSellerId(), previousPrice, previousStock, saved.getPrice(), saved.getStock());
+        return saved;
+    }
+
+    /**
+     * Ajusta masivamente los precios de un vendedor con un único UPDATE en BD,
+     * sin cargar cada producto. Devuelve la cantidad de productos modificados.
+     */
+    public int adjustPrices(Long sellerId, BulkPriceRequest request) {
+        if (request.getMode() == null || request.getValue() == null) {
+            throw new RuntimeException("El tipo y el valor del ajuste son obligatorios");
+        }
+
+        Long categoryId = null;
+        if (request.getCategory() != null && !request.getCategory().isBlank()) {
+            categoryId = categoryRepository.findByName(request.getCategory())
+                    .orElseThrow(() -> new RuntimeException("Categoría no encontrada: " + request.getCategory()))
+                    .getId();
+        }
+        String brand = request.getBrand() != null && !request.getBrand().isBlank() ? request.getBrand() : null;
+
+        double factor = 1.0;
+        double delta = 0.0;
+        if (request.getMode() == BulkPriceRequest.Mode.PERCENTAGE) {
+            if (request.getValue() <= -100) {
+                throw new RuntimeException("El porcentaje debe ser mayor a -100");
+            }
+            factor = 1.0 + request.getValue() / 100.0;
+        } else {
+            delta = request.getValue();
+        }
+
+        int updated = productRepository.adjustPrices(sellerId, categoryId, brand, factor, delta);
+        if (updated > 0) {
+            List<Object[]> rows = productRepository.findPriceIndexRowsBySellerId(sellerId);
+            afterCommit(() -> {
+                for (Object[] row : rows) {
+                    priceIndex.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                            ((Number) row[2]).doubleValue());
+                }
+            });
+            afterCommit(() -> sellerSummaryService.reconcileSeller(sellerId));
+        }
+        return updated;
     }
 
     /**
      * Elimina un producto y sus reportes asociados.
      */
     public void deleteProduct(Long id) {
+        productRepository.findById(id).ifPresent(product -> applyToSummary(
+                product.getSellerId(), product.getPrice(), product.getStock(), null, null));
         reportRepository.deleteByProductId(id);
         productRepository.deleteById(id);
+        afterCommit(() -> priceIndex.remove(id));
+        afterCommit(() -> lowStockAlertService.forget(id));
     }
 
     /**
@@ -134,5 +265,105 @@ public class ProductService {
     public List<Product> findBySellerId(Long sellerId) {
         return productRepository.findBySellerId(sellerId);
     }
-}
 
+    /**
+     * Precios modificados desde una fecha (todos si since es nulo), para que otros
+     * servicios mantengan su copia local al día sin pedir producto por producto.
+     */
+    public List<PriceChange> findPriceChanges(LocalDateTime since) {
+        List<Object[]> rows = productRepository.findPriceFeedRows(since);
+        List<PriceChange> changes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            changes.add(new PriceChange((Long) row[0], (Double) row[1], (Long) row[2], (LocalDateTime) row[3]));
+        }
+        return changes;
+    }
+
+    /**
+     * Resumen del catálogo de un vendedor (contadores mantenidos en memoria).
+     */
+    public SellerSummary getSellerSummary(Long sellerId) {
+        return sellerSummaryService.getSummary(sellerId);
+    }
+
+    /**
+     * Alertas de stock bajo de un vendedor, de la más reciente a la más antigua.
+     */
+    public List<LowStockAlert> getLowStockAlerts(Long sellerId) {
+        return lowStockAlertService.getAlerts(sellerId);
+    }
+
+    /**
+     * Busca productos de una categoría dentro de un rango de precios.
+     * Usa el índice en memoria y solo consulta la BD para cargar los productos por ID;
+     * si el índice aún no está listo, hace la consulta de rango directamente en SQL.
+     */
+    public List<Product> findByCategoryAndPriceRange(String categoryName, Double min, Double max) {
+        Category category = categoryRepository.findByName(categoryName)
+                .orElseThrow(() -> new RuntimeException("Categoría no encontrada: " + categoryName));
+        double from = min != null ? min : 0.0;
+        double to = max != null ? max : Double.MAX_VALUE;
+
+        if (!priceIndex.isReady()) {
+            return productRepository.findByCategoryEntityAndPriceBetweenOrderByPriceAsc(category, from, to);
+        }
+
+        long[] ids = priceIndex.findIds(category.getId(), from, to);
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findAllById(idList)) {
+            byId.put(product.getId(), product);
+        }
+
+        // Mantener el orden por precio del índice
+        List<Product> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    // Los valores se toman ahora y se aplican al índice cuando la transacción confirma
+    private void indexPrice(Product product) {
+        if (product != null && product.getId() != null && product.getPrice() != null
+                && product.getCategoryEntity() != null && product.getCategoryEntity().getId() != null) {
+            long id = product.getId();
+            long categoryId = product.getCategoryEntity().getId();
+            double price = product.getPrice();
+            afterCommit(() -> priceIndex.put(id, categoryId, price));
+        }
+    }
+
+    // Los argumentos se evalúan ahora; el resumen del vendedor cambia cuando la transacción confirma
+    private void applyToSummary(Long sellerId, Double oldPrice, Integer oldStock, Double newPrice, Integer newStock) {
+        afterCommit(() -> sellerSummaryService.apply(sellerId, oldPrice, oldStock, newPrice, newStock));
+    }
+
+    /**
+     * Ejecuta un cambio de las copias en memoria (índice de precios, alertas, resumen por
+     * vendedor) recién cuando la transacción confirma, para que un rollback no las deje con
+     * datos que la BD no tiene. Fuera de una transacción se aplica en el momento.
+     */
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
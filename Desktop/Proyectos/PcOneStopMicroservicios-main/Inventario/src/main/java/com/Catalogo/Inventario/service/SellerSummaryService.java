@@ -0,0 +1,124 @@
+package com.Catalogo.Inventario.service;
+
+import com.Catalogo.Inventario.dto.SellerSummary;
+import com.Catalogo.Inventario.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agregados por vendedor (productos, productos sin stock y valor del inventario)
+ * mantenidos en memoria con cada escritura de ProductService, aplicada al confirmar su
+ * transacción.
+ *
+ * Consultar el resumen es O(1) sin importar el tamaño del catálogo. Los contadores
+ * se construyen al iniciar y se reconcilian cada noche contra la BD para corregir
+ * cualquier diferencia acumulada.
+ */
+@Service
+public class SellerSummaryService {
+
+    private static final class Counters {
+        long products;
+        long outOfStock;
+        double inventoryValue;
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Map<Long, Counters> bySeller = new ConcurrentHashMap<>();
+
+    /**
+     * Aplica el cambio de un producto a los contadores de su vendedor.
+     * Un estado anterior nulo es un producto nuevo; un estado nuevo nulo, uno eliminado.
+     */
+    public void apply(Long sellerId, Double oldPrice, Integer oldStock, Double newPrice, Integer newStock) {
+        if (sellerId == null) {
+            return;
+        }
+        Counters counters = bySeller.computeIfAbsent(sellerId, k -> new Counters());
+        synchronized (counters) {
+            if (oldStock != null) {
+                counters.products--;
+                counters.outOfStock -= oldStock == 0 ? 1 : 0;
+                counters.inventoryValue -= value(oldPrice, oldStock);
+            }
+            if (newStock != null) {
+                counters.products++;
+                counters.outOfStock += newStock == 0 ? 1 : 0;
+                counters.inventoryValue += value(newPrice, newStock);
+            }
+        }
+    }
+
+    /**
+     * Resumen actual del vendedor.
+     */
+    public SellerSummary getSummary(Long sellerId) {
+        Counters counters = bySeller.get(sellerId);
+        if (counters == null) {
+            return new SellerSummary(sellerId, 0L, 0L, 0.0);
+        }
+        synchronized (counters) {
+            return new SellerSummary(sellerId, counters.products, counters.outOfStock,
+                    Math.round(counters.inventoryValue * 100.0) / 100.0);
+        }
+    }
+
+    /**
+     * Recalcula desde la BD los contadores de un vendedor (por ejemplo, tras un ajuste masivo).
+     */
+    public void reconcileSeller(Long sellerId) {
+        List<Object[]> rows = productRepository.summarizeSeller(sellerId);
+        reset(sellerId, rows.isEmpty() ? null : rows.get(0), 0);
+    }
+
+    /**
+     * Construye los contadores al iniciar y los reconcilia cada noche.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${inventario.summary.reconcile-cron:0 0 3 * * *}")
+    public void reconcileAll() {
+        Map<Long, Object[]> fresh = new HashMap<>();
+        for (Object[] row : productRepository.summarizeBySeller()) {
+            fresh.put(((Number) row[0]).longValue(), row);
+        }
+        for (Map.Entry<Long, Object[]> entry : fresh.entrySet()) {
+            reset(entry.getKey(), entry.getValue(), 1);
+        }
+        // Los vendedores sin productos se ponen en cero en lugar de quitarse del mapa, por si
+        // un apply() en curso ya tomó sus contadores
+        for (Long sellerId : bySeller.keySet()) {
+            if (!fresh.containsKey(sellerId)) {
+                reset(sellerId, null, 0);
+            }
+        }
+    }
+
+    /**
+     * Copia los valores de la BD sobre los contadores existentes con el mismo lock que usa
+     * apply(). Reemplazar el objeto perdería los cambios aplicados sobre el anterior.
+     */
+    private void reset(Long sellerId, Object[] row, int offset) {
+        Counters counters = bySeller.computeIfAbsent(sellerId, k -> new Counters());
+        synchronized (counters) {
+            counters.products = row != null && row[offset] != null ? ((Number) row[offset]).longValue() : 0L;
+            counters.inventoryValue = row != null && row[offset + 1] != null
+                    ? ((Number) row[offset + 1]).doubleValue() : 0.0;
+            counters.outOfStock = row != null && row[offset + 2] != null
+                    ? ((Number) row[offset + 2]).longValue() : 0L;
+        }
+    }
+
+    private static double value(Double price, Integer stock) {
+        return price != null && stock != null ? price * stock : 0.0;
+    }
+}
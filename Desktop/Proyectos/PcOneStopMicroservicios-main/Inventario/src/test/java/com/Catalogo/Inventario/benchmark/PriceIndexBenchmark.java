@@ -0,0 +1,137 @@
+package com.Catalogo.Inventario.benchmark;
+
+import com.Catalogo.Inventario.service.PriceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda "categoría + rango de precios" (GPUs entre S/1500 y S/3000): PriceIndex contra
+ * la consulta SQL equivalente, sobre los mismos productos cargados en H2 en memoria.
+ *
+ * La consulta SQL se mide sobre la tabla tal como está en producción (sin índice en price)
+ * y con un índice (category_id, price), para separar el costo del índice del costo de ir a
+ * la BD. H2 en memoria no tiene red ni disco, así que la diferencia real contra MySQL es mayor.
+ *
+ * No corre con los tests. Para ejecutarlo:
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     "-Dexec.args=-cp %classpath org.openjdk.jmh.Main PriceIndexBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceIndexBenchmark {
+
+    private static final int CATEGORIES = 8;
+    private static final long GPU = 3;
+    private static final double MIN = 1500.0;
+    private static final double MAX = 3000.0;
+
+    @Param({"10000", "100000"})
+    private int products;
+
+    private PriceIndex index;
+    private Connection connection;
+    private PreparedStatement plainQuery;
+    private PreparedStatement indexedQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            long categoryId = 1 + random.nextInt(CATEGORIES);
+            // Precios de S/50.00 a S/5000.00
+            double price = (5000 + random.nextInt(495001)) / 100.0;
+            rows.add(new Object[]{id, categoryId, price});
+        }
+
+        index = new PriceIndex();
+        index.rebuild(rows);
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:price-index-bench-" + products, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table products_plain (id bigint primary key, category_id bigint, price double)");
+            statement.execute("create table products_indexed (id bigint primary key, category_id bigint, price double)");
+            statement.execute("create index idx_products_category_price on products_indexed (category_id, price)");
+        }
+        for (String table : Arrays.asList("products_plain", "products_indexed")) {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into " + table + " (id, category_id, price) values (?, ?, ?)")) {
+                for (Object[] row : rows) {
+                    insert.setLong(1, (Long) row[0]);
+                    insert.setLong(2, (Long) row[1]);
+                    insert.setDouble(3, (Double) row[2]);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        String query = " where category_id = ? and price between ? and ? order by price, id";
+        plainQuery = connection.prepareStatement("select id from products_plain" + query);
+        indexedQuery = connection.prepareStatement("select id from products_indexed" + query);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long[] priceIndex() {
+        return index.findIds(GPU, MIN, MAX);
+    }
+
+    @Benchmark
+    public long[] sqlWithoutIndex() throws SQLException {
+        return ids(plainQuery);
+    }
+
+    @Benchmark
+    public long[] sqlWithIndex() throws SQLException {
+        return ids(indexedQuery);
+    }
+
+    // Mismo resultado que PriceIndex: los IDs en orden de precio, en un long[]
+    private static long[] ids(PreparedStatement query) throws SQLException {
+        query.setLong(1, GPU);
+        query.setDouble(2, MIN);
+        query.setDouble(3, MAX);
+        long[] ids = new long[64];
+        int size = 0;
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = rs.getLong(1);
+            }
+        }
+        return Arrays.copyOf(ids, size);
+    }
+}
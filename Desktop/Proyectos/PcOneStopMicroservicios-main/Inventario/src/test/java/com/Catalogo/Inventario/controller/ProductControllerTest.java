@@ -1,5 +1,9 @@
 package com.Catalogo.Inventario.controller;
 
+import com.Catalogo.Inventario.dto.BulkPriceRequest;
+import com.Catalogo.Inventario.dto.LowStockAlert;
+import com.Catalogo.Inventario.dto.PriceChange;
+import com.Catalogo.Inventario.dto.SellerSummary;
 import com.Catalogo.Inventario.model.Category;
 import com.Catalogo.Inventario.model.Product;
 import com.Catalogo.Inventario.service.ProductService;
@@ -12,6 +16,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -378,4 +383,117 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.data").isArray())
                 .andExpect(jsonPath("$.data.length()").value(2));
     }
+
+    // Tests PUT /api/v1/products/seller/{sellerId}/prices 
+    @Test
+    public void testAdjustPrices_RetornaFilasAfectadas() throws Exception {
+        // DADO: un descuento que afecta 3 productos
+        BulkPriceRequest request = new BulkPriceRequest("GPU", null, BulkPriceRequest.Mode.PERCENTAGE, -10.0);
+        when(productService.adjustPrices(eq(2L), any(BulkPriceRequest.class))).thenReturn(3);
+
+        // CUANDO: enviamos PUT
+        mockMvc.perform(put("/api/v1/products/seller/2/prices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                // ENTONCES: respuesta 200 OK con la cantidad modificada
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ok").value(true))
+                .andExpect(jsonPath("$.data").value(3))
+                .andExpect(jsonPath("$.count").value(3L));
+    }
+
+    @Test
+    public void testAdjustPrices_CategoriaNoExiste_Retorna400() throws Exception {
+        // DADO: una categoría inexistente
+        BulkPriceRequest request = new BulkPriceRequest("INEXISTENTE", null, BulkPriceRequest.Mode.ABSOLUTE, 10.0);
+        when(productService.adjustPrices(eq(2L), any(BulkPriceRequest.class)))
+                .thenThrow(new RuntimeException("Categoría no encontrada: INEXISTENTE"));
+
+        // CUANDO: enviamos PUT
+        mockMvc.perform(put("/api/v1/products/seller/2/prices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                // ENTONCES: respuesta 400 BAD REQUEST
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.ok").value(false));
+    }
+
+    // Tests GET /api/v1/products/category/{categoryName}/price 
+    @Test
+    public void testGetByCategoryAndPrice_RetornaProductosEnRango() throws Exception {
+        // DADO: 2 productos en el rango
+        when(productService.findByCategoryAndPriceRange("GPU", 300.0, 800.0))
+                .thenReturn(Arrays.asList(producto2, producto1));
+
+        // CUANDO: enviamos GET con min y max
+        mockMvc.perform(get("/api/v1/products/category/GPU/price")
+                .param("min", "300")
+                .param("max", "800"))
+                // ENTONCES: respuesta 200 OK ordenada por precio
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].id").value(2L));
+    }
+
+    // Tests GET /api/v1/products/seller/{sellerId}/alerts 
+    @Test
+    public void testGetLowStockAlerts_RetornaAlertasDelVendedor() throws Exception {
+        // DADO: una alerta de stock bajo del vendedor 1
+        LowStockAlert alerta = new LowStockAlert(1L, "RTX 4070", 1L, 2, 3, LocalDateTime.now());
+        when(productService.getLowStockAlerts(1L)).thenReturn(Arrays.asList(alerta));
+
+        // CUANDO: enviamos GET
+        mockMvc.perform(get("/api/v1/products/seller/1/alerts"))
+                // ENTONCES: respuesta 200 OK con la alerta
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].productId").value(1L))
+                .andExpect(jsonPath("$.data[0].threshold").value(3));
+    }
+
+    // Tests GET /api/v1/products/seller/{sellerId}/summary 
+    @Test
+    public void testGetSellerSummary_RetornaAgregados() throws Exception {
+        // DADO: el resumen del vendedor 2
+        when(productService.getSellerSummary(2L)).thenReturn(new SellerSummary(2L, 8L, 1L, 104520.0));
+
+        // CUANDO: enviamos GET
+        mockMvc.perform(get("/api/v1/products/seller/2/summary"))
+                // ENTONCES: respuesta 200 OK con los agregados
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.productCount").value(8))
+                .andExpect(jsonPath("$.data.outOfStockCount").value(1))
+                .andExpect(jsonPath("$.data.totalInventoryValue").value(104520.0));
+    }
+
+    // Tests GET /api/v1/products/prices
+    @Test
+    public void testGetPriceChanges_ConFecha_RetornaCambios() throws Exception {
+        // DADO: un producto modificado después de la fecha indicada
+        LocalDateTime desde = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(productService.findPriceChanges(desde)).thenReturn(List.of(
+                new PriceChange(1L, 700.0, 1L, LocalDateTime.of(2025, 1, 2, 10, 0))));
+
+        // CUANDO: enviamos GET con since
+        mockMvc.perform(get("/api/v1/products/prices").param("since", "2025-01-01T00:00:00"))
+                // ENTONCES: respuesta 200 OK con el precio y el vendedor
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.data[0].productId").value(1))
+                .andExpect(jsonPath("$.data[0].price").value(700.0))
+                .andExpect(jsonPath("$.data[0].sellerId").value(1));
+    }
+
+    @Test
+    public void testGetPriceChanges_SinFecha_RetornaCatalogoCompleto() throws Exception {
+        // DADO: sin fecha se pide el catálogo completo
+        when(productService.findPriceChanges(null)).thenReturn(List.of());
+
+        // CUANDO: enviamos GET sin since
+        mockMvc.perform(get("/api/v1/products/prices"))
+                // ENTONCES: 200 OK y se consultó sin fecha
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0));
+        verify(productService).findPriceChanges(null);
+    }
 }
@@ -0,0 +1,80 @@
+package com.Catalogo.Inventario.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class CatalogSnapshotServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CatalogSnapshotService crearServicio(PriceIndex priceIndex, Path archivo) {
+        CatalogSnapshotService service = new CatalogSnapshotService();
+        ReflectionTestUtils.setField(service, "priceIndex", priceIndex);
+        ReflectionTestUtils.setField(service, "snapshotPath", archivo.toString());
+        return service;
+    }
+
+    @Test
+    public void testWriteYRestore_RecuperaElIndice() {
+        // DADO: un índice con productos en dos categorías escrito a disco
+        Path archivo = tempDir.resolve("catalogo.snap");
+        PriceIndex original = new PriceIndex();
+        original.rebuild(Arrays.asList(
+                new Object[]{1L, 1L, 2599.0},
+                new Object[]{3L, 1L, 1799.0},
+                new Object[]{4L, 2L, 1899.0}
+        ));
+        crearServicio(original, archivo).write();
+        assertTrue(Files.exists(archivo));
+
+        // CUANDO: una nueva instancia restaura el snapshot
+        PriceIndex restaurado = new PriceIndex();
+        CatalogSnapshotService service = crearServicio(restaurado, archivo);
+        service.restore();
+
+        // ENTONCES: el índice responde igual que el original sin consultar la BD
+        assertTrue(restaurado.isReady());
+        assertNotNull(service.getRestoredAt());
+        assertEquals(3, restaurado.size());
+        assertArrayEquals(new long[]{3L, 1L}, restaurado.findIds(1L, 0.0, 3000.0));
+        assertArrayEquals(new long[]{4L}, restaurado.findIds(2L, 0.0, 3000.0));
+    }
+
+    @Test
+    public void testRestore_SinArchivo_InicioEnFrio() {
+        // DADO: no existe snapshot previo
+        PriceIndex priceIndex = new PriceIndex();
+        CatalogSnapshotService service = crearServicio(priceIndex, tempDir.resolve("no-existe.snap"));
+
+        // CUANDO: se intenta restaurar
+        service.restore();
+
+        // ENTONCES: el índice queda sin construir
+        assertFalse(priceIndex.isReady());
+        assertNull(service.getRestoredAt());
+    }
+
+    @Test
+    public void testRestore_ArchivoInvalido_SeIgnora() throws Exception {
+        // DADO: un archivo con contenido que no es un snapshot
+        Path archivo = tempDir.resolve("basura.snap");
+        Files.writeString(archivo, "esto no es un snapshot");
+        PriceIndex priceIndex = new PriceIndex();
+        CatalogSnapshotService service = crearServicio(priceIndex, archivo);
+
+        // CUANDO: se intenta restaurar
+        service.restore();
+
+        // ENTONCES: se inicia en frío
+        assertFalse(priceIndex.isReady());
+        assertNull(service.getRestoredAt());
+    }
+}
@@ -0,0 +1,98 @@
+package com.Catalogo.Inventario.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Catalogo.Inventario.dto.LowStockAlert;
+import com.Catalogo.Inventario.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+public class LowStockAlertServiceTest {
+
+    private LowStockAlertService alertService;
+
+    @BeforeEach
+    void setUp() {
+        alertService = new LowStockAlertService();
+        ReflectionTestUtils.setField(alertService, "debounceMillis", 600_000L);
+    }
+
+    private Product crearProducto(Long id, Integer stock, Integer threshold) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Producto " + id);
+        p.setStock(stock);
+        p.setLowStockThreshold(threshold);
+        p.setSellerId(2L);
+        return p;
+    }
+
+    @Test
+    public void testCheck_CruzaUmbral_GeneraAlerta() {
+        // DADO: un producto con umbral 3 que baja de 5 a 2
+        Product producto = crearProducto(1L, 2, 3);
+
+        // CUANDO: se revisa el cambio
+        alertService.check(producto, 5, 3);
+
+        // ENTONCES: el vendedor tiene una alerta
+        List<LowStockAlert> alertas = alertService.getAlerts(2L);
+        assertEquals(1, alertas.size());
+        assertEquals(1L, alertas.get(0).getProductId());
+        assertEquals(2, alertas.get(0).getStock());
+        assertEquals(3, alertas.get(0).getThreshold());
+    }
+
+    @Test
+    public void testCheck_YaEstabaBajo_NoRepiteAlerta() {
+        // DADO: un producto que ya estaba bajo el umbral
+        Product producto = crearProducto(1L, 1, 3);
+
+        // CUANDO: baja de 2 a 1
+        alertService.check(producto, 2, 3);
+
+        // ENTONCES: no hay alerta nueva
+        assertTrue(alertService.getAlerts(2L).isEmpty());
+    }
+
+    @Test
+    public void testCheck_SinUmbral_NoGeneraAlerta() {
+        // DADO: un producto sin umbral configurado
+        Product producto = crearProducto(1L, 0, null);
+
+        // CUANDO: baja a 0
+        alertService.check(producto, 5, null);
+
+        // ENTONCES: no hay alertas
+        assertTrue(alertService.getAlerts(2L).isEmpty());
+    }
+
+    @Test
+    public void testCheck_DentroDeVentanaDebounce_NoRepite() {
+        // DADO: un producto que cruza el umbral, se repone y vuelve a cruzar enseguida
+        Product producto = crearProducto(1L, 2, 3);
+        alertService.check(producto, 5, 3);
+        producto.setStock(2);
+
+        // CUANDO: vuelve a cruzar dentro de la ventana
+        alertService.check(producto, 4, 3);
+
+        // ENTONCES: solo hay una alerta
+        assertEquals(1, alertService.getAlerts(2L).size());
+    }
+
+    @Test
+    public void testCheck_SubeUmbralPorEncimaDelStock_GeneraAlerta() {
+        // DADO: stock 4 y el vendedor sube el umbral de 3 a 5
+        Product producto = crearProducto(1L, 4, 5);
+
+        // CUANDO: se revisa el cambio
+        alertService.check(producto, 4, 3);
+
+        // ENTONCES: se alerta porque ahora está bajo el umbral
+        assertEquals(1, alertService.getAlerts(2L).size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.Catalogo.Inventario.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class PriceIndexTest {
+
+    private PriceIndex priceIndex;
+
+    @BeforeEach
+    void setUp() {
+        // Categoría 1 = GPU, categoría 2 = CPU
+        priceIndex = new PriceIndex();
+        priceIndex.rebuild(Arrays.asList(
+                new Object[]{1L, 1L, 2599.0},
+                new Object[]{2L, 1L, 2199.0},
+                new Object[]{3L, 1L, 1799.0},
+                new Object[]{4L, 2L, 1899.0},
+                new Object[]{5L, 1L, 899.0}
+        ));
+    }
+
+    @Test
+    public void testFindIds_RangoOrdenadoPorPrecio() {
+        // CUANDO: buscamos GPUs entre 1500 y 3000
+        long[] ids = priceIndex.findIds(1L, 1500.0, 3000.0);
+
+        // ENTONCES: retorna las 3 GPUs ordenadas por precio
+        assertArrayEquals(new long[]{3L, 2L, 1L}, ids);
+    }
+
+    @Test
+    public void testFindIds_LimitesInclusivos() {
+        // CUANDO: los límites coinciden con precios exactos
+        long[] ids = priceIndex.findIds(1L, 1799.0, 2199.0);
+
+        // ENTONCES: incluye ambos extremos
+        assertArrayEquals(new long[]{3L, 2L}, ids);
+    }
+
+    @Test
+    public void testFindIds_CategoriaSinProductos() {
+        // CUANDO: buscamos en una categoría no indexada
+        long[] ids = priceIndex.findIds(99L, 0.0, 5000.0);
+
+        // ENTONCES: lista vacía
+        assertEquals(0, ids.length);
+    }
+
+    @Test
+    public void testPut_MueveProductoAlCambiarPrecio() {
+        // CUANDO: la RTX baja a 1499
+        priceIndex.put(1L, 1L, 1499.0);
+
+        // ENTONCES: sale del rango 1500-3000 y aparece en el rango bajo
+        assertArrayEquals(new long[]{3L, 2L}, priceIndex.findIds(1L, 1500.0, 3000.0));
+        assertArrayEquals(new long[]{5L, 1L}, priceIndex.findIds(1L, 0.0, 1500.0));
+        assertEquals(5, priceIndex.size());
+    }
+
+    @Test
+    public void testPut_MueveProductoDeCategoria() {
+        // CUANDO: el producto 3 pasa a la categoría CPU
+        priceIndex.put(3L, 2L, 1799.0);
+
+        // ENTONCES: solo aparece en CPU
+        assertArrayEquals(new long[]{2L, 1L}, priceIndex.findIds(1L, 1500.0, 3000.0));
+        assertArrayEquals(new long[]{3L, 4L}, priceIndex.findIds(2L, 0.0, 3000.0));
+    }
+
+    @Test
+    public void testRemove_QuitaProducto() {
+        // CUANDO: eliminamos el producto 2
+        priceIndex.remove(2L);
+
+        // ENTONCES: ya no aparece en las búsquedas
+        assertArrayEquals(new long[]{3L, 1L}, priceIndex.findIds(1L, 1000.0, 3000.0));
+        assertEquals(4, priceIndex.size());
+    }
+}
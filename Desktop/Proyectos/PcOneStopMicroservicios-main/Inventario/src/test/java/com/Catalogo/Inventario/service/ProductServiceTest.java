@@ -3,6 +3,7 @@ package com.Catalogo.Inventario.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.Catalogo.Inventario.dto.BulkPriceRequest;
 import com.Catalogo.Inventario.model.Category;
 import com.Catalogo.Inventario.model.Product;
 import com.Catalogo.Inventario.repository.CategoryRepository;
@@ -11,11 +12,16 @@ import com.Catalogo.Inventario.repository.ReportRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +40,18 @@ public class ProductServiceTest {
     @Mock
     private ReportRepository reportRepository;
 
+    @Mock
+    private PriceIndex priceIndex;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private LowStockAlertService lowStockAlertService;
+
+    @Mock
+    private SellerSummaryService sellerSummaryService;
+
     // Categorías de prueba
     private Category gpuCategory;
     private Category cpuCategory;
@@ -366,4 +384,287 @@ public class ProductServiceTest {
         // ENTONCES: lista vacía
         assertTrue(resultado.isEmpty());
     }
+
+    // Tests adjustPrices() 
+    @Test
+    public void testAdjustPrices_PorcentajeConCategoria() {
+        // DADO: un descuento de 10% en GPUs del vendedor 2
+        BulkPriceRequest request = new BulkPriceRequest("GPU", null, BulkPriceRequest.Mode.PERCENTAGE, -10.0);
+        when(categoryRepository.findByName("GPU")).thenReturn(Optional.of(gpuCategory));
+        when(productRepository.adjustPrices(2L, 1L, null, 0.9, 0.0)).thenReturn(3);
+
+        // CUANDO: ajustamos precios
+        int resultado = productService.adjustPrices(2L, request);
+
+        // ENTONCES: se ejecuta un único UPDATE y retorna las filas afectadas
+        assertEquals(3, resultado);
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    public void testAdjustPrices_MontoAbsolutoPorMarca() {
+        // DADO: un aumento fijo de 50 soles a la marca MSI
+        BulkPriceRequest request = new BulkPriceRequest(null, "MSI", BulkPriceRequest.Mode.ABSOLUTE, 50.0);
+        when(productRepository.adjustPrices(2L, null, "MSI", 1.0, 50.0)).thenReturn(2);
+
+        // CUANDO: ajustamos precios
+        int resultado = productService.adjustPrices(2L, request);
+
+        // ENTONCES: retorna las filas afectadas
+        assertEquals(2, resultado);
+    }
+
+    @Test
+    public void testAdjustPrices_PorcentajeInvalido_LanzaExcepcion() {
+        // DADO: un descuento del 100%
+        BulkPriceRequest request = new BulkPriceRequest(null, null, BulkPriceRequest.Mode.PERCENTAGE, -100.0);
+
+        // CUANDO/ENTONCES: lanza excepción sin tocar la BD
+        assertThrows(RuntimeException.class, () -> productService.adjustPrices(2L, request));
+        verify(productRepository, never()).adjustPrices(anyLong(), any(), any(), anyDouble(), anyDouble());
+    }
+
+    // Tests findByCategoryAndPriceRange() 
+    @Test
+    public void testFindByCategoryAndPriceRange_UsaIndiceYMantieneOrden() {
+        // DADO: el índice devuelve los IDs 3 y 1 en orden de precio
+        Product p1 = crearProducto(1L, "RTX 4070", "MSI", "Ventus", gpuCategory, 2599.0, 8, 2L);
+        Product p3 = crearProducto(3L, "RTX 4060 Ti", "Gigabyte", "Gaming OC", gpuCategory, 1799.0, 12, 2L);
+        when(categoryRepository.findByName("GPU")).thenReturn(Optional.of(gpuCategory));
+        when(priceIndex.isReady()).thenReturn(true);
+        when(priceIndex.findIds(1L, 1500.0, 3000.0)).thenReturn(new long[]{3L, 1L});
+        when(productRepository.findAllById(Arrays.asList(3L, 1L))).thenReturn(Arrays.asList(p1, p3));
+
+        // CUANDO: buscamos GPUs entre 1500 y 3000
+        List<Product> resultado = productService.findByCategoryAndPriceRange("GPU", 1500.0, 3000.0);
+
+        // ENTONCES: se respetan el orden del índice y no se hace la consulta de rango en SQL
+        assertEquals(2, resultado.size());
+        assertEquals(3L, resultado.get(0).getId());
+        assertEquals(1L, resultado.get(1).getId());
+        verify(productRepository, never()).findByCategoryEntityAndPriceBetweenOrderByPriceAsc(any(), any(), any());
+    }
+
+    @Test
+    public void testFindByCategoryAndPriceRange_IndiceNoListo_ConsultaSQL() {
+        // DADO: el índice todavía no fue construido
+        when(categoryRepository.findByName("GPU")).thenReturn(Optional.of(gpuCategory));
+        when(priceIndex.isReady()).thenReturn(false);
+        when(productRepository.findByCategoryEntityAndPriceBetweenOrderByPriceAsc(gpuCategory, 1500.0, 3000.0))
+                .thenReturn(Arrays.asList());
+
+        // CUANDO: buscamos por rango
+        List<Product> resultado = productService.findByCategoryAndPriceRange("GPU", 1500.0, 3000.0);
+
+        // ENTONCES: se usa la consulta SQL
+        assertTrue(resultado.isEmpty());
+        verify(priceIndex, never()).findIds(anyLong(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    public void testSave_IndexaPrecio() {
+        // DADO: un producto nuevo
+        Product nuevo = crearProducto(null, "RTX 4070", "MSI", "Ventus", null, 2599.0, 8, 2L);
+        nuevo.setCategory("GPU");
+        when(categoryRepository.findByName("GPU")).thenReturn(Optional.of(gpuCategory));
+        when(productRepository.save(any(Product.class))).thenAnswer(i -> {
+            Product p = (Product) i.getArguments()[0];
+            p.setId(10L);
+            return p;
+        });
+
+        // CUANDO: guardamos
+        productService.save(nuevo);
+
+        // ENTONCES: queda indexado en su categoría
+        verify(priceIndex).put(10L, 1L, 2599.0);
+    }
+
+    @Test
+    public void testDeleteProduct_EnTransaccion_QuitaDelIndiceAlConfirmar() {
+        // DADO: una transacción activa
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // CUANDO: se elimina un producto dentro de ella
+            productService.deleteProduct(1L);
+
+            // ENTONCES: el índice no cambia hasta que la transacción confirma
+            verify(priceIndex, never()).remove(anyLong());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(priceIndex).remove(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Tests buildPriceIndex() 
+    @Test
+    public void testBuildPriceIndex_SinSnapshot_ConstruyeCompleto() {
+        // DADO: se inició en frío
+        when(catalogSnapshotService.getRestoredAt()).thenReturn(null);
+        List<Object[]> filas = Arrays.<Object[]>asList(new Object[]{1L, 1L, 2599.0});
+        when(productRepository.findPriceIndexRows()).thenReturn(filas);
+
+        // CUANDO: la aplicación termina de iniciar
+        productService.buildPriceIndex();
+
+        // ENTONCES: se reconstruye el índice con todos los productos
+        verify(priceIndex).rebuild(filas);
+    }
+
+    @Test
+    public void testBuildPriceIndex_ConSnapshot_SoloAplicaCambios() {
+        // DADO: se restauró un snapshot y luego cambió un producto
+        LocalDateTime snapshot = LocalDateTime.of(2025, 1, 1, 10, 0);
+        when(catalogSnapshotService.getRestoredAt()).thenReturn(snapshot);
+        when(productRepository.findPriceIndexRowsUpdatedSince(snapshot.minusMinutes(1)))
+                .thenReturn(Arrays.<Object[]>asList(new Object[]{7L, 3L, 549.0}));
+
+        // CUANDO: la aplicación termina de iniciar
+        productService.buildPriceIndex();
+
+        // ENTONCES: solo se aplica el producto modificado
+        verify(priceIndex).put(7L, 3L, 549.0);
+        verify(priceIndex, never()).rebuild(any());
+        verify(productRepository, never()).findPriceIndexRows();
+    }
+
+    @Test
+    public void testBuildPriceIndex_ConSnapshot_QuitaEliminados() {
+        // DADO: el snapshot tiene los productos 7 y 9, y el 9 se eliminó después
+        LocalDateTime snapshot = LocalDateTime.of(2025, 1, 1, 10, 0);
+        when(catalogSnapshotService.getRestoredAt()).thenReturn(snapshot);
+        when(priceIndex.ids()).thenReturn(new HashSet<>(Arrays.asList(7L, 9L)));
+        when(productRepository.findPriceIndexRowsUpdatedSince(snapshot.minusMinutes(1))).thenReturn(List.of());
+        when(productRepository.findAllIds()).thenReturn(Arrays.asList(7L, 12L));
+
+        // CUANDO: la aplicación termina de iniciar
+        productService.buildPriceIndex();
+
+        // ENTONCES: solo se quita el eliminado; el 12 (creado después) no se toca
+        verify(priceIndex).remove(9L);
+        verify(priceIndex, never()).remove(7L);
+        verify(priceIndex, never()).remove(12L);
+    }
+
+    @Test
+    public void testBuildPriceIndex_CompletaFechasFaltantesAntesDeLeer() {
+        // DADO: productos antiguos sin updatedAt
+        when(productRepository.backfillUpdatedAt(any(LocalDateTime.class))).thenReturn(3);
+
+        // CUANDO: la aplicación termina de iniciar
+        productService.buildPriceIndex();
+
+        // ENTONCES: se completan antes de construir el índice
+        InOrder orden = inOrder(productRepository, priceIndex);
+        orden.verify(productRepository).backfillUpdatedAt(any(LocalDateTime.class));
+        orden.verify(productRepository).findPriceIndexRows();
+        orden.verify(priceIndex).rebuild(any());
+    }
+
+    // Tests de alertas de stock bajo 
+    @Test
+    public void testReduceStock_RevisaUmbralConStockAnterior() {
+        // DADO: un producto con stock 5 y umbral 3
+        Product producto = crearProducto(1L, "GPU Test", "Asus", "X", gpuCategory, 100.0, 5, 2L);
+        producto.setLowStockThreshold(3);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        // CUANDO: descontamos 3 unidades
+        productService.reduceStock(1L, 3);
+
+        // ENTONCES: se revisa el cruce con el stock previo (5)
+        verify(lowStockAlertService).check(producto, 5, 3);
+    }
+
+    @Test
+    public void testReduceStock_EnTransaccion_AlertaRecienAlConfirmar() {
+        // DADO: un producto con stock 5 y umbral 3, y una transacción activa
+        Product producto = crearProducto(1L, "GPU Test", "Asus", "X", gpuCategory, 100.0, 5, 2L);
+        producto.setLowStockThreshold(3);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArguments()[0]);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // CUANDO: el stock baja del umbral dentro de la transacción
+            productService.reduceStock(1L, 3);
+
+            // ENTONCES: la alerta no se publica si la transacción no confirma
+            verifyNoInteractions(lowStockAlertService);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(lowStockAlertService).check(producto, 5, 3);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testUpdate_SinUmbralEnSolicitud_ConservaUmbral() {
+        // DADO: un producto con umbral 3
+        Product existente = crearProducto(1L, "Producto", "Marca", "Modelo", gpuCategory, 100.0, 10, 2L);
+        existente.setLowStockThreshold(3);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existente));
+        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        // Y nuevos datos sin umbral
+        Product nuevoDatos = crearProducto(null, "Producto", "Marca", "Modelo", null, 100.0, 2, 2L);
+
+        // CUANDO: actualizamos
+        Product resultado = productService.update(1L, nuevoDatos);
+
+        // ENTONCES: el umbral se mantiene y se revisa el cruce
+        assertEquals(3, resultado.getLowStockThreshold());
+        verify(lowStockAlertService).check(existente, 10, 3);
+    }
+
+    // Tests de resumen por vendedor 
+    @Test
+    public void testUpdate_AplicaCambioAlResumenDelVendedor() {
+        // DADO: un producto de 100 soles con stock 10
+        Product existente = crearProducto(1L, "Producto", "Marca", "Modelo", gpuCategory, 100.0, 10, 2L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existente));
+        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArguments()[0]);
+        Product nuevoDatos = crearProducto(null, "Producto", "Marca", "Modelo", null, 120.0, 0, 2L);
+
+        // CUANDO: cambia precio y se queda sin stock
+        productService.update(1L, nuevoDatos);
+
+        // ENTONCES: se aplica la diferencia al vendedor
+        verify(sellerSummaryService).apply(2L, 100.0, 10, 120.0, 0);
+    }
+
+    @Test
+    public void testDeleteProduct_DescuentaDelResumen() {
+        // DADO: un producto existente
+        Product existente = crearProducto(1L, "Producto", "Marca", "Modelo", gpuCategory, 100.0, 4, 2L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existente));
+
+        // CUANDO: se elimina
+        productService.deleteProduct(1L);
+
+        // ENTONCES: se descuenta del resumen del vendedor
+        verify(sellerSummaryService).apply(2L, 100.0, 4, null, null);
+    }
+
+    @Test
+    public void testAddStock_EnTransaccion_ResumenCambiaAlConfirmar() {
+        // DADO: un producto de 100 soles con stock 4 y una transacción activa
+        Product existente = crearProducto(1L, "Producto", "Marca", "Modelo", gpuCategory, 100.0, 4, 2L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existente));
+        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArguments()[0]);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // CUANDO: se agregan 6 unidades dentro de ella
+            productService.addStock(1L, 6);
+
+            // ENTONCES: los contadores del vendedor no cambian hasta que la transacción confirma
+            verifyNoInteractions(sellerSummaryService);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(sellerSummaryService).apply(2L, 100.0, 4, 100.0, 10);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 }
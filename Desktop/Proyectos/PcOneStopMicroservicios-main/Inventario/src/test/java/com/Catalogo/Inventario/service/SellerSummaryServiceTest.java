@@ -0,0 +1,112 @@
+package com.Catalogo.Inventario.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Catalogo.Inventario.dto.SellerSummary;
+import com.Catalogo.Inventario.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+@ExtendWith(MockitoExtension.class)
+public class SellerSummaryServiceTest {
+
+    @InjectMocks
+    private SellerSummaryService sellerSummaryService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Test
+    public void testApply_ProductoNuevoYVenta() {
+        // DADO: un producto nuevo de 100 soles con stock 2
+        sellerSummaryService.apply(2L, null, null, 100.0, 2);
+
+        // CUANDO: se venden las 2 unidades
+        sellerSummaryService.apply(2L, 100.0, 2, 100.0, 0);
+
+        // ENTONCES: queda 1 producto, sin stock y sin valor de inventario
+        SellerSummary resumen = sellerSummaryService.getSummary(2L);
+        assertEquals(1L, resumen.getProductCount());
+        assertEquals(1L, resumen.getOutOfStockCount());
+        assertEquals(0.0, resumen.getTotalInventoryValue());
+    }
+
+    @Test
+    public void testApply_EliminarProducto() {
+        // DADO: dos productos del vendedor
+        sellerSummaryService.apply(2L, null, null, 100.0, 3);
+        sellerSummaryService.apply(2L, null, null, 50.0, 4);
+
+        // CUANDO: se elimina el primero
+        sellerSummaryService.apply(2L, 100.0, 3, null, null);
+
+        // ENTONCES: solo cuenta el segundo
+        SellerSummary resumen = sellerSummaryService.getSummary(2L);
+        assertEquals(1L, resumen.getProductCount());
+        assertEquals(200.0, resumen.getTotalInventoryValue());
+    }
+
+    @Test
+    public void testGetSummary_VendedorSinProductos() {
+        // CUANDO: pedimos el resumen de un vendedor desconocido
+        SellerSummary resumen = sellerSummaryService.getSummary(999L);
+
+        // ENTONCES: todo en cero
+        assertEquals(0L, resumen.getProductCount());
+        assertEquals(0.0, resumen.getTotalInventoryValue());
+    }
+
+    @Test
+    public void testReconcileAll_CorrigeDiferencias() {
+        // DADO: contadores desviados en memoria
+        sellerSummaryService.apply(2L, null, null, 10.0, 1);
+        sellerSummaryService.apply(5L, null, null, 10.0, 1);
+        when(productRepository.summarizeBySeller()).thenReturn(Collections.singletonList(
+                new Object[]{2L, 3L, 1500.0, 1L}));
+
+        // CUANDO: se reconcilia contra la BD
+        sellerSummaryService.reconcileAll();
+
+        // ENTONCES: se usan los valores de la BD y desaparecen vendedores sin productos
+        SellerSummary resumen = sellerSummaryService.getSummary(2L);
+        assertEquals(3L, resumen.getProductCount());
+        assertEquals(1L, resumen.getOutOfStockCount());
+        assertEquals(1500.0, resumen.getTotalInventoryValue());
+        assertEquals(0L, sellerSummaryService.getSummary(5L).getProductCount());
+    }
+
+    @Test
+    public void testReconcileSeller_RecalculaUnVendedor() {
+        // DADO: la BD tiene 2 productos del vendedor
+        when(productRepository.summarizeSeller(2L)).thenReturn(Arrays.<Object[]>asList(new Object[]{2L, 900.0, 0L}));
+
+        // CUANDO: se reconcilia el vendedor
+        sellerSummaryService.reconcileSeller(2L);
+
+        // ENTONCES: el resumen coincide con la BD
+        assertEquals(2L, sellerSummaryService.getSummary(2L).getProductCount());
+        assertEquals(900.0, sellerSummaryService.getSummary(2L).getTotalInventoryValue());
+    }
+
+    @Test
+    public void testReconcileSeller_SinProductos_SigueAplicandoCambios() {
+        // DADO: un vendedor con contadores en memoria que ya no tiene productos en la BD
+        sellerSummaryService.apply(2L, null, null, 10.0, 1);
+        when(productRepository.summarizeSeller(2L)).thenReturn(Collections.emptyList());
+
+        // CUANDO: se reconcilia y luego se crea un producto
+        sellerSummaryService.reconcileSeller(2L);
+        sellerSummaryService.apply(2L, null, null, 40.0, 2);
+
+        // ENTONCES: los contadores parten de cero y el cambio posterior no se pierde
+        assertEquals(1L, sellerSummaryService.getSummary(2L).getProductCount());
+        assertEquals(80.0, sellerSummaryService.getSummary(2L).getTotalInventoryValue());
+    }
+}
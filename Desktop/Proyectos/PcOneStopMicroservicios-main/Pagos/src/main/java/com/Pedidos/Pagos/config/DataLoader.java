@@ -1,7 +1,9 @@
 package com.Pedidos.Pagos.config;
 
+import com.Pedidos.Pagos.model.Money;
 import com.Pedidos.Pagos.model.Order;
-import com.Pedidos.Pagos.repository.OrderRepository;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -24,7 +26,7 @@ import java.time.LocalDateTime;
 public class DataLoader implements CommandLineRunner {
 
     @Autowired
-    private OrderRepository orderRepository;
+    private PartitionedOrderRepository orderRepository;
 
     @Override
     public void run(String... args) throws Exception {
@@ -46,8 +48,8 @@ public class DataLoader implements CommandLineRunner {
         order1.setUserId(4L);
         order1.setSellerId(2L);
         order1.setProductIds("1"); // RTX 4070 Super
-        order1.setTotalAmount(2599.00);
-        order1.setStatus("COMPLETADO");
+        order1.setTotalAmount(Money.of(2599.00));
+        order1.setStatus(OrderStatus.COMPLETADO);
         order1.setCreatedAt(LocalDateTime.now().minusDays(15));
         orderRepository.save(order1);
 
@@ -56,8 +58,8 @@ public class DataLoader implements CommandLineRunner {
         order2.setUserId(4L);
         order2.setSellerId(3L);
         order2.setProductIds("7,9"); // RAM Corsair + Samsung 990 PRO
-        order2.setTotalAmount(1398.00);
-        order2.setStatus("EN_CAMINO");
+        order2.setTotalAmount(Money.of(1398.00));
+        order2.setStatus(OrderStatus.EN_CAMINO);
         order2.setCreatedAt(LocalDateTime.now().minusDays(3));
         orderRepository.save(order2);
 
@@ -68,8 +70,8 @@ public class DataLoader implements CommandLineRunner {
         order3.setUserId(5L);
         order3.setSellerId(2L);
         order3.setProductIds("4"); // Ryzen 7 7800X3D
-        order3.setTotalAmount(1899.00);
-        order3.setStatus("PENDIENTE");
+        order3.setTotalAmount(Money.of(1899.00));
+        order3.setStatus(OrderStatus.PENDIENTE);
         order3.setCreatedAt(LocalDateTime.now().minusHours(2));
         orderRepository.save(order3);
 
@@ -78,8 +80,8 @@ public class DataLoader implements CommandLineRunner {
         order4.setUserId(5L);
         order4.setSellerId(3L);
         order4.setProductIds("14"); // Razer DeathAdder
-        order4.setTotalAmount(649.00);
-        order4.setStatus("COMPLETADO");
+        order4.setTotalAmount(Money.of(649.00));
+        order4.setStatus(OrderStatus.COMPLETADO);
         order4.setCreatedAt(LocalDateTime.now().minusDays(30));
         orderRepository.save(order4);
 
@@ -90,8 +92,8 @@ public class DataLoader implements CommandLineRunner {
         order5.setUserId(6L);
         order5.setSellerId(2L);
         order5.setProductIds("1,4,8,10,11,13"); // RTX4070+Ryzen7+RAM+SSD+Mobo+Teclado
-        order5.setTotalAmount(7044.00);
-        order5.setStatus("CONFIRMADO");
+        order5.setTotalAmount(Money.of(7044.00));
+        order5.setStatus(OrderStatus.CONFIRMADO);
         order5.setCreatedAt(LocalDateTime.now().minusDays(1));
         orderRepository.save(order5);
 
@@ -100,8 +102,8 @@ public class DataLoader implements CommandLineRunner {
         order6.setUserId(6L);
         order6.setSellerId(3L);
         order6.setProductIds("2"); // RX 7800 XT
-        order6.setTotalAmount(2199.00);
-        order6.setStatus("CANCELADO");
+        order6.setTotalAmount(Money.of(2199.00));
+        order6.setStatus(OrderStatus.CANCELADO);
         order6.setCreatedAt(LocalDateTime.now().minusDays(7));
         orderRepository.save(order6);
 
@@ -112,8 +114,8 @@ public class DataLoader implements CommandLineRunner {
         order7.setUserId(4L);
         order7.setSellerId(2L);
         order7.setProductIds("6,13"); // Ryzen 5 7600X + Teclado Logitech
-        order7.setTotalAmount(1448.00);
-        order7.setStatus("PENDIENTE");
+        order7.setTotalAmount(Money.of(1448.00));
+        order7.setStatus(OrderStatus.PENDIENTE);
         order7.setCreatedAt(LocalDateTime.now().minusMinutes(30));
         orderRepository.save(order7);
 
@@ -0,0 +1,52 @@
+package com.Pedidos.Pagos.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pasa los montos guardados como DOUBLE a las columnas BIGINT en céntimos.
+ *
+ * Hibernate (ddl-auto=update) crea las columnas nuevas al iniciar pero no copia datos
+ * ni quita las viejas. Esta clase copia cada valor redondeado al céntimo y elimina la
+ * columna DOUBLE, antes de que DataLoader o cualquier petición escriba pedidos. Es
+ * idempotente: si la columna vieja ya no existe no hace nada.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class MoneyColumnMigration {
+
+    // {tabla, columna DOUBLE anterior, columna en céntimos}
+    private static final String[][] COLUMNS = {
+            {"orders", "total_amount", "total_cents"},
+            {"order_items", "unit_price", "unit_price_cents"},
+            {"orders_archive", "total_amount", "total_cents"},
+            {"order_items_archive", "unit_price", "unit_price_cents"},
+            {"seller_daily_rollups", "revenue", "revenue_cents"}
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        for (String[] column : COLUMNS) {
+            String table = column[0];
+            String legacy = column[1];
+            String cents = column[2];
+            Integer exists = jdbcTemplate.queryForObject("""
+                    select count(*) from information_schema.columns
+                    where table_schema = database() and table_name = ? and column_name = ?
+                    """, Integer.class, table, legacy);
+            if (exists == null || exists == 0) {
+                continue;
+            }
+            int rows = jdbcTemplate.update("update " + table + " set " + cents + " = round(" + legacy + " * 100)"
+                    + " where " + legacy + " is not null");
+            jdbcTemplate.execute("alter table " + table + " drop column " + legacy);
+            System.out.println("[Pagos] " + table + "." + legacy + " migrado a céntimos (" + rows + " filas)");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.Pedidos.Pagos.config;
+
+import com.Pedidos.Pagos.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migra a order_items los pedidos creados antes de que existieran las líneas
+ * (solo tenían productIds en CSV).
+ *
+ * Recorre los pedidos por ID en lotes, cada uno en su propia transacción, para no
+ * bloquear la tabla de pedidos. Es idempotente: solo toma pedidos sin líneas.
+ */
+@Component
+public class OrderItemBackfill {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${pagos.items.backfill-batch-size:200}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        int batches = 0;
+        Long lastId = 0L;
+        while ((lastId = orderService.migrateLegacyItems(lastId, batchSize)) != null) {
+            batches++;
+        }
+        if (batches > 0) {
+            System.out.println("[Pagos] Pedidos antiguos migrados a order_items en " + batches + " lote(s)");
+        }
+    }
+}
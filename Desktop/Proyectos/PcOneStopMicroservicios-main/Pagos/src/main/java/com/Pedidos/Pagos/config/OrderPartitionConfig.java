@@ -0,0 +1,21 @@
+package com.Pedidos.Pagos.config;
+
+import com.Pedidos.Pagos.repository.OrderPartitionInspector;
+import com.Pedidos.Pagos.repository.OrderPartitions;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra OrderPartitionInspector en Hibernate para que las sentencias sobre orders y
+ * order_items vayan al esquema de su partición (ver OrderPartitions).
+ */
+@Configuration
+public class OrderPartitionConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer orderPartitionInspector(OrderPartitions partitions) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new OrderPartitionInspector(partitions));
+    }
+}
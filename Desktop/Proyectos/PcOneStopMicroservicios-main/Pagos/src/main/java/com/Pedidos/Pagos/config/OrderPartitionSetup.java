@@ -0,0 +1,135 @@
+package com.Pedidos.Pagos.config;
+
+import com.Pedidos.Pagos.repository.OrderPartitions;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Crea los esquemas de las particiones de pedidos (ver OrderPartitions) y las vistas con su
+ * unión, y mueve a su partición los pedidos que siguen en las tablas orders / order_items.
+ *
+ * Hibernate (ddl-auto=update) solo mantiene orders y order_items del esquema principal, que
+ * quedan vacías como plantilla: cada partición se crea con CREATE TABLE ... LIKE (mismas
+ * columnas e índices) y recibe las columnas que la plantilla gane después. LIKE no copia las
+ * claves foráneas: la de order_items hacia orders se crea aparte en cada partición.
+ *
+ * Los pedidos anteriores se mueven a las particiones una sola vez; order_partition_state
+ * registra que ya se movieron y con cuántas particiones. Si después se arranca con otra
+ * cantidad, el arranque se detiene: los vendedores cambiarían de partición y sus pedidos ya
+ * guardados dejarían de encontrarse. Se ejecuta antes de que DataLoader o cualquier petición
+ * escriba pedidos y es idempotente.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "moneyColumnMigration"})
+public class OrderPartitionSetup {
+
+    private static final String ITEMS_FOREIGN_KEY = "fk_order_items_order";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    @PostConstruct
+    public void setUp() {
+        jdbcTemplate.execute("""
+                create table if not exists order_partition_state (
+                    id int primary key,
+                    partitions int not null,
+                    migrated_at datetime not null
+                )
+                """);
+        List<Integer> migrated = jdbcTemplate.queryForList(
+                "select partitions from order_partition_state where id = 1", Integer.class);
+        if (!migrated.isEmpty() && migrated.get(0) != partitions.count()) {
+            throw new IllegalStateException("Los pedidos están repartidos en " + migrated.get(0)
+                    + " particiones y pagos.orders.partitions es " + partitions.count()
+                    + "; redistribuirlos antes de cambiar la cantidad");
+        }
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            String schema = partitions.schema(partition);
+            jdbcTemplate.execute("create schema if not exists " + schema);
+            for (String table : OrderPartitions.TABLES) {
+                jdbcTemplate.execute("create table if not exists " + schema + "." + table + " like " + table);
+                addMissingColumns(schema, table);
+            }
+            addItemsForeignKey(schema);
+        }
+        for (String table : OrderPartitions.TABLES) {
+            jdbcTemplate.execute("create or replace view " + table + OrderPartitions.UNION_SUFFIX
+                    + " as " + partitions.unionOf(table));
+        }
+        if (migrated.isEmpty()) {
+            moveLegacyOrders();
+            // insert ignore: otra instancia pudo registrar el movimiento al mismo tiempo
+            jdbcTemplate.update("insert ignore into order_partition_state (id, partitions, migrated_at) values (1, ?, now())",
+                    partitions.count());
+        }
+    }
+
+    private void addItemsForeignKey(String schema) {
+        Integer foreignKeys = jdbcTemplate.queryForObject("""
+                select count(*) from information_schema.table_constraints
+                where constraint_schema = ? and table_name = 'order_items' and constraint_type = 'FOREIGN KEY'
+                """, Integer.class, schema);
+        if (foreignKeys != null && foreignKeys == 0) {
+            jdbcTemplate.execute("alter table " + schema + ".order_items add constraint " + ITEMS_FOREIGN_KEY
+                    + " foreign key (order_id) references " + schema + ".orders (id)");
+            System.out.println("[Pagos] Clave foránea de order_items creada en " + schema);
+        }
+    }
+
+    private void addMissingColumns(String schema, String table) {
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList("""
+                select column_name from information_schema.columns
+                where table_schema = ? and table_name = ?
+                """, String.class, schema, table));
+        List<Map<String, Object>> columns = jdbcTemplate.queryForList("""
+                select column_name, column_type from information_schema.columns
+                where table_schema = database() and table_name = ?
+                order by ordinal_position
+                """, table);
+        for (Map<String, Object> column : columns) {
+            String name = (String) column.get("column_name");
+            if (!existing.contains(name)) {
+                jdbcTemplate.execute("alter table " + schema + "." + table + " add column " + name + " " + column.get("column_type"));
+                System.out.println("[Pagos] Columna " + name + " agregada a " + schema + "." + table);
+            }
+        }
+    }
+
+    // Pedidos guardados antes de particionar: se copian con sus líneas y se borran de la plantilla
+    private void moveLegacyOrders() {
+        List<Long> sellerIds = jdbcTemplate.queryForList("select distinct seller_id from orders", Long.class);
+        if (sellerIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Long>> sellersByPartition = sellerIds.stream()
+                .collect(Collectors.groupingBy(partitions::partitionOf, TreeMap::new, Collectors.toList()));
+        long moved = 0;
+        for (Map.Entry<Integer, List<Long>> entry : sellersByPartition.entrySet()) {
+            String schema = partitions.schema(entry.getKey());
+            String sellers = entry.getValue().stream().map(String::valueOf).collect(Collectors.joining(","));
+            // insert ignore: si un arranque anterior se cortó después de copiar, no choca con lo ya copiado
+            moved += jdbcTemplate.update("insert ignore into " + schema + ".orders"
+                    + " select * from orders where seller_id in (" + sellers + ")");
+            jdbcTemplate.update("insert ignore into " + schema + ".order_items"
+                    + " select i.* from order_items i join orders o on o.id = i.order_id where o.seller_id in (" + sellers + ")");
+            jdbcTemplate.update("delete i from order_items i join orders o on o.id = i.order_id"
+                    + " where o.seller_id in (" + sellers + ")");
+            jdbcTemplate.update("delete from orders where seller_id in (" + sellers + ")");
+        }
+        System.out.println("[Pagos] Pedidos movidos a sus particiones: " + moved);
+    }
+}
@@ -0,0 +1,44 @@
+package com.Pedidos.Pagos.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ubica la secuencia orders_seq por encima del mayor ID de pedido existente.
+ *
+ * Los pedidos se generaban con AUTO_INCREMENT; al pasar a secuencia, Hibernate crea
+ * orders_seq empezando en 1 y chocaría con los IDs ya usados (también los de
+ * orders_archive, que conservan su ID). Se ejecuta antes de que se inserte cualquier
+ * pedido y no hace nada si la secuencia ya está adelantada. Los pedidos activos se leen de
+ * todas las particiones (orders_all) además de la plantilla orders.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "orderPartitionSetup"})
+public class OrderSequenceAlignment {
+
+    // Debe coincidir con allocationSize de Order
+    private static final long ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        Long maxId = jdbcTemplate.queryForObject("""
+                select greatest(coalesce((select max(id) from orders), 0),
+                                coalesce((select max(id) from orders_all), 0),
+                                coalesce((select max(id) from orders_archive), 0))
+                """, Long.class);
+        if (maxId == null || maxId == 0) {
+            return;
+        }
+        int updated = jdbcTemplate.update("update orders_seq set next_val = ? where next_val <= ?",
+                maxId + ALLOCATION_SIZE + 1, maxId + ALLOCATION_SIZE);
+        if (updated > 0) {
+            System.out.println("[Pagos] orders_seq adelantada por encima del pedido " + maxId);
+        }
+    }
+}
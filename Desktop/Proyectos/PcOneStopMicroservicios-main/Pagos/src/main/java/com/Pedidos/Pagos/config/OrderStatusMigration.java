@@ -0,0 +1,84 @@
+package com.Pedidos.Pagos.config;
+
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.OrderPartitions;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Normaliza la columna status de los pedidos guardados cuando era texto libre, para que
+ * Hibernate pueda leerla como OrderStatus (@Enumerated(STRING)).
+ *
+ * Pasa cada valor a mayúsculas sin espacios, traduce los alias conocidos (ENVIADO, ENTREGADO,
+ * femeninos...) y, si queda algún valor que no es un estado, detiene el arranque con la lista
+ * de valores: un pedido con un estado ilegible rompería cualquier lectura que lo incluya.
+ * Recorre orders, cada partición y orders_archive; es idempotente.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "orderPartitionSetup"})
+public class OrderStatusMigration {
+
+    // Valores heredados (ya en mayúsculas) y el estado que representan
+    private static final Map<String, OrderStatus> LEGACY_ALIASES = Map.of(
+            "ENVIADO", OrderStatus.EN_CAMINO,
+            "EN CAMINO", OrderStatus.EN_CAMINO,
+            "EN-CAMINO", OrderStatus.EN_CAMINO,
+            "ENTREGADO", OrderStatus.COMPLETADO,
+            "COMPLETADA", OrderStatus.COMPLETADO,
+            "CONFIRMADA", OrderStatus.CONFIRMADO,
+            "CANCELADA", OrderStatus.CANCELADO,
+            "ANULADO", OrderStatus.CANCELADO
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    @PostConstruct
+    public void migrate() {
+        String valid = Arrays.stream(OrderStatus.values())
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(","));
+        List<String> invalid = new ArrayList<>();
+        for (String table : tables()) {
+            // Comparación binaria: con la collation por defecto 'completado' = 'COMPLETADO' y se ignoran los espacios finales
+            int rows = jdbcTemplate.update("update " + table + " set status = upper(trim(status))"
+                    + " where cast(status as binary) <> cast(upper(trim(status)) as binary)");
+            for (Map.Entry<String, OrderStatus> alias : LEGACY_ALIASES.entrySet()) {
+                rows += jdbcTemplate.update("update " + table + " set status = ? where status = ?",
+                        alias.getValue().name(), alias.getKey());
+            }
+            if (rows > 0) {
+                System.out.println("[Pagos] Estados normalizados en " + table + ": " + rows + " filas");
+            }
+            jdbcTemplate.queryForList("select status, count(*) as total from " + table
+                            + " where status is null or status not in (" + valid + ") group by status")
+                    .forEach(row -> invalid.add(table + ": '" + row.get("status") + "' (" + row.get("total") + ")"));
+        }
+        if (!invalid.isEmpty()) {
+            throw new IllegalStateException("Pedidos con estados que no se pueden convertir a OrderStatus; "
+                    + "corregirlos a mano antes de iniciar: " + String.join(", ", invalid));
+        }
+    }
+
+    private List<String> tables() {
+        List<String> tables = new ArrayList<>();
+        tables.add("orders");
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            tables.add(partitions.schema(partition) + ".orders");
+        }
+        tables.add("orders_archive");
+        return tables;
+    }
+}
@@ -1,8 +1,36 @@
 package com.Pedidos.Pagos.controller;
 
 import com.Pedidos.Pagos.dto.ApiResponse;
+import com.Pedidos.Pagos.dto.ArchiveProgress;
+import com.Pedidos.Pagos.dto.BulkStatusRequest;
+import com.Pedidos.Pagos.dto.BulkStatusResult;
+import com.Pedidos.Pagos.dto.CheckoutRequest;
+import com.Pedidos.Pagos.dto.CheckoutResult;
+import com.Pedidos.Pagos.dto.CheckoutStats;
+import com.Pedidos.Pagos.dto.OrderPage;
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+import com.Pedidos.Pagos.dto.OrderStatusCounts;
+import com.Pedidos.Pagos.dto.OutboxStats;
+import com.Pedidos.Pagos.dto.PaymentStats;
+import com.Pedidos.Pagos.dto.ProductSales;
+import com.Pedidos.Pagos.dto.PurgeProgress;
+import com.Pedidos.Pagos.dto.SellerDashboard;
+import com.Pedidos.Pagos.dto.SettlementProgress;
+import com.Pedidos.Pagos.model.Money;
 import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.model.SellerSettlement;
+import com.Pedidos.Pagos.service.CheckoutException;
+import com.Pedidos.Pagos.service.CheckoutService;
+import com.Pedidos.Pagos.service.IdempotencyService;
+import com.Pedidos.Pagos.service.OrderArchiveJob;
+import com.Pedidos.Pagos.service.OrderExportService;
+import com.Pedidos.Pagos.service.OrderPurgeJob;
 import com.Pedidos.Pagos.service.OrderService;
+import com.Pedidos.Pagos.service.OutboxRelay;
+import com.Pedidos.Pagos.service.PaymentPipeline;
+import com.Pedidos.Pagos.service.PriceCache;
+import com.Pedidos.Pagos.service.SettlementJob;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +38,23 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -25,17 +64,52 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderArchiveJob orderArchiveJob;
+
+    @Autowired
+    private OrderPurgeJob orderPurgeJob;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private SettlementJob settlementJob;
+
+    @Autowired
+    private PaymentPipeline paymentPipeline;
+
+    @Autowired
+    private PriceCache priceCache;
+
     // Crear pedido
     @Operation(
         summary = "Crear nuevo pedido",
         description = "Registra una nueva orden de compra. El estado inicial siempre es 'PENDIENTE'. " +
-                      "Los productIds se envían como string separado por comas."
+                      "Los productIds se envían como string separado por comas. " +
+                      "El total se calcula con los precios vigentes de Inventario; totalAmount es opcional " +
+                      "y, si se envía, debe coincidir con el calculado. " +
+                      "Si se envía el header Idempotency-Key, los reintentos con la misma clave devuelven " +
+                      "el pedido ya creado (header Idempotent-Replayed: true) sin crear otro."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "201",
             description = "Pedido creado exitosamente - el estado inicial siempre es 'PENDIENTE'"
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Idempotency-Key inválida, producto inexistente o total que no coincide con los precios vigentes"
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "500",
             description = "Error interno del servidor al crear el pedido (problemas con base de datos o validación)"
@@ -43,6 +117,8 @@ public class OrderController {
     })
     @PostMapping
     public ResponseEntity<ApiResponse<Order>> create(
+            @Parameter(description = "Clave única del intento de compra (por ejemplo un UUID) para reintentos seguros")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                 description = "Datos del pedido a crear",
                 required = true,
@@ -64,10 +140,26 @@ public class OrderController {
             @RequestBody Order order
     ) {
         try {
-            Order newOrder = orderService.createOrder(order);
+            // Fuera de la transacción: un precio vencido en el caché se consulta a Inventario
+            Map<Long, Money> prices = priceCache.getPrices(OrderService.productIdsOf(order));
+            if (idempotencyKey == null) {
+                Order newOrder = orderService.createOrder(order, prices);
+                ApiResponse<Order> response = new ApiResponse<>(
+                        true, HttpStatus.CREATED.value(), "Pedido creado exitosamente", newOrder, 1L);
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            }
+
+            IdempotencyService.Result result = idempotencyService.execute(
+                    idempotencyKey, () -> orderService.createOrder(order, prices));
+            ApiResponse<Order> response = new ApiResponse<>(
+                    true, HttpStatus.CREATED.value(), "Pedido creado exitosamente", result.order(), 1L);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                    .body(response);
+        } catch (IllegalArgumentException e) {
             ApiResponse<Order> response = new ApiResponse<>(
-                    true, HttpStatus.CREATED.value(), "Pedido creado exitosamente", newOrder, 1L);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L);
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             ApiResponse<Order> response = new ApiResponse<>(
                     false, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Error al crear pedido: " + e.getMessage(), null, 0L);
@@ -79,7 +171,8 @@ public class OrderController {
     @Operation(
         summary = "Obtener historial de compras del usuario",
         description = "Devuelve todos los pedidos realizados por un cliente específico. " +
-                      "Útil para mostrar el historial de compras en la app del cliente."
+                      "Útil para mostrar el historial de compras en la app del cliente. " +
+                      "Los pedidos archivados solo se incluyen con includeArchived=true."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -94,9 +187,11 @@ public class OrderController {
     @GetMapping("/user/{userId}")
     public ResponseEntity<ApiResponse<List<Order>>> getByUser(
             @Parameter(description = "ID del usuario/cliente", example = "4", required = true)
-            @PathVariable Long userId
+            @PathVariable Long userId,
+            @Parameter(description = "Incluir pedidos archivados", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeArchived
     ) {
-        List<Order> orders = orderService.findByUserId(userId);
+        List<Order> orders = orderService.findByUserId(userId, includeArchived);
         
         if (orders.isEmpty()) {
             ApiResponse<List<Order>> response = new ApiResponse<>(
@@ -113,7 +208,8 @@ public class OrderController {
     @Operation(
         summary = "Obtener pedidos del vendedor",
         description = "Devuelve todos los pedidos que debe gestionar un vendedor específico. " +
-                      "Incluye pedidos en todos los estados (pendientes, en camino, completados, etc.)."
+                      "Incluye pedidos en todos los estados (pendientes, en camino, completados, etc.). " +
+                      "Los pedidos archivados solo se incluyen con includeArchived=true."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -124,25 +220,396 @@ public class OrderController {
     @GetMapping("/seller/{sellerId}")
     public ResponseEntity<ApiResponse<List<Order>>> getBySeller(
             @Parameter(description = "ID del vendedor", example = "2", required = true)
-            @PathVariable Long sellerId
+            @PathVariable Long sellerId,
+            @Parameter(description = "Incluir pedidos archivados", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeArchived
     ) {
-        List<Order> orders = orderService.findBySellerId(sellerId);
+        List<Order> orders = orderService.findBySellerId(sellerId, includeArchived);
         ApiResponse<List<Order>> response = new ApiResponse<>(
                 true, HttpStatus.OK.value(), "Pedidos del vendedor obtenidos", orders, (long) orders.size());
         return ResponseEntity.ok(response);
     }
 
+    // Historial del usuario paginado
+    @Operation(
+        summary = "Obtener historial de pedidos paginado",
+        description = "Devuelve los pedidos del usuario del más reciente al más antiguo, por páginas. " +
+                      "Para la siguiente página se envía el nextCursor de la respuesta anterior."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Página de pedidos obtenida (puede estar vacía)"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Cursor inválido"
+        )
+    })
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<ApiResponse<OrderPage>> getUserPage(
+            @Parameter(description = "ID del usuario/cliente", example = "4", required = true)
+            @PathVariable Long userId,
+            @Parameter(description = "Cursor devuelto por la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de pedidos por página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            OrderPage page = orderService.findPageByUserId(userId, cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, HttpStatus.OK.value(), "Página de pedidos obtenida", page, (long) page.getOrders().size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Pedidos del vendedor paginados
+    @Operation(
+        summary = "Obtener pedidos del vendedor paginados",
+        description = "Devuelve los pedidos del vendedor del más reciente al más antiguo, por páginas. " +
+                      "El tiempo de respuesta no depende de cuántos pedidos tenga el vendedor."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Página de pedidos obtenida (puede estar vacía)"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Cursor inválido"
+        )
+    })
+    @GetMapping("/seller/{sellerId}/page")
+    public ResponseEntity<ApiResponse<OrderPage>> getSellerPage(
+            @Parameter(description = "ID del vendedor", example = "2", required = true)
+            @PathVariable Long sellerId,
+            @Parameter(description = "Cursor devuelto por la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de pedidos por página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            OrderPage page = orderService.findPageBySellerId(sellerId, cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, HttpStatus.OK.value(), "Página de pedidos obtenida", page, (long) page.getOrders().size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Dashboard del vendedor
+    @Operation(
+        summary = "Obtener dashboard de ventas del vendedor",
+        description = "Devuelve pedidos e ingresos del vendedor por día y estado en un rango de fechas " +
+                      "(por defecto los últimos 30 días, máximo 366). Los ingresos totales no incluyen pedidos cancelados."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Dashboard obtenido"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Rango de fechas inválido"
+        )
+    })
+    @GetMapping("/seller/{sellerId}/dashboard")
+    public ResponseEntity<ApiResponse<SellerDashboard>> getSellerDashboard(
+            @Parameter(description = "ID del vendedor", example = "2", required = true)
+            @PathVariable Long sellerId,
+            @Parameter(description = "Primer día (yyyy-MM-dd)", example = "2025-10-05")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día (yyyy-MM-dd)", example = "2025-11-03")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            SellerDashboard dashboard = orderService.getSellerDashboard(sellerId, start, end);
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, HttpStatus.OK.value(), "Dashboard del vendedor", dashboard, dashboard.getOrderCount()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Pedidos por estado
+    @Operation(
+        summary = "Obtener cantidad de pedidos por estado",
+        description = "Devuelve cuántos pedidos hay en cada estado en todo el sistema (incluye archivados). " +
+                      "Los contadores se mantienen en memoria, así que no recorre la tabla de pedidos."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Contadores obtenidos"
+        )
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<OrderStatusCounts>> getStatusCounts() {
+        OrderStatusCounts counts = orderService.getStatusCounts(null);
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Pedidos por estado", counts, counts.getTotal()));
+    }
+
+    // Pedidos por estado del vendedor
+    @Operation(
+        summary = "Obtener cantidad de pedidos por estado del vendedor",
+        description = "Devuelve cuántos pedidos del vendedor hay en cada estado (incluye archivados), " +
+                      "en cero si no tiene pedidos."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Contadores obtenidos"
+        )
+    })
+    @GetMapping("/seller/{sellerId}/stats")
+    public ResponseEntity<ApiResponse<OrderStatusCounts>> getSellerStatusCounts(
+            @Parameter(description = "ID del vendedor", example = "2", required = true)
+            @PathVariable Long sellerId
+    ) {
+        OrderStatusCounts counts = orderService.getStatusCounts(sellerId);
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Pedidos por estado del vendedor", counts, counts.getTotal()));
+    }
+
+    // Exportar pedidos del vendedor
+    @Operation(
+        summary = "Exportar pedidos del vendedor en CSV",
+        description = "Descarga el historial de pedidos del vendedor en orden cronológico, opcionalmente filtrado " +
+                      "por rango de fechas. El archivo se genera mientras se descarga, por lo que sirve para " +
+                      "vendedores con cualquier cantidad de pedidos. Columnas: id, fecha, usuario, estado, total " +
+                      "y productos (productId x cantidad @ precio, separados por |)."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Archivo CSV",
+            content = @Content(mediaType = "text/csv")
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Rango de fechas inválido"
+        )
+    })
+    @GetMapping("/seller/{sellerId}/export")
+    public ResponseEntity<StreamingResponseBody> exportSellerOrders(
+            @Parameter(description = "ID del vendedor", example = "2", required = true)
+            @PathVariable Long sellerId,
+            @Parameter(description = "Primer día incluido (yyyy-MM-dd)", example = "2025-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día incluido (yyyy-MM-dd)", example = "2025-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        // Se valida antes de empezar a escribir: dentro del StreamingResponseBody ya no se puede responder 400
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        StreamingResponseBody body = out -> orderExportService.exportSellerOrders(sellerId, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pedidos-vendedor-" + sellerId + ".csv\"")
+                .body(body);
+    }
+
+    // Pedidos por estado paginados
+    @Operation(
+        summary = "Obtener pedidos por estado paginados",
+        description = "Devuelve los pedidos en un estado, del más reciente al más antiguo, por páginas."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Página de pedidos obtenida (puede estar vacía)"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Estado o cursor inválido"
+        )
+    })
+    @GetMapping("/status/{status}/page")
+    public ResponseEntity<ApiResponse<OrderPage>> getStatusPage(
+            @Parameter(
+                description = "Estado de los pedidos",
+                example = "PENDIENTE",
+                schema = @Schema(allowableValues = {"PENDIENTE", "CONFIRMADO", "EN_CAMINO", "COMPLETADO", "CANCELADO"})
+            )
+            @PathVariable String status,
+            @Parameter(description = "Cursor devuelto por la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de pedidos por página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            OrderPage page = orderService.findPageByStatus(OrderStatus.from(status), cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, HttpStatus.OK.value(), "Página de pedidos obtenida", page, (long) page.getOrders().size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Pedidos del vendedor por estado paginados
+    @Operation(
+        summary = "Obtener pedidos del vendedor por estado paginados",
+        description = "Devuelve los pedidos del vendedor en un estado (por ejemplo los PENDIENTE por confirmar), " +
+                      "del más reciente al más antiguo, por páginas."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Página de pedidos obtenida (puede estar vacía)"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Estado o cursor inválido"
+        )
+    })
+    @GetMapping("/seller/{sellerId}/status/{status}/page")
+    public ResponseEntity<ApiResponse<OrderPage>> getSellerStatusPage(
+            @Parameter(description = "ID del vendedor", example = "2", required = true)
+            @PathVariable Long sellerId,
+            @Parameter(
+                description = "Estado de los pedidos",
+                example = "PENDIENTE",
+                schema = @Schema(allowableValues = {"PENDIENTE", "CONFIRMADO", "EN_CAMINO", "COMPLETADO", "CANCELADO"})
+            )
+            @PathVariable String status,
+            @Parameter(description = "Cursor devuelto por la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de pedidos por página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            OrderPage page = orderService.findPageBySellerIdAndStatus(sellerId, OrderStatus.from(status), cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, HttpStatus.OK.value(), "Página de pedidos obtenida", page, (long) page.getOrders().size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Búsqueda de pedidos
+    @Operation(
+        summary = "Buscar pedidos",
+        description = "Busca pedidos de toda la tienda por rango de fechas, estado, vendedor, usuario y rango de monto, " +
+                      "del más reciente al más antiguo, por páginas. Todos los filtros son opcionales y se combinan."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Página de pedidos obtenida (puede estar vacía)"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Estado, rango o cursor inválido"
+        )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<OrderPage>> searchOrders(
+            @Parameter(description = "Primer día (yyyy-MM-dd, inclusive)", example = "2025-11-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día (yyyy-MM-dd, inclusive)", example = "2025-11-30")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(
+                description = "Estado de los pedidos",
+                example = "COMPLETADO",
+                schema = @Schema(allowableValues = {"PENDIENTE", "CONFIRMADO", "EN_CAMINO", "COMPLETADO", "CANCELADO"})
+            )
+            @RequestParam(required = false) String status,
+            @Parameter(description = "ID del vendedor", example = "2")
+            @RequestParam(required = false) Long sellerId,
+            @Parameter(description = "ID del usuario", example = "10")
+            @RequestParam(required = false) Long userId,
+            @Parameter(description = "Monto mínimo (inclusive)", example = "1000.00")
+            @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Monto máximo (inclusive)", example = "50000.00")
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "Cursor devuelto por la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de pedidos por página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            OrderSearchCriteria criteria = new OrderSearchCriteria(from, to,
+                    status != null ? OrderStatus.from(status) : null, sellerId, userId,
+                    minAmount != null ? Money.of(minAmount) : null, maxAmount != null ? Money.of(maxAmount) : null);
+            OrderPage page = orderService.search(criteria, cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, HttpStatus.OK.value(), "Página de pedidos obtenida", page, (long) page.getOrders().size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Pedidos que incluyen un producto
+    @Operation(
+        summary = "Obtener pedidos que incluyen un producto",
+        description = "Devuelve todos los pedidos que tienen al menos una línea con el producto indicado."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Lista de pedidos obtenida (puede estar vacía)"
+        )
+    })
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<ApiResponse<List<Order>>> getByProduct(
+            @Parameter(description = "ID del producto", example = "1", required = true)
+            @PathVariable Long productId
+    ) {
+        List<Order> orders = orderService.findByProductId(productId);
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Pedidos con el producto", orders, (long) orders.size()));
+    }
+
+    // Ventas por producto
+    @Operation(
+        summary = "Obtener ventas de un producto",
+        description = "Devuelve las unidades vendidas, los ingresos y la cantidad de pedidos de un producto. " +
+                      "No incluye pedidos cancelados."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Ventas del producto obtenidas"
+        )
+    })
+    @GetMapping("/product/{productId}/sales")
+    public ResponseEntity<ApiResponse<ProductSales>> getProductSales(
+            @Parameter(description = "ID del producto", example = "1", required = true)
+            @PathVariable Long productId
+    ) {
+        ProductSales sales = orderService.getProductSales(productId);
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Ventas del producto", sales, sales.getOrderCount()));
+    }
+
     // Actualizar estado
     @Operation(
         summary = "Actualizar estado del pedido",
         description = "Permite cambiar el estado de un pedido. Estados válidos: " +
-                      "PENDIENTE, CONFIRMADO, EN_CAMINO, COMPLETADO, CANCELADO"
+                      "PENDIENTE, CONFIRMADO, EN_CAMINO, COMPLETADO, CANCELADO. " +
+                      "Transiciones permitidas: PENDIENTE → CONFIRMADO → EN_CAMINO → COMPLETADO, " +
+                      "y CANCELADO desde PENDIENTE o CONFIRMADO."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "200",
             description = "Estado actualizado exitosamente"
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Estado inválido o transición no permitida"
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "404",
             description = "Pedido no encontrado - el ID proporcionado no existe en el sistema"
@@ -165,9 +632,13 @@ public class OrderController {
             @RequestParam String status
     ) {
         try {
-            Order updatedOrder = orderService.updateStatus(id, status);
+            OrderStatus newStatus = OrderStatus.from(status);
+            Order updatedOrder = orderService.updateStatus(id, newStatus);
             return ResponseEntity.ok(new ApiResponse<>(
-                    true, HttpStatus.OK.value(), "Estado actualizado a: " + status, updatedOrder, 1L));
+                    true, HttpStatus.OK.value(), "Estado actualizado a: " + newStatus, updatedOrder, 1L));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new ApiResponse<>(false, 404, e.getMessage(), null, 0L));
@@ -177,10 +648,423 @@ public class OrderController {
         }
     }
 
+    // Actualizar estado de varios pedidos
+    @Operation(
+        summary = "Actualizar estado de varios pedidos",
+        description = "Cambia el estado de hasta 1000 pedidos en una sola llamada. Cada transición se valida " +
+                      "igual que en la actualización individual y se devuelve el resultado de cada pedido. " +
+                      "Los pedidos que no se pueden cambiar no impiden actualizar el resto."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Operación procesada - revisar el resultado de cada pedido"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Estado inválido, lista vacía o con más de 1000 pedidos"
+        )
+    })
+    @PutMapping("/status")
+    public ResponseEntity<ApiResponse<List<BulkStatusResult>>> updateStatusBulk(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Pedidos y estado destino",
+                required = true,
+                content = @Content(
+                    schema = @Schema(implementation = BulkStatusRequest.class),
+                    examples = @ExampleObject(
+                        name = "Despachar pedidos confirmados",
+                        value = """
+                            {
+                                "orderIds": [3, 7, 12],
+                                "status": "EN_CAMINO",
+                                "sellerId": 2
+                            }
+                            """
+                    )
+                )
+            )
+            @Valid @RequestBody BulkStatusRequest request
+    ) {
+        try {
+            OrderStatus target = OrderStatus.from(request.getStatus());
+            List<BulkStatusResult> results = orderService.updateStatusBulk(
+                    request.getOrderIds(), target, request.getSellerId());
+            long updated = results.stream().filter(BulkStatusResult::isUpdated).count();
+            return ResponseEntity.ok(new ApiResponse<>(
+                    true, HttpStatus.OK.value(), updated + " de " + results.size() + " pedidos actualizados a " + target,
+                    results, updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Confirmar carrito
+    @Operation(
+        summary = "Confirmar carrito (checkout)",
+        description = "Descuenta en Inventario el stock de todos los productos del carrito en paralelo y, si todos " +
+                      "se pudieron descontar, crea un pedido por vendedor con el precio vigente de cada producto. " +
+                      "Los pedidos se guardan juntos y comparten el mismo checkoutId. Si algún producto no tiene " +
+                      "stock o Inventario no responde a tiempo, el stock ya descontado se devuelve y no se crea " +
+                      "ningún pedido. Los pedidos se devuelven en PENDIENTE: el cobro se confirma después en " +
+                      "segundo plano y los pasa a CONFIRMADO (aprobado) o CANCELADO (rechazado)."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "201",
+            description = "Stock descontado y pedidos creados"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Carrito vacío, con cantidades inválidas o con más de 50 productos"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "409",
+            description = "Algún producto no se pudo descontar - el mensaje indica cuáles y por qué"
+        )
+    })
+    @PostMapping("/checkout")
+    public ResponseEntity<ApiResponse<CheckoutResult>> checkout(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Comprador, vendedor y productos del carrito",
+                required = true,
+                content = @Content(
+                    schema = @Schema(implementation = CheckoutRequest.class),
+                    examples = @ExampleObject(
+                        name = "Carrito con productos de dos vendedores",
+                        value = """
+                            {
+                                "userId": 4,
+                                "items": [
+                                    {"productId": 1, "quantity": 1},
+                                    {"productId": 4, "quantity": 2},
+                                    {"productId": 9, "quantity": 1}
+                                ]
+                            }
+                            """
+                    )
+                )
+            )
+            @Valid @RequestBody CheckoutRequest request
+    ) {
+        try {
+            CheckoutResult result = checkoutService.checkout(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(
+                    true, HttpStatus.CREATED.value(), "Pedidos creados exitosamente", result, (long) result.getOrders().size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        } catch (CheckoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, HttpStatus.CONFLICT.value(), e.getMessage(), null, 0L));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error al confirmar el carrito: " + e.getMessage(), null, 0L));
+        }
+    }
+
+    // Pedidos de un checkout
+    @Operation(
+        summary = "Obtener pedidos de un checkout",
+        description = "Devuelve todos los pedidos (uno por vendedor) creados por un mismo checkout."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Pedidos del checkout"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "No existe un checkout con ese ID"
+        )
+    })
+    @GetMapping("/checkout/{checkoutId}")
+    public ResponseEntity<ApiResponse<CheckoutResult>> getCheckout(
+            @Parameter(description = "ID del checkout", example = "0f8fad5b-d9cb-469f-a165-70867728950e", required = true)
+            @PathVariable String checkoutId
+    ) {
+        List<Order> orders = orderService.findByCheckoutId(checkoutId);
+        if (orders.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, 404, "Checkout no encontrado: " + checkoutId, null, 0L));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, HttpStatus.OK.value(), "Pedidos del checkout",
+                CheckoutService.toResult(checkoutId, orders), (long) orders.size()));
+    }
+
+    // Métricas del checkout
+    @Operation(
+        summary = "Obtener métricas del checkout",
+        description = "Devuelve checkouts confirmados y rechazados, compensaciones de stock y la latencia promedio " +
+                      "de las llamadas a Inventario en paralelo frente a lo que sumarían hechas una tras otra."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Métricas obtenidas"
+        )
+    })
+    @GetMapping("/checkout/stats")
+    public ResponseEntity<ApiResponse<CheckoutStats>> getCheckoutStats() {
+        CheckoutStats stats = checkoutService.getStats();
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Métricas del checkout", stats, stats.getCompleted()));
+    }
+
+    // Estado de la cola de cobros
+    @Operation(
+        summary = "Obtener estado de los cobros",
+        description = "Devuelve los cobros encolados, en reintento y en curso, los pedidos confirmados y rechazados " +
+                      "por la pasarela y los histogramas de latencia de la pasarela y de punta a punta. " +
+                      "Solo para uso administrativo."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Estado de los cobros obtenido"
+        )
+    })
+    @GetMapping("/payments/stats")
+    public ResponseEntity<ApiResponse<PaymentStats>> getPaymentStats() {
+        PaymentStats stats = paymentPipeline.getStats();
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Estado de los cobros", stats, stats.getQueued()));
+    }
+
+    // Estado del relay de eventos
+    @Operation(
+        summary = "Obtener estado de la entrega de eventos",
+        description = "Devuelve los eventos de pedidos pendientes de entregar, el retraso del más antiguo " +
+                      "y los eventos entregados por segundo en el último minuto. Solo para uso administrativo."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Estado del relay obtenido"
+        )
+    })
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<ApiResponse<OutboxStats>> getOutboxStats() {
+        OutboxStats stats = outboxRelay.getStats();
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Estado del relay de eventos", stats, stats.getPending()));
+    }
+
+    // Iniciar archivado
+    @Operation(
+        summary = "Iniciar archivado de pedidos",
+        description = "Mueve en segundo plano los pedidos COMPLETADO y CANCELADO antiguos a la tabla de archivo. " +
+                      "También se ejecuta automáticamente cada noche. Solo para uso administrativo."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "202",
+            description = "Archivado iniciado"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "409",
+            description = "Ya hay un archivado en curso"
+        )
+    })
+    @PostMapping("/archive/run")
+    public ResponseEntity<ApiResponse<ArchiveProgress>> startArchive() {
+        if (!orderArchiveJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(
+                    false, HttpStatus.CONFLICT.value(), "Ya hay un archivado en curso", orderArchiveJob.getProgress(), 0L));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ApiResponse<>(
+                true, HttpStatus.ACCEPTED.value(), "Archivado iniciado", orderArchiveJob.getProgress(), 0L));
+    }
+
+    // Progreso del archivado
+    @Operation(
+        summary = "Obtener progreso del archivado",
+        description = "Devuelve el progreso del archivado en curso o el resultado del último."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Progreso obtenido"
+        )
+    })
+    @GetMapping("/archive/status")
+    public ResponseEntity<ApiResponse<ArchiveProgress>> getArchiveStatus() {
+        ArchiveProgress progress = orderArchiveJob.getProgress();
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Progreso del archivado", progress, progress.getArchived()));
+    }
+
+    // Iniciar purga
+    @Operation(
+        summary = "Purgar pedidos terminados antiguos",
+        description = "Elimina definitivamente en segundo plano los pedidos COMPLETADO y CANCELADO, y los archivados, " +
+                      "creados antes de la fecha indicada, por bloques y con una pausa entre bloques. " +
+                      "Con dryRun=true solo devuelve cuántos pedidos se purgarían. Solo para uso administrativo."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Conteo de la simulación (dryRun=true)"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "202",
+            description = "Purga iniciada"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Fecha de corte ausente o demasiado reciente"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "409",
+            description = "Ya hay una purga en curso"
+        )
+    })
+    @PostMapping("/purge/run")
+    public ResponseEntity<ApiResponse<PurgeProgress>> startPurge(
+            @Parameter(description = "Se purgan pedidos creados antes de este día (yyyy-MM-dd)", example = "2023-01-01", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before,
+            @Parameter(description = "Solo contar los pedidos, sin borrarlos")
+            @RequestParam(defaultValue = "false") boolean dryRun
+    ) {
+        try {
+            if (dryRun) {
+                PurgeProgress preview = orderPurgeJob.dryRun(before);
+                return ResponseEntity.ok(new ApiResponse<>(
+                        true, HttpStatus.OK.value(), "Pedidos a purgar", preview, preview.getTotal()));
+            }
+            if (!orderPurgeJob.start(before)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(
+                        false, HttpStatus.CONFLICT.value(), "Ya hay una purga en curso", orderPurgeJob.getProgress(), 0L));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ApiResponse<>(
+                    true, HttpStatus.ACCEPTED.value(), "Purga iniciada", orderPurgeJob.getProgress(), 0L));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Progreso de la purga
+    @Operation(
+        summary = "Obtener progreso de la purga",
+        description = "Devuelve el progreso de la purga en curso o el resultado de la última."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Progreso obtenido"
+        )
+    })
+    @GetMapping("/purge/status")
+    public ResponseEntity<ApiResponse<PurgeProgress>> getPurgeStatus() {
+        PurgeProgress progress = orderPurgeJob.getProgress();
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Progreso de la purga", progress, progress.getPurged()));
+    }
+
+    // Iniciar liquidación
+    @Operation(
+        summary = "Iniciar liquidación de vendedores",
+        description = "Suma en segundo plano los pedidos COMPLETADO de cada vendedor creados en el período " +
+                      "[from, to]. Si una ejecución del período quedó a medias se reanuda desde su último bloque; " +
+                      "con rerun=true se recalcula desde cero. El mes anterior se liquida automáticamente " +
+                      "el primer día de cada mes. Solo para uso administrativo."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "202",
+            description = "Liquidación iniciada"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Período inválido, abierto o ya archivado"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "409",
+            description = "Ya hay una liquidación en curso o el período ya fue liquidado"
+        )
+    })
+    @PostMapping("/settlements/run")
+    public ResponseEntity<ApiResponse<SettlementProgress>> startSettlement(
+            @Parameter(description = "Primer día (yyyy-MM-dd)", example = "2025-11-01", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día (yyyy-MM-dd)", example = "2025-11-30", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Recalcular aunque el período ya esté liquidado")
+            @RequestParam(defaultValue = "false") boolean rerun
+    ) {
+        try {
+            if (!settlementJob.start(from, to, rerun)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(
+                        false, HttpStatus.CONFLICT.value(), "Ya hay una liquidación en curso", settlementJob.getProgress(), 0L));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ApiResponse<>(
+                    true, HttpStatus.ACCEPTED.value(), "Liquidación iniciada", settlementJob.getProgress(), 0L));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                    false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(
+                    false, HttpStatus.CONFLICT.value(), e.getMessage(), null, 0L));
+        }
+    }
+
+    // Progreso de la liquidación
+    @Operation(
+        summary = "Obtener progreso de la liquidación",
+        description = "Devuelve el progreso de la liquidación en curso o el resultado de la última, " +
+                      "incluidos los pedidos procesados por segundo."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Progreso obtenido"
+        )
+    })
+    @GetMapping("/settlements/status")
+    public ResponseEntity<ApiResponse<SettlementProgress>> getSettlementStatus() {
+        SettlementProgress progress = settlementJob.getProgress();
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Progreso de la liquidación", progress, progress.getOrdersProcessed()));
+    }
+
+    // Liquidaciones de un período
+    @Operation(
+        summary = "Obtener liquidaciones de un período",
+        description = "Devuelve el monto a pagar a cada vendedor en el período liquidado [from, to]."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Liquidaciones obtenidas"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "El período no se liquidó o no tuvo pedidos completados"
+        )
+    })
+    @GetMapping("/settlements")
+    public ResponseEntity<ApiResponse<List<SellerSettlement>>> getSettlements(
+            @Parameter(description = "Primer día (yyyy-MM-dd)", example = "2025-11-01", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día (yyyy-MM-dd)", example = "2025-11-30", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        List<SellerSettlement> settlements = settlementJob.findSettlements(from, to);
+        if (settlements.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse<>(
+                    false, HttpStatus.NOT_FOUND.value(), "El período no tiene liquidaciones", null, 0L));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(
+                true, HttpStatus.OK.value(), "Liquidaciones del período", settlements, (long) settlements.size()));
+    }
+
     // Obtener pedido por ID
     @Operation(
         summary = "Obtener pedido por ID",
-        description = "Busca y devuelve los detalles de un pedido específico por su identificador."
+        description = "Busca y devuelve los detalles de un pedido específico por su identificador. " +
+                      "Se sirve desde un caché en memoria que se actualiza con cada cambio de estado."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -198,7 +1082,7 @@ public class OrderController {
             @PathVariable Long id
     ) {
         try {
-            Order order = orderService.findById(id);
+            Order order = orderService.findCachedById(id);
             return ResponseEntity.ok(new ApiResponse<>(
                     true, HttpStatus.OK.value(), "Pedido encontrado", order, 1L));
         } catch (Exception e) {
@@ -207,10 +1091,75 @@ public class OrderController {
         }
     }
 
+    // Esperar cambio de estado (long-poll)
+    @Operation(
+        summary = "Esperar un cambio de estado del pedido",
+        description = "Long-poll para las páginas de seguimiento: si el estado del pedido ya no es 'since' responde " +
+                      "de inmediato; si no, deja la petición abierta hasta que el estado cambie o pase timeoutMs " +
+                      "(máximo 30 s). count es 1 si el estado cambió y 0 si se agotó la espera sin cambios; " +
+                      "en ese caso el cliente vuelve a llamar con el mismo 'since'."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Pedido con su estado actual"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Estado 'since' inválido"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Pedido no encontrado"
+        )
+    })
+    @GetMapping("/{id}/status")
+    public DeferredResult<ResponseEntity<ApiResponse<Order>>> awaitStatusChange(
+            @Parameter(description = "ID del pedido", example = "1", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Último estado conocido por el cliente", example = "PENDIENTE")
+            @RequestParam(required = false) String since,
+            @Parameter(description = "Espera máxima en milisegundos (por defecto y como máximo 30000)", example = "25000")
+            @RequestParam(required = false) Long timeoutMs
+    ) {
+        DeferredResult<ResponseEntity<ApiResponse<Order>>> result =
+                new DeferredResult<>(orderService.longPollTimeout(timeoutMs));
+        CompletableFuture<Order> change;
+        try {
+            change = orderService.awaitStatusChange(id, since != null ? OrderStatus.from(since) : null);
+        } catch (IllegalArgumentException e) {
+            result.setResult(ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L)));
+            return result;
+        } catch (Exception e) {
+            result.setResult(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, 404, e.getMessage(), null, 0L)));
+            return result;
+        }
+        result.onTimeout(() -> result.setResult(currentStatus(id, "El estado no cambió", 0L)));
+        result.onCompletion(() -> change.cancel(false));
+        change.thenAccept(order -> result.setResult(order != null
+                ? ResponseEntity.ok(new ApiResponse<>(true, HttpStatus.OK.value(), "Estado del pedido", order, 1L))
+                : currentStatus(id, "Estado del pedido", 1L)));
+        return result;
+    }
+
+    // Estado actual leído de nuevo (tras una espera sin cambios o un pedido invalidado)
+    private ResponseEntity<ApiResponse<Order>> currentStatus(Long id, String message, long count) {
+        try {
+            Order order = orderService.findCachedById(id);
+            return ResponseEntity.ok(new ApiResponse<>(true, HttpStatus.OK.value(), message, order, count));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, 404, e.getMessage(), null, 0L));
+        }
+    }
+
     // Listar todos los pedidos
     @Operation(
         summary = "Listar todos los pedidos",
-        description = "Obtiene todos los pedidos del sistema. Solo para uso administrativo."
+        description = "Obtiene todos los pedidos del sistema. Solo para uso administrativo. " +
+                      "Los pedidos archivados solo se incluyen con includeArchived=true."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -219,8 +1168,11 @@ public class OrderController {
         )
     })
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Order>>> getAll() {
-        List<Order> orders = orderService.findAll();
+    public ResponseEntity<ApiResponse<List<Order>>> getAll(
+            @Parameter(description = "Incluir pedidos archivados", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        List<Order> orders = orderService.findAll(includeArchived);
         return ResponseEntity.ok(new ApiResponse<>(
                 true, HttpStatus.OK.value(), "Lista de todos los pedidos", orders, (long) orders.size()));
     }
@@ -256,7 +1208,7 @@ public class OrderController {
         try {
             Order order = orderService.findById(id);
             
-            if (!order.getStatus().equals("COMPLETADO")) {
+            if (order.getStatus() != OrderStatus.COMPLETADO) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApiResponse<>(false, HttpStatus.BAD_REQUEST.value(), 
                         "Solo se pueden eliminar pedidos en estado COMPLETADO", null, 0L));
@@ -275,4 +1227,11 @@ public class OrderController {
                     "Error al eliminar pedido: " + e.getMessage(), null, 0L));
         }
     }
+
+    // Parámetros inválidos de los endpoints que no pueden devolver ApiResponse en su propio cuerpo (exportación CSV)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiResponse<Void>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(new ApiResponse<>(
+                false, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null, 0L));
+    }
 }
@@ -0,0 +1,39 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Progreso del archivado de pedidos terminados")
+public class ArchiveProgress {
+
+    @Schema(description = "true mientras el archivado está en curso", example = "true")
+    private boolean running;
+
+    @Schema(description = "Se archivan pedidos COMPLETADO/CANCELADO creados antes de esta fecha")
+    private LocalDateTime cutoff;
+
+    @Schema(description = "Pedidos por archivar al iniciar la ejecución", example = "12000")
+    private Long total;
+
+    @Schema(description = "Pedidos archivados en la ejecución", example = "4500")
+    private Long archived;
+
+    @Schema(description = "Último ID archivado (punto de reanudación)", example = "81234")
+    private Long lastId;
+
+    @Schema(description = "Inicio de la ejecución")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Fin de la ejecución (null si sigue en curso)")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Error que detuvo la ejecución", example = "Lock wait timeout exceeded")
+    private String lastError;
+}
@@ -0,0 +1,31 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cambio de estado de varios pedidos en una sola llamada")
+public class BulkStatusRequest {
+
+    @NotEmpty(message = "Debe indicar al menos un pedido")
+    @Schema(description = "IDs de los pedidos (máximo 1000)", example = "[3, 7, 12]",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<Long> orderIds;
+
+    @NotBlank(message = "El estado es obligatorio")
+    @Schema(description = "Estado destino", example = "EN_CAMINO",
+            allowableValues = {"PENDIENTE", "CONFIRMADO", "EN_CAMINO", "COMPLETADO", "CANCELADO"},
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private String status;
+
+    @Schema(description = "Si se indica, solo se cambian pedidos de este vendedor", example = "2")
+    private Long sellerId;
+}
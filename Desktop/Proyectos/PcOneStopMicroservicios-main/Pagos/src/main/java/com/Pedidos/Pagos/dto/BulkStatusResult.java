@@ -0,0 +1,26 @@
+package com.Pedidos.Pagos.dto;
+
+import com.Pedidos.Pagos.model.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado del cambio de estado de un pedido dentro de una operación masiva")
+public class BulkStatusResult {
+
+    @Schema(description = "ID del pedido", example = "3")
+    private Long orderId;
+
+    @Schema(description = "true si el estado se cambió en esta operación", example = "true")
+    private boolean updated;
+
+    @Schema(description = "Estado antes de la operación (null si el pedido no existe)", example = "CONFIRMADO")
+    private OrderStatus previousStatus;
+
+    @Schema(description = "Detalle del resultado", example = "Estado actualizado a EN_CAMINO")
+    private String message;
+}
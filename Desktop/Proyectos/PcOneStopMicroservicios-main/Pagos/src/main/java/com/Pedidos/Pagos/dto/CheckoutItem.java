@@ -0,0 +1,24 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Producto y cantidad dentro del carrito")
+public class CheckoutItem {
+
+    @NotNull(message = "El productId es obligatorio")
+    @Schema(description = "ID del producto en Inventario", example = "4", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Long productId;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Positive(message = "La cantidad debe ser mayor a cero")
+    @Schema(description = "Unidades a comprar", example = "2", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer quantity;
+}
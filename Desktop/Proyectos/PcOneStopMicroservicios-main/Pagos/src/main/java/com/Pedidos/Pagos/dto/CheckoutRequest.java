@@ -0,0 +1,30 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Carrito a confirmar: se descuenta el stock de cada producto y se crea un pedido por vendedor")
+public class CheckoutRequest {
+
+    @NotNull(message = "El userId es obligatorio")
+    @Schema(description = "ID del comprador", example = "4", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Long userId;
+
+    @Schema(description = "Vendedor a usar solo si Inventario no informa el vendedor del producto", example = "2")
+    private Long sellerId;
+
+    @NotEmpty(message = "El carrito está vacío")
+    @Valid
+    @Schema(description = "Productos del carrito (máximo 50)", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<CheckoutItem> items;
+}
@@ -0,0 +1,26 @@
+package com.Pedidos.Pagos.dto;
+
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Pedidos creados por un checkout, uno por vendedor del carrito")
+public class CheckoutResult {
+
+    @Schema(description = "ID del checkout que agrupa los pedidos", example = "0f8fad5b-d9cb-469f-a165-70867728950e")
+    private String checkoutId;
+
+    @Schema(description = "Suma de los totales de todos los pedidos", type = "number", example = "5097.00")
+    private Money totalAmount;
+
+    @Schema(description = "Un pedido por vendedor")
+    private List<Order> orders;
+}
@@ -0,0 +1,31 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Métricas del checkout desde que inició el servicio")
+public class CheckoutStats {
+
+    @Schema(description = "Checkouts confirmados", example = "120")
+    private Long completed;
+
+    @Schema(description = "Checkouts rechazados (sin stock, timeout o error al guardar)", example = "3")
+    private Long failed;
+
+    @Schema(description = "Llamadas addStock de compensación realizadas", example = "4")
+    private Long compensations;
+
+    @Schema(description = "Compensaciones que no se pudieron aplicar y requieren ajuste manual", example = "0")
+    private Long compensationFailures;
+
+    @Schema(description = "Latencia promedio del descuento de stock en paralelo (ms)", example = "48.2")
+    private Double avgParallelMillis;
+
+    @Schema(description = "Suma promedio de las llamadas a Inventario: lo que tardaría el flujo secuencial (ms)", example = "151.7")
+    private Double avgSequentialMillis;
+}
@@ -0,0 +1,23 @@
+package com.Pedidos.Pagos.dto;
+
+import com.Pedidos.Pagos.model.Order;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Página de pedidos, del más reciente al más antiguo")
+public class OrderPage {
+
+    @Schema(description = "Pedidos de la página")
+    private List<Order> orders;
+
+    @Schema(description = "Cursor para pedir la siguiente página; null si no hay más pedidos",
+            example = "MjAyNS0xMS0wM1QxMDoxNTozMHw0Mg")
+    private String nextCursor;
+}
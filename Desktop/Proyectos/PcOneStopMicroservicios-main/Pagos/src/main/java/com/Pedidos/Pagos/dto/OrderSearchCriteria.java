@@ -0,0 +1,33 @@
+package com.Pedidos.Pagos.dto;
+
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros de la búsqueda de pedidos. Todos son opcionales; las fechas son días completos
+ * (from y to inclusive) y los montos son inclusive.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSearchCriteria {
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private OrderStatus status;
+
+    private Long sellerId;
+
+    private Long userId;
+
+    private Money minAmount;
+
+    private Money maxAmount;
+}
@@ -0,0 +1,25 @@
+package com.Pedidos.Pagos.dto;
+
+import com.Pedidos.Pagos.model.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cantidad de pedidos por estado, de todo el sistema o de un vendedor (incluye archivados)")
+public class OrderStatusCounts {
+
+    @Schema(description = "ID del vendedor (nulo en el resumen global)", example = "2")
+    private Long sellerId;
+
+    @Schema(description = "Total de pedidos", example = "128")
+    private Long total;
+
+    @Schema(description = "Pedidos por estado", example = "{\"PENDIENTE\": 12, \"CONFIRMADO\": 5, \"EN_CAMINO\": 3, \"COMPLETADO\": 100, \"CANCELADO\": 8}")
+    private Map<OrderStatus, Long> byStatus;
+}
@@ -0,0 +1,36 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Estado del relay de eventos de pedidos")
+public class OutboxStats {
+
+    @Schema(description = "Eventos pendientes de entregar", example = "3")
+    private Long pending;
+
+    @Schema(description = "Antigüedad en segundos del evento pendiente más antiguo (0 si no hay pendientes)", example = "2")
+    private Long lagSeconds;
+
+    @Schema(description = "Eventos entregados desde que inició el servicio", example = "1520")
+    private Long deliveredTotal;
+
+    @Schema(description = "Eventos por segundo en el último minuto", example = "4.5")
+    private Double throughputPerSecond;
+
+    @Schema(description = "Entregas fallidas desde que inició el servicio", example = "0")
+    private Long failedBatches;
+
+    @Schema(description = "Último error de entrega", example = "Connection refused")
+    private String lastError;
+
+    @Schema(description = "Última ejecución del relay")
+    private LocalDateTime lastRunAt;
+}
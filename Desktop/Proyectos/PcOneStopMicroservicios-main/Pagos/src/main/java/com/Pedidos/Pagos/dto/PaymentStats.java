@@ -0,0 +1,51 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Estado de la cola de cobros desde que inició el servicio")
+public class PaymentStats {
+
+    @Schema(description = "Cobros esperando a un worker", example = "12")
+    private Long queued;
+
+    @Schema(description = "Cobros esperando su próximo reintento", example = "0")
+    private Long retrying;
+
+    @Schema(description = "Cobros enviados a la pasarela en este momento", example = "50")
+    private Long inFlight;
+
+    @Schema(description = "Máximo de cobros en la cola (encolados + reintentos + en curso)", example = "10000")
+    private Long capacity;
+
+    @Schema(description = "Pedidos pasados a CONFIRMADO por un cobro aprobado", example = "1520")
+    private Long confirmed;
+
+    @Schema(description = "Pedidos pasados a CANCELADO por un cobro rechazado", example = "4")
+    private Long rejected;
+
+    @Schema(description = "Reintentos programados por fallas de la pasarela o de la BD", example = "7")
+    private Long retries;
+
+    @Schema(description = "Cobros abandonados tras agotar los reintentos (se vuelven a encolar en el próximo barrido)", example = "0")
+    private Long abandoned;
+
+    @Schema(description = "Pedidos que no entraron porque la cola estaba llena (los toma el barrido)", example = "0")
+    private Long overflowed;
+
+    @Schema(description = "Último error de la pasarela", example = "Connection refused")
+    private String lastError;
+
+    @Schema(description = "Llamadas a la pasarela por rango de latencia (ms)")
+    private Map<String, Long> gatewayLatency;
+
+    @Schema(description = "Cobros por rango de latencia desde que se encolaron hasta que el pedido cambió de estado (ms)")
+    private Map<String, Long> endToEndLatency;
+}
@@ -0,0 +1,26 @@
+package com.Pedidos.Pagos.dto;
+
+import com.Pedidos.Pagos.model.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Ventas acumuladas de un producto (sin pedidos cancelados)")
+public class ProductSales {
+
+    @Schema(description = "ID del producto", example = "1")
+    private Long productId;
+
+    @Schema(description = "Unidades vendidas", example = "12")
+    private Long unitsSold;
+
+    @Schema(description = "Ingresos del producto en soles", type = "number", example = "31188.00")
+    private Money revenue;
+
+    @Schema(description = "Cantidad de pedidos que incluyen el producto", example = "9")
+    private Long orderCount;
+}
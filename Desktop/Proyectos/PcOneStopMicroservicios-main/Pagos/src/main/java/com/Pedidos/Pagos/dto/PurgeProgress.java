@@ -0,0 +1,45 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Progreso de la purga de pedidos terminados")
+public class PurgeProgress {
+
+    @Schema(description = "true mientras la purga está en curso", example = "true")
+    private boolean running;
+
+    @Schema(description = "true si solo se contaron los pedidos sin borrarlos", example = "false")
+    private boolean dryRun;
+
+    @Schema(description = "Se purgan pedidos COMPLETADO/CANCELADO (y archivados) creados antes de esta fecha")
+    private LocalDateTime cutoff;
+
+    @Schema(description = "Pedidos por purgar al iniciar la ejecución", example = "250000")
+    private Long total;
+
+    @Schema(description = "Pedidos purgados en la ejecución", example = "82000")
+    private Long purged;
+
+    @Schema(description = "Tabla que se está purgando", example = "orders_archive")
+    private String table;
+
+    @Schema(description = "Último ID purgado de esa tabla", example = "81234")
+    private Long lastId;
+
+    @Schema(description = "Inicio de la ejecución")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Fin de la ejecución (null si sigue en curso)")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Error que detuvo la ejecución", example = "Lock wait timeout exceeded")
+    private String lastError;
+}
@@ -0,0 +1,36 @@
+package com.Pedidos.Pagos.dto;
+
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.SellerDailyRollup;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Pedidos e ingresos de un vendedor por día y estado")
+public class SellerDashboard {
+
+    @Schema(description = "ID del vendedor", example = "2")
+    private Long sellerId;
+
+    @Schema(description = "Primer día del rango", example = "2025-10-05")
+    private LocalDate from;
+
+    @Schema(description = "Último día del rango", example = "2025-11-03")
+    private LocalDate to;
+
+    @Schema(description = "Pedidos del rango (todos los estados)", example = "12")
+    private Long orderCount;
+
+    @Schema(description = "Ingresos del rango sin contar pedidos cancelados", type = "number", example = "25431.00")
+    private Money revenue;
+
+    @Schema(description = "Detalle por día y estado")
+    private List<SellerDailyRollup> days;
+}
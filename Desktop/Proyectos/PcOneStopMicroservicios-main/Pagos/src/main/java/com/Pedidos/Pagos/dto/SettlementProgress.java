@@ -0,0 +1,46 @@
+package com.Pedidos.Pagos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Progreso de la liquidación de vendedores")
+public class SettlementProgress {
+
+    @Schema(description = "true mientras la liquidación está en curso", example = "true")
+    private boolean running;
+
+    @Schema(description = "ID de la ejecución", example = "3")
+    private Long runId;
+
+    @Schema(description = "Primer día del período", example = "2025-11-01")
+    private LocalDate periodStart;
+
+    @Schema(description = "Último día del período", example = "2025-11-30")
+    private LocalDate periodEnd;
+
+    @Schema(description = "Pedidos procesados en la ejecución, incluidos los de antes de una reanudación", example = "45000")
+    private Long ordersProcessed;
+
+    @Schema(description = "Último ID procesado (punto de reanudación)", example = "81234")
+    private Long lastOrderId;
+
+    @Schema(description = "Pedidos por segundo desde que inició o se reanudó la ejecución", example = "18500.0")
+    private Double rowsPerSecond;
+
+    @Schema(description = "Inicio (o reanudación) de la ejecución")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Fin de la ejecución (null si sigue en curso)")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Error que detuvo la ejecución", example = "Lock wait timeout exceeded")
+    private String lastError;
+}
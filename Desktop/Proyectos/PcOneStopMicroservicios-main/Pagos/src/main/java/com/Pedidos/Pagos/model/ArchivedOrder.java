@@ -0,0 +1,63 @@
+package com.Pedidos.Pagos.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pedido terminado (COMPLETADO o CANCELADO) movido fuera de la tabla orders por el
+ * archivado. Conserva el ID original.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_orders_archive_seller_created", columnList = "seller_id, created_at"),
+        @Index(name = "idx_orders_archive_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(name = "total_cents", nullable = false)
+    private Money totalAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    private OrderStatus status;
+
+    private String productIds;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private Long sellerId;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Column(length = 36)
+    private String checkoutId;
+
+    /**
+     * Vuelve a armar el pedido con sus líneas para devolverlo junto a los pedidos activos.
+     */
+    public Order toOrder(List<ArchivedOrderItem> archivedItems) {
+        Order order = new Order(id, userId, totalAmount, status, productIds, createdAt, sellerId, new ArrayList<>(), checkoutId);
+        for (ArchivedOrderItem item : archivedItems) {
+            order.getItems().add(new OrderItem(item.getId(), order, item.getProductId(), item.getQuantity(), item.getUnitPrice()));
+        }
+        return order;
+    }
+}
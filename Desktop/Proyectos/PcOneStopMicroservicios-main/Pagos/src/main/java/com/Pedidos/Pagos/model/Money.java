@@ -0,0 +1,73 @@
+package com.Pedidos.Pagos.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monto en céntimos. Las sumas y multiplicaciones son exactas (aritmética de long),
+ * a diferencia de Double, donde 0.1 + 0.2 no es 0.3 y los totales se desvían.
+ *
+ * En JSON se sigue exponiendo como número con dos decimales ("totalAmount": 5097.00),
+ * así que el contrato de la API no cambia. En la BD se guarda como BIGINT con MoneyConverter.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofCents(long cents) {
+        return new Money(cents);
+    }
+
+    /**
+     * Convierte un monto con decimales redondeando al céntimo (mitad hacia arriba).
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    public static Money of(double amount) {
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(cents, quantity));
+    }
+
+    /**
+     * Divide en partes iguales redondeando al céntimo (por ejemplo, precio unitario a partir del total).
+     */
+    public Money dividedBy(long parts) {
+        return new Money(BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(parts), 0, RoundingMode.HALF_UP).longValue());
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(cents));
+    }
+
+    @JsonValue
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString();
+    }
+}
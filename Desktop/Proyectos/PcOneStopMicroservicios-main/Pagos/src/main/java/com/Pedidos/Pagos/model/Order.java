@@ -5,17 +5,32 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "orders") // "order" es una palabra reservada en SQL, usamos "orders"
+@Table(name = "orders", indexes = { // "order" es una palabra reservada en SQL, usamos "orders"
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_orders_seller_created", columnList = "seller_id, created_at"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_orders_seller_status_created", columnList = "seller_id, status, created_at"),
+        @Index(name = "idx_orders_checkout", columnList = "checkout_id"),
+        // Búsqueda por rango de fechas (OrderSearchRepository); total_cents al final para filtrar por monto sin leer la fila
+        @Index(name = "idx_orders_created_total", columnList = "created_at, total_cents"),
+        @Index(name = "idx_orders_user_status_created", columnList = "user_id, status, created_at, total_cents")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
 
+    // Secuencia (en lugar de IDENTITY) para que los pedidos de un checkout se inserten en lote.
+    // OrderSequenceAlignment la ubica por encima de los IDs existentes al iniciar
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     @Schema(description = "ID del pedido autogenerado", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
 
@@ -23,13 +38,14 @@ public class Order {
     @Schema(description = "ID del usuario que realiza la compra", example = "10")
     private Long userId;
 
-    @Column(nullable = false)
-    @Schema(description = "Monto total de la compra", example = "15000.00")
-    private Double totalAmount;
+    @Column(name = "total_cents", nullable = false)
+    @Schema(description = "Monto total de la compra (lo calcula Pagos con los precios de Inventario)", type = "number", example = "15000.00")
+    private Money totalAmount;
 
-    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
     @Schema(description = "Estado del pedido", example = "PENDIENTE")
-    private String status;
+    private OrderStatus status;
 
     @Schema(description = "Lista de IDs de productos (formato CSV o JSON simple)", example = "1,5,8")
     private String productIds;
@@ -39,4 +55,14 @@ public class Order {
      
     @Column(nullable = false)
     private Long sellerId;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @Schema(description = "Líneas del pedido. Si no se envían, se generan a partir de productIds")
+    private List<OrderItem> items = new ArrayList<>();
+
+    @Column(length = 36)
+    @Schema(description = "Checkout que generó el pedido (los pedidos de un mismo carrito lo comparten)",
+            example = "0f8fad5b-d9cb-469f-a165-70867728950e", accessMode = Schema.AccessMode.READ_ONLY)
+    private String checkoutId;
 }
\ No newline at end of file
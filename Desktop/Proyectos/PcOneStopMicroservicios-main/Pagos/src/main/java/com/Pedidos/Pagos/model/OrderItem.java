@@ -0,0 +1,47 @@
+package com.Pedidos.Pagos.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Entity
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_product", columnList = "product_id"),
+        @Index(name = "idx_order_items_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItem {
+
+    // Secuencia (en lugar de IDENTITY) para que Hibernate pueda insertar las líneas en lote
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
+    @Schema(description = "ID de la línea", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Order order;
+
+    @Column(nullable = false)
+    @Schema(description = "ID del producto", example = "4")
+    private Long productId;
+
+    @Column(nullable = false)
+    @Schema(description = "Cantidad de unidades", example = "1")
+    private Integer quantity;
+
+    @Column(name = "unit_price_cents")
+    @Schema(description = "Precio unitario al momento de la compra", type = "number", example = "1899.00")
+    private Money unitPrice;
+}
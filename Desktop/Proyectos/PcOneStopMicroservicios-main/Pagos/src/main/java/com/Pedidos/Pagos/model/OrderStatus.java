@@ -0,0 +1,47 @@
+package com.Pedidos.Pagos.model;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Estados de un pedido y transiciones permitidas:
+ * PENDIENTE → CONFIRMADO → EN_CAMINO → COMPLETADO, y CANCELADO desde PENDIENTE o CONFIRMADO.
+ * COMPLETADO y CANCELADO son estados finales.
+ */
+public enum OrderStatus {
+    PENDIENTE,
+    CONFIRMADO,
+    EN_CAMINO,
+    COMPLETADO,
+    CANCELADO;
+
+    private Set<OrderStatus> next;
+
+    static {
+        PENDIENTE.next = EnumSet.of(CONFIRMADO, CANCELADO);
+        CONFIRMADO.next = EnumSet.of(EN_CAMINO, CANCELADO);
+        EN_CAMINO.next = EnumSet.of(COMPLETADO);
+        COMPLETADO.next = EnumSet.noneOf(OrderStatus.class);
+        CANCELADO.next = EnumSet.noneOf(OrderStatus.class);
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return next.contains(target);
+    }
+
+    /**
+     * Convierte el texto recibido (sin distinguir mayúsculas) en un estado.
+     */
+    public static OrderStatus from(String value) {
+        if (value != null) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                // se informa abajo con un mensaje legible
+            }
+        }
+        throw new IllegalArgumentException("Estado inválido: " + value +
+                ". Estados válidos: PENDIENTE, CONFIRMADO, EN_CAMINO, COMPLETADO, CANCELADO");
+    }
+}
@@ -0,0 +1,55 @@
+package com.Pedidos.Pagos.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento del ciclo de vida de un pedido pendiente de publicar (patrón outbox).
+ * Se inserta en la misma transacción que el cambio del pedido; el relay lo entrega
+ * en orden de ID y marca publishedAt. Mientras un relay entrega el lote, o espera para
+ * reintentarlo, leaseUntil impide que otro lo tome.
+ */
+@Entity
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_outbox_published", columnList = "published_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false, length = 30)
+    private String eventType;
+
+    // Datos del evento en JSON
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime publishedAt;
+
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    // Hasta cuándo el evento está tomado por un relay (null si nadie lo tomó)
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,49 @@
+package com.Pedidos.Pagos.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Pedidos e ingresos de un vendedor en un día y estado. Se actualiza con cada
+ * creación o cambio de estado de un pedido.
+ */
+@Entity
+@Table(name = "seller_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rollup_seller_day_status", columnNames = {"seller_id", "rollup_day", "status"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+
+    @Column(nullable = false)
+    @Schema(description = "ID del vendedor", example = "2")
+    private Long sellerId;
+
+    @Column(name = "rollup_day", nullable = false)
+    @Schema(description = "Día de creación de los pedidos", example = "2025-11-03")
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    @Schema(description = "Estado actual de los pedidos", example = "COMPLETADO")
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    @Schema(description = "Cantidad de pedidos", example = "3")
+    private Long orderCount;
+
+    @Column(name = "revenue_cents", nullable = false)
+    @Schema(description = "Suma de totalAmount de esos pedidos", type = "number", example = "7797.00")
+    private Money revenue;
+}
@@ -0,0 +1,41 @@
+package com.Pedidos.Pagos.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Monto a pagar a un vendedor en una liquidación: suma de sus pedidos COMPLETADO del período.
+ */
+@Entity
+@Table(name = "seller_settlements", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_settlement_run_seller", columnNames = {"run_id", "seller_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerSettlement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    @Schema(description = "ID de la ejecución de liquidación", example = "3")
+    private Long runId;
+
+    @Column(nullable = false)
+    @Schema(description = "ID del vendedor", example = "2")
+    private Long sellerId;
+
+    @Column(nullable = false)
+    @Schema(description = "Pedidos COMPLETADO del período", example = "42")
+    private Long orderCount;
+
+    @Column(name = "amount_cents", nullable = false)
+    @Schema(description = "Suma de totalAmount de esos pedidos", type = "number", example = "98450.00")
+    private Money amount;
+}
@@ -0,0 +1,69 @@
+package com.Pedidos.Pagos.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ejecución de la liquidación de un período con su punto de control: el último pedido
+ * (createdAt, id) ya sumado a las liquidaciones. Cada bloque avanza el punto de control
+ * en la misma transacción en que suma sus pedidos, así una ejecución cortada se reanuda
+ * sin contar pedidos dos veces.
+ */
+@Entity
+@Table(name = "settlement_runs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_settlement_run_period", columnNames = {"period_start", "period_end"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementRun {
+
+    public enum State {
+        EN_CURSO,
+        TERMINADO,
+        FALLIDO
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+
+    @Column(nullable = false)
+    @Schema(description = "Primer día del período", example = "2025-11-01")
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    @Schema(description = "Último día del período", example = "2025-11-30")
+    private LocalDate periodEnd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    @Schema(description = "Estado de la ejecución", example = "TERMINADO")
+    private State state;
+
+    @Column(nullable = false)
+    @Schema(description = "createdAt del último pedido procesado")
+    private LocalDateTime lastCreatedAt;
+
+    @Column(nullable = false)
+    @Schema(description = "ID del último pedido procesado", example = "81234")
+    private Long lastOrderId;
+
+    @Column(nullable = false)
+    @Schema(description = "Pedidos COMPLETADO sumados", example = "12000")
+    private Long ordersProcessed;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(length = 500)
+    private String lastError;
+}
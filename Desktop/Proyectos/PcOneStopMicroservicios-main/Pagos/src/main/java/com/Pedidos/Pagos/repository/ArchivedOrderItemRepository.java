@@ -0,0 +1,43 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.model.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+
+    List<ArchivedOrderItem> findByOrderIdIn(Collection<Long> orderIds);
+
+    /**
+     * Ventas archivadas de un producto: {unidades, ingresos en céntimos, pedidos}, sin contar pedidos cancelados.
+     */
+    @Query(value = """
+            select coalesce(sum(i.quantity), 0), coalesce(sum(i.quantity * i.unit_price_cents), 0), count(distinct i.order_id)
+            from order_items_archive i join orders_archive o on o.id = i.order_id
+            where i.product_id = :productId and o.status <> 'CANCELADO'
+            """, nativeQuery = true)
+    List<Object[]> summarizeSalesByProductId(@Param("productId") Long productId);
+
+    /**
+     * Copia las líneas de los pedidos indicados de order_items a order_items_archive.
+     */
+    @Modifying
+    @Query(value = """
+            insert into order_items_archive (id, order_id, product_id, quantity, unit_price_cents)
+            select id, order_id, product_id, quantity, unit_price_cents
+            from order_items where order_id in (:orderIds)
+            """, nativeQuery = true)
+    int copyFromOrderItems(@Param("orderIds") Collection<Long> orderIds);
+
+    // Borra las líneas archivadas de los pedidos indicados (antes de borrar los pedidos al purgar)
+    @Modifying
+    @Query(value = "delete from order_items_archive where order_id in (:orderIds)", nativeQuery = true)
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,81 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.model.ArchivedOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    List<ArchivedOrder> findByUserId(Long userId);
+
+    List<ArchivedOrder> findBySellerId(Long sellerId);
+
+    // Pedidos archivados por {sellerId, estado, cantidad}, para los contadores de estados
+    @Query("select o.sellerId, o.status, count(o) from ArchivedOrder o group by o.sellerId, o.status")
+    List<Object[]> countBySellerAndStatus();
+
+    @Query("select min(o.id), max(o.id) from ArchivedOrder o")
+    List<Object[]> findIdRange();
+
+    // Agregados {sellerId, día, estado, pedidos, ingresos en céntimos} de un bloque de IDs (from, to], para los rollups
+    @Query(value = """
+            select seller_id, date(created_at), status, count(*), sum(total_cents)
+            from orders_archive
+            where id > :fromId and id <= :toId
+            group by seller_id, date(created_at), status
+            """, nativeQuery = true)
+    List<Object[]> summarizeDailyByIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Mismos agregados para pedidos archivados puntuales, para restarlos al purgar
+    @Query(value = """
+            select seller_id, date(created_at), status, count(*), sum(total_cents)
+            from orders_archive
+            where id in (:ids)
+            group by seller_id, date(created_at), status
+            """, nativeQuery = true)
+    List<Object[]> summarizeDailyByIds(@Param("ids") Collection<Long> ids);
+
+    // Agregados {estado, pedidos, ingresos en céntimos} de un vendedor en un día, para corregir sus rollups
+    @Query(value = """
+            select status, count(*), sum(total_cents)
+            from orders_archive
+            where seller_id = :sellerId and created_at >= :from and created_at < :to
+            group by status
+            """, nativeQuery = true)
+    List<Object[]> summarizeSellerDay(@Param("sellerId") Long sellerId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    // IDs de pedidos archivados creados antes de la fecha de corte, en orden de ID (purga)
+    @Query("select o.id from ArchivedOrder o where o.createdAt < :before and o.id > :afterId order by o.id")
+    List<Long> findPurgeableIds(@Param("before") LocalDateTime before,
+                                @Param("afterId") Long afterId,
+                                Pageable pageable);
+
+    long countByCreatedAtBefore(LocalDateTime before);
+
+    // Borra pedidos archivados por ID (sus líneas se borran antes con ArchivedOrderItemRepository)
+    @Modifying
+    @Query(value = "delete from orders_archive where id in (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copia los pedidos indicados de orders a orders_archive en un solo INSERT ... SELECT.
+     */
+    @Modifying
+    @Query(value = """
+            insert into orders_archive (id, user_id, total_cents, status, product_ids, created_at, seller_id, checkout_id, archived_at)
+            select id, user_id, total_cents, status, product_ids, created_at, seller_id, checkout_id, :archivedAt
+            from orders where id in (:ids)
+            """, nativeQuery = true)
+    int copyFromOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,48 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Pedidos que incluyen un producto (usa el índice por product_id).
+     */
+    @Query("select distinct i.order from OrderItem i where i.productId = :productId")
+    List<Order> findOrdersByProductId(@Param("productId") Long productId);
+
+    /**
+     * Ventas de un producto: {unidades, ingresos en céntimos, pedidos}, sin contar pedidos cancelados.
+     * SQL nativo para sumar la columna BIGINT de céntimos directamente.
+     */
+    @Query(value = """
+            select coalesce(sum(i.quantity), 0), coalesce(sum(i.quantity * i.unit_price_cents), 0), count(distinct i.order_id)
+            from order_items i join orders o on o.id = i.order_id
+            where i.product_id = :productId and o.status <> 'CANCELADO'
+            """, nativeQuery = true)
+    List<Object[]> summarizeSalesByProductId(@Param("productId") Long productId);
+
+    /**
+     * Líneas de varios pedidos: {orderId, productId, quantity, unitPrice}, agrupadas por pedido.
+     */
+    @Query("""
+            select i.order.id, i.productId, i.quantity, i.unitPrice from OrderItem i
+            where i.order.id in :orderIds
+            order by i.order.id, i.id
+            """)
+    List<Object[]> findItemRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Borra las líneas de pedidos archivados o purgados (a través de PartitionedOrderRepository, dentro de su partición)
+    @Modifying
+    @Query(value = "delete from order_items where order_id in (:orderIds)", nativeQuery = true)
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,22 @@
+package com.Pedidos.Pagos.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Pasa por OrderPartitions cada sentencia que Hibernate prepara (consultas JPQL, nativas y
+ * los INSERT/UPDATE/DELETE del flush), para dirigirla al esquema de la partición activa.
+ * Se registra como hibernate.session_factory.statement_inspector en OrderPartitionConfig.
+ */
+public class OrderPartitionInspector implements StatementInspector {
+
+    private final OrderPartitions partitions;
+
+    public OrderPartitionInspector(OrderPartitions partitions) {
+        this.partitions = partitions;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        return partitions.rewrite(sql);
+    }
+}
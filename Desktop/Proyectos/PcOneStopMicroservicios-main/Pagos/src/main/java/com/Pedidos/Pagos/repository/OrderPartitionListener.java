@@ -0,0 +1,133 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.event.spi.PreDeleteEvent;
+import org.hibernate.event.spi.PreDeleteEventListener;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dirige cada INSERT/UPDATE/DELETE que Hibernate hace de un pedido o de una línea a la
+ * partición del vendedor del pedido, sin importar desde dónde se guardó (save, saveAll,
+ * cascade de las líneas, orphanRemoval o cambios detectados en el flush).
+ *
+ * Los eventos Pre* se disparan justo antes de preparar la sentencia de la entidad y los
+ * Post* justo después, así OrderPartitionInspector ve la partición de esa entidad. Si el
+ * flush pasa a otra partición, los INSERT/UPDATE acumulados en el lote JDBC se envían antes,
+ * porque la sentencia del lote ya quedó preparada para la partición anterior.
+ *
+ * La partición del lote y la de la escritura en curso se limpian al terminar la transacción
+ * (también si falla a mitad del flush), para que no pasen a la siguiente petición del hilo.
+ */
+@Component
+public class OrderPartitionListener implements PreInsertEventListener, PreUpdateEventListener,
+        PreDeleteEventListener, PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    // Partición de la última sentencia preparada en el hilo (la del lote JDBC en curso)
+    private static final ThreadLocal<Integer> BATCHED = new ThreadLocal<>();
+
+    @Autowired
+    private transient OrderPartitions partitions;
+
+    @Autowired
+    private transient EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.PRE_INSERT, this);
+        registry.appendListeners(EventType.PRE_UPDATE, this);
+        registry.appendListeners(EventType.PRE_DELETE, this);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        start(event.getEntity(), event.getSession());
+        return false;
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        start(event.getEntity(), event.getSession());
+        return false;
+    }
+
+    @Override
+    public boolean onPreDelete(PreDeleteEvent event) {
+        start(event.getEntity(), event.getSession());
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        partitions.endWrite();
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        partitions.endWrite();
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        partitions.endWrite();
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void start(Object entity, EventSource session) {
+        Order order = orderOf(entity);
+        if (order == null) {
+            return;
+        }
+        int partition = partitions.partitionOf(order.getSellerId());
+        Integer batched = BATCHED.get();
+        if (batched == null) {
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> {
+                BATCHED.remove();
+                partitions.endWrite();
+            });
+        } else if (batched != partition) {
+            session.getJdbcCoordinator().executeBatch();
+        }
+        BATCHED.set(partition);
+        partitions.startWrite(partition);
+    }
+
+    private static Order orderOf(Object entity) {
+        if (entity instanceof Order order) {
+            return order;
+        }
+        if (entity instanceof OrderItem item && item.getOrder() != null) {
+            return (Order) Hibernate.unproxy(item.getOrder());
+        }
+        return null;
+    }
+}
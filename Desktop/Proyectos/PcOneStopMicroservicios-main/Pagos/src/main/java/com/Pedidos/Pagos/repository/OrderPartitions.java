@@ -0,0 +1,208 @@
+package com.Pedidos.Pagos.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Reparte los pedidos en N esquemas por hash del sellerId: orders_p0 ... orders_p{N-1}, cada
+ * uno con sus propias tablas orders y order_items. Todos los pedidos de un vendedor quedan en
+ * el mismo esquema, así sus consultas no recorren los índices de los demás vendedores.
+ *
+ * Order y OrderItem siguen mapeados a orders y order_items; OrderPartitionInspector reescribe
+ * cada sentencia hacia el esquema de la partición activa en el hilo:
+ * - la del pedido que Hibernate está escribiendo en el flush (OrderPartitionListener)
+ * - si no, la que fija PartitionedOrderRepository alrededor de cada consulta (inPartition)
+ *
+ * Sin partición activa las lecturas van a las vistas orders_all / order_items_all (la unión de
+ * todas las particiones; por ejemplo, la carga diferida de las líneas de un pedido o un
+ * INSERT ... SELECT hacia orders_archive) y las escrituras sobre orders / order_items fallan,
+ * para que ningún INSERT/UPDATE/DELETE caiga en una partición equivocada. Una tabla de pedidos
+ * calificada con un esquema que no es de partición (pagos.orders) también falla: iría a la
+ * plantilla sin particionar.
+ *
+ * Cambiar la cantidad de particiones reparte distinto a los vendedores: OrderPartitionSetup
+ * no arranca si no coincide con la de los pedidos ya repartidos.
+ */
+@Component
+public class OrderPartitions {
+
+    public static final List<String> TABLES = List.of("orders", "order_items");
+
+    // Sufijo de las vistas con la unión de todas las particiones
+    public static final String UNION_SUFFIX = "_all";
+
+    // Constante de Fibonacci: reparte bien IDs consecutivos entre las particiones
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    // orders / order_items como nombre de tabla, con o sin comillas, no como parte de otro identificador
+    // (orders_seq, idx_orders_..., x.orders)
+    private static final Pattern TABLE_NAME = Pattern.compile(
+            "(?<![\\w.`\"])([`\"]?)(orders|order_items)\\1(?![\\w`\"])", Pattern.CASE_INSENSITIVE);
+
+    // orders / order_items calificadas con un esquema: esquema.orders
+    private static final Pattern QUALIFIED = Pattern.compile(
+            "([\\w`\"]+)\\.([`\"]?)(orders|order_items)\\2(?![\\w`\"])", Pattern.CASE_INSENSITIVE);
+
+    // Tabla destino de un INSERT / REPLACE / UPDATE / DELETE de una sola tabla
+    private static final Pattern WRITE_TARGET = Pattern.compile(
+            "(?:insert\\s+(?:ignore\\s+)?into|replace\\s+into|update|delete\\s+from)\\s+([\\w`\".]+)", Pattern.CASE_INSENSITIVE);
+
+    private static final ThreadLocal<Integer> ROUTED = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> WRITING = new ThreadLocal<>();
+
+    @Value("${pagos.orders.partitions:16}")
+    private int count = 16;
+
+    @Value("${pagos.orders.partition-schema-prefix:orders_p}")
+    private String schemaPrefix = "orders_p";
+
+    @PostConstruct
+    void validate() {
+        if (count <= 0) {
+            throw new IllegalStateException("pagos.orders.partitions debe ser positivo");
+        }
+        if (!schemaPrefix.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalStateException("pagos.orders.partition-schema-prefix no es un identificador válido: " + schemaPrefix);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int partitionOf(Long sellerId) {
+        if (sellerId == null) {
+            throw new IllegalArgumentException("El pedido no tiene vendedor");
+        }
+        return Math.floorMod(Long.hashCode(sellerId * HASH_MULTIPLIER), count);
+    }
+
+    public String schema(int partition) {
+        return schemaPrefix + partition;
+    }
+
+    /**
+     * SELECT con la unión de una tabla en todas las particiones (para las vistas *_all).
+     */
+    public String unionOf(String table) {
+        return IntStream.range(0, count)
+                .mapToObj(partition -> "select * from " + schema(partition) + "." + table)
+                .collect(Collectors.joining(" union all "));
+    }
+
+    /**
+     * Particiones que debe recorrer una consulta que no es de un solo vendedor: todas, o solo
+     * la activa si se llama dentro de inPartition.
+     */
+    public List<Integer> scanned() {
+        Integer current = ROUTED.get();
+        if (current != null) {
+            return List.of(current);
+        }
+        List<Integer> all = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            all.add(i);
+        }
+        return all;
+    }
+
+    /**
+     * Ejecuta work con las sentencias de pedidos dirigidas a la partición indicada.
+     * Dentro de otra partición solo se puede volver a entrar a la misma.
+     */
+    public <T> T inPartition(int partition, Supplier<T> work) {
+        if (partition < 0 || partition >= count) {
+            throw new IllegalArgumentException("Partición inexistente: " + partition);
+        }
+        Integer previous = ROUTED.get();
+        if (previous != null && previous != partition) {
+            throw new IllegalStateException("Consulta de la partición " + partition + " dentro de la partición " + previous);
+        }
+        ROUTED.set(partition);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ROUTED.remove();
+            }
+        }
+    }
+
+    // Lo fija OrderPartitionListener mientras Hibernate escribe un pedido o una línea
+    void startWrite(int partition) {
+        WRITING.set(partition);
+    }
+
+    void endWrite() {
+        WRITING.remove();
+    }
+
+    /**
+     * Reescribe orders / order_items hacia la partición activa, o hacia las vistas de unión
+     * si la sentencia no escribe en ellas y no hay partición.
+     */
+    public String rewrite(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher qualified = QUALIFIED.matcher(sql);
+        while (qualified.find()) {
+            if (!isPartitionSchema(unquote(qualified.group(1)))) {
+                throw new IllegalStateException("Tabla de pedidos fuera de las particiones: " + sql);
+            }
+        }
+        Matcher matcher = TABLE_NAME.matcher(sql);
+        if (!matcher.find()) {
+            return sql;
+        }
+        Integer partition = WRITING.get();
+        if (partition == null) {
+            partition = ROUTED.get();
+        }
+        if (partition == null) {
+            if (writesOrders(sql)) {
+                throw new IllegalStateException("Escritura de pedidos fuera de una partición: " + sql);
+            }
+            return matcher.replaceAll(table -> table.group(1) + table.group(2) + UNION_SUFFIX + table.group(1));
+        }
+        String schema = schema(partition);
+        return matcher.replaceAll(table -> schema + "." + table.group(1) + table.group(2) + table.group(1));
+    }
+
+    private boolean isPartitionSchema(String schema) {
+        if (schema.length() <= schemaPrefix.length() || !schema.regionMatches(true, 0, schemaPrefix, 0, schemaPrefix.length())) {
+            return false;
+        }
+        String number = schema.substring(schemaPrefix.length());
+        return number.chars().allMatch(Character::isDigit) && number.length() < 10 && Integer.parseInt(number) < count;
+    }
+
+    // Si no se reconoce la tabla destino (un DELETE de varias tablas, por ejemplo) se asume que es de pedidos
+    private static boolean writesOrders(String sql) {
+        String statement = sql.stripLeading();
+        if (statement.startsWith("(") || statement.regionMatches(true, 0, "select", 0, 6)
+                || statement.regionMatches(true, 0, "with", 0, 4)) {
+            return false;
+        }
+        Matcher target = WRITE_TARGET.matcher(statement);
+        if (!target.lookingAt()) {
+            return true;
+        }
+        String table = unquote(target.group(1));
+        return TABLES.contains(table.substring(table.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static String unquote(String identifier) {
+        return identifier.replace("`", "").replace("\"", "");
+    }
+}
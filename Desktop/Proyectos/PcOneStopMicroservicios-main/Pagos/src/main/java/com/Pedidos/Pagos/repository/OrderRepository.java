@@ -1,14 +1,197 @@
 package com.Pedidos.Pagos.repository;
 
 import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderSearchRepository {
     // Buscar todos los pedidos de un usuario específico
     List<Order> findByUserId(Long userId);
 
     List<Order> findBySellerId(Long sellerId);
-}
\ No newline at end of file
+
+    // Pedidos generados por un mismo checkout, usa idx_orders_checkout
+    List<Order> findByCheckoutIdOrderByIdAsc(String checkoutId);
+
+    // Historial paginado por cursor (más reciente primero), usa idx_orders_user_created
+    List<Order> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("""
+            select o from Order o
+            where o.userId = :userId
+              and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<Order> findUserPageBefore(@Param("userId") Long userId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+
+    // Igual que el anterior para vendedores, usa idx_orders_seller_created
+    List<Order> findBySellerIdOrderByCreatedAtDescIdDesc(Long sellerId, Pageable pageable);
+
+    @Query("""
+            select o from Order o
+            where o.sellerId = :sellerId
+              and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<Order> findSellerPageBefore(@Param("sellerId") Long sellerId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    /**
+     * Bloque de pedidos de un estado y período para la liquidación: {id, createdAt, sellerId, totalAmount}.
+     * Avanza por idx_orders_status_created desde (createdAt, id) sin cargar entidades.
+     */
+    @Query("""
+            select o.id, o.createdAt, o.sellerId, o.totalAmount from Order o
+            where o.status = :status
+              and (o.createdAt > :createdAt or (o.createdAt = :createdAt and o.id > :id))
+              and o.createdAt < :to
+            order by o.createdAt asc, o.id asc
+            """)
+    List<Object[]> findSettlementRows(@Param("status") OrderStatus status,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      @Param("to") LocalDateTime to,
+                                      Pageable pageable);
+
+    /**
+     * Página de exportación de un vendedor en orden cronológico: {id, createdAt, userId, status, totalAmount}.
+     * Avanza por idx_orders_seller_created desde (createdAt, id) sin cargar entidades.
+     */
+    @Query("""
+            select o.id, o.createdAt, o.userId, o.status, o.totalAmount from Order o
+            where o.sellerId = :sellerId
+              and (o.createdAt > :createdAt or (o.createdAt = :createdAt and o.id > :id))
+              and o.createdAt < :to
+            order by o.createdAt asc, o.id asc
+            """)
+    List<Object[]> findSellerExportRows(@Param("sellerId") Long sellerId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        @Param("to") LocalDateTime to,
+                                        Pageable pageable);
+
+    // Pedidos por estado paginados por cursor, usa idx_orders_status_created
+    List<Order> findByStatusOrderByCreatedAtDescIdDesc(OrderStatus status, Pageable pageable);
+
+    @Query("""
+            select o from Order o
+            where o.status = :status
+              and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<Order> findStatusPageBefore(@Param("status") OrderStatus status,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    // Pedidos de un vendedor en un estado, usa idx_orders_seller_status_created
+    List<Order> findBySellerIdAndStatusOrderByCreatedAtDescIdDesc(Long sellerId, OrderStatus status, Pageable pageable);
+
+    @Query("""
+            select o from Order o
+            where o.sellerId = :sellerId and o.status = :status
+              and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<Order> findSellerStatusPageBefore(@Param("sellerId") Long sellerId,
+                                           @Param("status") OrderStatus status,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    /**
+     * Cambia en un solo UPDATE el estado de los pedidos indicados que siguen en el estado esperado.
+     * Devuelve la cantidad de filas modificadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :target where o.id in :ids and o.status = :expected")
+    int updateStatusBulk(@Param("ids") Collection<Long> ids,
+                         @Param("expected") OrderStatus expected,
+                         @Param("target") OrderStatus target);
+
+    // Estado actual {id, status} de varios pedidos
+    @Query("select o.id, o.status from Order o where o.id in :ids")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // IDs de pedidos en estado final creados antes de la fecha de corte, en orden de ID (archivado)
+    @Query("select o.id from Order o where o.status in :statuses and o.createdAt < :before and o.id > :afterId order by o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                 @Param("before") LocalDateTime before,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    @Query("select count(o) from Order o where o.status in :statuses and o.createdAt < :before")
+    long countArchivable(@Param("statuses") Collection<OrderStatus> statuses, @Param("before") LocalDateTime before);
+
+    // Borra pedidos por ID al archivarlos o purgarlos (sus líneas se borran antes con deleteItemsByOrderIds)
+    @Modifying
+    @Query(value = "delete from orders where id in (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Pedidos por {sellerId, estado, cantidad}, para reconstruir los contadores de estados
+    @Query("select o.sellerId, o.status, count(o) from Order o group by o.sellerId, o.status")
+    List<Object[]> countBySellerAndStatus();
+
+    // Rango de IDs de pedidos {min, max}, para repartir el recálculo de rollups en bloques
+    @Query("select min(o.id), max(o.id) from Order o")
+    List<Object[]> findIdRange();
+
+    // Agregados {sellerId, día, estado, pedidos, ingresos en céntimos} de un bloque de IDs (from, to].
+    // Es SQL nativo para sumar la columna BIGINT directamente (la conversión a Money no aplica a sum)
+    @Query(value = """
+            select seller_id, date(created_at), status, count(*), sum(total_cents)
+            from orders
+            where id > :fromId and id <= :toId
+            group by seller_id, date(created_at), status
+            """, nativeQuery = true)
+    List<Object[]> summarizeDailyByIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Agregados {sellerId, día, estado, pedidos, ingresos en céntimos} de pedidos puntuales, para restarlos al purgar
+    @Query(value = """
+            select seller_id, date(created_at), status, count(*), sum(total_cents)
+            from orders
+            where id in (:ids)
+            group by seller_id, date(created_at), status
+            """, nativeQuery = true)
+    List<Object[]> summarizeDailyByIds(@Param("ids") Collection<Long> ids);
+
+    // Agregados {estado, pedidos, ingresos en céntimos} de un vendedor en un día, para corregir sus rollups
+    @Query(value = """
+            select status, count(*), sum(total_cents)
+            from orders
+            where seller_id = :sellerId and created_at >= :from and created_at < :to
+            group by status
+            """, nativeQuery = true)
+    List<Object[]> summarizeSellerDay(@Param("sellerId") Long sellerId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    // Pedidos antiguos que solo tienen productIds en CSV, en orden de ID (para migrarlos por lotes)
+    @Query("select o from Order o where o.id > :afterId and o.productIds is not null and o.items is empty order by o.id")
+    List<Order> findLegacyOrdersWithoutItems(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Pedidos de checkout {id, userId, totalAmount, createdAt} que siguen PENDIENTE, en orden de ID (cobro)
+    @Query("""
+            select o.id, o.userId, o.totalAmount, o.createdAt from Order o
+            where o.status = :status and o.checkoutId is not null and o.createdAt < :before and o.id > :afterId
+            order by o.id
+            """)
+    List<Object[]> findUnpaidCheckoutOrders(@Param("status") OrderStatus status,
+                                            @Param("before") LocalDateTime before,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+}
@@ -0,0 +1,21 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Búsqueda de pedidos con filtros opcionales. La implementa OrderSearchRepositoryImpl y
+ * OrderRepository la expone junto con el resto de sus consultas; se usa a través de
+ * PartitionedOrderRepository.searchIds.
+ */
+public interface OrderSearchRepository {
+
+    /**
+     * Claves {id, createdAt} de los pedidos que cumplen los filtros, del más reciente al más
+     * antiguo, a partir de la posición (createdAt, id) del cursor (null para la primera página).
+     * PartitionedOrderRepository une con createdAt las claves de cada partición.
+     */
+    List<Object[]> searchKeys(OrderSearchCriteria criteria, LocalDateTime beforeCreatedAt, Long beforeId, int limit);
+}
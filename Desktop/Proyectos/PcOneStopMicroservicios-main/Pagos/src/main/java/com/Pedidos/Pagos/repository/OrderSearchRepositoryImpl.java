@@ -0,0 +1,106 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arma la búsqueda de pedidos solo con los filtros recibidos, para que MySQL vea predicados
+ * de igualdad y de rango simples, y la fuerza sobre el índice compuesto que corresponde:
+ *
+ * - vendedor (+ estado): idx_orders_seller_status_created / idx_orders_seller_created
+ * - usuario (+ estado): idx_orders_user_status_created / idx_orders_user_created
+ * - solo estado: idx_orders_status_created
+ * - solo fechas y/o montos: idx_orders_created_total
+ *
+ * Todos terminan en created_at y InnoDB agrega el id a cada índice, así el rango de fechas,
+ * el cursor y el orden (created_at desc, id desc) se resuelven dentro del índice y la
+ * consulta termina al juntar la página, sin ordenar ni recorrer la tabla. Solo se leen el ID
+ * y created_at, así el índice cubre la consulta (el filtro de monto lee además la fila de los candidatos
+ * cuando el índice no incluye total_cents); los pedidos de la página se cargan después por
+ * clave primaria.
+ */
+public class OrderSearchRepositoryImpl implements OrderSearchRepository {
+
+    record SearchSql(String index, String sql, Map<String, Object> params) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> searchKeys(OrderSearchCriteria criteria, LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        SearchSql search = buildSearch(criteria, beforeCreatedAt, beforeId);
+        Query query = entityManager.createNativeQuery(search.sql());
+        search.params().forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return new ArrayList<>(query.getResultList());
+    }
+
+    static SearchSql buildSearch(OrderSearchCriteria criteria, LocalDateTime beforeCreatedAt, Long beforeId) {
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        // Las igualdades primero, en el orden de las columnas del índice
+        if (criteria.getSellerId() != null) {
+            where.add("seller_id = :sellerId");
+            params.put("sellerId", criteria.getSellerId());
+        }
+        if (criteria.getUserId() != null) {
+            where.add("user_id = :userId");
+            params.put("userId", criteria.getUserId());
+        }
+        if (criteria.getStatus() != null) {
+            where.add("status = :status");
+            params.put("status", criteria.getStatus().name());
+        }
+        if (criteria.getFrom() != null) {
+            where.add("created_at >= :from");
+            params.put("from", criteria.getFrom().atStartOfDay());
+        }
+        if (criteria.getTo() != null) {
+            where.add("created_at < :to");
+            params.put("to", criteria.getTo().plusDays(1).atStartOfDay());
+        }
+        if (beforeCreatedAt != null) {
+            where.add("(created_at < :beforeCreatedAt or (created_at = :beforeCreatedAt and id < :beforeId))");
+            params.put("beforeCreatedAt", beforeCreatedAt);
+            params.put("beforeId", beforeId);
+        }
+        if (criteria.getMinAmount() != null) {
+            where.add("total_cents >= :minCents");
+            params.put("minCents", criteria.getMinAmount().cents());
+        }
+        if (criteria.getMaxAmount() != null) {
+            where.add("total_cents <= :maxCents");
+            params.put("maxCents", criteria.getMaxAmount().cents());
+        }
+
+        String index = chooseIndex(criteria);
+        StringBuilder sql = new StringBuilder("select id, created_at from orders force index (").append(index).append(')');
+        if (!where.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", where));
+        }
+        sql.append(" order by created_at desc, id desc");
+        return new SearchSql(index, sql.toString(), params);
+    }
+
+    // El índice cuyas primeras columnas son las igualdades recibidas, seguidas de created_at
+    private static String chooseIndex(OrderSearchCriteria criteria) {
+        boolean byStatus = criteria.getStatus() != null;
+        if (criteria.getSellerId() != null) {
+            return byStatus ? "idx_orders_seller_status_created" : "idx_orders_seller_created";
+        }
+        if (criteria.getUserId() != null) {
+            return byStatus ? "idx_orders_user_status_created" : "idx_orders_user_created";
+        }
+        return byStatus ? "idx_orders_status_created" : "idx_orders_created_total";
+    }
+}
@@ -0,0 +1,320 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Punto de acceso a los pedidos particionados por vendedor (ver OrderPartitions). Expone las
+ * consultas de OrderRepository y decide a qué particiones van:
+ *
+ * - las de un vendedor se ejecutan solo en su partición
+ * - las búsquedas por ID son una sola consulta sobre la vista orders_all (cada rama de la
+ *   unión resuelve el ID por su clave primaria), en vez de probar partición por partición
+ * - las de un usuario, por estado o administrativas se ejecutan en cada partición y se unen
+ *   en memoria; las paginadas piden la página a cada partición y se quedan con las primeras
+ *   según el mismo orden de la consulta
+ *
+ * Dentro de inPartition, las consultas que recorren todas las particiones usan solo la
+ * activa (el archivado y la purga trabajan así, partición por partición).
+ *
+ * Guardar y borrar entidades no necesita partición: OrderPartitionListener dirige cada
+ * sentencia del flush a la partición del vendedor del pedido. Los borrados masivos de pedidos
+ * y líneas pasan por aquí para que siempre corran dentro de una partición.
+ */
+@Repository
+public class PartitionedOrderRepository {
+
+    private static final Comparator<Order> NEWEST_FIRST =
+            Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed();
+
+    private static final Comparator<Order> BY_ID = Comparator.comparing(Order::getId);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    public int partitionOf(Long sellerId) {
+        return partitions.partitionOf(sellerId);
+    }
+
+    /**
+     * Ejecuta work con las consultas de pedidos (también las nativas de otros repositorios
+     * sobre orders / order_items) dirigidas a una partición.
+     */
+    public <T> T inPartition(int partition, Supplier<T> work) {
+        return partitions.inPartition(partition, work);
+    }
+
+    // ===== Escrituras =====
+
+    public Order save(Order order) {
+        return orderRepository.save(order);
+    }
+
+    public List<Order> saveAll(Iterable<Order> orders) {
+        return orderRepository.saveAll(orders);
+    }
+
+    public void deleteById(Long id) {
+        orderRepository.deleteById(id);
+    }
+
+    /**
+     * Cambia el estado de los pedidos indicados en cada partición (un UPDATE por partición).
+     */
+    public int updateStatusBulk(Collection<Long> ids, OrderStatus expected, OrderStatus target) {
+        return (int) sum(() -> orderRepository.updateStatusBulk(ids, expected, target));
+    }
+
+    public int deleteByIds(Collection<Long> ids) {
+        return (int) sum(() -> orderRepository.deleteByIds(ids));
+    }
+
+    // Las líneas de los pedidos indicados, antes de borrar los pedidos
+    public int deleteItemsByOrderIds(Collection<Long> orderIds) {
+        return (int) sum(() -> orderItemRepository.deleteByOrderIds(orderIds));
+    }
+
+    // ===== Consultas de un vendedor: una sola partición =====
+
+    public List<Order> findBySellerId(Long sellerId) {
+        return inSellerPartition(sellerId, () -> orderRepository.findBySellerId(sellerId));
+    }
+
+    public List<Order> findBySellerIdOrderByCreatedAtDescIdDesc(Long sellerId, Pageable pageable) {
+        return inSellerPartition(sellerId, () -> orderRepository.findBySellerIdOrderByCreatedAtDescIdDesc(sellerId, pageable));
+    }
+
+    public List<Order> findSellerPageBefore(Long sellerId, LocalDateTime createdAt, Long id, Pageable pageable) {
+        return inSellerPartition(sellerId, () -> orderRepository.findSellerPageBefore(sellerId, createdAt, id, pageable));
+    }
+
+    public List<Order> findBySellerIdAndStatusOrderByCreatedAtDescIdDesc(Long sellerId, OrderStatus status, Pageable pageable) {
+        return inSellerPartition(sellerId,
+                () -> orderRepository.findBySellerIdAndStatusOrderByCreatedAtDescIdDesc(sellerId, status, pageable));
+    }
+
+    public List<Order> findSellerStatusPageBefore(Long sellerId, OrderStatus status, LocalDateTime createdAt, Long id,
+                                                  Pageable pageable) {
+        return inSellerPartition(sellerId,
+                () -> orderRepository.findSellerStatusPageBefore(sellerId, status, createdAt, id, pageable));
+    }
+
+    public List<Object[]> findSellerExportRows(Long sellerId, LocalDateTime createdAt, Long id, LocalDateTime to,
+                                               Pageable pageable) {
+        return inSellerPartition(sellerId, () -> orderRepository.findSellerExportRows(sellerId, createdAt, id, to, pageable));
+    }
+
+    public List<Object[]> summarizeSellerDay(Long sellerId, LocalDateTime from, LocalDateTime to) {
+        return inSellerPartition(sellerId, () -> orderRepository.summarizeSellerDay(sellerId, from, to));
+    }
+
+    // ===== Consultas por ID: una consulta sobre orders_all (o la partición activa) =====
+
+    public Optional<Order> findById(Long id) {
+        return orderRepository.findById(id);
+    }
+
+    public List<Order> findAllById(Collection<Long> ids) {
+        return orderRepository.findAllById(ids);
+    }
+
+    public List<Object[]> findStatusesByIdIn(Collection<Long> ids) {
+        return orderRepository.findStatusesByIdIn(ids);
+    }
+
+    // ===== Consultas de usuarios y administrativas: todas las particiones =====
+
+    public List<Order> findAll() {
+        return collect(() -> orderRepository.findAll());
+    }
+
+    public long count() {
+        return sum(() -> orderRepository.count());
+    }
+
+    public List<Order> findByUserId(Long userId) {
+        return collect(() -> orderRepository.findByUserId(userId));
+    }
+
+    public List<Order> findByCheckoutIdOrderByIdAsc(String checkoutId) {
+        List<Order> orders = collect(() -> orderRepository.findByCheckoutIdOrderByIdAsc(checkoutId));
+        orders.sort(BY_ID);
+        return orders;
+    }
+
+    public List<Order> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable) {
+        return mergePages(pageable, NEWEST_FIRST, page -> orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, page));
+    }
+
+    public List<Order> findUserPageBefore(Long userId, LocalDateTime createdAt, Long id, Pageable pageable) {
+        return mergePages(pageable, NEWEST_FIRST, page -> orderRepository.findUserPageBefore(userId, createdAt, id, page));
+    }
+
+    public List<Order> findByStatusOrderByCreatedAtDescIdDesc(OrderStatus status, Pageable pageable) {
+        return mergePages(pageable, NEWEST_FIRST, page -> orderRepository.findByStatusOrderByCreatedAtDescIdDesc(status, page));
+    }
+
+    public List<Order> findStatusPageBefore(OrderStatus status, LocalDateTime createdAt, Long id, Pageable pageable) {
+        return mergePages(pageable, NEWEST_FIRST, page -> orderRepository.findStatusPageBefore(status, createdAt, id, page));
+    }
+
+    /**
+     * IDs de la búsqueda, del más reciente al más antiguo. Con vendedor se busca solo en su
+     * partición; sin vendedor, cada partición devuelve hasta limit claves {id, createdAt} y se
+     * unen por (createdAt, id).
+     */
+    public List<Long> searchIds(OrderSearchCriteria criteria, LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        Supplier<List<Object[]>> search = () -> orderRepository.searchKeys(criteria, beforeCreatedAt, beforeId, limit);
+        List<Object[]> keys = criteria.getSellerId() != null
+                ? new ArrayList<>(inSellerPartition(criteria.getSellerId(), search))
+                : collect(search);
+        keys.sort(Comparator.<Object[], LocalDateTime>comparing(key -> dateTime(key[1]))
+                .thenComparingLong(key -> ((Number) key[0]).longValue()).reversed());
+        List<Long> ids = new ArrayList<>(Math.min(limit, keys.size()));
+        for (Object[] key : keys.subList(0, Math.min(limit, keys.size()))) {
+            ids.add(((Number) key[0]).longValue());
+        }
+        return ids;
+    }
+
+    public List<Object[]> findSettlementRows(OrderStatus status, LocalDateTime createdAt, Long id, LocalDateTime to,
+                                             Pageable pageable) {
+        return mergePages(pageable, Comparator.<Object[], LocalDateTime>comparing(row -> dateTime(row[1]))
+                        .thenComparingLong(row -> ((Number) row[0]).longValue()),
+                page -> orderRepository.findSettlementRows(status, createdAt, id, to, page));
+    }
+
+    /**
+     * Los primeros limit IDs archivables con ID mayor a afterId, agrupados por partición (cada
+     * grupo en orden de ID), para copiarlos y borrarlos dentro de su partición.
+     */
+    public Map<Integer, List<Long>> findArchivableIdsByPartition(Collection<OrderStatus> statuses, LocalDateTime before,
+                                                                 Long afterId, int limit) {
+        TreeMap<Long, Integer> partitionById = new TreeMap<>();
+        for (int partition : partitions.scanned()) {
+            List<Long> ids = partitions.inPartition(partition,
+                    () -> orderRepository.findArchivableIds(statuses, before, afterId, PageRequest.of(0, limit)));
+            for (Long id : ids) {
+                partitionById.put(id, partition);
+            }
+        }
+        Map<Integer, List<Long>> byPartition = new TreeMap<>();
+        int taken = 0;
+        for (Map.Entry<Long, Integer> entry : partitionById.entrySet()) {
+            if (taken++ == limit) {
+                break;
+            }
+            byPartition.computeIfAbsent(entry.getValue(), partition -> new ArrayList<>()).add(entry.getKey());
+        }
+        return byPartition;
+    }
+
+    public long countArchivable(Collection<OrderStatus> statuses, LocalDateTime before) {
+        return sum(() -> orderRepository.countArchivable(statuses, before));
+    }
+
+    public List<Object[]> countBySellerAndStatus() {
+        // Cada vendedor está en una sola partición: las filas no se repiten
+        return collect(() -> orderRepository.countBySellerAndStatus());
+    }
+
+    /**
+     * Rango {min, max} de IDs entre todas las particiones ({null, null} si no hay pedidos).
+     */
+    public List<Object[]> findIdRange() {
+        Long min = null;
+        Long max = null;
+        for (Object[] range : collect(() -> orderRepository.findIdRange())) {
+            if (range[0] != null) {
+                long low = ((Number) range[0]).longValue();
+                long high = ((Number) range[1]).longValue();
+                min = min == null ? low : Math.min(min, low);
+                max = max == null ? high : Math.max(max, high);
+            }
+        }
+        List<Object[]> range = new ArrayList<>(1);
+        range.add(new Object[]{min, max});
+        return range;
+    }
+
+    public List<Object[]> summarizeDailyByIdRange(Long fromId, Long toId) {
+        return collect(() -> orderRepository.summarizeDailyByIdRange(fromId, toId));
+    }
+
+    public List<Object[]> summarizeDailyByIds(Collection<Long> ids) {
+        return collect(() -> orderRepository.summarizeDailyByIds(ids));
+    }
+
+    public List<Order> findLegacyOrdersWithoutItems(Long afterId, Pageable pageable) {
+        return mergePages(pageable, BY_ID, page -> orderRepository.findLegacyOrdersWithoutItems(afterId, page));
+    }
+
+    public List<Object[]> findUnpaidCheckoutOrders(OrderStatus status, LocalDateTime before, Long afterId, Pageable pageable) {
+        return mergePages(pageable, Comparator.comparingLong((Object[] row) -> ((Number) row[0]).longValue()),
+                page -> orderRepository.findUnpaidCheckoutOrders(status, before, afterId, page));
+    }
+
+    private <T> T inSellerPartition(Long sellerId, Supplier<T> query) {
+        return partitions.inPartition(partitions.partitionOf(sellerId), query);
+    }
+
+    // Ejecuta la consulta en cada partición y junta los resultados
+    private <T> List<T> collect(Supplier<? extends Collection<T>> query) {
+        List<T> all = new ArrayList<>();
+        for (int partition : partitions.scanned()) {
+            all.addAll(partitions.inPartition(partition, query));
+        }
+        return all;
+    }
+
+    private long sum(Supplier<? extends Number> query) {
+        long total = 0;
+        for (int partition : partitions.scanned()) {
+            total += partitions.inPartition(partition, query).longValue();
+        }
+        return total;
+    }
+
+    // Cada partición devuelve sus primeros offset + size resultados; se ordenan juntos y se toma la página
+    private <T> List<T> mergePages(Pageable pageable, Comparator<? super T> order, Function<Pageable, List<T>> query) {
+        if (pageable.isUnpaged()) {
+            List<T> all = collect(() -> query.apply(pageable));
+            all.sort(order);
+            return all;
+        }
+        Pageable head = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), pageable.getSort());
+        List<T> all = collect(() -> query.apply(head));
+        all.sort(order);
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), all.size());
+        return new ArrayList<>(all.subList(from, to));
+    }
+
+    // created_at de una consulta nativa llega como Timestamp o LocalDateTime según el driver
+    private static LocalDateTime dateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
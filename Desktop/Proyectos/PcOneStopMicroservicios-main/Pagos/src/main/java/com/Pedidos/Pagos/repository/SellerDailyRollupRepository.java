@@ -0,0 +1,62 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.model.SellerDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SellerDailyRollupRepository extends JpaRepository<SellerDailyRollup, Long> {
+
+    /**
+     * Suma (o resta, con valores negativos) pedidos e ingresos a la fila del día y estado,
+     * creándola si no existe. Es atómico gracias a la restricción única (seller_id, rollup_day, status).
+     */
+    @Modifying
+    @Query(value = """
+            insert into seller_daily_rollups (seller_id, rollup_day, status, order_count, revenue_cents)
+            values (:sellerId, :day, :status, :count, :revenueCents)
+            on duplicate key update order_count = order_count + values(order_count),
+                                    revenue_cents = revenue_cents + values(revenue_cents)
+            """, nativeQuery = true)
+    int increment(@Param("sellerId") Long sellerId,
+                  @Param("day") LocalDate day,
+                  @Param("status") String status,
+                  @Param("count") long count,
+                  @Param("revenueCents") long revenueCents);
+
+    /**
+     * Fija pedidos e ingresos de la fila del día y estado, creándola si no existe.
+     */
+    @Modifying
+    @Query(value = """
+            insert into seller_daily_rollups (seller_id, rollup_day, status, order_count, revenue_cents)
+            values (:sellerId, :day, :status, :count, :revenueCents)
+            on duplicate key update order_count = values(order_count),
+                                    revenue_cents = values(revenue_cents)
+            """, nativeQuery = true)
+    int set(@Param("sellerId") Long sellerId,
+            @Param("day") LocalDate day,
+            @Param("status") String status,
+            @Param("count") long count,
+            @Param("revenueCents") long revenueCents);
+
+    /**
+     * Bloquea hasta el commit las filas de un vendedor en un día, y el hueco del índice único
+     * donde increment() insertaría una nueva. Devuelve los estados que ya tienen fila.
+     */
+    @Query(value = """
+            select status from seller_daily_rollups
+            where seller_id = :sellerId and rollup_day = :day
+            for update
+            """, nativeQuery = true)
+    List<String> lockDay(@Param("sellerId") Long sellerId, @Param("day") LocalDate day);
+
+    // Filas del dashboard de un vendedor (usa uk_rollup_seller_day_status)
+    List<SellerDailyRollup> findBySellerIdAndDayBetweenOrderByDayAsc(Long sellerId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,36 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.model.SellerSettlement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SellerSettlementRepository extends JpaRepository<SellerSettlement, Long> {
+
+    /**
+     * Suma pedidos y monto a la liquidación del vendedor, creándola si no existe.
+     * Es atómico gracias a la restricción única (run_id, seller_id).
+     */
+    @Modifying
+    @Query(value = """
+            insert into seller_settlements (run_id, seller_id, order_count, amount_cents)
+            values (:runId, :sellerId, :count, :amountCents)
+            on duplicate key update order_count = order_count + values(order_count),
+                                    amount_cents = amount_cents + values(amount_cents)
+            """, nativeQuery = true)
+    int increment(@Param("runId") Long runId,
+                  @Param("sellerId") Long sellerId,
+                  @Param("count") long count,
+                  @Param("amountCents") long amountCents);
+
+    List<SellerSettlement> findByRunIdOrderBySellerIdAsc(Long runId);
+
+    @Modifying
+    @Query("delete from SellerSettlement s where s.runId = :runId")
+    int deleteByRunId(@Param("runId") Long runId);
+}
@@ -0,0 +1,38 @@
+package com.Pedidos.Pagos.repository;
+
+import com.Pedidos.Pagos.model.SettlementRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SettlementRunRepository extends JpaRepository<SettlementRun, Long> {
+
+    Optional<SettlementRun> findByPeriodStartAndPeriodEnd(LocalDate periodStart, LocalDate periodEnd);
+
+    List<SettlementRun> findByStateOrderByIdAsc(SettlementRun.State state);
+
+    /**
+     * Avanza el punto de control solo si sigue donde lo dejó el bloque anterior. Devuelve 0
+     * si otra ejecución ya lo movió, para no sumar el mismo bloque dos veces.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update SettlementRun r
+            set r.lastCreatedAt = :toCreatedAt, r.lastOrderId = :toId, r.ordersProcessed = r.ordersProcessed + :rows
+            where r.id = :id and r.lastCreatedAt = :fromCreatedAt and r.lastOrderId = :fromId
+            """)
+    int advance(@Param("id") Long id,
+                @Param("fromCreatedAt") LocalDateTime fromCreatedAt,
+                @Param("fromId") Long fromId,
+                @Param("toCreatedAt") LocalDateTime toCreatedAt,
+                @Param("toId") Long toId,
+                @Param("rows") long rows);
+}
@@ -0,0 +1,21 @@
+package com.Pedidos.Pagos.service;
+
+import java.util.List;
+
+/**
+ * Checkout rechazado porque no se pudo descontar el stock de uno o más productos.
+ * El stock que sí se alcanzó a descontar ya fue devuelto a Inventario.
+ */
+public class CheckoutException extends RuntimeException {
+
+    private final List<String> failures;
+
+    public CheckoutException(List<String> failures) {
+        super("No se pudo confirmar el carrito: " + String.join("; ", failures));
+        this.failures = List.copyOf(failures);
+    }
+
+    public List<String> getFailures() {
+        return failures;
+    }
+}
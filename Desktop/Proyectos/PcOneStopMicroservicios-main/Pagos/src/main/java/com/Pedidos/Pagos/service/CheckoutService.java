@@ -0,0 +1,249 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.dto.CheckoutItem;
+import com.Pedidos.Pagos.dto.CheckoutRequest;
+import com.Pedidos.Pagos.dto.CheckoutResult;
+import com.Pedidos.Pagos.dto.CheckoutStats;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderItem;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Confirma un carrito: descuenta el stock de todos los productos en Inventario y recién
+ * entonces crea un pedido por cada vendedor del carrito.
+ *
+ * Las llamadas a Inventario se hacen en paralelo, una por producto en su propio hilo
+ * virtual, así la espera total es la de la llamada más lenta y no la suma de todas. Si
+ * alguna falla o no responde a tiempo, el stock ya descontado se devuelve con addStock y
+ * no se crea ningún pedido. Los pedidos de todos los vendedores se guardan juntos en una
+ * sola transacción y quedan enlazados por el mismo checkoutId. El cobro no se espera:
+ * los pedidos se encolan en PaymentPipeline y se responden en PENDIENTE.
+ *
+ * No es @Transactional: no tiene sentido mantener una transacción abierta mientras se
+ * espera a otro servicio; createOrders abre la suya.
+ */
+@Service
+public class CheckoutService {
+
+    public static final int MAX_CHECKOUT_ITEMS = 50;
+    private static final int COMPENSATION_ATTEMPTS = 3;
+
+    @Autowired
+    private InventarioClient inventarioClient;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentPipeline paymentPipeline;
+
+    @Value("${pagos.checkout.call-timeout-ms:2000}")
+    private long callTimeoutMillis = 2000;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong compensations = new AtomicLong();
+    private final AtomicLong compensationFailures = new AtomicLong();
+    private final AtomicLong parallelNanos = new AtomicLong();
+    private final AtomicLong sequentialNanos = new AtomicLong();
+
+    private record Reserved(InventarioClient.StockReduction reduction, long nanos) {
+    }
+
+    private record Reservation(Long productId, int quantity, CompletableFuture<Reserved> task) {
+    }
+
+    /**
+     * Descuenta el stock del carrito, crea un pedido PENDIENTE por vendedor y encola su cobro.
+     * Lanza CheckoutException si algún producto no se pudo reservar.
+     */
+    public CheckoutResult checkout(CheckoutRequest request) {
+        Map<Long, Integer> cart = toCart(request.getItems());
+
+        long start = System.nanoTime();
+        List<Reservation> reservations = new ArrayList<>(cart.size());
+        for (Map.Entry<Long, Integer> entry : cart.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = entry.getValue();
+            reservations.add(new Reservation(productId, quantity,
+                    CompletableFuture.supplyAsync(() -> reserve(productId, quantity), executor)));
+        }
+
+        // Todas las llamadas arrancan juntas, así que un solo plazo equivale al límite por llamada
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(callTimeoutMillis);
+        List<String> failures = new ArrayList<>();
+        long callsNanos = 0;
+        for (Reservation reservation : reservations) {
+            try {
+                Reserved reserved = reservation.task().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                callsNanos += reserved.nanos();
+            } catch (TimeoutException e) {
+                failures.add("Producto " + reservation.productId() + ": Inventario no respondió en " + callTimeoutMillis + " ms");
+            } catch (ExecutionException e) {
+                failures.add("Producto " + reservation.productId() + ": " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.add("Producto " + reservation.productId() + ": checkout interrumpido");
+            }
+        }
+
+        Map<Long, List<Reservation>> bySeller = new LinkedHashMap<>();
+        if (failures.isEmpty()) {
+            for (Reservation reservation : reservations) {
+                Long sellerId = reservation.task().join().reduction().sellerId();
+                sellerId = sellerId != null ? sellerId : request.getSellerId();
+                if (sellerId == null) {
+                    failures.add("Producto " + reservation.productId() + ": no se pudo determinar el vendedor");
+                } else {
+                    bySeller.computeIfAbsent(sellerId, k -> new ArrayList<>()).add(reservation);
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            compensate(reservations);
+            failed.incrementAndGet();
+            throw new CheckoutException(failures);
+        }
+        parallelNanos.addAndGet(System.nanoTime() - start);
+        sequentialNanos.addAndGet(callsNanos);
+
+        String checkoutId = UUID.randomUUID().toString();
+        List<Order> orders = new ArrayList<>(bySeller.size());
+        bySeller.forEach((sellerId, sellerReservations) ->
+                orders.add(toOrder(request.getUserId(), sellerId, checkoutId, sellerReservations)));
+        List<Order> saved;
+        try {
+            saved = orderService.createOrders(orders);
+        } catch (RuntimeException e) {
+            compensate(reservations);
+            failed.incrementAndGet();
+            throw e;
+        }
+        completed.incrementAndGet();
+        paymentPipeline.submit(saved);
+        return toResult(checkoutId, saved);
+    }
+
+    public CheckoutStats getStats() {
+        long done = completed.get();
+        return new CheckoutStats(done, failed.get(), compensations.get(), compensationFailures.get(),
+                averageMillis(parallelNanos.get(), done), averageMillis(sequentialNanos.get(), done));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // Une productos repetidos y valida el tamaño del carrito
+    private static Map<Long, Integer> toCart(List<CheckoutItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("El carrito está vacío");
+        }
+        Map<Long, Integer> cart = new LinkedHashMap<>();
+        for (CheckoutItem item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Cada producto debe tener productId y una cantidad mayor a cero");
+            }
+            cart.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        if (cart.size() > MAX_CHECKOUT_ITEMS) {
+            throw new IllegalArgumentException("El carrito admite como máximo " + MAX_CHECKOUT_ITEMS + " productos");
+        }
+        return cart;
+    }
+
+    private Reserved reserve(Long productId, int quantity) {
+        long start = System.nanoTime();
+        InventarioClient.StockReduction reduction = inventarioClient.reduceStock(productId, quantity);
+        return new Reserved(reduction, System.nanoTime() - start);
+    }
+
+    /**
+     * Devuelve el stock de cada reserva exitosa. Las que siguen en curso (timeout) se
+     * devuelven cuando terminan, si es que Inventario llegó a descontar.
+     */
+    private void compensate(List<Reservation> reservations) {
+        List<CompletableFuture<Void>> immediate = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            CompletableFuture<Void> release = reservation.task()
+                    .thenAcceptAsync(reserved -> release(reservation), executor);
+            if (reservation.task().isDone()) {
+                immediate.add(release);
+            }
+        }
+        try {
+            CompletableFuture.allOf(immediate.toArray(new CompletableFuture[0]))
+                    .get(callTimeoutMillis * COMPENSATION_ATTEMPTS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Las reservas fallidas no se compensan y release registra sus propios errores
+        }
+    }
+
+    private void release(Reservation reservation) {
+        for (int attempt = 1; attempt <= COMPENSATION_ATTEMPTS; attempt++) {
+            try {
+                inventarioClient.addStock(reservation.productId(), reservation.quantity());
+                compensations.incrementAndGet();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == COMPENSATION_ATTEMPTS) {
+                    compensationFailures.incrementAndGet();
+                    System.err.println("[Pagos] No se pudo devolver stock del producto " + reservation.productId()
+                            + " (" + reservation.quantity() + " u.): " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Arma el resultado de un checkout a partir de sus pedidos.
+     */
+    public static CheckoutResult toResult(String checkoutId, List<Order> orders) {
+        long totalCents = orders.stream().mapToLong(order -> order.getTotalAmount().cents()).sum();
+        return new CheckoutResult(checkoutId, Money.ofCents(totalCents), orders);
+    }
+
+    private static Order toOrder(Long userId, Long sellerId, String checkoutId, List<Reservation> reservations) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setSellerId(sellerId);
+        order.setCheckoutId(checkoutId);
+        List<OrderItem> items = new ArrayList<>(reservations.size());
+        long totalCents = 0;
+        for (Reservation reservation : reservations) {
+            Money unitPrice = reservation.task().join().reduction().unitPrice();
+            items.add(new OrderItem(null, order, reservation.productId(), reservation.quantity(), unitPrice));
+            totalCents += unitPrice.cents() * reservation.quantity();
+        }
+        order.setItems(items);
+        order.setTotalAmount(Money.ofCents(totalCents));
+        return order;
+    }
+
+    private static double averageMillis(long nanos, long count) {
+        return count == 0 ? 0.0 : Math.round(nanos / 1_000_000.0 / count * 10.0) / 10.0;
+    }
+}
@@ -0,0 +1,179 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.IdempotencyRecord;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Garantiza que una creación de pedido con la misma Idempotency-Key se ejecute una sola vez.
+ *
+ * Los resultados se guardan en la tabla idempotency_keys y en un LRU acotado en memoria,
+ * ambos con vencimiento (TTL). Las peticiones concurrentes con la misma clave esperan
+ * la ejecución en curso en vez de crear otro pedido.
+ */
+@Service
+@Transactional
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    /**
+     * Pedido resultante y si se devolvió uno ya creado en vez de ejecutar la creación.
+     */
+    public record Result(Order order, boolean replayed) {
+    }
+
+    private record Entry(Order order, LocalDateTime createdAt) {
+    }
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pagos.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    @Value("${pagos.idempotency.cache-size:10000}")
+    private int cacheSize = 10_000;
+
+    private final Map<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private final Map<String, CompletableFuture<Order>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta la creación una sola vez por clave; las repeticiones reciben el pedido guardado.
+     */
+    public Result execute(String key, Supplier<Order> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        Order cached = fromCache(key);
+        if (cached != null) {
+            return new Result(cached, true);
+        }
+
+        CompletableFuture<Order> future = new CompletableFuture<>();
+        CompletableFuture<Order> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return new Result(await(running), true);
+        }
+
+        try {
+            Order stored = fromStore(key);
+            if (stored != null) {
+                future.complete(stored);
+                return new Result(stored, true);
+            }
+
+            Order order = action.get();
+            LocalDateTime now = LocalDateTime.now();
+            // saveAndFlush: si otra instancia guardó la misma clave falla aquí y se revierte el pedido
+            idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(key, order.getId(), toJson(order), now));
+            remember(key, order, now);
+            future.complete(order);
+            return new Result(order, false);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Elimina de la BD las claves vencidas.
+     */
+    @Scheduled(fixedDelayString = "${pagos.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl()));
+    }
+
+    private Order fromCache(String key) {
+        synchronized (cache) {
+            Entry entry = cache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry.createdAt())) {
+                cache.remove(key);
+                return null;
+            }
+            return entry.order();
+        }
+    }
+
+    private Order fromStore(String key) {
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElse(null);
+        if (record == null || isExpired(record.getCreatedAt())) {
+            return null;
+        }
+        Order order = fromJson(record.getResponseBody());
+        remember(key, order, record.getCreatedAt());
+        return order;
+    }
+
+    private void remember(String key, Order order, LocalDateTime createdAt) {
+        synchronized (cache) {
+            cache.put(key, new Entry(order, createdAt));
+        }
+    }
+
+    private boolean isExpired(LocalDateTime createdAt) {
+        return createdAt.isBefore(LocalDateTime.now().minus(ttl()));
+    }
+
+    private Duration ttl() {
+        return Duration.ofHours(ttlHours);
+    }
+
+    private static Order await(CompletableFuture<Order> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String toJson(Order order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo guardar la respuesta del pedido " + order.getId(), e);
+        }
+    }
+
+    private Order fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, Order.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Respuesta guardada inválida para la Idempotency-Key", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.Money;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Operaciones del microservicio Inventario que usa Pagos: stock para el checkout y
+ * precios para el caché local.
+ */
+public interface InventarioClient {
+
+    /**
+     * Precio unitario vigente y vendedor del producto al momento de descontar el stock.
+     */
+    record StockReduction(Money unitPrice, Long sellerId) {
+    }
+
+    /**
+     * Precio vigente de un producto y la fecha de su última modificación en Inventario.
+     */
+    record PriceQuote(Long productId, Money price, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Descuenta unidades de un producto.
+     * Lanza una excepción si el producto no existe o no tiene stock suficiente.
+     */
+    StockReduction reduceStock(Long productId, int quantity);
+
+    /**
+     * Devuelve unidades al stock de un producto (compensación de un checkout fallido).
+     */
+    void addStock(Long productId, int quantity);
+
+    /**
+     * Precios de los productos modificados desde since (todo el catálogo si es nulo).
+     */
+    List<PriceQuote> findPriceChanges(LocalDateTime since);
+
+    /**
+     * Precio vigente de un producto.
+     * Lanza IllegalArgumentException si el producto no existe.
+     */
+    PriceQuote getPrice(Long productId);
+}
@@ -0,0 +1,24 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Destino local que escribe los eventos en la consola. Útil en desarrollo o cuando
+ * todavía no hay suscriptores configurados.
+ */
+@Component
+@ConditionalOnProperty(name = "pagos.outbox.log-events", havingValue = "true")
+public class LogOrderEventSink implements OrderEventSink {
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            System.out.println("[Pagos] Evento " + event.getId() + " " + event.getEventType() +
+                    " pedido " + event.getOrderId() + ": " + event.getPayload());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.dto.ArchiveProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archiva en segundo plano los pedidos COMPLETADO/CANCELADO con más de N días.
+ *
+ * Avanza por bloques en orden de ID con una pausa entre bloques para no competir con el
+ * tráfico normal. Como cada bloque se confirma por separado y los pedidos movidos salen
+ * de orders, una ejecución interrumpida continúa donde quedó en la siguiente.
+ */
+@Component
+public class OrderArchiveJob {
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Value("${pagos.archive.after-days:365}")
+    private long afterDays = 365;
+
+    @Value("${pagos.archive.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${pagos.archive.pause-ms:200}")
+    private long pauseMillis = 200;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ArchiveProgress progress = new ArchiveProgress(false, null, 0L, 0L, null, null, null, null);
+
+    @Scheduled(cron = "${pagos.archive.cron:0 0 2 * * *}")
+    public void runScheduled() {
+        run();
+    }
+
+    /**
+     * Inicia el archivado en otro hilo. Devuelve false si ya hay una ejecución en curso.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("order-archiver").start(this::archive);
+        return true;
+    }
+
+    /**
+     * Ejecuta el archivado completo en el hilo actual (no hace nada si ya hay otra ejecución).
+     */
+    public void run() {
+        if (running.compareAndSet(false, true)) {
+            archive();
+        }
+    }
+
+    // Se ejecuta con running ya tomado por quien lo llama
+    private void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        ArchiveProgress current = new ArchiveProgress(true, cutoff, orderArchiveService.countArchivable(cutoff),
+                0L, 0L, LocalDateTime.now(), null, null);
+        progress = current;
+        try {
+            while (true) {
+                List<Long> moved = orderArchiveService.moveChunk(cutoff, current.getLastId(), chunkSize);
+                if (moved.isEmpty()) {
+                    break;
+                }
+                synchronized (current) {
+                    current.setArchived(current.getArchived() + moved.size());
+                    current.setLastId(moved.get(moved.size() - 1));
+                }
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+            System.out.println("[Pagos] Pedidos archivados: " + current.getArchived());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(current, "Archivado interrumpido");
+        } catch (RuntimeException e) {
+            fail(current, e.getMessage());
+        } finally {
+            synchronized (current) {
+                current.setFinishedAt(LocalDateTime.now());
+                current.setRunning(false);
+            }
+            running.set(false);
+        }
+    }
+
+    /**
+     * Copia del progreso de la ejecución actual o de la última terminada.
+     */
+    public ArchiveProgress getProgress() {
+        ArchiveProgress current = progress;
+        synchronized (current) {
+            return new ArchiveProgress(current.isRunning(), current.getCutoff(), current.getTotal(),
+                    current.getArchived(), current.getLastId(), current.getStartedAt(),
+                    current.getFinishedAt(), current.getLastError());
+        }
+    }
+
+    private static void fail(ArchiveProgress current, String error) {
+        synchronized (current) {
+            current.setLastError(error);
+        }
+    }
+}
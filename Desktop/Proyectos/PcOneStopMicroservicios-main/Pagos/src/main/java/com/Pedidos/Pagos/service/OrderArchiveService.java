@@ -0,0 +1,115 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.ArchivedOrder;
+import com.Pedidos.Pagos.model.ArchivedOrderItem;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.ArchivedOrderItemRepository;
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mueve pedidos terminados de orders (de cada partición) a orders_archive y lee los pedidos archivados.
+ *
+ * Cada bloque se copia y se borra en su propia transacción, así un corte a mitad del
+ * archivado no deja pedidos duplicados ni perdidos.
+ */
+@Service
+@Transactional
+public class OrderArchiveService {
+
+    public static final Set<OrderStatus> ARCHIVABLE = EnumSet.of(OrderStatus.COMPLETADO, OrderStatus.CANCELADO);
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Autowired
+    private OrderCache orderCache;
+
+    /**
+     * Cantidad de pedidos que quedan por archivar con esta fecha de corte.
+     */
+    public long countArchivable(LocalDateTime before) {
+        return orderRepository.countArchivable(ARCHIVABLE, before);
+    }
+
+    /**
+     * Archiva el siguiente bloque de pedidos con ID mayor a afterId.
+     * Devuelve los IDs movidos en orden (vacío si no queda nada por archivar).
+     *
+     * Los IDs del bloque se toman de todas las particiones y se copian y borran partición por
+     * partición, con las sentencias de cada una dirigidas a su esquema.
+     */
+    public List<Long> moveChunk(LocalDateTime before, Long afterId, int chunkSize) {
+        Map<Integer, List<Long>> idsByPartition =
+                orderRepository.findArchivableIdsByPartition(ARCHIVABLE, before, afterId, chunkSize);
+        if (idsByPartition.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LocalDateTime archivedAt = LocalDateTime.now();
+        List<Long> moved = new ArrayList<>();
+        idsByPartition.forEach((partition, ids) -> moved.addAll(orderRepository.inPartition(partition, () -> {
+            archivedOrderRepository.copyFromOrders(ids, archivedAt);
+            archivedOrderItemRepository.copyFromOrderItems(ids);
+            orderRepository.deleteItemsByOrderIds(ids);
+            orderRepository.deleteByIds(ids);
+            return ids;
+        })));
+        Collections.sort(moved);
+        orderCache.evict(moved);
+        return moved;
+    }
+
+    /**
+     * Ventas archivadas de un producto: {unidades, ingresos en céntimos, pedidos}.
+     */
+    public Object[] summarizeSales(Long productId) {
+        List<Object[]> rows = archivedOrderItemRepository.summarizeSalesByProductId(productId);
+        return rows.isEmpty() ? new Object[]{0L, 0L, 0L} : rows.get(0);
+    }
+
+    public List<Order> findByUserId(Long userId) {
+        return withItems(archivedOrderRepository.findByUserId(userId));
+    }
+
+    public List<Order> findBySellerId(Long sellerId) {
+        return withItems(archivedOrderRepository.findBySellerId(sellerId));
+    }
+
+    public List<Order> findAll() {
+        return withItems(archivedOrderRepository.findAll());
+    }
+
+    // Carga las líneas de todos los pedidos con una sola consulta
+    private List<Order> withItems(List<ArchivedOrder> archived) {
+        if (archived.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = archived.stream().map(ArchivedOrder::getId).toList();
+        Map<Long, List<ArchivedOrderItem>> itemsByOrder = archivedOrderItemRepository.findByOrderIdIn(ids).stream()
+                .collect(Collectors.groupingBy(ArchivedOrderItem::getOrderId));
+        List<Order> orders = new ArrayList<>(archived.size());
+        for (ArchivedOrder order : archived) {
+            orders.add(order.toOrder(itemsByOrder.getOrDefault(order.getId(), List.of())));
+        }
+        return orders;
+    }
+}
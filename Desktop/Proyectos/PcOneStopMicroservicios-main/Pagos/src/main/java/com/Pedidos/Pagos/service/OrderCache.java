@@ -0,0 +1,228 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderItem;
+import com.Pedidos.Pagos.model.OrderStatus;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caché acotado (LRU con vencimiento) de pedidos para las lecturas por ID, y avisos de
+ * cambio de estado para el long-poll de GET /api/v1/orders/{id}/status.
+ *
+ * OrderService lo actualiza al crear y cambiar de estado (write-through) y lo invalida al
+ * eliminar, archivar o migrar pedidos. Los cambios se aplican recién cuando la transacción
+ * confirma. Guarda copias desacopladas de JPA con sus líneas ya cargadas: los pedidos que
+ * devuelve son de solo lectura.
+ *
+ * Una lectura que llenó el caché desde la BD no se guarda si mientras tanto hubo una
+ * escritura del mismo pedido, así una lectura lenta no pisa un estado más nuevo.
+ */
+@Service
+public class OrderCache {
+
+    private static final int WRITE_STRIPES = 1024;
+
+    private record Entry(Order order, long loadedAtNanos) {
+    }
+
+    @Value("${pagos.orders.cache-size:10000}")
+    private int cacheSize = 10_000;
+
+    @Value("${pagos.orders.cache-ttl-ms:60000}")
+    private long ttlMillis = 60_000;
+
+    @Value("${pagos.orders.long-poll-max-ms:30000}")
+    private long longPollMaxMillis = 30_000;
+
+    private final Map<Long, Entry> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    // Escrituras por franja de IDs, para descartar lecturas que quedaron viejas
+    private final AtomicLongArray writes = new AtomicLongArray(WRITE_STRIPES);
+    private final Map<Long, List<CompletableFuture<Order>>> watchers = new ConcurrentHashMap<>();
+    // Los avisos se entregan fuera del hilo que confirmó la transacción
+    private final ExecutorService notifier = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Pedido en caché, o null si no está o venció.
+     */
+    public Order get(Long id) {
+        synchronized (cache) {
+            Entry entry = cache.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAtNanos() > TimeUnit.MILLISECONDS.toNanos(ttlMillis)) {
+                cache.remove(id);
+                return null;
+            }
+            return entry.order();
+        }
+    }
+
+    /**
+     * Marca de escrituras del pedido; se toma antes de leerlo de la BD y se pasa a load.
+     */
+    public long writeMark(Long id) {
+        return writes.get(stripe(id));
+    }
+
+    /**
+     * Guarda un pedido leído de la BD si no hubo escrituras desde writeMark. Devuelve la copia.
+     */
+    public Order load(Order order, long writeMark) {
+        Order copy = copyOf(order, order.getStatus());
+        synchronized (cache) {
+            if (writes.get(stripe(order.getId())) == writeMark) {
+                cache.putIfAbsent(order.getId(), new Entry(copy, System.nanoTime()));
+            }
+        }
+        return copy;
+    }
+
+    public void onSaved(Order order) {
+        Order copy = copyOf(order, order.getStatus());
+        afterCommit(() -> {
+            put(copy);
+            notifyWatchers(copy.getId(), copy);
+        });
+    }
+
+    /**
+     * Nuevo estado del pedido. Si el pedido ya está en caché se copia con el nuevo estado;
+     * si no y sus líneas no están cargadas (UPDATE masivo) solo se invalida.
+     */
+    public void onStatusChanged(Order order) {
+        Order cached = get(order.getId());
+        Order copy = cached != null ? copyOf(cached, order.getStatus())
+                : Hibernate.isInitialized(order.getItems()) ? copyOf(order, order.getStatus()) : null;
+        Long id = order.getId();
+        afterCommit(() -> {
+            if (copy != null) {
+                put(copy);
+            } else {
+                evictNow(id);
+            }
+            notifyWatchers(id, copy);
+        });
+    }
+
+    public void onDeleted(Long id) {
+        afterCommit(() -> {
+            evictNow(id);
+            notifyWatchers(id, null);
+        });
+    }
+
+    /**
+     * Invalida pedidos que se movieron o modificaron fuera de los métodos anteriores.
+     */
+    public void evict(Collection<Long> ids) {
+        List<Long> copy = List.copyOf(ids);
+        afterCommit(() -> copy.forEach(this::evictNow));
+    }
+
+    /**
+     * Se completa con el pedido la próxima vez que cambie de estado (null si hay que leerlo
+     * de nuevo, por ejemplo porque se eliminó). Quien espera debe cancelarlo al terminar.
+     */
+    public CompletableFuture<Order> watch(Long id) {
+        CompletableFuture<Order> future = new CompletableFuture<>();
+        watchers.computeIfAbsent(id, k -> new CopyOnWriteArrayList<>()).add(future);
+        future.whenComplete((order, error) -> watchers.computeIfPresent(id, (k, list) -> {
+            list.remove(future);
+            return list.isEmpty() ? null : list;
+        }));
+        return future;
+    }
+
+    /**
+     * Espera del long-poll: la pedida, sin pasar de pagos.orders.long-poll-max-ms.
+     */
+    public long longPollTimeout(Long requestedMillis) {
+        if (requestedMillis == null || requestedMillis <= 0) {
+            return longPollMaxMillis;
+        }
+        return Math.min(requestedMillis, longPollMaxMillis);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        notifier.shutdown();
+    }
+
+    private void put(Order copy) {
+        synchronized (cache) {
+            writes.incrementAndGet(stripe(copy.getId()));
+            cache.put(copy.getId(), new Entry(copy, System.nanoTime()));
+        }
+    }
+
+    private void evictNow(Long id) {
+        synchronized (cache) {
+            writes.incrementAndGet(stripe(id));
+            cache.remove(id);
+        }
+    }
+
+    private void notifyWatchers(Long id, Order order) {
+        List<CompletableFuture<Order>> waiting = watchers.remove(id);
+        if (waiting != null) {
+            for (CompletableFuture<Order> future : waiting) {
+                notifier.execute(() -> future.complete(order));
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static int stripe(Long id) {
+        return (int) Math.floorMod(id, (long) WRITE_STRIPES);
+    }
+
+    // Copia fuera de JPA con las líneas, para poder devolverla sin sesión abierta
+    private static Order copyOf(Order order, OrderStatus status) {
+        Order copy = new Order(order.getId(), order.getUserId(), order.getTotalAmount(), status, order.getProductIds(),
+                order.getCreatedAt(), order.getSellerId(), new ArrayList<>(), order.getCheckoutId());
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                copy.getItems().add(new OrderItem(item.getId(), copy, item.getProductId(), item.getQuantity(),
+                        item.getUnitPrice()));
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,17 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos de pedidos que entrega OutboxRelay.
+ *
+ * Recibe los eventos en orden de ID. Si lanza una excepción el lote completo se vuelve
+ * a entregar más tarde, por lo que la entrega es "al menos una vez" y los suscriptores
+ * deben ignorar eventos repetidos (por su ID).
+ */
+public interface OrderEventSink {
+
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,131 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.repository.OrderItemRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exporta el historial de pedidos de un vendedor como CSV escribiendo directo en la respuesta.
+ *
+ * Recorre los pedidos por páginas con un cursor (createdAt, id) hacia adelante y solo
+ * consulta columnas, así la memoria usada es la de una página sin importar cuántos
+ * pedidos tenga el vendedor. No es @Transactional a propósito: cada consulta usa su
+ * propio contexto y no se acumulan entidades durante la exportación.
+ */
+@Service
+public class OrderExportService {
+
+    static final String HEADER = "id,fecha,usuario,estado,total,productos";
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Value("${pagos.export.page-size:1000}")
+    private int pageSize = 1000;
+
+    /**
+     * Escribe en out los pedidos del vendedor con fecha en [from, to] (ambos opcionales).
+     * Devuelve la cantidad de pedidos exportados.
+     */
+    public long exportSellerOrders(Long sellerId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        LocalDateTime createdAt = from != null ? from.atStartOfDay() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.of(9999, 1, 1, 0, 0);
+        // id = 0 incluye los pedidos creados exactamente en el instante inicial
+        Long id = 0L;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write('\n');
+        long exported = 0;
+        while (true) {
+            List<Object[]> rows = orderRepository.findSellerExportRows(
+                    sellerId, createdAt, id, end, PageRequest.of(0, pageSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            Map<Long, String> products = productsByOrder(sellerId, rows);
+            for (Object[] row : rows) {
+                writeRow(writer, row, products.getOrDefault((Long) row[0], ""));
+            }
+            exported += rows.size();
+            writer.flush();
+
+            Object[] last = rows.get(rows.size() - 1);
+            id = (Long) last[0];
+            createdAt = (LocalDateTime) last[1];
+            if (rows.size() < pageSize) {
+                break;
+            }
+        }
+        writer.flush();
+        return exported;
+    }
+
+    // "productId x cantidad @ precio" de cada línea, separadas por "|" (leídas de la partición del vendedor)
+    private Map<Long, String> productsByOrder(Long sellerId, List<Object[]> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        List<Object[]> items = orderRepository.inPartition(orderRepository.partitionOf(sellerId),
+                () -> orderItemRepository.findItemRowsByOrderIds(ids));
+        Map<Long, StringBuilder> builders = new HashMap<>();
+        for (Object[] item : items) {
+            StringBuilder sb = builders.computeIfAbsent((Long) item[0], k -> new StringBuilder());
+            if (sb.length() > 0) {
+                sb.append('|');
+            }
+            sb.append(item[1]).append('x').append(item[2]);
+            if (item[3] != null) {
+                sb.append('@').append(item[3]);
+            }
+        }
+        Map<Long, String> products = new HashMap<>();
+        builders.forEach((orderId, sb) -> products.put(orderId, sb.toString()));
+        return products;
+    }
+
+    private static void writeRow(Writer writer, Object[] row, String products) throws IOException {
+        writer.write(String.valueOf(row[0]));
+        writer.write(',');
+        writer.write(String.valueOf(row[1]));
+        writer.write(',');
+        writer.write(row[2] != null ? String.valueOf(row[2]) : "");
+        writer.write(',');
+        writer.write(row[3] != null ? String.valueOf(row[3]) : "");
+        writer.write(',');
+        writer.write(row[4] != null ? String.valueOf(row[4]) : "");
+        writer.write(',');
+        writer.write(escape(products));
+        writer.write('\n');
+    }
+
+    static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,135 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.dto.PurgeProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Purga en segundo plano los pedidos terminados anteriores a una fecha de corte, primero
+ * de orders y luego de orders_archive. Solo se ejecuta a pedido de un administrador.
+ *
+ * Avanza por bloques en orden de ID con una pausa entre bloques para no competir con el
+ * tráfico normal. Como cada bloque se confirma por separado, una ejecución interrumpida
+ * se retoma volviendo a lanzarla con la misma fecha.
+ */
+@Component
+public class OrderPurgeJob {
+
+    @Autowired
+    private OrderPurgeService orderPurgeService;
+
+    @Value("${pagos.purge.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${pagos.purge.pause-ms:200}")
+    private long pauseMillis = 200;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile PurgeProgress progress = new PurgeProgress(false, false, null, 0L, 0L, null, null, null, null, null);
+
+    /**
+     * Cuenta los pedidos que se purgarían sin borrar nada.
+     */
+    public PurgeProgress dryRun(LocalDate before) {
+        LocalDateTime cutoff = orderPurgeService.cutoff(before);
+        LocalDateTime now = LocalDateTime.now();
+        return new PurgeProgress(false, true, cutoff, orderPurgeService.countPurgeable(cutoff), 0L, null, null,
+                now, now, null);
+    }
+
+    /**
+     * Inicia la purga en otro hilo. Devuelve false si ya hay una ejecución en curso.
+     */
+    public boolean start(LocalDate before) {
+        LocalDateTime cutoff = orderPurgeService.cutoff(before);
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("order-purger").start(() -> purge(cutoff));
+        return true;
+    }
+
+    /**
+     * Ejecuta la purga completa en el hilo actual (no hace nada si ya hay otra ejecución).
+     */
+    public void run(LocalDate before) {
+        LocalDateTime cutoff = orderPurgeService.cutoff(before);
+        if (running.compareAndSet(false, true)) {
+            purge(cutoff);
+        }
+    }
+
+    // Se ejecuta con running ya tomado por quien lo llama
+    private void purge(LocalDateTime cutoff) {
+        PurgeProgress current = new PurgeProgress(true, false, cutoff, null, 0L, null, null,
+                LocalDateTime.now(), null, null);
+        progress = current;
+        try {
+            long total = orderPurgeService.countPurgeable(cutoff);
+            synchronized (current) {
+                current.setTotal(total);
+            }
+            purgeTable(current, "orders", afterId -> orderPurgeService.purgeOrdersChunk(cutoff, afterId, chunkSize));
+            purgeTable(current, "orders_archive",
+                    afterId -> orderPurgeService.purgeArchivedChunk(cutoff, afterId, chunkSize));
+            System.out.println("[Pagos] Pedidos purgados: " + current.getPurged());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(current, "Purga interrumpida");
+        } catch (RuntimeException e) {
+            fail(current, e.getMessage());
+        } finally {
+            synchronized (current) {
+                current.setFinishedAt(LocalDateTime.now());
+                current.setRunning(false);
+            }
+            running.set(false);
+        }
+    }
+
+    private void purgeTable(PurgeProgress current, String table, Function<Long, List<Long>> purgeChunk)
+            throws InterruptedException {
+        synchronized (current) {
+            current.setTable(table);
+            current.setLastId(0L);
+        }
+        while (true) {
+            List<Long> purged = purgeChunk.apply(current.getLastId());
+            if (purged.isEmpty()) {
+                return;
+            }
+            synchronized (current) {
+                current.setPurged(current.getPurged() + purged.size());
+                current.setLastId(purged.get(purged.size() - 1));
+            }
+            if (pauseMillis > 0) {
+                Thread.sleep(pauseMillis);
+            }
+        }
+    }
+
+    /**
+     * Copia del progreso de la ejecución actual o de la última terminada.
+     */
+    public PurgeProgress getProgress() {
+        PurgeProgress current = progress;
+        synchronized (current) {
+            return new PurgeProgress(current.isRunning(), current.isDryRun(), current.getCutoff(), current.getTotal(),
+                    current.getPurged(), current.getTable(), current.getLastId(), current.getStartedAt(),
+                    current.getFinishedAt(), current.getLastError());
+        }
+    }
+
+    private static void fail(PurgeProgress current, String error) {
+        synchronized (current) {
+            current.setLastError(error);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.repository.ArchivedOrderItemRepository;
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Elimina definitivamente pedidos COMPLETADO/CANCELADO creados antes de una fecha de corte,
+ * tanto de orders como de orders_archive.
+ *
+ * Cada bloque se borra con DELETE ... WHERE id IN en su propia transacción (en orders, uno por
+ * partición), así los locks duran lo que tarda un bloque y una ejecución cortada no deja
+ * líneas sin su pedido. Los pedidos purgados se restan de los rollups en la misma
+ * transacción, y de los contadores de estados cuando confirma.
+ */
+@Service
+@Transactional
+public class OrderPurgeService {
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Autowired
+    private SellerRollupService sellerRollupService;
+
+    @Autowired
+    private OrderStatusCounters statusCounters;
+
+    @Autowired
+    private OrderCache orderCache;
+
+    // Por debajo de esta antigüedad los pedidos todavía pueden liquidarse o consultarse en el archivo
+    @Value("${pagos.purge.min-age-days:730}")
+    private long minAgeDays = 730;
+
+    /**
+     * Fecha de corte de la purga: el inicio del día indicado. Falla si es más reciente que
+     * pagos.purge.min-age-days.
+     */
+    public LocalDateTime cutoff(LocalDate before) {
+        if (before == null) {
+            throw new IllegalArgumentException("La fecha de corte es obligatoria");
+        }
+        if (before.isAfter(LocalDate.now().minusDays(minAgeDays))) {
+            throw new IllegalArgumentException("Solo se pueden purgar pedidos con más de " + minAgeDays + " días");
+        }
+        return before.atStartOfDay();
+    }
+
+    /**
+     * Pedidos que se purgarían con esta fecha de corte (orders + orders_archive).
+     */
+    public long countPurgeable(LocalDateTime before) {
+        return orderRepository.countArchivable(OrderArchiveService.ARCHIVABLE, before)
+                + archivedOrderRepository.countByCreatedAtBefore(before);
+    }
+
+    /**
+     * Purga el siguiente bloque de orders con ID mayor a afterId.
+     * Devuelve los IDs borrados (vacío si no queda nada).
+     */
+    public List<Long> purgeOrdersChunk(LocalDateTime before, Long afterId, int chunkSize) {
+        Map<Integer, List<Long>> idsByPartition = orderRepository.findArchivableIdsByPartition(
+                OrderArchiveService.ARCHIVABLE, before, afterId, chunkSize);
+        if (idsByPartition.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> dailyTotals = new ArrayList<>();
+        idsByPartition.forEach((partition, partitionIds) -> {
+            ids.addAll(partitionIds);
+            dailyTotals.addAll(orderRepository.inPartition(partition, () -> orderRepository.summarizeDailyByIds(partitionIds)));
+        });
+        Collections.sort(ids);
+        sellerRollupService.onPurged(dailyTotals);
+        statusCounters.onPurged(dailyTotals);
+        // Las líneas y los pedidos se borran dentro de la partición de cada bloque
+        idsByPartition.forEach((partition, partitionIds) -> orderRepository.inPartition(partition, () -> {
+            orderRepository.deleteItemsByOrderIds(partitionIds);
+            return orderRepository.deleteByIds(partitionIds);
+        }));
+        orderCache.evict(ids);
+        return ids;
+    }
+
+    /**
+     * Purga el siguiente bloque de orders_archive con ID mayor a afterId.
+     * Devuelve los IDs borrados (vacío si no queda nada).
+     */
+    public List<Long> purgeArchivedChunk(LocalDateTime before, Long afterId, int chunkSize) {
+        List<Long> ids = archivedOrderRepository.findPurgeableIds(before, afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        List<Object[]> dailyTotals = archivedOrderRepository.summarizeDailyByIds(ids);
+        sellerRollupService.onPurged(dailyTotals);
+        statusCounters.onPurged(dailyTotals);
+        archivedOrderItemRepository.deleteByOrderIds(ids);
+        archivedOrderRepository.deleteByIds(ids);
+        return ids;
+    }
+}
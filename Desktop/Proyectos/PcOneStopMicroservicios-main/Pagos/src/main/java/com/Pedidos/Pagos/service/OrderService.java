@@ -1,41 +1,393 @@
 package com.Pedidos.Pagos.service;
 
+import com.Pedidos.Pagos.dto.BulkStatusResult;
+import com.Pedidos.Pagos.dto.OrderPage;
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+import com.Pedidos.Pagos.dto.OrderStatusCounts;
+import com.Pedidos.Pagos.dto.ProductSales;
+import com.Pedidos.Pagos.dto.SellerDashboard;
+import com.Pedidos.Pagos.model.Money;
 import com.Pedidos.Pagos.model.Order;
-import com.Pedidos.Pagos.repository.OrderRepository;
+import com.Pedidos.Pagos.model.OrderItem;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.OrderItemRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BULK_ORDERS = 1000;
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private SellerRollupService sellerRollupService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderStatusCounters statusCounters;
+
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderCache orderCache;
 
-    public Order createOrder(Order order) {
-        order.setStatus("PENDIENTE");
-        return orderRepository.save(order);
+    /**
+     * Crea un pedido en estado PENDIENTE junto con sus líneas.
+     * Los precios vienen resueltos de antes (PriceCache.getPrices sobre productIdsOf) para no
+     * consultar a Inventario con la transacción abierta; si el cliente envió totalAmount y no
+     * coincide con el calculado, el pedido se rechaza.
+     * Las líneas se insertan en lote al guardar el pedido (cascade + jdbc.batch_size).
+     */
+    public Order createOrder(Order order, Map<Long, Money> prices) {
+        order.setStatus(OrderStatus.PENDIENTE);
+        prepareItems(order);
+        priceItems(order, prices);
+        Order saved = orderRepository.save(order);
+        sellerRollupService.onCreated(saved);
+        statusCounters.onCreated(saved);
+        orderCache.onSaved(saved);
+        outboxService.recordCreated(saved);
+        return saved;
+    }
+
+    /**
+     * Crea varios pedidos en una sola transacción (por ejemplo, los de un checkout con varios vendedores).
+     * Con IDs por secuencia y hibernate.jdbc.batch_size, los INSERT de pedidos y líneas se envían en lote.
+     */
+    public List<Order> createOrders(List<Order> orders) {
+        for (Order order : orders) {
+            order.setStatus(OrderStatus.PENDIENTE);
+            prepareItems(order);
+        }
+        List<Order> saved = orderRepository.saveAll(orders);
+        for (Order order : saved) {
+            sellerRollupService.onCreated(order);
+            statusCounters.onCreated(order);
+            orderCache.onSaved(order);
+            outboxService.recordCreated(order);
+        }
+        return saved;
+    }
+
+    /**
+     * Pedidos generados por un checkout, en el orden en que se crearon.
+     */
+    public List<Order> findByCheckoutId(String checkoutId) {
+        return orderRepository.findByCheckoutIdOrderByIdAsc(checkoutId);
     }
 
     public List<Order> findByUserId(Long userId) {
         return orderRepository.findByUserId(userId);
     }
+
+    /**
+     * Pedidos del usuario; con includeArchived agrega después los pedidos archivados.
+     */
+    public List<Order> findByUserId(Long userId, boolean includeArchived) {
+        List<Order> orders = findByUserId(userId);
+        return includeArchived ? merge(orders, orderArchiveService.findByUserId(userId)) : orders;
+    }
     
     public Order findById(Long id) {
         return orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + id));
     }
 
+    /**
+     * Pedido por ID para mostrarlo, servido desde OrderCache si está. El pedido devuelto
+     * es una copia de solo lectura; para modificarlo usar findById.
+     */
+    public Order findCachedById(Long id) {
+        Order cached = orderCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long writeMark = orderCache.writeMark(id);
+        return orderCache.load(findById(id), writeMark);
+    }
+
+    /**
+     * Tiempo máximo de espera del long-poll de estado (ver OrderCache).
+     */
+    public long longPollTimeout(Long requestedMillis) {
+        return orderCache.longPollTimeout(requestedMillis);
+    }
+
+    /**
+     * Se completa con el pedido cuando su estado deja de ser since (de inmediato si ya es
+     * otro o si since es null), o con null si el pedido cambió y hay que volver a leerlo.
+     * Quien espera debe cancelar el resultado si deja de esperar.
+     */
+    public CompletableFuture<Order> awaitStatusChange(Long id, OrderStatus since) {
+        // Se registra antes de leer para no perder un cambio que ocurra entre la lectura y la espera
+        CompletableFuture<Order> change = orderCache.watch(id);
+        try {
+            Order current = findCachedById(id);
+            if (since == null || current.getStatus() != since) {
+                change.cancel(false);
+                return CompletableFuture.completedFuture(current);
+            }
+            return change;
+        } catch (RuntimeException e) {
+            change.cancel(false);
+            throw e;
+        }
+    }
+
     public List<Order> findBySellerId(Long sellerId) {
         return orderRepository.findBySellerId(sellerId);
     }
 
-    public Order updateStatus(Long id, String newStatus) {
+    /**
+     * Pedidos del vendedor; con includeArchived agrega después los pedidos archivados.
+     */
+    public List<Order> findBySellerId(Long sellerId, boolean includeArchived) {
+        List<Order> orders = findBySellerId(sellerId);
+        return includeArchived ? merge(orders, orderArchiveService.findBySellerId(sellerId)) : orders;
+    }
+
+    /**
+     * Página del historial de un usuario, del pedido más reciente al más antiguo.
+     * Con cursor nulo devuelve la primera página.
+     */
+    public OrderPage findPageByUserId(Long userId, String cursor, Integer size) {
+        int limit = pageSize(size);
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, page);
+        } else {
+            Cursor position = decodeCursor(cursor);
+            orders = orderRepository.findUserPageBefore(userId, position.createdAt(), position.id(), page);
+        }
+        return toPage(orders, limit);
+    }
+
+    /**
+     * Página de pedidos de un vendedor, del más reciente al más antiguo.
+     * Con cursor nulo devuelve la primera página.
+     */
+    public OrderPage findPageBySellerId(Long sellerId, String cursor, Integer size) {
+        int limit = pageSize(size);
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findBySellerIdOrderByCreatedAtDescIdDesc(sellerId, page);
+        } else {
+            Cursor position = decodeCursor(cursor);
+            orders = orderRepository.findSellerPageBefore(sellerId, position.createdAt(), position.id(), page);
+        }
+        return toPage(orders, limit);
+    }
+
+    /**
+     * Página de pedidos en un estado, del más reciente al más antiguo (usa idx_orders_status_created).
+     */
+    public OrderPage findPageByStatus(OrderStatus status, String cursor, Integer size) {
+        int limit = pageSize(size);
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findByStatusOrderByCreatedAtDescIdDesc(status, page);
+        } else {
+            Cursor position = decodeCursor(cursor);
+            orders = orderRepository.findStatusPageBefore(status, position.createdAt(), position.id(), page);
+        }
+        return toPage(orders, limit);
+    }
+
+    /**
+     * Página de pedidos de un vendedor en un estado (usa idx_orders_seller_status_created).
+     */
+    public OrderPage findPageBySellerIdAndStatus(Long sellerId, OrderStatus status, String cursor, Integer size) {
+        int limit = pageSize(size);
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findBySellerIdAndStatusOrderByCreatedAtDescIdDesc(sellerId, status, page);
+        } else {
+            Cursor position = decodeCursor(cursor);
+            orders = orderRepository.findSellerStatusPageBefore(sellerId, status, position.createdAt(), position.id(), page);
+        }
+        return toPage(orders, limit);
+    }
+
+    /**
+     * Página de la búsqueda de pedidos por fechas, estado, vendedor, usuario y monto, del más
+     * reciente al más antiguo. Primero se buscan los IDs sobre un índice compuesto y después se
+     * cargan solo los pedidos de la página.
+     */
+    public OrderPage search(OrderSearchCriteria criteria, String cursor, Integer size) {
+        if (criteria.getFrom() != null && criteria.getTo() != null && criteria.getFrom().isAfter(criteria.getTo())) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        if (criteria.getMinAmount() != null && criteria.getMaxAmount() != null
+                && criteria.getMinAmount().compareTo(criteria.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("El monto mínimo no puede ser mayor al máximo");
+        }
+        int limit = pageSize(size);
+        Cursor position = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        List<Long> ids = orderRepository.searchIds(criteria, position != null ? position.createdAt() : null,
+                position != null ? position.id() : null, limit + 1);
+        List<Long> pageIds = ids.size() > limit ? ids.subList(0, limit) : ids;
+        if (pageIds.isEmpty()) {
+            return new OrderPage(new ArrayList<>(), null);
+        }
+        // findAllById no respeta el orden: se reordena según la búsqueda
+        Map<Long, Order> byId = orderRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Order::getId, order -> order));
+        List<Order> orders = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Order order = byId.get(id);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        // Si un pedido se eliminó entre las dos consultas el cursor sigue desde el último que quedó
+        String nextCursor = ids.size() > limit && !orders.isEmpty() ? encodeCursor(orders.get(orders.size() - 1)) : null;
+        return new OrderPage(orders, nextCursor);
+    }
+
+    /**
+     * Cambia el estado validando la transición contra la tabla de OrderStatus.
+     * Repetir el estado actual no modifica el pedido.
+     */
+    public Order updateStatus(Long id, OrderStatus newStatus) {
         Order order = findById(id);
+        if (order.getStatus() == newStatus) {
+            return order;
+        }
+        if (!order.getStatus().canTransitionTo(newStatus)) {
+            throw new IllegalArgumentException("No se puede pasar un pedido de " + order.getStatus() + " a " + newStatus);
+        }
+        OrderStatus previous = order.getStatus();
         order.setStatus(newStatus);
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        sellerRollupService.onStatusChanged(saved, previous);
+        statusCounters.onStatusChanged(saved, previous);
+        orderCache.onStatusChanged(saved);
+        outboxService.recordStatusChanged(saved, previous);
+        return saved;
+    }
+
+    /**
+     * Cambia el estado de varios pedidos en una sola transacción.
+     *
+     * Las transiciones se validan en memoria contra OrderStatus y los pedidos válidos se
+     * actualizan con un UPDATE por bloque y estado de origen. Devuelve el resultado de cada ID
+     * en el orden recibido. Si sellerId no es nulo, se rechazan pedidos de otros vendedores.
+     */
+    public List<BulkStatusResult> updateStatusBulk(List<Long> orderIds, OrderStatus target, Long sellerId) {
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un pedido");
+        }
+        if (ids.size() > MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("No se pueden actualizar más de " + MAX_BULK_ORDERS + " pedidos a la vez");
+        }
+
+        Map<Long, BulkStatusResult> results = new LinkedHashMap<>();
+        for (Long id : ids) {
+            results.put(id, new BulkStatusResult(id, false, null, "Pedido no encontrado"));
+        }
+
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + BULK_CHUNK_SIZE, ids.size()));
+
+            Map<OrderStatus, List<Order>> byCurrentStatus = new EnumMap<>(OrderStatus.class);
+            for (Order order : orderRepository.findAllById(chunk)) {
+                BulkStatusResult result = results.get(order.getId());
+                OrderStatus current = order.getStatus();
+                result.setPreviousStatus(current);
+                if (sellerId != null && !sellerId.equals(order.getSellerId())) {
+                    result.setMessage("El pedido no pertenece al vendedor");
+                } else if (current == target) {
+                    result.setMessage("El pedido ya estaba en estado " + target);
+                } else if (!current.canTransitionTo(target)) {
+                    result.setMessage("No se puede pasar un pedido de " + current + " a " + target);
+                } else {
+                    byCurrentStatus.computeIfAbsent(current, k -> new ArrayList<>()).add(order);
+                }
+            }
+
+            for (Map.Entry<OrderStatus, List<Order>> group : byCurrentStatus.entrySet()) {
+                List<Long> groupIds = group.getValue().stream().map(Order::getId).toList();
+                int updated = orderRepository.updateStatusBulk(groupIds, group.getKey(), target);
+                Set<Long> changed = updated == groupIds.size() ? new HashSet<>(groupIds) : idsInStatus(groupIds, target);
+                for (Order order : group.getValue()) {
+                    BulkStatusResult result = results.get(order.getId());
+                    if (changed.contains(order.getId())) {
+                        // El UPDATE masivo ya desasoció las entidades; el cambio en memoria no se vuelve a guardar
+                        order.setStatus(target);
+                        sellerRollupService.onStatusChanged(order, group.getKey());
+                        statusCounters.onStatusChanged(order, group.getKey());
+                        orderCache.onStatusChanged(order);
+                        outboxService.recordStatusChanged(order, group.getKey());
+                        result.setUpdated(true);
+                        result.setMessage("Estado actualizado a " + target);
+                    } else {
+                        result.setMessage("El pedido cambió de estado durante la operación");
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    // Solo se usa si otra operación modificó alguno de los pedidos entre la lectura y el UPDATE
+    private Set<Long> idsInStatus(List<Long> ids, OrderStatus status) {
+        Set<Long> matching = new HashSet<>();
+        for (Object[] row : orderRepository.findStatusesByIdIn(ids)) {
+            if (row[1] == status) {
+                matching.add(((Number) row[0]).longValue());
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Pedidos e ingresos del vendedor por día y estado, leídos de los rollups.
+     */
+    public SellerDashboard getSellerDashboard(Long sellerId, LocalDate from, LocalDate to) {
+        return sellerRollupService.getDashboard(sellerId, from, to);
+    }
+
+    /**
+     * Pedidos por estado de todo el sistema, o de un vendedor si sellerId no es nulo.
+     */
+    public OrderStatusCounts getStatusCounts(Long sellerId) {
+        return sellerId != null ? statusCounters.getSellerCounts(sellerId) : statusCounters.getGlobalCounts();
     }
 
     /**
@@ -45,11 +397,195 @@ public class OrderService {
         return orderRepository.findAll();
     }
 
+    /**
+     * Todos los pedidos; con includeArchived agrega después los pedidos archivados.
+     */
+    public List<Order> findAll(boolean includeArchived) {
+        List<Order> orders = findAll();
+        return includeArchived ? merge(orders, orderArchiveService.findAll()) : orders;
+    }
+
     /**
      * Elimina un pedido por su ID.
      * Solo se pueden eliminar pedidos en estado COMPLETADO.
      */
     public void deleteById(Long id) {
+        orderRepository.findById(id).ifPresent(order -> {
+            sellerRollupService.onDeleted(order);
+            statusCounters.onDeleted(order);
+        });
         orderRepository.deleteById(id);
+        orderCache.onDeleted(id);
+    }
+
+    /**
+     * Pedidos que incluyen un producto.
+     */
+    public List<Order> findByProductId(Long productId) {
+        return orderItemRepository.findOrdersByProductId(productId);
+    }
+
+    /**
+     * Unidades vendidas, ingresos y cantidad de pedidos de un producto (incluye pedidos archivados).
+     */
+    public ProductSales getProductSales(Long productId) {
+        List<Object[]> rows = orderItemRepository.summarizeSalesByProductId(productId);
+        Object[] row = rows.isEmpty() ? new Object[]{0L, 0L, 0L} : rows.get(0);
+        Object[] archived = orderArchiveService.summarizeSales(productId);
+        return new ProductSales(productId,
+                ((Number) row[0]).longValue() + ((Number) archived[0]).longValue(),
+                Money.ofCents(((Number) row[1]).longValue() + ((Number) archived[1]).longValue()),
+                ((Number) row[2]).longValue() + ((Number) archived[2]).longValue());
+    }
+
+    /**
+     * Migra un lote de pedidos antiguos (solo productIds en CSV) a order_items.
+     * Devuelve el último ID procesado, o null si ya no quedan pedidos por migrar.
+     */
+    public Long migrateLegacyItems(Long afterId, int batchSize) {
+        List<Order> orders = orderRepository.findLegacyOrdersWithoutItems(afterId, PageRequest.of(0, batchSize));
+        if (orders.isEmpty()) {
+            return null;
+        }
+        for (Order order : orders) {
+            order.getItems().addAll(parseItems(order));
+        }
+        orderRepository.saveAll(orders);
+        orderCache.evict(orders.stream().map(Order::getId).toList());
+        return orders.get(orders.size() - 1).getId();
+    }
+
+    private static List<Order> merge(List<Order> hot, List<Order> archived) {
+        List<Order> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        merged.addAll(archived);
+        return merged;
+    }
+
+    private record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    private static int pageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // Se pide un pedido de más para saber si existe una página siguiente sin hacer un count
+    private static OrderPage toPage(List<Order> orders, int limit) {
+        if (orders.size() <= limit) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> pageOrders = new ArrayList<>(orders.subList(0, limit));
+        return new OrderPage(pageOrders, encodeCursor(pageOrders.get(limit - 1)));
+    }
+
+    // El cursor es la posición (createdAt, id) del último pedido entregado, en Base64 URL
+    static String encodeCursor(Order order) {
+        String raw = order.getCreatedAt() + "|" + order.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    // Completa las líneas desde el CSV, o el CSV desde las líneas, y las enlaza al pedido
+    private void prepareItems(Order order) {
+        if (order.getItems() == null) {
+            order.setItems(new ArrayList<>());
+        }
+        if (order.getItems().isEmpty()) {
+            order.getItems().addAll(parseItems(order));
+        } else {
+            order.setProductIds(order.getItems().stream()
+                    .map(item -> String.valueOf(item.getProductId()))
+                    .distinct()
+                    .collect(Collectors.joining(",")));
+        }
+        for (OrderItem item : order.getItems()) {
+            if (item.getProductId() == null) {
+                throw new RuntimeException("Cada línea del pedido debe indicar el productId");
+            }
+            if (item.getQuantity() == null) {
+                item.setQuantity(1);
+            } else if (item.getQuantity() <= 0) {
+                throw new RuntimeException("La cantidad debe ser mayor a cero (producto " + item.getProductId() + ")");
+            }
+            item.setOrder(order);
+        }
+    }
+
+    /**
+     * Productos del pedido, desde sus líneas o desde el CSV, para resolver sus precios antes
+     * de crearlo.
+     */
+    public static Set<Long> productIdsOf(Order order) {
+        List<OrderItem> items = order.getItems() == null || order.getItems().isEmpty()
+                ? parseItems(order) : order.getItems();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() != null) {
+                productIds.add(item.getProductId());
+            }
+        }
+        return productIds;
+    }
+
+    // Precio de cada línea según los precios resueltos y total calculado en el servidor
+    private void priceItems(Order order, Map<Long, Money> prices) {
+        long totalCents = 0;
+        for (OrderItem item : order.getItems()) {
+            Money unitPrice = prices.get(item.getProductId());
+            if (unitPrice == null) {
+                throw new IllegalArgumentException("No se resolvió el precio del producto " + item.getProductId());
+            }
+            item.setUnitPrice(unitPrice);
+            totalCents += unitPrice.times(item.getQuantity()).cents();
+        }
+        Money total = Money.ofCents(totalCents);
+        if (order.getTotalAmount() != null && !order.getTotalAmount().equals(total)) {
+            throw new IllegalArgumentException("El total enviado (" + order.getTotalAmount()
+                    + ") no coincide con el calculado según los precios vigentes (" + total + ")");
+        }
+        order.setTotalAmount(total);
+    }
+
+    /**
+     * Convierte el CSV de productIds en líneas: un ID repetido suma cantidad ("1,4,4" = 1 x1, 4 x2).
+     * El precio unitario solo se puede deducir cuando el pedido tiene un único producto.
+     */
+    static List<OrderItem> parseItems(Order order) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        if (order.getProductIds() != null) {
+            for (String part : order.getProductIds().replace("[", "").replace("]", "").split(",")) {
+                String value = part.trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                try {
+                    quantities.merge(Long.valueOf(value), 1, Integer::sum);
+                } catch (NumberFormatException e) {
+                    // Se ignoran valores que no son IDs
+                }
+            }
+        }
+
+        List<OrderItem> items = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Money unitPrice = null;
+            if (quantities.size() == 1 && order.getTotalAmount() != null) {
+                unitPrice = order.getTotalAmount().dividedBy(entry.getValue());
+            }
+            items.add(new OrderItem(null, order, entry.getKey(), entry.getValue(), unitPrice));
+        }
+        return items;
     }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.dto.OrderStatusCounts;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cantidad de pedidos por estado, global y por vendedor, mantenida en memoria con cada
+ * alta, cambio de estado y eliminación que hace OrderService.
+ *
+ * Consultarla es O(1) sin importar cuántos pedidos haya. Los cambios se aplican recién
+ * cuando la transacción confirma, así un pedido que no llegó a guardarse no se cuenta.
+ * Los contadores se construyen al iniciar y se reconcilian cada noche contra orders y
+ * orders_archive; archivar un pedido no lo quita de los contadores y purgarlo lo resta.
+ *
+ * El recálculo lee todas las particiones y orders_archive en una sola transacción
+ * REPEATABLE_READ, así todos los conteos salen de la misma foto de la BD. El registro de
+ * cambios se abre recién después de tomar la foto: lo que confirma después no está en los
+ * conteos y se suma desde el registro; lo confirmado antes ya está en los conteos y no se
+ * registra, así no se cuenta dos veces.
+ */
+@Service
+public class OrderStatusCounters {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Una posición por estado (ordinal)
+    private volatile AtomicLongArray global = new AtomicLongArray(STATUSES.length);
+    private volatile Map<Long, AtomicLongArray> bySeller = new ConcurrentHashMap<>();
+
+    // Los cambios toman la lectura; el recálculo toma la escritura para abrir y cerrar el registro
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Cambios aplicados durante un recálculo (null fuera de él), protegidos por swapLock
+    private AtomicLongArray pendingGlobal;
+    private Map<Long, AtomicLongArray> pendingBySeller;
+
+    public void onCreated(Order order) {
+        apply(order.getSellerId(), null, order.getStatus());
+    }
+
+    public void onStatusChanged(Order order, OrderStatus previous) {
+        apply(order.getSellerId(), previous, order.getStatus());
+    }
+
+    public void onDeleted(Order order) {
+        apply(order.getSellerId(), order.getStatus(), null);
+    }
+
+    /**
+     * Resta pedidos purgados a partir de sus agregados {sellerId, día, estado, pedidos, ...}
+     * (los mismos que recibe SellerRollupService.onPurged).
+     */
+    public void onPurged(List<Object[]> dailyTotals) {
+        for (Object[] row : dailyTotals) {
+            if (row[2] == null) {
+                continue;
+            }
+            Long sellerId = row[0] != null ? ((Number) row[0]).longValue() : null;
+            OrderStatus status = OrderStatus.valueOf(row[2].toString());
+            long count = ((Number) row[3]).longValue();
+            afterCommit(() -> applyNow(sellerId, status, -count));
+        }
+    }
+
+    /**
+     * Pedidos por estado de todo el sistema.
+     */
+    public OrderStatusCounts getGlobalCounts() {
+        return toCounts(null, global);
+    }
+
+    /**
+     * Pedidos por estado de un vendedor (en cero si no tiene pedidos).
+     */
+    public OrderStatusCounts getSellerCounts(Long sellerId) {
+        AtomicLongArray counters = bySeller.get(sellerId);
+        return toCounts(sellerId, counters != null ? counters : new AtomicLongArray(STATUSES.length));
+    }
+
+    /**
+     * Recalcula los contadores desde la BD al iniciar y cada noche.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${pagos.status-counters.reconcile-cron:0 15 3 * * *}")
+    public synchronized void rebuild() {
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+
+        AtomicLongArray freshGlobal = new AtomicLongArray(STATUSES.length);
+        Map<Long, AtomicLongArray> freshBySeller = new ConcurrentHashMap<>();
+        boolean loaded = false;
+        try {
+            snapshot.executeWithoutResult(status -> {
+                // InnoDB toma la foto en la primera lectura: una fila de orders_seq, antes de abrir el registro
+                jdbcTemplate.queryForList("select next_val from orders_seq", Long.class);
+                openPending();
+                add(orderRepository.countBySellerAndStatus(), freshGlobal, freshBySeller);
+                add(archivedOrderRepository.countBySellerAndStatus(), freshGlobal, freshBySeller);
+            });
+            loaded = true;
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                if (loaded) {
+                    // Lo confirmado después de la foto se suma antes de reemplazar los contadores
+                    merge(pendingGlobal, freshGlobal);
+                    pendingBySeller.forEach((sellerId, pending) -> merge(pending,
+                            freshBySeller.computeIfAbsent(sellerId, k -> new AtomicLongArray(STATUSES.length))));
+                    global = freshGlobal;
+                    bySeller = freshBySeller;
+                }
+                pendingGlobal = null;
+                pendingBySeller = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void openPending() {
+        swapLock.writeLock().lock();
+        try {
+            pendingGlobal = new AtomicLongArray(STATUSES.length);
+            pendingBySeller = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Long sellerId, OrderStatus previous, OrderStatus current) {
+        afterCommit(() -> {
+            if (previous != null) {
+                applyNow(sellerId, previous, -1);
+            }
+            if (current != null) {
+                applyNow(sellerId, current, 1);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void applyNow(Long sellerId, OrderStatus status, long delta) {
+        swapLock.readLock().lock();
+        try {
+            addTo(global, bySeller, sellerId, status, delta);
+            if (pendingGlobal != null) {
+                addTo(pendingGlobal, pendingBySeller, sellerId, status, delta);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void addTo(AtomicLongArray global, Map<Long, AtomicLongArray> bySeller,
+                              Long sellerId, OrderStatus status, long delta) {
+        global.addAndGet(status.ordinal(), delta);
+        if (sellerId != null) {
+            bySeller.computeIfAbsent(sellerId, k -> new AtomicLongArray(STATUSES.length))
+                    .addAndGet(status.ordinal(), delta);
+        }
+    }
+
+    private static void merge(AtomicLongArray from, AtomicLongArray into) {
+        for (int i = 0; i < from.length(); i++) {
+            into.addAndGet(i, from.get(i));
+        }
+    }
+
+    private static void add(List<Object[]> rows, AtomicLongArray global, Map<Long, AtomicLongArray> bySeller) {
+        for (Object[] row : rows) {
+            OrderStatus status = (OrderStatus) row[1];
+            if (status == null) {
+                continue;
+            }
+            addTo(global, bySeller, row[0] != null ? ((Number) row[0]).longValue() : null, status,
+                    ((Number) row[2]).longValue());
+        }
+    }
+
+    private static OrderStatusCounts toCounts(Long sellerId, AtomicLongArray counters) {
+        Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+        long total = 0;
+        for (OrderStatus status : STATUSES) {
+            long count = counters.get(status.ordinal());
+            byStatus.put(status, count);
+            total += count;
+        }
+        return new OrderStatusCounts(sellerId, total, byStatus);
+    }
+}
@@ -0,0 +1,58 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.OutboxEvent;
+import com.Pedidos.Pagos.repository.OutboxEventRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transacciones cortas del relay del outbox: tomar un lote, marcarlo publicado o registrar
+ * un fallo. La entrega a los destinos ocurre entre ellas, sin locks abiertos, así las
+ * inserciones de OutboxService (y con ellas los cambios de pedidos) no esperan al destino.
+ */
+@Service
+@Transactional
+public class OutboxBatchService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Toma los siguientes eventos sin publicar hasta leaseUntil. Devuelve vacío si alguno ya
+     * está tomado por otro relay o esperando un reintento: adelantar los demás los desordenaría.
+     */
+    public List<OutboxEvent> claimNextBatch(int batchSize, LocalDateTime leaseUntil) {
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(PageRequest.of(0, batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : batch) {
+            if (event.getLeaseUntil() != null && event.getLeaseUntil().isAfter(now)) {
+                return Collections.emptyList();
+            }
+        }
+        for (OutboxEvent event : batch) {
+            event.setLeaseUntil(leaseUntil);
+        }
+        return batch;
+    }
+
+    /**
+     * Marca el lote como publicado y libera su lease.
+     */
+    public void markPublished(List<Long> ids, LocalDateTime publishedAt) {
+        outboxEventRepository.markPublished(ids, publishedAt);
+    }
+
+    /**
+     * Registra el fallo en el primer evento del lote y lo retiene hasta retryAt.
+     */
+    public void markFailed(List<Long> ids, String error, LocalDateTime retryAt) {
+        outboxEventRepository.recordFailure(ids.get(0), error);
+        outboxEventRepository.extendLease(ids, retryAt);
+    }
+}
@@ -0,0 +1,152 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.dto.OutboxStats;
+import com.Pedidos.Pagos.model.OutboxEvent;
+import com.Pedidos.Pagos.repository.OutboxEventRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entrega los eventos de order_outbox a los OrderEventSink configurados.
+ *
+ * Cada ejecución toma el siguiente lote sin publicar en orden de ID y lo entrega a todos
+ * los destinos. Si alguno falla el lote no se marca y se reintenta completo con espera
+ * exponencial, sin adelantar eventos posteriores (orden garantizado, entrega al menos una vez).
+ *
+ * Tomar, entregar y marcar son pasos separados: solo el primero y el último abren una
+ * transacción (OutboxBatchService), y la entrega corre sin locks. El lease del lote evita
+ * que otra instancia lo entregue a la vez; si este relay muere, vence y se reintenta.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final long THROUGHPUT_WINDOW_MS = 60_000;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxBatchService outboxBatchService;
+
+    @Autowired(required = false)
+    private List<OrderEventSink> sinks = new ArrayList<>();
+
+    @Value("${pagos.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${pagos.outbox.retention-days:7}")
+    private long retentionDays = 7;
+
+    // Debe superar los timeouts del webhook: al vencer, otro relay puede volver a tomar el lote
+    @Value("${pagos.outbox.lease-ms:60000}")
+    private long leaseMillis = 60_000;
+
+    @Value("${pagos.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMillis = 1000;
+
+    @Value("${pagos.outbox.max-backoff-ms:60000}")
+    private long maxBackoffMillis = 60_000;
+
+    private final AtomicLong deliveredTotal = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    // {timestamp, eventos} de los lotes entregados en el último minuto
+    private final Deque<long[]> recentBatches = new ArrayDeque<>();
+    private volatile String lastError;
+    private volatile LocalDateTime lastRunAt;
+
+    /**
+     * Entrega el siguiente lote. Devuelve la cantidad de eventos publicados.
+     */
+    @Scheduled(fixedDelayString = "${pagos.outbox.relay-interval-ms:1000}")
+    public int relay() {
+        lastRunAt = LocalDateTime.now();
+        if (sinks.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxBatchService.claimNextBatch(batchSize,
+                LocalDateTime.now().plus(Duration.ofMillis(leaseMillis)));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+
+        try {
+            for (OrderEventSink sink : sinks) {
+                sink.deliver(batch);
+            }
+        } catch (Exception e) {
+            String error = truncate(e.getMessage());
+            int attempts = batch.get(0).getAttempts() + 1;
+            outboxBatchService.markFailed(ids, error,
+                    LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(attempts))));
+            failedBatches.incrementAndGet();
+            lastError = error;
+            return 0;
+        }
+
+        outboxBatchService.markPublished(ids, LocalDateTime.now());
+        deliveredTotal.addAndGet(batch.size());
+        synchronized (recentBatches) {
+            recentBatches.addLast(new long[]{System.currentTimeMillis(), batch.size()});
+        }
+        return batch.size();
+    }
+
+    /**
+     * Elimina los eventos publicados hace más de pagos.outbox.retention-days días.
+     */
+    @Scheduled(cron = "${pagos.outbox.purge-cron:0 0 4 * * *}")
+    @Transactional
+    public void purgePublished() {
+        outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /**
+     * Pendientes, retraso y eventos por segundo del relay.
+     */
+    public OutboxStats getStats() {
+        long pending = outboxEventRepository.countByPublishedAtIsNull();
+        LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+        long lagSeconds = oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds());
+
+        long now = System.currentTimeMillis();
+        long recentEvents = 0;
+        synchronized (recentBatches) {
+            while (!recentBatches.isEmpty() && now - recentBatches.peekFirst()[0] > THROUGHPUT_WINDOW_MS) {
+                recentBatches.removeFirst();
+            }
+            for (long[] entry : recentBatches) {
+                recentEvents += entry[1];
+            }
+        }
+        double throughput = Math.round(recentEvents * 1000.0 / THROUGHPUT_WINDOW_MS * 100.0) / 100.0;
+
+        return new OutboxStats(pending, lagSeconds, deliveredTotal.get(), throughput,
+                failedBatches.get(), lastError, lastRunAt);
+    }
+
+    // Espera antes del reintento n: retry-backoff-ms duplicado en cada fallo, hasta max-backoff-ms
+    long backoffMillis(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(maxBackoffMillis, retryBackoffMillis << doublings);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return "Error sin mensaje";
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
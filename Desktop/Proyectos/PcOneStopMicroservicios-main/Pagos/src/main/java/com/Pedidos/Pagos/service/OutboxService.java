@@ -0,0 +1,58 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.model.OutboxEvent;
+import com.Pedidos.Pagos.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registra en la tabla order_outbox los eventos de pedidos. Se llama desde OrderService
+ * dentro de su transacción: si el cambio del pedido se revierte, el evento también.
+ */
+@Service
+@Transactional
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void recordCreated(Order order) {
+        record(order, OutboxEvent.ORDER_CREATED, null);
+    }
+
+    public void recordStatusChanged(Order order, OrderStatus previous) {
+        record(order, OutboxEvent.ORDER_STATUS_CHANGED, previous);
+    }
+
+    private void record(Order order, String type, OrderStatus previous) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("orderId", order.getId());
+        data.put("userId", order.getUserId());
+        data.put("sellerId", order.getSellerId());
+        data.put("status", order.getStatus());
+        if (previous != null) {
+            data.put("previousStatus", previous);
+        }
+        data.put("totalAmount", order.getTotalAmount());
+        data.put("occurredAt", now.toString());
+        try {
+            outboxEventRepository.save(new OutboxEvent(null, order.getId(), type,
+                    objectMapper.writeValueAsString(data), now, null, 0, null, null));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo registrar el evento del pedido " + order.getId(), e);
+        }
+    }
+}
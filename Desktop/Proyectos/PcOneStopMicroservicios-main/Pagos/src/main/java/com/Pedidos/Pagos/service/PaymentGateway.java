@@ -0,0 +1,26 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.Money;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pasarela que confirma los cobros de los pedidos que encola PaymentPipeline.
+ *
+ * Recibe un lote y devuelve el resultado de cada pedido por ID. Si lanza una excepción
+ * (pasarela caída, timeout) o no informa algún pedido, esos pedidos se reintentan más
+ * tarde, por lo que la implementación debe tolerar recibir el mismo pedido dos veces.
+ */
+public interface PaymentGateway {
+
+    enum Result {
+        APROBADO,
+        RECHAZADO
+    }
+
+    record Charge(Long orderId, Long userId, Money amount) {
+    }
+
+    Map<Long, Result> confirm(List<Charge> charges) throws Exception;
+}
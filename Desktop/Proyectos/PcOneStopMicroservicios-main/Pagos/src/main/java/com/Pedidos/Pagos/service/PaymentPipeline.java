@@ -0,0 +1,335 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.dto.BulkStatusResult;
+import com.Pedidos.Pagos.dto.PaymentStats;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cobra los pedidos de cada checkout sin hacer esperar al cliente.
+ *
+ * El checkout solo encola sus pedidos PENDIENTE en una cola acotada y responde. Un grupo
+ * de workers toma lotes de la cola, los confirma con la PaymentGateway configurada y
+ * pasa los aprobados a CONFIRMADO y los rechazados a CANCELADO con updateStatusBulk (una
+ * transacción por lote). Si la pasarela o la BD fallan, el cobro se reintenta con espera
+ * exponencial hasta pagos.payments.max-attempts veces.
+ *
+ * La cola vive en memoria: si está llena, si se agotan los reintentos o si el servicio se
+ * reinicia, los pedidos siguen PENDIENTE y el barrido periódico los vuelve a encolar.
+ */
+@Service
+public class PaymentPipeline {
+
+    private static final long POLL_MILLIS = 100;
+    private static final int SWEEP_PAGE_SIZE = 500;
+    private static final long[] LATENCY_BUCKETS_MS = {10, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Value("${pagos.payments.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${pagos.payments.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${pagos.payments.workers:4}")
+    private int workers = 4;
+
+    @Value("${pagos.payments.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${pagos.payments.backoff-ms:500}")
+    private long backoffMillis = 500;
+
+    @Value("${pagos.payments.max-backoff-ms:30000}")
+    private long maxBackoffMillis = 30000;
+
+    @Value("${pagos.payments.sweep-after-ms:60000}")
+    private long sweepAfterMillis = 60000;
+
+    private BlockingQueue<Payment> queue;
+    private final DelayQueue<Payment> retryQueue = new DelayQueue<>();
+    // Pedidos dentro de la cola (encolados, en reintento o en curso), para no cobrarlos dos veces
+    private final Set<Long> tracked = ConcurrentHashMap.newKeySet();
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile boolean stopping;
+
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final LatencyHistogram gatewayLatency = new LatencyHistogram();
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram();
+    private volatile String lastError;
+
+    private static final class Payment implements Delayed {
+        private final PaymentGateway.Charge charge;
+        private final long enqueuedAtNanos = System.nanoTime();
+        private int attempts;
+        private long readyAtNanos;
+
+        private Payment(PaymentGateway.Charge charge) {
+            this.charge = charge;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(readyAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(readyAtNanos, ((Payment) other).readyAtNanos);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorkers() {
+        for (int i = 1; i <= workers; i++) {
+            Thread.ofVirtual().name("payment-worker-" + i).start(() -> {
+                while (!stopping) {
+                    try {
+                        processBatch(POLL_MILLIS);
+                    } catch (RuntimeException e) {
+                        System.err.println("[Pagos] Error en el worker de cobros: " + e.getMessage());
+                    }
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+    }
+
+    /**
+     * Encola el cobro de los pedidos sin bloquear. Devuelve cuántos entraron; los que no
+     * entran por falta de espacio quedan PENDIENTE para el próximo barrido.
+     */
+    public int submit(List<Order> orders) {
+        int accepted = 0;
+        for (Order order : orders) {
+            if (order.getStatus() == OrderStatus.PENDIENTE
+                    && enqueue(new PaymentGateway.Charge(order.getId(), order.getUserId(), order.getTotalAmount()))) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Encola los pedidos de checkout que siguen PENDIENTE hace más de
+     * pagos.payments.sweep-after-ms (cola llena, reintentos agotados o reinicio).
+     */
+    @Scheduled(fixedDelayString = "${pagos.payments.sweep-interval-ms:60000}")
+    public int enqueueUnpaid() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(sweepAfterMillis));
+        int accepted = 0;
+        Long afterId = 0L;
+        while (tracked.size() < queueCapacity) {
+            List<Object[]> rows = orderRepository.findUnpaidCheckoutOrders(OrderStatus.PENDIENTE, before, afterId,
+                    PageRequest.of(0, SWEEP_PAGE_SIZE));
+            for (Object[] row : rows) {
+                if (enqueue(new PaymentGateway.Charge((Long) row[0], (Long) row[1], (Money) row[2]))) {
+                    accepted++;
+                }
+            }
+            if (rows.size() < SWEEP_PAGE_SIZE) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        if (accepted > 0) {
+            System.out.println("[Pagos] Barrido de cobros: " + accepted + " pedidos PENDIENTE encolados");
+        }
+        return accepted;
+    }
+
+    /**
+     * Toma un lote (primero los reintentos vencidos), lo cobra y aplica el resultado.
+     * Espera hasta waitMillis si la cola está vacía. Devuelve el tamaño del lote.
+     */
+    public int processBatch(long waitMillis) {
+        List<Payment> batch = new ArrayList<>(batchSize);
+        retryQueue.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            try {
+                Payment first = queue.poll(waitMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    return 0;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+
+        inFlight.addAndGet(batch.size());
+        try {
+            confirm(batch);
+        } finally {
+            inFlight.addAndGet(-batch.size());
+        }
+        return batch.size();
+    }
+
+    public PaymentStats getStats() {
+        return new PaymentStats((long) queue.size(), (long) retryQueue.size(), inFlight.get(), (long) queueCapacity,
+                confirmed.get(), rejected.get(), retries.get(), abandoned.get(), overflowed.get(), lastError,
+                gatewayLatency.snapshot(), endToEndLatency.snapshot());
+    }
+
+    private boolean enqueue(PaymentGateway.Charge charge) {
+        if (charge.orderId() == null || tracked.contains(charge.orderId())) {
+            return false;
+        }
+        if (tracked.size() >= queueCapacity) {
+            overflowed.incrementAndGet();
+            return false;
+        }
+        if (!tracked.add(charge.orderId())) {
+            return false;
+        }
+        if (!queue.offer(new Payment(charge))) {
+            tracked.remove(charge.orderId());
+            overflowed.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void confirm(List<Payment> batch) {
+        Map<Long, PaymentGateway.Result> results;
+        long start = System.nanoTime();
+        try {
+            results = paymentGateway.confirm(batch.stream().map(payment -> payment.charge).toList());
+        } catch (Exception e) {
+            lastError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            results = Map.of();
+        }
+        gatewayLatency.record(System.nanoTime() - start);
+
+        List<Payment> approved = new ArrayList<>();
+        List<Payment> declined = new ArrayList<>();
+        for (Payment payment : batch) {
+            PaymentGateway.Result result = results.get(payment.charge.orderId());
+            if (result == PaymentGateway.Result.APROBADO) {
+                approved.add(payment);
+            } else if (result == PaymentGateway.Result.RECHAZADO) {
+                declined.add(payment);
+            } else {
+                retry(payment);
+            }
+        }
+        apply(approved, OrderStatus.CONFIRMADO, confirmed);
+        apply(declined, OrderStatus.CANCELADO, rejected);
+    }
+
+    private void apply(List<Payment> payments, OrderStatus target, AtomicLong counter) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        List<BulkStatusResult> results;
+        try {
+            results = orderService.updateStatusBulk(payments.stream().map(payment -> payment.charge.orderId()).toList(),
+                    target, null);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            payments.forEach(this::retry);
+            return;
+        }
+        for (BulkStatusResult result : results) {
+            if (result.isUpdated()) {
+                counter.incrementAndGet();
+            } else {
+                // Cancelado o modificado a mano mientras se cobraba: no se vuelve a intentar
+                System.err.println("[Pagos] Cobro del pedido " + result.getOrderId() + " sin aplicar: " + result.getMessage());
+            }
+        }
+        long now = System.nanoTime();
+        for (Payment payment : payments) {
+            endToEndLatency.record(now - payment.enqueuedAtNanos);
+            tracked.remove(payment.charge.orderId());
+        }
+    }
+
+    private void retry(Payment payment) {
+        payment.attempts++;
+        if (payment.attempts >= maxAttempts) {
+            abandoned.incrementAndGet();
+            tracked.remove(payment.charge.orderId());
+            System.err.println("[Pagos] Cobro del pedido " + payment.charge.orderId() + " abandonado tras "
+                    + payment.attempts + " intentos: " + lastError);
+            return;
+        }
+        long delay = Math.min(maxBackoffMillis, backoffMillis << Math.min(payment.attempts - 1, 20));
+        payment.readyAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        retries.incrementAndGet();
+        retryQueue.add(payment);
+    }
+
+    // Cantidad de mediciones por rango de latencia; el último rango no tiene tope
+    private static final class LatencyHistogram {
+        private final AtomicLongArray counts = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS_MS.length && millis > LATENCY_BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            counts.incrementAndGet(bucket);
+        }
+
+        Map<String, Long> snapshot() {
+            Map<String, Long> snapshot = new LinkedHashMap<>();
+            for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+                snapshot.put("<=" + LATENCY_BUCKETS_MS[i], counts.get(i));
+            }
+            snapshot.put(">" + LATENCY_BUCKETS_MS[LATENCY_BUCKETS_MS.length - 1], counts.get(LATENCY_BUCKETS_MS.length));
+            return snapshot;
+        }
+    }
+}
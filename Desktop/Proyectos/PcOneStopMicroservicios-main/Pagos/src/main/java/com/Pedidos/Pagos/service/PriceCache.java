@@ -0,0 +1,115 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copia local de los precios de Inventario para calcular el total de los pedidos sin
+ * llamar a otro servicio por cada producto.
+ *
+ * Se mantiene al día pidiendo periódicamente solo los productos modificados desde el
+ * último cambio visto (el primer pedido trae el catálogo completo). Un precio se usa
+ * mientras la última actualización exitosa, o la carga del propio producto, tenga menos
+ * de pagos.prices.max-age-ms; si es más viejo o el producto no está, se consulta a
+ * Inventario en ese momento y se guarda el resultado.
+ */
+@Service
+public class PriceCache {
+
+    // Margen para escrituras que se confirmaron con una fecha anterior al último cambio visto
+    private static final Duration OVERLAP = Duration.ofSeconds(5);
+
+    private record Entry(Money price, long loadedAtNanos) {
+    }
+
+    @Autowired
+    private InventarioClient inventarioClient;
+
+    @Value("${pagos.prices.max-age-ms:60000}")
+    private long maxAgeMillis = 60000;
+
+    private final Map<Long, Entry> prices = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastChange;
+    private volatile long syncedAtNanos;
+    private volatile boolean synced;
+
+    /**
+     * Precio vigente del producto: del caché si está dentro del límite de antigüedad,
+     * si no, de Inventario. Lanza IllegalArgumentException si el producto no existe.
+     */
+    public Money getPrice(Long productId) {
+        long now = System.nanoTime();
+        Entry entry = prices.get(productId);
+        if (entry != null && isFresh(entry, now)) {
+            return entry.price();
+        }
+        InventarioClient.PriceQuote quote = inventarioClient.getPrice(productId);
+        prices.put(productId, new Entry(quote.price(), now));
+        return quote.price();
+    }
+
+    /**
+     * Precios vigentes de varios productos, resueltos antes de abrir la transacción que crea
+     * el pedido. Lanza IllegalArgumentException si alguno no existe.
+     */
+    public Map<Long, Money> getPrices(Collection<Long> productIds) {
+        Map<Long, Money> result = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            result.put(productId, getPrice(productId));
+        }
+        return result;
+    }
+
+    /**
+     * Aplica los precios modificados en Inventario desde el último cambio visto.
+     * Si Inventario no responde se conservan los precios actuales y, pasado el límite de
+     * antigüedad, getPrice vuelve a consultar producto por producto.
+     */
+    @Scheduled(fixedDelayString = "${pagos.prices.refresh-ms:15000}")
+    public synchronized void refresh() {
+        long start = System.nanoTime();
+        LocalDateTime since = lastChange != null ? lastChange.minus(OVERLAP) : null;
+        List<InventarioClient.PriceQuote> changes;
+        try {
+            changes = inventarioClient.findPriceChanges(since);
+        } catch (RuntimeException e) {
+            System.err.println("[Pagos] No se pudo actualizar el caché de precios: " + e.getMessage());
+            return;
+        }
+        LocalDateTime newest = lastChange;
+        for (InventarioClient.PriceQuote quote : changes) {
+            prices.put(quote.productId(), new Entry(quote.price(), start));
+            if (quote.updatedAt() != null && (newest == null || quote.updatedAt().isAfter(newest))) {
+                newest = quote.updatedAt();
+            }
+        }
+        lastChange = newest;
+        syncedAtNanos = start;
+        synced = true;
+    }
+
+    public int size() {
+        return prices.size();
+    }
+
+    // Un precio sigue vigente si se cargó o se confirmó con una actualización hace menos de maxAge
+    private boolean isFresh(Entry entry, long now) {
+        long maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        if (now - entry.loadedAtNanos() <= maxAgeNanos) {
+            return true;
+        }
+        return synced && now - syncedAtNanos <= maxAgeNanos;
+    }
+}
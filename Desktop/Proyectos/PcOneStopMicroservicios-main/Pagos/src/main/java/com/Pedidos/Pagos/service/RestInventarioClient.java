@@ -0,0 +1,128 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.Money;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cliente HTTP de Inventario (PUT /api/v1/products/{id}/stock y /stock/add, GET /prices y /{id}).
+ * Cada llamada tiene tiempo máximo de conexión y de respuesta para que un Inventario
+ * lento no deje hilos del checkout esperando indefinidamente.
+ */
+@Component
+public class RestInventarioClient implements InventarioClient {
+
+    private final RestClient restClient;
+
+    public RestInventarioClient(RestClient.Builder builder,
+                                @Value("${pagos.inventario.url:http://localhost:8082/api/v1/products}") String baseUrl,
+                                @Value("${pagos.inventario.timeout-ms:2000}") long timeoutMillis) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMillis));
+        this.restClient = builder.baseUrl(baseUrl).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public StockReduction reduceStock(Long productId, int quantity) {
+        try {
+            JsonNode body = restClient.put()
+                    .uri("/{id}/stock?quantity={quantity}", productId, quantity)
+                    .retrieve()
+                    .body(JsonNode.class);
+            JsonNode product = body != null ? body.path("data") : null;
+            JsonNode price = product != null ? product.path("price") : null;
+            if (price == null || !price.isNumber()) {
+                throw new RuntimeException("Inventario no devolvió el precio del producto " + productId);
+            }
+            JsonNode sellerId = product.path("sellerId");
+            return new StockReduction(Money.of(price.decimalValue()), sellerId.isNumber() ? sellerId.asLong() : null);
+        } catch (RestClientResponseException e) {
+            throw new RuntimeException(errorMessage(e));
+        }
+    }
+
+    @Override
+    public void addStock(Long productId, int quantity) {
+        try {
+            restClient.put()
+                    .uri("/{id}/stock/add?quantity={quantity}", productId, quantity)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientResponseException e) {
+            throw new RuntimeException(errorMessage(e));
+        }
+    }
+
+    @Override
+    public List<PriceQuote> findPriceChanges(LocalDateTime since) {
+        try {
+            JsonNode body = restClient.get()
+                    .uri(uri -> uri.path("/prices").queryParamIfPresent("since", Optional.ofNullable(since)).build())
+                    .retrieve()
+                    .body(JsonNode.class);
+            List<PriceQuote> quotes = new ArrayList<>();
+            if (body != null) {
+                for (JsonNode change : body.path("data")) {
+                    quotes.add(toQuote(change.path("productId").asLong(), change));
+                }
+            }
+            return quotes;
+        } catch (RestClientResponseException e) {
+            throw new RuntimeException(errorMessage(e));
+        }
+    }
+
+    @Override
+    public PriceQuote getPrice(Long productId) {
+        try {
+            JsonNode body = restClient.get()
+                    .uri("/{id}", productId)
+                    .retrieve()
+                    .body(JsonNode.class);
+            return toQuote(productId, body != null ? body.path("data") : null);
+        } catch (RestClientResponseException e) {
+            if (e.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+                throw new IllegalArgumentException(errorMessage(e));
+            }
+            throw new RuntimeException(errorMessage(e));
+        }
+    }
+
+    private static PriceQuote toQuote(Long productId, JsonNode product) {
+        JsonNode price = product != null ? product.path("price") : null;
+        if (price == null || !price.isNumber()) {
+            throw new RuntimeException("Inventario no devolvió el precio del producto " + productId);
+        }
+        JsonNode updatedAt = product.path("updatedAt");
+        return new PriceQuote(productId, Money.of(price.decimalValue()),
+                updatedAt.isTextual() ? LocalDateTime.parse(updatedAt.asText()) : null);
+    }
+
+    // Usa el mensaje del ApiResponse de Inventario cuando viene en la respuesta
+    private static String errorMessage(RestClientResponseException e) {
+        try {
+            JsonNode body = e.getResponseBodyAs(JsonNode.class);
+            if (body != null && body.hasNonNull("message")) {
+                return body.get("message").asText();
+            }
+        } catch (RuntimeException ignored) {
+            // Cuerpo que no es JSON
+        }
+        return "Inventario respondió " + e.getStatusCode().value();
+    }
+}
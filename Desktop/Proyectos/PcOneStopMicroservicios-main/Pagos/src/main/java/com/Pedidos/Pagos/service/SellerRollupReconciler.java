@@ -0,0 +1,58 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import com.Pedidos.Pagos.repository.SellerDailyRollupRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Corrige los rollups de un vendedor en un día contando de nuevo sus pedidos.
+ *
+ * Primero bloquea las filas del día: un increment() concurrente espera al commit y se suma
+ * sobre el valor corregido, y uno ya confirmado está incluido en el conteo. Los pedidos se
+ * leen después del bloqueo con una sola vista de orders y orders_archive, así un pedido que
+ * se archiva mientras tanto no se cuenta dos veces.
+ */
+@Service
+@Transactional
+public class SellerRollupReconciler {
+
+    @Autowired
+    private SellerDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    /**
+     * Recalcula las filas del vendedor en el día; los estados sin pedidos quedan en cero.
+     */
+    public void reconcileDay(Long sellerId, LocalDate day) {
+        // {pedidos, céntimos} por estado
+        Map<String, long[]> totals = new TreeMap<>();
+        for (String status : rollupRepository.lockDay(sellerId, day)) {
+            totals.put(status, new long[2]);
+        }
+        add(totals, orderRepository.summarizeSellerDay(sellerId, day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+        add(totals, archivedOrderRepository.summarizeSellerDay(sellerId, day.atStartOfDay(),
+                day.plusDays(1).atStartOfDay()));
+        totals.forEach((status, total) -> rollupRepository.set(sellerId, day, status, total[0], total[1]));
+    }
+
+    private static void add(Map<String, long[]> totals, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            long[] total = totals.computeIfAbsent(row[0].toString(), k -> new long[2]);
+            total[0] += ((Number) row[1]).longValue();
+            total[1] += row[2] != null ? ((Number) row[2]).longValue() : 0L;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.dto.SellerDashboard;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.model.SellerDailyRollup;
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import com.Pedidos.Pagos.repository.SellerDailyRollupRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+/**
+ * Rollups diarios por vendedor, día y estado (pedidos e ingresos) para el dashboard.
+ *
+ * OrderService los actualiza dentro de la misma transacción que crea o cambia de estado
+ * un pedido, así el dashboard solo lee unas pocas filas por día. El recálculo completo
+ * agrega orders y orders_archive en bloques de IDs en paralelo, compara con los rollups y
+ * corrige solo los días que difieren con SellerRollupReconciler, sin reemplazar la tabla
+ * mientras los pedidos siguen actualizándola. Archivar un pedido no lo quita de los
+ * rollups; purgarlo sí.
+ */
+@Service
+@Transactional
+public class SellerRollupService {
+
+    public static final int MAX_DASHBOARD_DAYS = 366;
+
+    private record Key(Long sellerId, LocalDate day, OrderStatus status) {
+    }
+
+    private record SellerDay(Long sellerId, LocalDate day) {
+    }
+
+    @Autowired
+    private SellerDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private SellerRollupReconciler reconciler;
+
+    @Value("${pagos.rollups.rebuild-chunk-size:5000}")
+    private long chunkSize = 5000;
+
+    @Value("${pagos.rollups.rebuild-threads:4}")
+    private int threads = 4;
+
+    /**
+     * Suma un pedido nuevo a su rollup.
+     */
+    public void onCreated(Order order) {
+        add(order, order.getStatus(), 1);
+    }
+
+    /**
+     * Mueve el pedido del rollup de su estado anterior al del nuevo.
+     */
+    public void onStatusChanged(Order order, OrderStatus previous) {
+        add(order, previous, -1);
+        add(order, order.getStatus(), 1);
+    }
+
+    /**
+     * Resta un pedido eliminado de su rollup.
+     */
+    public void onDeleted(Order order) {
+        add(order, order.getStatus(), -1);
+    }
+
+    /**
+     * Resta pedidos purgados de sus rollups a partir de sus agregados
+     * {sellerId, día, estado, pedidos, ingresos en céntimos}.
+     */
+    public void onPurged(List<Object[]> dailyTotals) {
+        for (Object[] row : dailyTotals) {
+            if (row[0] == null || row[1] == null) {
+                continue;
+            }
+            long cents = row[4] != null ? ((Number) row[4]).longValue() : 0L;
+            rollupRepository.increment(((Number) row[0]).longValue(), toLocalDate(row[1]), row[2].toString(),
+                    -((Number) row[3]).longValue(), -cents);
+        }
+    }
+
+    /**
+     * Dashboard de un vendedor leyendo solo los rollups del rango.
+     */
+    public SellerDashboard getDashboard(Long sellerId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        if (from.plusDays(MAX_DASHBOARD_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("El rango no puede superar " + MAX_DASHBOARD_DAYS + " días");
+        }
+        List<SellerDailyRollup> days = rollupRepository.findBySellerIdAndDayBetweenOrderByDayAsc(sellerId, from, to);
+        long orderCount = days.stream().mapToLong(SellerDailyRollup::getOrderCount).sum();
+        long revenueCents = days.stream()
+                .filter(rollup -> rollup.getStatus() != OrderStatus.CANCELADO)
+                .mapToLong(rollup -> rollup.getRevenue().cents())
+                .sum();
+        return new SellerDashboard(sellerId, from, to, orderCount, Money.ofCents(revenueCents), days);
+    }
+
+    /**
+     * Recalcula todos los rollups desde orders y orders_archive (cada noche, o al iniciar si aún no existen).
+     *
+     * Los bloques se leen en momentos distintos, así que el agregado solo sirve para encontrar
+     * los días que pueden estar desviados. Cada uno se corrige en su propia transacción corta;
+     * un pedido que cambió durante la lectura solo provoca que su día se revise de nuevo.
+     */
+    @Scheduled(cron = "${pagos.rollups.rebuild-cron:0 30 3 * * *}")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void rebuild() {
+        // {pedidos, céntimos} por clave: se acumula en long sin crear objetos por fila
+        Map<Key, long[]> merged = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<List<Object[]>>> chunks = new ArrayList<>();
+            submitChunks(orderRepository.findIdRange(), orderRepository::summarizeDailyByIdRange, executor, chunks);
+            submitChunks(archivedOrderRepository.findIdRange(), archivedOrderRepository::summarizeDailyByIdRange,
+                    executor, chunks);
+            for (CompletableFuture<List<Object[]>> chunk : chunks) {
+                for (Object[] row : chunk.join()) {
+                    merge(merged, row);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Set<SellerDay> drifted = new LinkedHashSet<>();
+        for (SellerDailyRollup rollup : rollupRepository.findAll()) {
+            long[] totals = merged.remove(new Key(rollup.getSellerId(), rollup.getDay(), rollup.getStatus()));
+            long count = totals != null ? totals[0] : 0L;
+            long cents = totals != null ? totals[1] : 0L;
+            if (rollup.getOrderCount() != count || rollup.getRevenue().cents() != cents) {
+                drifted.add(new SellerDay(rollup.getSellerId(), rollup.getDay()));
+            }
+        }
+        // Lo que queda en merged no tiene fila todavía
+        merged.forEach((key, totals) -> {
+            if (totals[0] != 0 || totals[1] != 0) {
+                drifted.add(new SellerDay(key.sellerId(), key.day()));
+            }
+        });
+        for (SellerDay sellerDay : drifted) {
+            reconciler.reconcileDay(sellerDay.sellerId(), sellerDay.day());
+        }
+        System.out.println("[Pagos] Rollups de vendedores recalculados: " + drifted.size() + " días corregidos");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0 && orderRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    // Reparte el rango {min, max} de IDs en bloques (from, to] que se agregan en paralelo
+    private void submitChunks(List<Object[]> range, BiFunction<Long, Long, List<Object[]>> summarize,
+                              ExecutorService executor, List<CompletableFuture<List<Object[]>>> chunks) {
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            return;
+        }
+        long minId = ((Number) range.get(0)[0]).longValue();
+        long maxId = ((Number) range.get(0)[1]).longValue();
+        for (long from = minId - 1; from < maxId; from += chunkSize) {
+            long fromId = from;
+            long toId = Math.min(from + chunkSize, maxId);
+            chunks.add(CompletableFuture.supplyAsync(() -> summarize.apply(fromId, toId), executor));
+        }
+    }
+
+    private void add(Order order, OrderStatus status, int sign) {
+        if (order.getSellerId() == null || order.getCreatedAt() == null || status == null) {
+            return;
+        }
+        long cents = order.getTotalAmount() != null ? order.getTotalAmount().cents() : 0L;
+        rollupRepository.increment(order.getSellerId(), order.getCreatedAt().toLocalDate(), status.name(),
+                sign, sign * cents);
+    }
+
+    // Un mismo (vendedor, día, estado) puede aparecer en varios bloques: se suman
+    private static void merge(Map<Key, long[]> merged, Object[] row) {
+        Key key = new Key(((Number) row[0]).longValue(), toLocalDate(row[1]), OrderStatus.valueOf(row[2].toString()));
+        long[] totals = merged.computeIfAbsent(key, k -> new long[2]);
+        totals[0] += ((Number) row[3]).longValue();
+        totals[1] += row[4] != null ? ((Number) row[4]).longValue() : 0L;
+    }
+
+    // date() en SQL nativo llega como java.sql.Date o LocalDate según el driver
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+}
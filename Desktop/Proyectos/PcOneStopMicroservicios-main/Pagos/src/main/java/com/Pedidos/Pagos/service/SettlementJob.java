@@ -0,0 +1,210 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.dto.SettlementProgress;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.SellerSettlement;
+import com.Pedidos.Pagos.model.SettlementRun;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Liquida a los vendedores un período: suma sus pedidos COMPLETADO creados entre las
+ * dos fechas.
+ *
+ * Recorre los pedidos por bloques en orden (createdAt, id) y agrega cada bloque por
+ * vendedor en paralelo en un ForkJoinPool. Cada bloque se suma y avanza el punto de
+ * control en una sola transacción (SettlementService.applyChunk), así si el servicio se
+ * detiene la ejecución se reanuda al iniciar desde el último bloque confirmado.
+ */
+@Component
+public class SettlementJob {
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Value("${pagos.settlement.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Value("${pagos.settlement.parallelism:4}")
+    private int parallelism = 4;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile SettlementProgress progress = new SettlementProgress(false, null, null, null, 0L, null, 0.0,
+            null, null, null);
+    private volatile long startedAtNanos;
+    private volatile long processedThisRun;
+
+    /**
+     * Inicia en otro hilo la liquidación del período. Devuelve false si ya hay una en curso.
+     * Lanza IllegalArgumentException si el período no es válido e IllegalStateException si
+     * ya fue liquidado y no se pidió rerun.
+     */
+    public boolean start(LocalDate from, LocalDate to, boolean rerun) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        SettlementRun run = prepare(from, to, rerun);
+        Thread.ofVirtual().name("seller-settlement").start(() -> settle(List.of(run.getId())));
+        return true;
+    }
+
+    /**
+     * Ejecuta la liquidación completa en el hilo actual. Devuelve false si ya hay otra en curso.
+     */
+    public boolean run(LocalDate from, LocalDate to, boolean rerun) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        SettlementRun run = prepare(from, to, rerun);
+        settle(List.of(run.getId()));
+        return true;
+    }
+
+    /**
+     * Liquida el mes anterior el primer día de cada mes.
+     */
+    @Scheduled(cron = "${pagos.settlement.cron:0 0 5 1 * *}")
+    public void runScheduled() {
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+        try {
+            run(firstOfMonth.minusMonths(1), firstOfMonth.minusDays(1), false);
+        } catch (RuntimeException e) {
+            System.err.println("[Pagos] No se inició la liquidación mensual: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reanuda al iniciar las ejecuciones que quedaron a medias.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        List<Long> runIds = settlementService.findInterrupted().stream().map(SettlementRun::getId).toList();
+        if (runIds.isEmpty() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        System.out.println("[Pagos] Reanudando liquidaciones interrumpidas: " + runIds);
+        try {
+            begin(settlementService.getRun(runIds.get(0)));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        Thread.ofVirtual().name("seller-settlement").start(() -> settle(runIds));
+    }
+
+    /**
+     * Copia del progreso de la ejecución actual o de la última terminada.
+     */
+    public SettlementProgress getProgress() {
+        SettlementProgress current = progress;
+        synchronized (current) {
+            double rowsPerSecond = current.isRunning() ? rowsPerSecond() : current.getRowsPerSecond();
+            return new SettlementProgress(current.isRunning(), current.getRunId(), current.getPeriodStart(),
+                    current.getPeriodEnd(), current.getOrdersProcessed(), current.getLastOrderId(), rowsPerSecond,
+                    current.getStartedAt(), current.getFinishedAt(), current.getLastError());
+        }
+    }
+
+    public List<SellerSettlement> findSettlements(LocalDate from, LocalDate to) {
+        return settlementService.findSettlements(from, to);
+    }
+
+    // Se ejecuta con running ya tomado por quien lo llama; procesa las ejecuciones una tras otra
+    private void settle(List<Long> runIds) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int i = 0; i < runIds.size(); i++) {
+                if (i > 0) {
+                    begin(settlementService.getRun(runIds.get(i)));
+                }
+                process(runIds.get(i), pool);
+            }
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    private void process(Long runId, ForkJoinPool pool) {
+        SettlementProgress current = progress;
+        try {
+            while (true) {
+                SettlementRun run = settlementService.getRun(runId);
+                List<Object[]> rows = settlementService.nextChunk(run, chunkSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                Map<Long, long[]> totals = pool.submit(() -> aggregate(rows)).join();
+                Object[] last = rows.get(rows.size() - 1);
+                settlementService.applyChunk(run, (LocalDateTime) last[1], (Long) last[0], rows.size(), totals);
+                synchronized (current) {
+                    processedThisRun += rows.size();
+                    current.setOrdersProcessed(current.getOrdersProcessed() + rows.size());
+                    current.setLastOrderId((Long) last[0]);
+                }
+            }
+            settlementService.finish(runId);
+            System.out.println("[Pagos] Liquidación " + runId + " terminada: " + current.getOrdersProcessed() + " pedidos");
+        } catch (RuntimeException e) {
+            settlementService.fail(runId, e.getMessage());
+            synchronized (current) {
+                current.setLastError(e.getMessage());
+            }
+        } finally {
+            synchronized (current) {
+                current.setRowsPerSecond(rowsPerSecond());
+                current.setFinishedAt(LocalDateTime.now());
+                current.setRunning(false);
+            }
+        }
+    }
+
+    // {pedidos, céntimos} por vendedor; los pedidos sin vendedor no se liquidan
+    static Map<Long, long[]> aggregate(List<Object[]> rows) {
+        return rows.parallelStream()
+                .filter(row -> row[2] != null)
+                .collect(Collectors.toMap(row -> (Long) row[2],
+                        row -> new long[]{1, row[3] != null ? ((Money) row[3]).cents() : 0L},
+                        (a, b) -> {
+                            a[0] += b[0];
+                            a[1] += b[1];
+                            return a;
+                        }));
+    }
+
+    // Con running ya tomado: lo libera si el período no se puede liquidar
+    private SettlementRun prepare(LocalDate from, LocalDate to, boolean rerun) {
+        try {
+            SettlementRun run = settlementService.prepare(from, to, rerun);
+            begin(run);
+            return run;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private double rowsPerSecond() {
+        long elapsed = System.nanoTime() - startedAtNanos;
+        return elapsed > 0 ? Math.round(processedThisRun * 1_000_000_000.0 / elapsed * 10.0) / 10.0 : 0.0;
+    }
+
+    private void begin(SettlementRun run) {
+        startedAtNanos = System.nanoTime();
+        processedThisRun = 0;
+        progress = new SettlementProgress(true, run.getId(), run.getPeriodStart(), run.getPeriodEnd(),
+                run.getOrdersProcessed(), run.getLastOrderId(), 0.0, LocalDateTime.now(), null, null);
+    }
+}
@@ -0,0 +1,142 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.model.SellerSettlement;
+import com.Pedidos.Pagos.model.SettlementRun;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import com.Pedidos.Pagos.repository.SellerSettlementRepository;
+import com.Pedidos.Pagos.repository.SettlementRunRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecturas y escrituras de la liquidación de vendedores. SettlementJob recorre los
+ * pedidos y llama a applyChunk por cada bloque, que se confirma en su propia transacción.
+ */
+@Service
+@Transactional
+public class SettlementService {
+
+    @Autowired
+    private SettlementRunRepository runRepository;
+
+    @Autowired
+    private SellerSettlementRepository settlementRepository;
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Value("${pagos.archive.after-days:365}")
+    private long archiveAfterDays = 365;
+
+    /**
+     * Deja lista la ejecución del período [from, to]: crea una nueva, reanuda una
+     * interrumpida o fallida desde su punto de control, o con rerun vuelve a empezar.
+     * Un período ya liquidado solo se recalcula con rerun.
+     */
+    public SettlementRun prepare(LocalDate from, LocalDate to, boolean rerun) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Debe indicar el primer y el último día del período");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        if (!to.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Solo se pueden liquidar períodos cerrados (hasta ayer)");
+        }
+        if (from.isBefore(LocalDate.now().minusDays(archiveAfterDays))) {
+            throw new IllegalArgumentException("Los pedidos anteriores a " + archiveAfterDays
+                    + " días pueden estar archivados y no se liquidan");
+        }
+
+        SettlementRun run = runRepository.findByPeriodStartAndPeriodEnd(from, to).orElse(null);
+        if (run == null) {
+            run = new SettlementRun(null, from, to, SettlementRun.State.EN_CURSO, from.atStartOfDay(), 0L, 0L,
+                    LocalDateTime.now(), null, null);
+            return runRepository.save(run);
+        }
+        if (run.getState() == SettlementRun.State.TERMINADO && !rerun) {
+            throw new IllegalStateException("El período ya fue liquidado; use rerun=true para recalcularlo");
+        }
+        if (rerun) {
+            settlementRepository.deleteByRunId(run.getId());
+            run.setLastCreatedAt(from.atStartOfDay());
+            run.setLastOrderId(0L);
+            run.setOrdersProcessed(0L);
+            run.setStartedAt(LocalDateTime.now());
+        }
+        run.setState(SettlementRun.State.EN_CURSO);
+        run.setFinishedAt(null);
+        run.setLastError(null);
+        return runRepository.save(run);
+    }
+
+    /**
+     * Ejecuciones que quedaron EN_CURSO (el servicio se detuvo a mitad de la liquidación).
+     */
+    public List<SettlementRun> findInterrupted() {
+        return runRepository.findByStateOrderByIdAsc(SettlementRun.State.EN_CURSO);
+    }
+
+    public SettlementRun getRun(Long runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new RuntimeException("Liquidación no encontrada con ID: " + runId));
+    }
+
+    /**
+     * Siguiente bloque de pedidos COMPLETADO después del punto de control de la ejecución.
+     */
+    public List<Object[]> nextChunk(SettlementRun run, int chunkSize) {
+        return orderRepository.findSettlementRows(OrderStatus.COMPLETADO, run.getLastCreatedAt(), run.getLastOrderId(),
+                run.getPeriodEnd().plusDays(1).atStartOfDay(), PageRequest.of(0, chunkSize));
+    }
+
+    /**
+     * Suma los totales del bloque ({pedidos, céntimos} por vendedor) y avanza el punto de
+     * control en la misma transacción. Si el punto de control ya no es el esperado, no
+     * aplica nada.
+     */
+    public void applyChunk(SettlementRun run, LocalDateTime toCreatedAt, Long toId, long rows,
+                           Map<Long, long[]> totals) {
+        int advanced = runRepository.advance(run.getId(), run.getLastCreatedAt(), run.getLastOrderId(),
+                toCreatedAt, toId, rows);
+        if (advanced == 0) {
+            throw new IllegalStateException("El punto de control de la liquidación " + run.getId()
+                    + " cambió durante el bloque");
+        }
+        totals.forEach((sellerId, total) -> settlementRepository.increment(run.getId(), sellerId, total[0], total[1]));
+    }
+
+    public void finish(Long runId) {
+        SettlementRun run = getRun(runId);
+        run.setState(SettlementRun.State.TERMINADO);
+        run.setFinishedAt(LocalDateTime.now());
+        runRepository.save(run);
+    }
+
+    public void fail(Long runId, String error) {
+        runRepository.findById(runId).ifPresent(run -> {
+            run.setState(SettlementRun.State.FALLIDO);
+            run.setFinishedAt(LocalDateTime.now());
+            run.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            runRepository.save(run);
+        });
+    }
+
+    /**
+     * Liquidaciones por vendedor del período (vacía si el período no se liquidó).
+     */
+    public List<SellerSettlement> findSettlements(LocalDate from, LocalDate to) {
+        return runRepository.findByPeriodStartAndPeriodEnd(from, to)
+                .map(run -> settlementRepository.findByRunIdOrderBySellerIdAsc(run.getId()))
+                .orElseGet(List::of);
+    }
+}
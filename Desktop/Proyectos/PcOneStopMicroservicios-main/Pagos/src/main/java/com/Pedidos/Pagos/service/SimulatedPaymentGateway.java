@@ -0,0 +1,47 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pasarela local para desarrollo: tarda pagos.payments.simulator.latency-ms por lote,
+ * falla el lote completo con probabilidad pagos.payments.simulator.failure-rate y
+ * rechaza los cobros que superan pagos.payments.simulator.max-amount.
+ */
+@Component
+@ConditionalOnProperty(name = "pagos.payments.gateway", havingValue = "simulado", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    @Value("${pagos.payments.simulator.latency-ms:50}")
+    private long latencyMillis = 50;
+
+    @Value("${pagos.payments.simulator.failure-rate:0.0}")
+    private double failureRate = 0.0;
+
+    @Value("${pagos.payments.simulator.max-amount:5000000}")
+    private double maxAmount = 5_000_000;
+
+    @Override
+    public Map<Long, Result> confirm(List<Charge> charges) throws Exception {
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Pasarela simulada no disponible");
+        }
+        Money limit = Money.of(maxAmount);
+        Map<Long, Result> results = new LinkedHashMap<>();
+        for (Charge charge : charges) {
+            boolean approved = charge.amount() != null && charge.amount().cents() <= limit.cents();
+            results.put(charge.orderId(), approved ? Result.APROBADO : Result.RECHAZADO);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,59 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Envía cada lote de eventos como un arreglo JSON por POST a pagos.outbox.webhook-url.
+ * Cualquier respuesta que no sea 2xx, o que no llegue dentro de los timeouts, se trata
+ * como fallo y el lote se reintenta.
+ */
+@Component
+@ConditionalOnProperty(name = "pagos.outbox.webhook-url")
+public class WebhookOrderEventSink implements OrderEventSink {
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final String webhookUrl;
+
+    public WebhookOrderEventSink(RestClient.Builder builder, ObjectMapper objectMapper,
+                                 @Value("${pagos.outbox.webhook-url}") String webhookUrl,
+                                 @Value("${pagos.outbox.webhook-connect-timeout-ms:2000}") long connectTimeoutMillis,
+                                 @Value("${pagos.outbox.webhook-read-timeout-ms:10000}") long readTimeoutMillis) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(connectTimeoutMillis));
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+        this.restClient = builder.requestFactory(requestFactory).build();
+        this.objectMapper = objectMapper;
+        this.webhookUrl = webhookUrl;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws Exception {
+        ArrayNode body = objectMapper.createArrayNode();
+        for (OutboxEvent event : events) {
+            ObjectNode node = body.addObject();
+            node.put("eventId", event.getId());
+            node.put("type", event.getEventType());
+            node.put("orderId", event.getOrderId());
+            node.set("data", objectMapper.readTree(event.getPayload()));
+        }
+        restClient.post()
+                .uri(webhookUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(objectMapper.writeValueAsString(body))
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
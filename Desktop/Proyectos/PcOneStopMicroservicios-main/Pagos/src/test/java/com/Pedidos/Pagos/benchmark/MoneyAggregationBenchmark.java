@@ -0,0 +1,106 @@
+package com.Pedidos.Pagos.benchmark;
+
+import com.Pedidos.Pagos.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Sumas de montos como las hacía Pagos con Double (streams y mapas de Double, con boxing en
+ * cada paso) contra las de ahora en céntimos (long[], LongStream y mapToLong sobre Money).
+ *
+ * Dos formas de agregación, las mismas que usan el dashboard / checkout y la liquidación o
+ * el recálculo de rollups:
+ * - total de todos los montos
+ * - total por vendedor
+ *
+ * No corre con los tests. Para ejecutarlo (agregar "-prof gc" para ver las asignaciones):
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     "-Dexec.args=-cp %classpath org.openjdk.jmh.Main MoneyAggregationBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyAggregationBenchmark {
+
+    private static final int SELLERS = 200;
+
+    @Param({"100000", "1000000"})
+    private int orders;
+
+    private long[] sellerIds;
+    private List<Double> amounts;
+    private List<Money> moneys;
+    private long[] cents;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        sellerIds = new long[orders];
+        amounts = new ArrayList<>(orders);
+        moneys = new ArrayList<>(orders);
+        cents = new long[orders];
+        for (int i = 0; i < orders; i++) {
+            long amountCents = 500 + random.nextInt(500_000);
+            sellerIds[i] = 1 + random.nextInt(SELLERS);
+            amounts.add(amountCents / 100.0);
+            moneys.add(Money.ofCents(amountCents));
+            cents[i] = amountCents;
+        }
+    }
+
+    @Benchmark
+    public double totalDoubleStream() {
+        return amounts.stream().reduce(0.0, Double::sum);
+    }
+
+    @Benchmark
+    public long totalMoneyMapToLong() {
+        return moneys.stream().mapToLong(Money::cents).sum();
+    }
+
+    @Benchmark
+    public long totalCentsArray() {
+        return LongStream.of(cents).sum();
+    }
+
+    // Como el recálculo de rollups antes de Money: Map<vendedor, Double> con merge
+    @Benchmark
+    public Map<Long, Double> bySellerDoubleMap() {
+        Map<Long, Double> totals = new HashMap<>();
+        for (int i = 0; i < orders; i++) {
+            totals.merge(sellerIds[i], amounts.get(i), Double::sum);
+        }
+        return totals;
+    }
+
+    // Como SettlementJob / SellerRollupReconciler: un long[] acumulador por vendedor
+    @Benchmark
+    public Map<Long, long[]> bySellerLongAccumulators() {
+        Map<Long, long[]> totals = new HashMap<>();
+        for (int i = 0; i < orders; i++) {
+            totals.computeIfAbsent(sellerIds[i], k -> new long[1])[0] += cents[i];
+        }
+        return totals;
+    }
+}
@@ -1,7 +1,35 @@
 package com.Pedidos.Pagos.controller;
 
+import com.Pedidos.Pagos.dto.ArchiveProgress;
+import com.Pedidos.Pagos.dto.BulkStatusRequest;
+import com.Pedidos.Pagos.dto.BulkStatusResult;
+import com.Pedidos.Pagos.dto.CheckoutItem;
+import com.Pedidos.Pagos.dto.CheckoutRequest;
+import com.Pedidos.Pagos.dto.CheckoutResult;
+import com.Pedidos.Pagos.dto.OrderPage;
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+import com.Pedidos.Pagos.dto.OrderStatusCounts;
+import com.Pedidos.Pagos.dto.OutboxStats;
+import com.Pedidos.Pagos.dto.PaymentStats;
+import com.Pedidos.Pagos.dto.ProductSales;
+import com.Pedidos.Pagos.dto.PurgeProgress;
+import com.Pedidos.Pagos.dto.SellerDashboard;
+import com.Pedidos.Pagos.dto.SettlementProgress;
+import com.Pedidos.Pagos.model.Money;
 import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.model.SellerSettlement;
+import com.Pedidos.Pagos.service.CheckoutException;
+import com.Pedidos.Pagos.service.CheckoutService;
+import com.Pedidos.Pagos.service.IdempotencyService;
+import com.Pedidos.Pagos.service.OrderArchiveJob;
+import com.Pedidos.Pagos.service.OrderExportService;
+import com.Pedidos.Pagos.service.OrderPurgeJob;
 import com.Pedidos.Pagos.service.OrderService;
+import com.Pedidos.Pagos.service.OutboxRelay;
+import com.Pedidos.Pagos.service.PaymentPipeline;
+import com.Pedidos.Pagos.service.PriceCache;
+import com.Pedidos.Pagos.service.SettlementJob;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,13 +38,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,6 +68,33 @@ public class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private OutboxRelay outboxRelay;
+
+    @MockBean
+    private OrderArchiveJob orderArchiveJob;
+
+    @MockBean
+    private CheckoutService checkoutService;
+
+    @MockBean
+    private OrderExportService orderExportService;
+
+    @MockBean
+    private SettlementJob settlementJob;
+
+    @MockBean
+    private PaymentPipeline paymentPipeline;
+
+    @MockBean
+    private PriceCache priceCache;
+
+    @MockBean
+    private OrderPurgeJob orderPurgeJob;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -38,18 +103,18 @@ public class OrderControllerTest {
 
     @BeforeEach
     void setUp() {
-        pedido1 = new Order(1L, 1L, 500.0, "PENDIENTE", "1,2,3", LocalDateTime.now(), 5L);
-        pedido2 = new Order(2L, 1L, 300.0, "COMPLETADO", "4,5", LocalDateTime.now(), 5L);
+        pedido1 = new Order(1L, 1L, Money.of(500.0), OrderStatus.PENDIENTE, "1,2,3", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        pedido2 = new Order(2L, 1L, Money.of(300.0), OrderStatus.COMPLETADO, "4,5", LocalDateTime.now(), 5L, new ArrayList<>(), null);
     }
 
     // Tests POST /api/v1/orders 
     @Test
     public void testCreate_CreaPedidoExitosamente() throws Exception {
         // DADO: un pedido nuevo
-        Order nuevo = new Order(null, 4L, 5097.0, null, "1,4,7", null, 2L);
-        Order creado = new Order(3L, 4L, 5097.0, "PENDIENTE", "1,4,7", LocalDateTime.now(), 2L);
+        Order nuevo = new Order(null, 4L, Money.of(5097.0), null, "1,4,7", null, 2L, new ArrayList<>(), null);
+        Order creado = new Order(3L, 4L, Money.of(5097.0), OrderStatus.PENDIENTE, "1,4,7", LocalDateTime.now(), 2L, new ArrayList<>(), null);
         
-        when(orderService.createOrder(any(Order.class))).thenReturn(creado);
+        when(orderService.createOrder(any(Order.class), anyMap())).thenReturn(creado);
 
         // CUANDO: enviamos POST
         mockMvc.perform(post("/api/v1/orders")
@@ -67,9 +132,9 @@ public class OrderControllerTest {
     @Test
     public void testCreate_ErrorInterno_Retorna500() throws Exception {
         // DADO: un error al crear
-        Order nuevo = new Order(null, 4L, 5097.0, null, "1,4,7", null, 2L);
+        Order nuevo = new Order(null, 4L, Money.of(5097.0), null, "1,4,7", null, 2L, new ArrayList<>(), null);
         
-        when(orderService.createOrder(any(Order.class)))
+        when(orderService.createOrder(any(Order.class), anyMap()))
                 .thenThrow(new RuntimeException("Error de base de datos"));
 
         // CUANDO: enviamos POST
@@ -82,12 +147,45 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.statusCode").value(500));
     }
 
+    @Test
+    public void testCreate_ResuelvePreciosAntesDeCrear() throws Exception {
+        // DADO: los precios vigentes de los productos del pedido
+        Order nuevo = new Order(null, 4L, null, null, "1,4", null, 2L, new ArrayList<>(), null);
+        Map<Long, Money> precios = Map.of(1L, Money.of(100.0), 4L, Money.of(200.0));
+        when(priceCache.getPrices(Set.of(1L, 4L))).thenReturn(precios);
+        when(orderService.createOrder(any(Order.class), eq(precios))).thenReturn(pedido1);
+
+        // CUANDO: enviamos POST
+        mockMvc.perform(post("/api/v1/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(nuevo)))
+                // ENTONCES: el pedido se crea con los precios resueltos fuera de la transacción
+                .andExpect(status().isCreated());
+        verify(orderService).createOrder(any(Order.class), eq(precios));
+    }
+
+    @Test
+    public void testCreate_ProductoInexistente_Retorna400SinCrear() throws Exception {
+        // DADO: Inventario no conoce uno de los productos
+        Order nuevo = new Order(null, 4L, null, null, "99", null, 2L, new ArrayList<>(), null);
+        when(priceCache.getPrices(any())).thenThrow(new IllegalArgumentException("Producto no encontrado con ID: 99"));
+
+        // CUANDO: enviamos POST
+        mockMvc.perform(post("/api/v1/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(nuevo)))
+                // ENTONCES: 400 sin llegar a abrir la transacción de creación
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Producto no encontrado con ID: 99"));
+        verify(orderService, never()).createOrder(any(Order.class), anyMap());
+    }
+
     // Tests GET /api/v1/orders/user/{userId} 
     @Test
     public void testGetByUser_RetornaPedidosDelUsuario() throws Exception {
         // DADO: 2 pedidos del usuario 1
         List<Order> pedidos = Arrays.asList(pedido1, pedido2);
-        when(orderService.findByUserId(1L)).thenReturn(pedidos);
+        when(orderService.findByUserId(1L, false)).thenReturn(pedidos);
 
         // CUANDO: enviamos GET
         mockMvc.perform(get("/api/v1/orders/user/1"))
@@ -102,7 +200,7 @@ public class OrderControllerTest {
     @Test
     public void testGetByUser_UsuarioSinPedidos_Retorna404() throws Exception {
         // DADO: usuario sin pedidos
-        when(orderService.findByUserId(999L)).thenReturn(Arrays.asList());
+        when(orderService.findByUserId(999L, false)).thenReturn(Arrays.asList());
 
         // CUANDO: enviamos GET
         mockMvc.perform(get("/api/v1/orders/user/999"))
@@ -118,7 +216,7 @@ public class OrderControllerTest {
     public void testGetBySeller_RetornaPedidosDelVendedor() throws Exception {
         // DADO: 2 pedidos del vendedor 5
         List<Order> pedidos = Arrays.asList(pedido1, pedido2);
-        when(orderService.findBySellerId(5L)).thenReturn(pedidos);
+        when(orderService.findBySellerId(5L, false)).thenReturn(pedidos);
 
         // CUANDO: enviamos GET
         mockMvc.perform(get("/api/v1/orders/seller/5"))
@@ -132,29 +230,29 @@ public class OrderControllerTest {
     // Tests PUT /api/v1/orders/{id}/status 
     @Test
     public void testUpdateStatus_ActualizaEstadoExitosamente() throws Exception {
-        // DADO: pedido que se actualiza a ENVIADO
-        Order actualizado = new Order(1L, 1L, 500.0, "ENVIADO", "1,2,3", LocalDateTime.now(), 5L);
-        when(orderService.updateStatus(1L, "ENVIADO")).thenReturn(actualizado);
+        // DADO: pedido que se actualiza a EN_CAMINO
+        Order actualizado = new Order(1L, 1L, Money.of(500.0), OrderStatus.EN_CAMINO, "1,2,3", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        when(orderService.updateStatus(1L, OrderStatus.EN_CAMINO)).thenReturn(actualizado);
 
         // CUANDO: enviamos PUT
         mockMvc.perform(put("/api/v1/orders/1/status")
-                .param("status", "ENVIADO"))
+                .param("status", "EN_CAMINO"))
                 // ENTONCES: respuesta 200 OK
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.ok").value(true))
-                .andExpect(jsonPath("$.data.status").value("ENVIADO"))
-                .andExpect(jsonPath("$.message").value("Estado actualizado a: ENVIADO"));
+                .andExpect(jsonPath("$.data.status").value("EN_CAMINO"))
+                .andExpect(jsonPath("$.message").value("Estado actualizado a: EN_CAMINO"));
     }
 
     @Test
     public void testUpdateStatus_PedidoNoExiste_Retorna404() throws Exception {
         // DADO: pedido que no existe
-        when(orderService.updateStatus(999L, "ENVIADO"))
+        when(orderService.updateStatus(999L, OrderStatus.EN_CAMINO))
                 .thenThrow(new RuntimeException("Pedido no encontrado con ID: 999"));
 
         // CUANDO: enviamos PUT
         mockMvc.perform(put("/api/v1/orders/999/status")
-                .param("status", "ENVIADO"))
+                .param("status", "EN_CAMINO"))
                 // ENTONCES: respuesta 404 NOT FOUND
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.ok").value(false))
@@ -168,26 +266,476 @@ public class OrderControllerTest {
         // que findById funcione pero que algo más falle. Sin embargo, como el método
         // no declara throws Exception, no podemos hacer que lance checked exceptions.
         // Ajustamos el test para reflejar el comportamiento real: RuntimeException -> 404
-        Order pedido = new Order(1L, 1L, 100.0, "PENDIENTE", "1", LocalDateTime.now(), 5L);
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
         when(orderService.findById(1L)).thenReturn(pedido);
         // Simulamos que updateStatus falla con RuntimeException (que se captura como 404)
-        when(orderService.updateStatus(1L, "ENVIADO"))
+        when(orderService.updateStatus(1L, OrderStatus.EN_CAMINO))
                 .thenThrow(new RuntimeException("Error de base de datos"));
 
         // CUANDO: enviamos PUT
         mockMvc.perform(put("/api/v1/orders/1/status")
-                .param("status", "ENVIADO"))
+                .param("status", "EN_CAMINO"))
                 // ENTONCES: RuntimeException se captura como 404 en el controlador
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.ok").value(false))
                 .andExpect(jsonPath("$.statusCode").value(404));
     }
 
+    @Test
+    public void testUpdateStatus_EnMinusculas_SeAcepta() throws Exception {
+        // DADO: el cliente envía el estado en minúsculas
+        Order actualizado = new Order(1L, 1L, Money.of(500.0), OrderStatus.CONFIRMADO, "1,2,3", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        when(orderService.updateStatus(1L, OrderStatus.CONFIRMADO)).thenReturn(actualizado);
+
+        // CUANDO: enviamos PUT con "confirmado"
+        mockMvc.perform(put("/api/v1/orders/1/status")
+                .param("status", "confirmado"))
+                // ENTONCES: se interpreta como CONFIRMADO
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("CONFIRMADO"));
+    }
+
+    @Test
+    public void testUpdateStatus_EstadoInvalido_Retorna400() throws Exception {
+        // CUANDO: enviamos un estado que no existe
+        mockMvc.perform(put("/api/v1/orders/1/status")
+                .param("status", "ENVIADO"))
+                // ENTONCES: respuesta 400 sin llamar al servicio
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.ok").value(false));
+        verify(orderService, never()).updateStatus(anyLong(), any());
+    }
+
+    @Test
+    public void testUpdateStatus_TransicionNoPermitida_Retorna400() throws Exception {
+        // DADO: el servicio rechaza la transición
+        when(orderService.updateStatus(1L, OrderStatus.COMPLETADO))
+                .thenThrow(new IllegalArgumentException("No se puede pasar un pedido de PENDIENTE a COMPLETADO"));
+
+        // CUANDO: enviamos PUT
+        mockMvc.perform(put("/api/v1/orders/1/status")
+                .param("status", "COMPLETADO"))
+                // ENTONCES: respuesta 400
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.statusCode").value(400));
+    }
+
+    @Test
+    public void testGetSellerStatusPage_RetornaPagina() throws Exception {
+        // DADO: una página de pedidos pendientes del vendedor
+        when(orderService.findPageBySellerIdAndStatus(5L, OrderStatus.PENDIENTE, null, null))
+                .thenReturn(new OrderPage(List.of(pedido1), null));
+
+        // CUANDO: consultamos la primera página
+        mockMvc.perform(get("/api/v1/orders/seller/5/status/pendiente/page"))
+                // ENTONCES: se devuelve la página
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.data.orders[0].status").value("PENDIENTE"));
+    }
+
+    // Tests PUT /api/v1/orders/status 
+    @Test
+    public void testUpdateStatusBulk_RetornaResultadoPorPedido() throws Exception {
+        // DADO: uno de dos pedidos se puede despachar
+        List<Long> ids = Arrays.asList(1L, 2L);
+        when(orderService.updateStatusBulk(ids, OrderStatus.EN_CAMINO, 5L)).thenReturn(Arrays.asList(
+                new BulkStatusResult(1L, true, OrderStatus.CONFIRMADO, "Estado actualizado a EN_CAMINO"),
+                new BulkStatusResult(2L, false, OrderStatus.COMPLETADO, "No se puede pasar un pedido de COMPLETADO a EN_CAMINO")));
+
+        // CUANDO: enviamos el cambio masivo
+        mockMvc.perform(put("/api/v1/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkStatusRequest(ids, "en_camino", 5L))))
+                // ENTONCES: 200 con el detalle por pedido y la cantidad actualizada
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.data[0].updated").value(true))
+                .andExpect(jsonPath("$.data[1].updated").value(false));
+    }
+
+    @Test
+    public void testUpdateStatusBulk_ListaVacia_Retorna400() throws Exception {
+        // CUANDO: se envía una lista vacía
+        mockMvc.perform(put("/api/v1/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkStatusRequest(List.of(), "EN_CAMINO", null))))
+                // ENTONCES: la validación la rechaza
+                .andExpect(status().isBadRequest());
+        verify(orderService, never()).updateStatusBulk(any(), any(), any());
+    }
+
+    @Test
+    public void testGetOutboxStats_RetornaMetricas() throws Exception {
+        // DADO: 3 eventos pendientes con 2 segundos de retraso
+        when(outboxRelay.getStats()).thenReturn(new OutboxStats(3L, 2L, 120L, 4.5, 0L, null, LocalDateTime.now()));
+
+        // CUANDO: consultamos el estado del relay
+        mockMvc.perform(get("/api/v1/orders/outbox/stats"))
+                // ENTONCES: se devuelven las métricas
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.pending").value(3))
+                .andExpect(jsonPath("$.data.lagSeconds").value(2))
+                .andExpect(jsonPath("$.data.throughputPerSecond").value(4.5));
+    }
+
+    @Test
+    public void testGetBySeller_IncludeArchived() throws Exception {
+        // DADO: el vendedor tiene un pedido activo y uno archivado
+        when(orderService.findBySellerId(5L, true)).thenReturn(Arrays.asList(pedido1, pedido2));
+
+        // CUANDO: se piden incluyendo archivados
+        mockMvc.perform(get("/api/v1/orders/seller/5").param("includeArchived", "true"))
+                // ENTONCES: se devuelven ambos
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2));
+        verify(orderService, never()).findBySellerId(5L, false);
+    }
+
+    @Test
+    public void testStartArchive_EnCurso_Retorna409() throws Exception {
+        // DADO: ya hay un archivado corriendo
+        when(orderArchiveJob.start()).thenReturn(false);
+        when(orderArchiveJob.getProgress()).thenReturn(
+                new ArchiveProgress(true, LocalDateTime.now().minusDays(365), 1000L, 400L, 400L, LocalDateTime.now(), null, null));
+
+        // CUANDO: se intenta iniciar otro
+        mockMvc.perform(post("/api/v1/orders/archive/run"))
+                // ENTONCES: 409 con el progreso actual
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.data.archived").value(400));
+    }
+
+    // Tests GET /api/v1/orders/search
+    @Test
+    public void testSearch_ArmaLosFiltros() throws Exception {
+        // DADO: la búsqueda devuelve una página con siguiente
+        when(orderService.search(any(), eq("abc"), eq(10))).thenReturn(new OrderPage(List.of(pedido1), "xyz"));
+
+        // CUANDO: se busca por fechas, estado, vendedor y monto
+        mockMvc.perform(get("/api/v1/orders/search")
+                        .param("from", "2025-11-01").param("to", "2025-11-30")
+                        .param("status", "completado").param("sellerId", "5")
+                        .param("minAmount", "100.50").param("cursor", "abc").param("size", "10"))
+                // ENTONCES: se devuelve la página y los filtros llegan convertidos
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.data.nextCursor").value("xyz"));
+        verify(orderService).search(eq(new OrderSearchCriteria(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30),
+                OrderStatus.COMPLETADO, 5L, null, Money.ofCents(10050), null)), eq("abc"), eq(10));
+    }
+
+    @Test
+    public void testSearch_EstadoInvalido_Retorna400() throws Exception {
+        // CUANDO: se busca con un estado que no existe
+        mockMvc.perform(get("/api/v1/orders/search").param("status", "PERDIDO"))
+                // ENTONCES: 400 sin consultar
+                .andExpect(status().isBadRequest());
+        verify(orderService, never()).search(any(), any(), any());
+    }
+
+    @Test
+    public void testSearch_RangoInvertido_Retorna400() throws Exception {
+        // DADO: el servicio rechaza el rango
+        when(orderService.search(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("La fecha inicial no puede ser posterior a la final"));
+
+        // CUANDO: se busca con las fechas invertidas
+        mockMvc.perform(get("/api/v1/orders/search").param("from", "2025-12-01").param("to", "2025-11-01"))
+                // ENTONCES: 400 con el motivo
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("La fecha inicial no puede ser posterior a la final"));
+    }
+
+    // Tests /api/v1/orders/purge
+    @Test
+    public void testStartPurge_Retorna202() throws Exception {
+        // DADO: no hay otra purga en curso
+        LocalDate corte = LocalDate.of(2022, 1, 1);
+        when(orderPurgeJob.start(corte)).thenReturn(true);
+        when(orderPurgeJob.getProgress()).thenReturn(new PurgeProgress(true, false, corte.atStartOfDay(), 250000L, 0L,
+                "orders", 0L, LocalDateTime.now(), null, null));
+
+        // CUANDO: se inicia la purga
+        mockMvc.perform(post("/api/v1/orders/purge/run").param("before", "2022-01-01"))
+                // ENTONCES: 202 con el total a purgar
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.data.total").value(250000));
+    }
+
+    @Test
+    public void testStartPurge_DryRun_SoloCuenta() throws Exception {
+        // DADO: hay pedidos para purgar
+        LocalDate corte = LocalDate.of(2022, 1, 1);
+        when(orderPurgeJob.dryRun(corte)).thenReturn(new PurgeProgress(false, true, corte.atStartOfDay(), 1200L, 0L,
+                null, null, LocalDateTime.now(), LocalDateTime.now(), null));
+
+        // CUANDO: se simula la purga
+        mockMvc.perform(post("/api/v1/orders/purge/run").param("before", "2022-01-01").param("dryRun", "true"))
+                // ENTONCES: 200 con el conteo y sin iniciar nada
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1200))
+                .andExpect(jsonPath("$.data.dryRun").value(true));
+        verify(orderPurgeJob, never()).start(any());
+    }
+
+    @Test
+    public void testStartPurge_FechaReciente_Retorna400() throws Exception {
+        // DADO: la fecha de corte no supera la antigüedad mínima
+        when(orderPurgeJob.start(any(LocalDate.class)))
+                .thenThrow(new IllegalArgumentException("Solo se pueden purgar pedidos con más de 730 días"));
+
+        // CUANDO: se intenta purgar
+        mockMvc.perform(post("/api/v1/orders/purge/run").param("before", LocalDate.now().toString()))
+                // ENTONCES: 400 con el motivo
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Solo se pueden purgar pedidos con más de 730 días"));
+    }
+
+    @Test
+    public void testStartPurge_EnCurso_Retorna409() throws Exception {
+        // DADO: ya hay una purga corriendo
+        when(orderPurgeJob.start(any(LocalDate.class))).thenReturn(false);
+        when(orderPurgeJob.getProgress()).thenReturn(new PurgeProgress(true, false, LocalDateTime.now().minusYears(3),
+                5000L, 3000L, "orders", 3100L, LocalDateTime.now(), null, null));
+
+        // CUANDO: se intenta iniciar otra
+        mockMvc.perform(post("/api/v1/orders/purge/run").param("before", "2022-01-01"))
+                // ENTONCES: 409 con el progreso actual
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.data.purged").value(3000));
+    }
+
+    @Test
+    public void testGetPurgeStatus() throws Exception {
+        // DADO: una purga en curso sobre el archivo
+        when(orderPurgeJob.getProgress()).thenReturn(new PurgeProgress(true, false, LocalDateTime.now().minusYears(3),
+                5000L, 4200L, "orders_archive", 900L, LocalDateTime.now(), null, null));
+
+        // CUANDO: se consulta el progreso
+        mockMvc.perform(get("/api/v1/orders/purge/status"))
+                // ENTONCES: devuelve lo purgado y la tabla actual
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(4200))
+                .andExpect(jsonPath("$.data.table").value("orders_archive"));
+    }
+
+    // Tests GET /api/v1/orders/payments/stats
+    @Test
+    public void testGetPaymentStats_IncluyeHistogramas() throws Exception {
+        // DADO: cobros encolados y algunos ya confirmados
+        Map<String, Long> pasarela = new LinkedHashMap<>();
+        pasarela.put("<=50", 30L);
+        pasarela.put("<=100", 2L);
+        when(paymentPipeline.getStats()).thenReturn(new PaymentStats(12L, 1L, 50L, 10000L, 1520L, 4L, 7L, 0L, 0L,
+                null, pasarela, Map.of("<=250", 1524L)));
+
+        // CUANDO: se consulta el estado de los cobros
+        mockMvc.perform(get("/api/v1/orders/payments/stats"))
+                // ENTONCES: devuelve la profundidad de la cola y las latencias
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(12))
+                .andExpect(jsonPath("$.data.confirmed").value(1520))
+                .andExpect(jsonPath("$.data.gatewayLatency['<=50']").value(30));
+    }
+
+    // Tests /api/v1/orders/settlements
+    @Test
+    public void testStartSettlement_Retorna202() throws Exception {
+        // DADO: no hay otra liquidación en curso
+        LocalDate desde = LocalDate.of(2025, 11, 1);
+        LocalDate hasta = LocalDate.of(2025, 11, 30);
+        when(settlementJob.start(desde, hasta, false)).thenReturn(true);
+        when(settlementJob.getProgress()).thenReturn(
+                new SettlementProgress(true, 3L, desde, hasta, 0L, 0L, 0.0, LocalDateTime.now(), null, null));
+
+        // CUANDO: se inicia la liquidación de noviembre
+        mockMvc.perform(post("/api/v1/orders/settlements/run").param("from", "2025-11-01").param("to", "2025-11-30"))
+                // ENTONCES: 202 con la ejecución iniciada
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.data.runId").value(3));
+    }
+
+    @Test
+    public void testStartSettlement_EnCurso_Retorna409() throws Exception {
+        // DADO: ya hay una liquidación corriendo
+        when(settlementJob.start(any(), any(), eq(false))).thenReturn(false);
+        when(settlementJob.getProgress()).thenReturn(new SettlementProgress(true, 2L, LocalDate.of(2025, 10, 1),
+                LocalDate.of(2025, 10, 31), 15000L, 15000L, 4200.0, LocalDateTime.now(), null, null));
+
+        // CUANDO: se intenta iniciar otra
+        mockMvc.perform(post("/api/v1/orders/settlements/run").param("from", "2025-11-01").param("to", "2025-11-30"))
+                // ENTONCES: 409 con el progreso actual
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.data.ordersProcessed").value(15000));
+    }
+
+    @Test
+    public void testStartSettlement_YaLiquidado_Retorna409() throws Exception {
+        // DADO: el período ya se liquidó
+        when(settlementJob.start(any(), any(), eq(false)))
+                .thenThrow(new IllegalStateException("El período ya fue liquidado; use rerun=true para recalcularlo"));
+
+        // CUANDO: se vuelve a pedir sin rerun
+        mockMvc.perform(post("/api/v1/orders/settlements/run").param("from", "2025-11-01").param("to", "2025-11-30"))
+                // ENTONCES: 409
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("El período ya fue liquidado; use rerun=true para recalcularlo"));
+    }
+
+    @Test
+    public void testStartSettlement_PeriodoInvalido_Retorna400() throws Exception {
+        // DADO: un período que no está cerrado
+        when(settlementJob.start(any(), any(), anyBoolean()))
+                .thenThrow(new IllegalArgumentException("Solo se pueden liquidar períodos cerrados (hasta ayer)"));
+
+        // CUANDO: se intenta liquidar
+        mockMvc.perform(post("/api/v1/orders/settlements/run").param("from", "2099-01-01").param("to", "2099-01-31")
+                        .param("rerun", "true"))
+                // ENTONCES: 400
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetSettlements_Retorna200() throws Exception {
+        // DADO: un período liquidado con dos vendedores
+        LocalDate desde = LocalDate.of(2025, 11, 1);
+        LocalDate hasta = LocalDate.of(2025, 11, 30);
+        when(settlementJob.findSettlements(desde, hasta)).thenReturn(Arrays.asList(
+                new SellerSettlement(1L, 3L, 2L, 42L, Money.of(98450.0)),
+                new SellerSettlement(2L, 3L, 5L, 1L, Money.of(19.99))));
+
+        // CUANDO: se consultan
+        mockMvc.perform(get("/api/v1/orders/settlements").param("from", "2025-11-01").param("to", "2025-11-30"))
+                // ENTONCES: un registro por vendedor
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.data[0].orderCount").value(42));
+    }
+
+    @Test
+    public void testGetSettlements_SinLiquidar_Retorna404() throws Exception {
+        // DADO: un período sin liquidar
+        when(settlementJob.findSettlements(any(), any())).thenReturn(new ArrayList<>());
+
+        // CUANDO: se consultan
+        mockMvc.perform(get("/api/v1/orders/settlements").param("from", "2025-12-01").param("to", "2025-12-31"))
+                // ENTONCES: 404
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetSettlementStatus_IncluyeRendimiento() throws Exception {
+        // DADO: una liquidación terminada
+        when(settlementJob.getProgress()).thenReturn(new SettlementProgress(false, 3L, LocalDate.of(2025, 11, 1),
+                LocalDate.of(2025, 11, 30), 120000L, 120345L, 8000.5, LocalDateTime.now().minusMinutes(1),
+                LocalDateTime.now(), null));
+
+        // CUANDO: se consulta el progreso
+        mockMvc.perform(get("/api/v1/orders/settlements/status"))
+                // ENTONCES: incluye los pedidos por segundo
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(120000))
+                .andExpect(jsonPath("$.data.rowsPerSecond").value(8000.5));
+    }
+
+    // Tests GET /api/v1/orders/seller/{sellerId}/export 
+    @Test
+    public void testExportSellerOrders_EscribeCsv() throws Exception {
+        // DADO: el exportador escribe dos líneas
+        doAnswer(inv -> {
+            java.io.OutputStream out = inv.getArgument(3);
+            out.write("id,fecha\n1,2025-01-03T10:00\n".getBytes());
+            return 1L;
+        }).when(orderExportService).exportSellerOrders(eq(5L), any(), any(), any());
+
+        // CUANDO: se descarga el CSV
+        MvcResult resultado = mockMvc.perform(get("/api/v1/orders/seller/5/export").param("from", "2025-01-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // ENTONCES: se devuelve como adjunto text/csv
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"pedidos-vendedor-5.csv\""))
+                .andExpect(content().string("id,fecha\n1,2025-01-03T10:00\n"));
+    }
+
+    @Test
+    public void testExportSellerOrders_RangoInvalido_Retorna400() throws Exception {
+        // CUANDO: from es posterior a to
+        mockMvc.perform(get("/api/v1/orders/seller/5/export").param("from", "2025-02-01").param("to", "2025-01-01"))
+                // ENTONCES: 400 con el mensaje, sin iniciar la exportación
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.ok").value(false))
+                .andExpect(jsonPath("$.message").value("La fecha inicial no puede ser posterior a la final"));
+        verifyNoInteractions(orderExportService);
+    }
+
+    // Tests POST /api/v1/orders/checkout 
+    @Test
+    public void testCheckout_Exitoso() throws Exception {
+        // DADO: Inventario descuenta todo el carrito, con productos de dos vendedores
+        CheckoutRequest carrito = new CheckoutRequest(1L, null, List.of(new CheckoutItem(1L, 1), new CheckoutItem(4L, 1)));
+        when(checkoutService.checkout(any(CheckoutRequest.class)))
+                .thenReturn(new CheckoutResult("chk-1", Money.of(800.0), List.of(pedido1, pedido2)));
+
+        // CUANDO: se confirma el carrito
+        mockMvc.perform(post("/api/v1/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(carrito)))
+                // ENTONCES: 201 con los pedidos creados
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.data.checkoutId").value("chk-1"))
+                .andExpect(jsonPath("$.data.totalAmount").value(800.0))
+                .andExpect(jsonPath("$.data.orders[1].id").value(2));
+    }
+
+    @Test
+    public void testGetCheckout_DevuelvePedidosYTotal() throws Exception {
+        // DADO: un checkout que generó dos pedidos
+        when(orderService.findByCheckoutId("chk-1")).thenReturn(List.of(pedido1, pedido2));
+
+        // CUANDO: se consulta
+        mockMvc.perform(get("/api/v1/orders/checkout/chk-1"))
+                // ENTONCES: se devuelven ambos con el total sumado
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.data.totalAmount").value(800.0));
+    }
+
+    @Test
+    public void testGetCheckout_NoExiste_Retorna404() throws Exception {
+        // DADO: un checkout sin pedidos
+        when(orderService.findByCheckoutId("nada")).thenReturn(List.of());
+
+        // CUANDO / ENTONCES: 404
+        mockMvc.perform(get("/api/v1/orders/checkout/nada"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testCheckout_SinStock_Retorna409() throws Exception {
+        // DADO: un producto sin stock
+        CheckoutRequest carrito = new CheckoutRequest(1L, 5L, List.of(new CheckoutItem(3L, 1)));
+        when(checkoutService.checkout(any(CheckoutRequest.class)))
+                .thenThrow(new CheckoutException(List.of("Producto 3: Stock insuficiente")));
+
+        // CUANDO: se confirma el carrito
+        mockMvc.perform(post("/api/v1/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(carrito)))
+                // ENTONCES: 409 indicando el producto
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("No se pudo confirmar el carrito: Producto 3: Stock insuficiente"));
+    }
+
     // Tests GET /api/v1/orders/{id} 
     @Test
     public void testGetById_PedidoExiste() throws Exception {
         // DADO: pedido con ID 1
-        when(orderService.findById(1L)).thenReturn(pedido1);
+        when(orderService.findCachedById(1L)).thenReturn(pedido1);
 
         // CUANDO: enviamos GET
         mockMvc.perform(get("/api/v1/orders/1"))
@@ -198,10 +746,78 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.data.totalAmount").value(500.0));
     }
 
+    // Tests GET /api/v1/orders/{id}/status (long-poll)
+    @Test
+    public void testAwaitStatus_YaCambio_RespondeDeInmediato() throws Exception {
+        // DADO: el pedido ya no está en el estado que conoce el cliente
+        pedido1.setStatus(OrderStatus.CONFIRMADO);
+        when(orderService.longPollTimeout(null)).thenReturn(30000L);
+        when(orderService.awaitStatusChange(1L, OrderStatus.PENDIENTE)).thenReturn(CompletableFuture.completedFuture(pedido1));
+
+        // CUANDO: se consulta con since=PENDIENTE
+        MvcResult resultado = mockMvc.perform(get("/api/v1/orders/1/status").param("since", "pendiente"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // ENTONCES: se devuelve el estado nuevo
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.data.status").value("CONFIRMADO"));
+    }
+
+    @Test
+    public void testAwaitStatus_EsperaHastaElCambio() throws Exception {
+        // DADO: el pedido sigue PENDIENTE
+        CompletableFuture<Order> cambio = new CompletableFuture<>();
+        when(orderService.longPollTimeout(20000L)).thenReturn(20000L);
+        when(orderService.awaitStatusChange(1L, OrderStatus.PENDIENTE)).thenReturn(cambio);
+
+        // CUANDO: se abre el long-poll y luego se confirma el pago
+        MvcResult resultado = mockMvc.perform(get("/api/v1/orders/1/status")
+                        .param("since", "PENDIENTE").param("timeoutMs", "20000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        pedido1.setStatus(OrderStatus.CONFIRMADO);
+        cambio.complete(pedido1);
+
+        // ENTONCES: la respuesta llega con el nuevo estado
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("CONFIRMADO"));
+    }
+
+    @Test
+    public void testAwaitStatus_EstadoInvalido_Retorna400() throws Exception {
+        // CUANDO: since no es un estado
+        MvcResult resultado = mockMvc.perform(get("/api/v1/orders/1/status").param("since", "PAGADO"))
+                .andReturn();
+
+        // ENTONCES: 400 sin registrar la espera
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isBadRequest());
+        verify(orderService, never()).awaitStatusChange(any(), any());
+    }
+
+    @Test
+    public void testAwaitStatus_PedidoNoExiste_Retorna404() throws Exception {
+        // DADO: un pedido que no existe
+        when(orderService.awaitStatusChange(999L, OrderStatus.PENDIENTE))
+                .thenThrow(new RuntimeException("Pedido no encontrado con ID: 999"));
+
+        // CUANDO: se abre el long-poll
+        MvcResult resultado = mockMvc.perform(get("/api/v1/orders/999/status").param("since", "PENDIENTE"))
+                .andReturn();
+
+        // ENTONCES: 404
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void testGetById_PedidoNoExiste_Retorna404() throws Exception {
         // DADO: pedido que no existe
-        when(orderService.findById(999L))
+        when(orderService.findCachedById(999L))
                 .thenThrow(new RuntimeException("Pedido no encontrado con ID: 999"));
 
         // CUANDO: enviamos GET
@@ -217,7 +833,7 @@ public class OrderControllerTest {
     public void testGetAll_RetornaTodosLosPedidos() throws Exception {
         // DADO: 2 pedidos en total
         List<Order> pedidos = Arrays.asList(pedido1, pedido2);
-        when(orderService.findAll()).thenReturn(pedidos);
+        when(orderService.findAll(false)).thenReturn(pedidos);
 
         // CUANDO: enviamos GET
         mockMvc.perform(get("/api/v1/orders"))
@@ -233,7 +849,7 @@ public class OrderControllerTest {
     @Test
     public void testDeleteOrder_PedidoCompletado_EliminaExitosamente() throws Exception {
         // DADO: pedido en estado COMPLETADO
-        Order completado = new Order(2L, 1L, 300.0, "COMPLETADO", "4,5", LocalDateTime.now(), 5L);
+        Order completado = new Order(2L, 1L, Money.of(300.0), OrderStatus.COMPLETADO, "4,5", LocalDateTime.now(), 5L, new ArrayList<>(), null);
         when(orderService.findById(2L)).thenReturn(completado);
         doNothing().when(orderService).deleteById(2L);
 
@@ -282,7 +898,7 @@ public class OrderControllerTest {
         // DADO: error al eliminar - como deleteById no declara throws Exception,
         // no podemos hacer que lance checked exceptions. El método puede lanzar
         // RuntimeException implícitamente. Ajustamos para reflejar comportamiento real.
-        Order completado = new Order(2L, 1L, 300.0, "COMPLETADO", "4,5", LocalDateTime.now(), 5L);
+        Order completado = new Order(2L, 1L, Money.of(300.0), OrderStatus.COMPLETADO, "4,5", LocalDateTime.now(), 5L, new ArrayList<>(), null);
         when(orderService.findById(2L)).thenReturn(completado);
         // Simulamos que deleteById falla con RuntimeException (que se captura como 404)
         doThrow(new RuntimeException("Error de base de datos")).when(orderService).deleteById(2L);
@@ -294,4 +910,158 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.ok").value(false))
                 .andExpect(jsonPath("$.statusCode").value(404));
     }
+
+    @Test
+    public void testCreate_ConIdempotencyKey_Reintento() throws Exception {
+        // DADO: la clave ya fue usada y el servicio devuelve el pedido guardado
+        when(idempotencyService.execute(eq("clave-1"), any()))
+                .thenReturn(new IdempotencyService.Result(pedido1, true));
+
+        // CUANDO: el cliente reintenta el POST con la misma clave
+        mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", "clave-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pedido1)))
+                // ENTONCES: recibe el mismo pedido, marcado como repetido
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.data.id").value(pedido1.getId()));
+        verify(orderService, never()).createOrder(any(Order.class), anyMap());
+    }
+
+    @Test
+    public void testCreate_IdempotencyKeyInvalida_Retorna400() throws Exception {
+        // DADO: el servicio rechaza la clave
+        String clave = "x".repeat(101);
+        when(idempotencyService.execute(eq(clave), any()))
+                .thenThrow(new IllegalArgumentException("Idempotency-Key debe tener entre 1 y 100 caracteres"));
+
+        // CUANDO: se envía una clave demasiado larga
+        mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", clave)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pedido1)))
+                // ENTONCES: respuesta 400
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.ok").value(false));
+    }
+
+    @Test
+    public void testGetSellerPage_RetornaPaginaYCursor() throws Exception {
+        // DADO: una página con cursor a la siguiente
+        when(orderService.findPageBySellerId(5L, null, 2))
+                .thenReturn(new OrderPage(Arrays.asList(pedido1, pedido2), "abc"));
+
+        // CUANDO: pedimos la primera página
+        mockMvc.perform(get("/api/v1/orders/seller/5/page").param("size", "2"))
+                // ENTONCES: se devuelven los pedidos y el cursor
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.data.nextCursor").value("abc"));
+    }
+
+    @Test
+    public void testGetUserPage_CursorInvalido_Retorna400() throws Exception {
+        // DADO: el servicio rechaza el cursor
+        when(orderService.findPageByUserId(1L, "xyz", null))
+                .thenThrow(new IllegalArgumentException("Cursor de paginación inválido"));
+
+        // CUANDO: pedimos la página
+        mockMvc.perform(get("/api/v1/orders/user/1/page").param("cursor", "xyz"))
+                // ENTONCES: respuesta 400
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.ok").value(false));
+    }
+
+    @Test
+    public void testGetSellerDashboard_RangoIndicado() throws Exception {
+        // DADO: rollups del vendedor en noviembre
+        LocalDate desde = LocalDate.of(2025, 11, 1);
+        LocalDate hasta = LocalDate.of(2025, 11, 30);
+        when(orderService.getSellerDashboard(2L, desde, hasta))
+                .thenReturn(new SellerDashboard(2L, desde, hasta, 4L, Money.of(8595.0), List.of()));
+
+        // CUANDO: consultamos el dashboard
+        mockMvc.perform(get("/api/v1/orders/seller/2/dashboard")
+                        .param("from", "2025-11-01")
+                        .param("to", "2025-11-30"))
+                // ENTONCES: se devuelven los totales del rango
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(4))
+                .andExpect(jsonPath("$.data.revenue").value(8595.0));
+    }
+
+    @Test
+    public void testGetSellerDashboard_RangoInvalido_Retorna400() throws Exception {
+        // DADO: el servicio rechaza el rango
+        when(orderService.getSellerDashboard(eq(2L), any(LocalDate.class), any(LocalDate.class)))
+                .thenThrow(new IllegalArgumentException("La fecha inicial no puede ser posterior a la final"));
+
+        // CUANDO: from es posterior a to
+        mockMvc.perform(get("/api/v1/orders/seller/2/dashboard")
+                        .param("from", "2025-12-01")
+                        .param("to", "2025-11-01"))
+                // ENTONCES: respuesta 400
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetStatusCounts_Global() throws Exception {
+        // DADO: contadores globales
+        Map<OrderStatus, Long> porEstado = new EnumMap<>(OrderStatus.class);
+        porEstado.put(OrderStatus.PENDIENTE, 3L);
+        porEstado.put(OrderStatus.COMPLETADO, 7L);
+        when(orderService.getStatusCounts(null)).thenReturn(new OrderStatusCounts(null, 10L, porEstado));
+
+        // CUANDO: consultamos los contadores
+        mockMvc.perform(get("/api/v1/orders/stats"))
+                // ENTONCES: se devuelven sin listar pedidos
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(10))
+                .andExpect(jsonPath("$.data.byStatus.PENDIENTE").value(3))
+                .andExpect(jsonPath("$.data.byStatus.COMPLETADO").value(7));
+        verify(orderService, never()).findAll();
+    }
+
+    @Test
+    public void testGetSellerStatusCounts() throws Exception {
+        // DADO: contadores del vendedor 2
+        Map<OrderStatus, Long> porEstado = new EnumMap<>(OrderStatus.class);
+        porEstado.put(OrderStatus.CANCELADO, 1L);
+        when(orderService.getStatusCounts(2L)).thenReturn(new OrderStatusCounts(2L, 1L, porEstado));
+
+        // CUANDO: consultamos los contadores del vendedor
+        mockMvc.perform(get("/api/v1/orders/seller/2/stats"))
+                // ENTONCES: respuesta 200 con sus contadores
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.sellerId").value(2))
+                .andExpect(jsonPath("$.data.byStatus.CANCELADO").value(1));
+    }
+
+    @Test
+    public void testGetByProduct_RetornaPedidosConElProducto() throws Exception {
+        // DADO: dos pedidos incluyen el producto 1
+        when(orderService.findByProductId(1L)).thenReturn(Arrays.asList(pedido1, pedido2));
+
+        // CUANDO: consultamos los pedidos del producto
+        mockMvc.perform(get("/api/v1/orders/product/1"))
+                // ENTONCES: se devuelven ambos pedidos
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ok").value(true))
+                .andExpect(jsonPath("$.count").value(2));
+    }
+
+    @Test
+    public void testGetProductSales_RetornaVentas() throws Exception {
+        // DADO: ventas acumuladas del producto 4
+        when(orderService.getProductSales(4L)).thenReturn(new ProductSales(4L, 3L, Money.of(1500.0), 2L));
+
+        // CUANDO: consultamos las ventas
+        mockMvc.perform(get("/api/v1/orders/product/4/sales"))
+                // ENTONCES: se devuelven unidades, ingresos y pedidos
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.unitsSold").value(3))
+                .andExpect(jsonPath("$.data.revenue").value(1500.0))
+                .andExpect(jsonPath("$.count").value(2));
+    }
 }
@@ -0,0 +1,66 @@
+package com.Pedidos.Pagos.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.stream.LongStream;
+
+public class MoneyTest {
+
+    @Test
+    public void testSuma_EsExactaAlDondeDoubleSeDesvia() {
+        // DADO: un millón de montos de 0.10
+        double totalDouble = 0.0;
+        for (int i = 0; i < 1_000_000; i++) {
+            totalDouble += 0.10;
+        }
+        long totalCents = LongStream.generate(() -> Money.of(0.10).cents()).limit(1_000_000).sum();
+
+        // ENTONCES: con Double el total ya no es 100000.00; en céntimos es exacto
+        assertNotEquals(100_000.0, totalDouble);
+        assertEquals(Money.of(100_000.0), Money.ofCents(totalCents));
+    }
+
+    @Test
+    public void testOf_RedondeaAlCentimo() {
+        assertEquals(259900L, Money.of(2599.0).cents());
+        assertEquals(1L, Money.of(0.005).cents());
+        assertEquals(-1L, Money.of(-0.005).cents());
+        assertEquals(1999L, Money.of(new BigDecimal("19.994")).cents());
+    }
+
+    @Test
+    public void testOperaciones() {
+        Money precio = Money.of(1299.0);
+        assertEquals(Money.of(3897.0), precio.times(3));
+        assertEquals(Money.of(1300.5), precio.plus(Money.of(1.5)));
+        assertEquals(Money.of(1297.5), precio.minus(Money.of(1.5)));
+        assertEquals(Money.of(33.33), Money.of(100.0).dividedBy(3));
+        assertEquals(Money.of(-1299.0), precio.negate());
+        assertTrue(precio.compareTo(Money.of(1300.0)) < 0);
+        assertEquals("1299.00", precio.toString());
+    }
+
+    @Test
+    public void testJson_MismoFormatoQueAntes() throws Exception {
+        // DADO: el formato de la API es un número con decimales
+        ObjectMapper mapper = new ObjectMapper();
+
+        // ENTONCES: se escribe y se lee como número
+        assertEquals("5097.00", mapper.writeValueAsString(Money.of(5097.0)));
+        assertEquals(Money.of(5097.0), mapper.readValue("5097", Money.class));
+        assertEquals(Money.of(19.99), mapper.readValue("19.99", Money.class));
+    }
+
+    @Test
+    public void testConverter_GuardaCentimos() {
+        MoneyConverter converter = new MoneyConverter();
+        assertEquals(509700L, converter.convertToDatabaseColumn(Money.of(5097.0)));
+        assertEquals(Money.of(5097.0), converter.convertToEntityAttribute(509700L));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
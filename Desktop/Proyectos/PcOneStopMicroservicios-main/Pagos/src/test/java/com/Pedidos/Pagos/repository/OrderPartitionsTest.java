@@ -0,0 +1,107 @@
+package com.Pedidos.Pagos.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Reescritura de las sentencias de pedidos hacia la partición activa (ver OrderPartitions).
+ */
+public class OrderPartitionsTest {
+
+    private final OrderPartitions partitions = new OrderPartitions();
+
+    @Test
+    public void testPartitionOf_EstableYDentroDelRango() {
+        // CUANDO / ENTONCES: un vendedor siempre cae en la misma partición, y sin vendedor se rechaza
+        for (long sellerId = 1; sellerId <= 200; sellerId++) {
+            int partition = partitions.partitionOf(sellerId);
+            assertTrue(partition >= 0 && partition < partitions.count());
+            assertEquals(partition, partitions.partitionOf(sellerId));
+        }
+        assertThrows(IllegalArgumentException.class, () -> partitions.partitionOf(null));
+    }
+
+    @Test
+    public void testRewrite_DentroDeUnaParticion_UsaSuEsquema() {
+        // CUANDO: se reescribe una consulta dentro de la partición 3
+        String sql = partitions.inPartition(3, () -> partitions.rewrite(
+                "select o1_0.id from orders o1_0 join order_items i1_0 on i1_0.order_id=o1_0.id where o1_0.seller_id=?"));
+
+        // ENTONCES: ambas tablas van al esquema de la partición y al salir no queda partición activa
+        assertEquals("select o1_0.id from orders_p3.orders o1_0 join orders_p3.order_items i1_0 on i1_0.order_id=o1_0.id"
+                + " where o1_0.seller_id=?", sql);
+        assertEquals(partitions.count(), partitions.scanned().size());
+    }
+
+    @Test
+    public void testRewrite_NoTocaOtrosIdentificadores() {
+        // CUANDO / ENTONCES: la secuencia, el archivo y los índices no son tablas de pedidos
+        String sql = "insert into orders_archive (id) select id from orders force index (idx_orders_user_created) where id in (?)";
+        assertEquals("insert into orders_archive (id) select id from orders_p1.orders force index (idx_orders_user_created) where id in (?)",
+                partitions.inPartition(1, () -> partitions.rewrite(sql)));
+        assertEquals("update orders_seq set next_val=? where next_val=?", partitions.rewrite("update orders_seq set next_val=? where next_val=?"));
+    }
+
+    @Test
+    public void testRewrite_SinParticion_LecturaALaVistaYEscrituraFalla() {
+        // CUANDO / ENTONCES: una lectura sin partición va a la unión y una escritura se rechaza
+        assertEquals("select i1_0.id from order_items_all i1_0 where i1_0.order_id=?",
+                partitions.rewrite("select i1_0.id from order_items i1_0 where i1_0.order_id=?"));
+        assertThrows(IllegalStateException.class, () -> partitions.rewrite("delete from orders where id in (?)"));
+    }
+
+    @Test
+    public void testRewrite_NombresEntreComillasOEnMayusculas_TambienSeDirigen() {
+        // CUANDO / ENTONCES: las comillas y las mayúsculas no sacan la sentencia de la partición
+        assertEquals("select o.id from orders_p2.`orders` o join orders_p2.\"order_items\" i on i.order_id=o.id",
+                partitions.inPartition(2, () -> partitions.rewrite("select o.id from `orders` o join \"order_items\" i on i.order_id=o.id")));
+        assertEquals("SELECT COUNT(*) FROM ORDERS_all", partitions.rewrite("SELECT COUNT(*) FROM ORDERS"));
+    }
+
+    @Test
+    public void testRewrite_TablaDeOtroEsquema_Falla() {
+        // CUANDO / ENTONCES: pagos.orders iría a la plantilla sin particionar; una partición explícita se respeta
+        assertThrows(IllegalStateException.class, () -> partitions.rewrite("select id from pagos.orders where id=?"));
+        assertThrows(IllegalStateException.class,
+                () -> partitions.inPartition(1, () -> partitions.rewrite("select id from `pagos`.`order_items`")));
+        assertThrows(IllegalStateException.class, () -> partitions.rewrite("select id from orders_p16.orders"));
+        assertEquals("select id from orders_p3.orders", partitions.rewrite("select id from orders_p3.orders"));
+    }
+
+    @Test
+    public void testRewrite_SinParticion_EscrituraEnOtraTablaLeeDeLaVista() {
+        // CUANDO / ENTONCES: copiar a orders_archive solo lee pedidos; un DELETE de varias tablas se rechaza
+        assertEquals("insert into orders_archive (id) select id from orders_all where id in (?)",
+                partitions.rewrite("insert into orders_archive (id) select id from orders where id in (?)"));
+        assertThrows(IllegalStateException.class,
+                () -> partitions.rewrite("delete i from order_items i join orders o on o.id = i.order_id where o.seller_id=?"));
+        assertThrows(IllegalStateException.class, () -> partitions.rewrite("update `orders` set status=? where id=?"));
+    }
+
+    @Test
+    public void testRewrite_EscrituraDelFlush_TienePrioridad() {
+        // DADO: el listener marca la escritura de un pedido de la partición 2 dentro de una consulta de la 5
+        String sql = partitions.inPartition(5, () -> {
+            partitions.startWrite(2);
+            try {
+                return partitions.rewrite("update orders set status=? where id=?");
+            } finally {
+                partitions.endWrite();
+            }
+        });
+
+        // ENTONCES: la sentencia va a la partición del pedido que se escribe
+        assertEquals("update orders_p2.orders set status=? where id=?", sql);
+    }
+
+    @Test
+    public void testInPartition_OtraParticionAnidada_Falla() {
+        // CUANDO / ENTONCES: no se puede saltar de partición dentro de otra, ni usar una inexistente
+        assertThrows(IllegalStateException.class, () -> partitions.inPartition(1, () -> partitions.inPartition(2, () -> 0)));
+        assertEquals(List.of(4), partitions.inPartition(4, () -> partitions.inPartition(4, partitions::scanned)));
+        assertThrows(IllegalArgumentException.class, () -> partitions.inPartition(partitions.count(), () -> 0));
+    }
+}
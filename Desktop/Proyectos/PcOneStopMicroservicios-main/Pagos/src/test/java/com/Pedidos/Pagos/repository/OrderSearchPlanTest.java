@@ -0,0 +1,113 @@
+package com.Pedidos.Pagos.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * EXPLAIN de las búsquedas comunes sobre la tabla orders que crea Hibernate (con los índices
+ * declarados en Order), en H2. La sugerencia FORCE INDEX de MySQL se pasa a USE INDEX, la de
+ * H2: el plan tiene que usar ese índice para los filtros, sin recorrer la tabla.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pagos-search;MODE=MySQL;NON_KEYWORDS=DAY,VALUE,KEY,YEAR,MONTH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class OrderSearchPlanTest {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // Pedidos de varios vendedores, usuarios, estados y fechas, para que el optimizador tenga estadísticas
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 8, 0);
+        for (long id = 1; id <= 5000; id++) {
+            rows.add(new Object[]{id, id % 300, 1000 + (id * 37) % 500000, STATUSES[(int) (id % STATUSES.length)].name(),
+                    Timestamp.valueOf(base.plusMinutes(id * 97)), id % 40});
+        }
+        jdbcTemplate.batchUpdate("insert into orders (id, user_id, total_cents, status, created_at, seller_id)"
+                + " values (?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("analyze");
+    }
+
+    private static OrderSearchCriteria filtros(LocalDate from, LocalDate to, OrderStatus status, Long sellerId, Long userId) {
+        return new OrderSearchCriteria(from, to, status, sellerId, userId, null, null);
+    }
+
+    private String plan(OrderSearchRepositoryImpl.SearchSql busqueda) {
+        String sql = busqueda.sql().replace(" force index (", " use index (");
+        return namedJdbcTemplate.queryForObject("explain " + sql, busqueda.params(), String.class);
+    }
+
+    // El plan lee por el índice forzado y no recorre la tabla
+    private void assertPlanUsaIndice(OrderSearchRepositoryImpl.SearchSql busqueda) {
+        String plan = plan(busqueda);
+        assertTrue(plan.contains(busqueda.index().toUpperCase(Locale.ROOT)), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    public void testPlanes_BusquedasComunes_UsanSuIndice() {
+        LocalDate desde = LocalDate.of(2025, 3, 1);
+        LocalDate hasta = LocalDate.of(2025, 3, 31);
+
+        // CUANDO / ENTONCES: vendedor, vendedor + estado, usuario, usuario + estado, estado y solo fechas
+        assertPlanUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(desde, hasta, null, 5L, null), null, null));
+        assertPlanUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(desde, null, OrderStatus.PENDIENTE, 5L, null), null, null));
+        assertPlanUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(null, null, null, null, 10L), null, null));
+        assertPlanUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(null, hasta, OrderStatus.COMPLETADO, null, 10L), null, null));
+        assertPlanUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(null, null, OrderStatus.CANCELADO, null, null), null, null));
+        assertPlanUsaIndice(OrderSearchRepositoryImpl.buildSearch(new OrderSearchCriteria(desde, hasta,
+                null, null, null, Money.of(100.0), Money.of(500.0)), null, null));
+    }
+
+    @Test
+    public void testPlan_ConCursor_SigueEnElIndice() {
+        // DADO: la segunda página de los pedidos COMPLETADO de un vendedor
+        OrderSearchRepositoryImpl.SearchSql busqueda = OrderSearchRepositoryImpl.buildSearch(
+                filtros(null, null, OrderStatus.COMPLETADO, 7L, null), LocalDateTime.of(2025, 6, 1, 12, 0), 900L);
+
+        // CUANDO / ENTONCES: el cursor no saca la consulta del índice
+        assertPlanUsaIndice(busqueda);
+    }
+
+    @Test
+    public void testSqlGenerado_LlevaLaSugerenciaDeIndice() {
+        // CUANDO: se arma cualquier búsqueda
+        OrderSearchRepositoryImpl.SearchSql busqueda = OrderSearchRepositoryImpl.buildSearch(
+                filtros(null, null, null, 3L, null), null, null);
+
+        // ENTONCES: MySQL recibe la sugerencia sobre un índice que existe en la tabla creada por Hibernate
+        assertTrue(busqueda.sql().startsWith("select id, created_at from orders force index (idx_orders_seller_created)"));
+        Integer indices = jdbcTemplate.queryForObject("select count(*) from information_schema.indexes"
+                + " where table_name = 'ORDERS' and index_name = ?", Integer.class, busqueda.index().toUpperCase(Locale.ROOT));
+        assertTrue(indices > 0);
+    }
+}
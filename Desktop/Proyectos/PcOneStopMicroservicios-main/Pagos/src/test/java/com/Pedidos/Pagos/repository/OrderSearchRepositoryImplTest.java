@@ -0,0 +1,110 @@
+package com.Pedidos.Pagos.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * El plan de cada búsqueda común: índice forzado, filtros sobre sus primeras columnas y
+ * orden resuelto por el propio índice (sin full scan ni filesort).
+ */
+public class OrderSearchRepositoryImplTest {
+
+    // Columnas de cada índice declarado en Order
+    private static final Map<String, List<String>> INDEXES = Arrays.stream(Order.class.getAnnotation(Table.class).indexes())
+            .collect(Collectors.toMap(Index::name, index -> Arrays.stream(index.columnList().split(","))
+                    .map(String::trim).toList()));
+
+    private static OrderSearchCriteria filtros(LocalDate from, LocalDate to, OrderStatus status, Long sellerId, Long userId) {
+        return new OrderSearchCriteria(from, to, status, sellerId, userId, null, null);
+    }
+
+    // El índice existe y sus primeras columnas son las igualdades seguidas de created_at
+    private static void assertUsaIndice(OrderSearchRepositoryImpl.SearchSql busqueda, String indice, String... igualdades) {
+        assertEquals(indice, busqueda.index());
+        assertTrue(busqueda.sql().startsWith("select id, created_at from orders force index (" + indice + ")"));
+        List<String> columnas = INDEXES.get(indice);
+        assertNotNull(columnas, "El índice " + indice + " no está declarado en Order");
+        for (int i = 0; i < igualdades.length; i++) {
+            assertEquals(igualdades[i], columnas.get(i));
+            assertTrue(busqueda.sql().contains(igualdades[i] + " = :"));
+        }
+        assertEquals("created_at", columnas.get(igualdades.length));
+        assertTrue(busqueda.sql().endsWith(" order by created_at desc, id desc"));
+    }
+
+    @Test
+    public void testSoloFechas_UsaIndiceDeFechaYMonto() {
+        // DADO: pedidos de la tienda en noviembre entre dos montos
+        OrderSearchCriteria criterio = new OrderSearchCriteria(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30),
+                null, null, null, Money.of(100.0), Money.of(500.0));
+
+        // CUANDO: se arma la búsqueda
+        OrderSearchRepositoryImpl.SearchSql busqueda = OrderSearchRepositoryImpl.buildSearch(criterio, null, null);
+
+        // ENTONCES: rango sobre idx_orders_created_total, que también cubre el monto
+        assertUsaIndice(busqueda, "idx_orders_created_total");
+        assertEquals("total_cents", INDEXES.get("idx_orders_created_total").get(1));
+        assertTrue(busqueda.sql().contains("created_at >= :from and created_at < :to"));
+        assertEquals(LocalDateTime.of(2025, 12, 1, 0, 0), busqueda.params().get("to"));
+        assertEquals(10000L, busqueda.params().get("minCents"));
+        assertEquals(50000L, busqueda.params().get("maxCents"));
+    }
+
+    @Test
+    public void testVendedor_ConYSinEstado() {
+        // CUANDO / ENTONCES: el vendedor va a sus índices compuestos
+        assertUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(LocalDate.of(2025, 11, 1), null, null, 5L, null), null, null),
+                "idx_orders_seller_created", "seller_id");
+        assertUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(null, null, OrderStatus.PENDIENTE, 5L, 3L), null, null),
+                "idx_orders_seller_status_created", "seller_id", "status");
+    }
+
+    @Test
+    public void testUsuario_ConYSinEstado() {
+        // CUANDO / ENTONCES: el usuario va a sus índices compuestos
+        assertUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(null, null, null, null, 10L), null, null),
+                "idx_orders_user_created", "user_id");
+        assertUsaIndice(OrderSearchRepositoryImpl.buildSearch(filtros(null, null, OrderStatus.COMPLETADO, null, 10L), null, null),
+                "idx_orders_user_status_created", "user_id", "status");
+    }
+
+    @Test
+    public void testSoloEstado_ConCursor() {
+        // DADO: la segunda página de los pedidos COMPLETADO
+        LocalDateTime posicion = LocalDateTime.of(2025, 11, 3, 9, 0);
+
+        // CUANDO: se arma la búsqueda con el cursor
+        OrderSearchRepositoryImpl.SearchSql busqueda = OrderSearchRepositoryImpl.buildSearch(
+                filtros(null, null, OrderStatus.COMPLETADO, null, null), posicion, 7L);
+
+        // ENTONCES: el cursor continúa dentro del índice de estado
+        assertUsaIndice(busqueda, "idx_orders_status_created", "status");
+        assertTrue(busqueda.sql().contains("(created_at < :beforeCreatedAt or (created_at = :beforeCreatedAt and id < :beforeId))"));
+        assertEquals("COMPLETADO", busqueda.params().get("status"));
+        assertEquals(7L, busqueda.params().get("beforeId"));
+    }
+
+    @Test
+    public void testSinFiltros_RecorreElIndiceDeFecha() {
+        // CUANDO: no hay filtros
+        OrderSearchRepositoryImpl.SearchSql busqueda = OrderSearchRepositoryImpl.buildSearch(new OrderSearchCriteria(), null, null);
+
+        // ENTONCES: se lee en orden del índice de fecha y la página corta la lectura
+        assertEquals("select id, created_at from orders force index (idx_orders_created_total) order by created_at desc, id desc", busqueda.sql());
+        assertTrue(busqueda.params().isEmpty());
+    }
+}
@@ -0,0 +1,236 @@
+package com.Pedidos.Pagos.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Pedidos.Pagos.config.OrderPartitionConfig;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderItem;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.service.OrderArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Particiones reales sobre H2: un esquema orders_pN por partición, con las vistas *_all, y
+ * Hibernate escribiendo y leyendo a través de OrderPartitionInspector / OrderPartitionListener.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pagos;MODE=MySQL;NON_KEYWORDS=DAY,VALUE,KEY,YEAR,MONTH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "pagos.orders.partitions=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderPartitions.class, OrderPartitionConfig.class, OrderPartitionListener.class, PartitionedOrderRepository.class})
+public class PartitionedOrderRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2023, 3, 1, 10, 0);
+
+    @Autowired
+    private PartitionedOrderRepository orderRepository;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Lo mismo que OrderPartitionSetup, con la sintaxis de H2 (sin CREATE TABLE ... LIKE), incluida la clave foránea
+    @BeforeEach
+    void setUp() {
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            String schema = partitions.schema(partition);
+            jdbcTemplate.execute("create schema if not exists " + schema);
+            for (String table : OrderPartitions.TABLES) {
+                jdbcTemplate.execute("create table if not exists " + schema + "." + table
+                        + " as select * from " + table + " with no data");
+                jdbcTemplate.execute("alter table " + schema + "." + table + " add constraint if not exists pk_" + table
+                        + " primary key (id)");
+            }
+            jdbcTemplate.execute("alter table " + schema + ".order_items add constraint if not exists fk_order_items_order"
+                    + " foreign key (order_id) references " + schema + ".orders (id)");
+        }
+        for (String table : OrderPartitions.TABLES) {
+            jdbcTemplate.execute("create or replace view " + table + OrderPartitions.UNION_SUFFIX
+                    + " as " + partitions.unionOf(table));
+        }
+    }
+
+    // Primer vendedor (desde 1) que cae en la partición indicada
+    private long sellerIn(int partition) {
+        long sellerId = 1;
+        while (partitions.partitionOf(sellerId) != partition) {
+            sellerId++;
+        }
+        return sellerId;
+    }
+
+    private Order order(Long userId, Long sellerId, OrderStatus status, LocalDateTime createdAt, Long... productIds) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setSellerId(sellerId);
+        order.setStatus(status);
+        order.setCreatedAt(createdAt);
+        order.setTotalAmount(Money.of(1000.0 * productIds.length));
+        for (Long productId : productIds) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProductId(productId);
+            item.setQuantity(1);
+            item.setUnitPrice(Money.of(1000.0));
+            order.getItems().add(item);
+        }
+        return order;
+    }
+
+    private long rows(int partition, String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + partitions.schema(partition) + "." + table, Long.class);
+    }
+
+    @Test
+    public void testSaveAll_CadaPedidoYSusLineasVanALaParticionDeSuVendedor() {
+        // DADO: pedidos de dos vendedores de particiones distintas, guardados en un mismo lote
+        long vendedorA = sellerIn(1);
+        long vendedorB = sellerIn(3);
+
+        // CUANDO: se guardan y se envían a la BD
+        orderRepository.saveAll(List.of(
+                order(10L, vendedorA, OrderStatus.PENDIENTE, BASE, 1L, 2L),
+                order(10L, vendedorB, OrderStatus.PENDIENTE, BASE.plusMinutes(1), 3L),
+                order(11L, vendedorA, OrderStatus.PENDIENTE, BASE.plusMinutes(2), 4L)));
+        entityManager.flush();
+
+        // ENTONCES: cada partición tiene solo los pedidos y líneas de sus vendedores, y la plantilla queda vacía
+        assertEquals(2L, rows(1, "orders"));
+        assertEquals(3L, rows(1, "order_items"));
+        assertEquals(1L, rows(3, "orders"));
+        assertEquals(1L, rows(3, "order_items"));
+        assertEquals(0L, rows(0, "orders"));
+        assertEquals(0L, jdbcTemplate.queryForObject("select count(*) from orders", Long.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("select count(*) from order_items", Long.class));
+    }
+
+    @Test
+    public void testConsultas_DeVendedorEnSuParticionYDeUsuarioUnidas() {
+        // DADO: un usuario con pedidos de vendedores de tres particiones
+        long vendedorA = sellerIn(0);
+        long vendedorB = sellerIn(2);
+        long vendedorC = sellerIn(3);
+        orderRepository.saveAll(List.of(
+                order(20L, vendedorA, OrderStatus.PENDIENTE, BASE, 1L),
+                order(20L, vendedorB, OrderStatus.COMPLETADO, BASE.plusHours(1), 2L),
+                order(20L, vendedorC, OrderStatus.PENDIENTE, BASE.plusHours(2), 3L),
+                order(21L, vendedorB, OrderStatus.PENDIENTE, BASE.plusHours(3), 4L)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // CUANDO: se leen los pedidos de un vendedor y la primera página del usuario
+        List<Order> delVendedor = orderRepository.findBySellerId(vendedorB);
+        List<Order> pagina = orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(20L, PageRequest.of(0, 2));
+
+        // ENTONCES: el vendedor ve solo lo suyo y el usuario recibe lo más reciente de todas las particiones
+        assertEquals(2, delVendedor.size());
+        assertTrue(delVendedor.stream().allMatch(o -> o.getSellerId() == vendedorB));
+        assertEquals(List.of(vendedorC, vendedorB), pagina.stream().map(Order::getSellerId).toList());
+        assertEquals(4L, orderRepository.count());
+    }
+
+    @Test
+    public void testFindById_FueraDeParticionLeeLineasDeLaVista() {
+        // DADO: un pedido con dos líneas en la partición de su vendedor
+        Order guardado = orderRepository.save(order(30L, sellerIn(2), OrderStatus.PENDIENTE, BASE, 5L, 6L));
+        entityManager.flush();
+        entityManager.clear();
+
+        // CUANDO: se busca por ID sin saber el vendedor y se cargan sus líneas después
+        Order leido = orderRepository.findById(guardado.getId()).orElseThrow();
+
+        // ENTONCES: se encuentra con una consulta sobre orders_all y la carga diferida usa order_items_all
+        assertEquals(2, leido.getItems().size());
+        assertTrue(orderRepository.findById(guardado.getId() + 1000).isEmpty());
+    }
+
+    @Test
+    public void testActualizarYBorrar_SeHacenEnLaParticionDelPedido() {
+        // DADO: un pedido guardado
+        long vendedor = sellerIn(1);
+        Order guardado = orderRepository.save(order(40L, vendedor, OrderStatus.PENDIENTE, BASE, 7L, 8L));
+        entityManager.flush();
+
+        // CUANDO: cambia de estado, pierde una línea y luego se borra
+        guardado.setStatus(OrderStatus.COMPLETADO);
+        guardado.getItems().remove(0);
+        entityManager.flush();
+        String estado = jdbcTemplate.queryForObject("select status from " + partitions.schema(1) + ".orders where id = ?",
+                String.class, guardado.getId());
+        long lineas = rows(1, "order_items");
+        orderRepository.deleteById(guardado.getId());
+        entityManager.flush();
+
+        // ENTONCES: cada UPDATE/DELETE cayó en la partición del vendedor
+        assertEquals("COMPLETADO", estado);
+        assertEquals(1L, lineas);
+        assertEquals(0L, rows(1, "orders"));
+        assertEquals(0L, rows(1, "order_items"));
+    }
+
+    @Test
+    public void testBorradoMasivo_LineasYPedidosDeVariasParticiones() {
+        // DADO: pedidos con líneas en dos particiones
+        List<Order> guardados = orderRepository.saveAll(List.of(
+                order(60L, sellerIn(0), OrderStatus.COMPLETADO, BASE, 1L, 2L),
+                order(60L, sellerIn(2), OrderStatus.COMPLETADO, BASE, 3L)));
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = guardados.stream().map(Order::getId).toList();
+
+        // CUANDO: se borran las líneas y luego los pedidos sin indicar partición
+        int lineas = orderRepository.deleteItemsByOrderIds(ids);
+        int pedidos = orderRepository.deleteByIds(ids);
+
+        // ENTONCES: cada DELETE corrió en cada partición, primero las líneas por la clave foránea
+        assertEquals(3, lineas);
+        assertEquals(2, pedidos);
+        assertEquals(0L, rows(0, "order_items") + rows(2, "order_items") + rows(0, "orders") + rows(2, "orders"));
+    }
+
+    @Test
+    public void testFindArchivableIdsByPartition_TomaLosMenoresIdsYLosAgrupa() {
+        // DADO: pedidos terminados en dos particiones y uno pendiente
+        long vendedorA = sellerIn(0);
+        long vendedorB = sellerIn(3);
+        List<Order> guardados = orderRepository.saveAll(List.of(
+                order(50L, vendedorA, OrderStatus.COMPLETADO, BASE, 1L),
+                order(50L, vendedorB, OrderStatus.CANCELADO, BASE, 2L),
+                order(50L, vendedorA, OrderStatus.PENDIENTE, BASE, 3L),
+                order(50L, vendedorB, OrderStatus.COMPLETADO, BASE, 4L)));
+        entityManager.flush();
+        Long id0 = guardados.get(0).getId();
+        Long id1 = guardados.get(1).getId();
+
+        // CUANDO: se piden los dos primeros archivables
+        Map<Integer, List<Long>> porParticion = orderRepository.findArchivableIdsByPartition(
+                OrderArchiveService.ARCHIVABLE, BASE.plusDays(1), 0L, 2);
+
+        // ENTONCES: quedan los dos IDs menores, cada uno con su partición; el pendiente no entra
+        assertEquals(Map.of(0, List.of(id0), 3, List.of(id1)), porParticion);
+        assertEquals(3L, orderRepository.countArchivable(OrderArchiveService.ARCHIVABLE, BASE.plusDays(1)));
+    }
+}
@@ -0,0 +1,208 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.dto.CheckoutItem;
+import com.Pedidos.Pagos.dto.CheckoutRequest;
+import com.Pedidos.Pagos.dto.CheckoutResult;
+import com.Pedidos.Pagos.dto.CheckoutStats;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class CheckoutServiceTest {
+
+    @InjectMocks
+    private CheckoutService checkoutService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PaymentPipeline paymentPipeline;
+
+    private InMemoryInventarioClient inventario;
+
+    @BeforeEach
+    void setUp() {
+        inventario = new InMemoryInventarioClient()
+                .withProduct(1L, 2L, 10, 2599.0)
+                .withProduct(2L, 2L, 5, 1299.0)
+                .withProduct(3L, 2L, 0, 899.0)
+                .withProduct(4L, 3L, 8, 1899.0)
+                .withProduct(5L, 2L, 3, 499.0);
+        ReflectionTestUtils.setField(checkoutService, "inventarioClient", inventario);
+        ReflectionTestUtils.setField(checkoutService, "callTimeoutMillis", 500L);
+    }
+
+    private static CheckoutRequest carrito(CheckoutItem... items) {
+        return new CheckoutRequest(4L, 2L, Arrays.asList(items));
+    }
+
+    @Test
+    public void testCheckout_TodoDisponible_DescuentaYCreaPedido() {
+        // DADO: un carrito con dos productos del vendedor 2 con stock (uno repetido)
+        when(orderService.createOrders(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        // CUANDO: se confirma
+        CheckoutResult resultado = checkoutService.checkout(carrito(
+                new CheckoutItem(1L, 1), new CheckoutItem(2L, 1), new CheckoutItem(2L, 1)));
+
+        // ENTONCES: se descuenta el stock y el pedido usa los precios de Inventario
+        assertEquals(9, inventario.getStock(1L));
+        assertEquals(3, inventario.getStock(2L));
+        assertEquals(1, resultado.getOrders().size());
+        Order pedido = resultado.getOrders().get(0);
+        assertEquals(2, pedido.getItems().size());
+        assertEquals(2, pedido.getItems().get(1).getQuantity());
+        assertEquals(Money.of(1299.0), pedido.getItems().get(1).getUnitPrice());
+        assertEquals(Money.of(5197.0), pedido.getTotalAmount());
+        assertEquals(Money.of(5197.0), resultado.getTotalAmount());
+        assertEquals(4L, pedido.getUserId());
+        assertEquals(2L, pedido.getSellerId());
+        assertEquals(resultado.getCheckoutId(), pedido.getCheckoutId());
+        assertEquals(1L, checkoutService.getStats().getCompleted());
+        verify(paymentPipeline).submit(resultado.getOrders());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCheckout_VariosVendedores_UnPedidoPorVendedorEnUnaSolaEscritura() {
+        // DADO: productos de los vendedores 2 (1 y 5) y 3 (4)
+        when(orderService.createOrders(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        // CUANDO: se confirma el carrito
+        CheckoutResult resultado = checkoutService.checkout(new CheckoutRequest(4L, null, Arrays.asList(
+                new CheckoutItem(1L, 1), new CheckoutItem(4L, 2), new CheckoutItem(5L, 1))));
+
+        // ENTONCES: se crean dos pedidos enlazados por el mismo checkout en una sola llamada
+        ArgumentCaptor<List<Order>> guardados = ArgumentCaptor.forClass(List.class);
+        verify(orderService, times(1)).createOrders(guardados.capture());
+        List<Order> pedidos = guardados.getValue();
+        assertEquals(2, pedidos.size());
+        assertEquals(2L, pedidos.get(0).getSellerId());
+        assertEquals(Money.of(3098.0), pedidos.get(0).getTotalAmount());
+        assertEquals(2, pedidos.get(0).getItems().size());
+        assertEquals(3L, pedidos.get(1).getSellerId());
+        assertEquals(Money.of(3798.0), pedidos.get(1).getTotalAmount());
+        assertNotNull(resultado.getCheckoutId());
+        assertTrue(pedidos.stream().allMatch(p -> resultado.getCheckoutId().equals(p.getCheckoutId())));
+        assertEquals(Money.of(6896.0), resultado.getTotalAmount());
+    }
+
+    @Test
+    public void testCheckout_SinVendedor_DevuelveStock() {
+        // DADO: un producto sin vendedor en Inventario y un carrito sin sellerId de respaldo
+        inventario.withProduct(6L, null, 4, 99.0);
+
+        // CUANDO: se confirma
+        CheckoutException error = assertThrows(CheckoutException.class, () -> checkoutService.checkout(
+                new CheckoutRequest(4L, null, Arrays.asList(new CheckoutItem(1L, 1), new CheckoutItem(6L, 1)))));
+
+        // ENTONCES: se rechaza y se devuelve todo el stock
+        assertTrue(error.getMessage().contains("Producto 6"));
+        assertEquals(10, inventario.getStock(1L));
+        assertEquals(4, inventario.getStock(6L));
+        verify(orderService, never()).createOrders(anyList());
+        verifyNoInteractions(paymentPipeline);
+    }
+
+    @Test
+    public void testCheckout_SinStock_DevuelveLoDescontado() {
+        // DADO: un carrito donde el producto 3 no tiene stock
+
+        // CUANDO: se confirma
+        CheckoutException error = assertThrows(CheckoutException.class, () -> checkoutService.checkout(carrito(
+                new CheckoutItem(1L, 2), new CheckoutItem(3L, 1), new CheckoutItem(4L, 1))));
+
+        // ENTONCES: no se crea el pedido y el stock de los demás vuelve a su valor
+        assertEquals(1, error.getFailures().size());
+        assertTrue(error.getFailures().get(0).startsWith("Producto 3"));
+        assertEquals(10, inventario.getStock(1L));
+        assertEquals(8, inventario.getStock(4L));
+        verify(orderService, never()).createOrders(anyList());
+        CheckoutStats stats = checkoutService.getStats();
+        assertEquals(1L, stats.getFailed());
+        assertEquals(2L, stats.getCompensations());
+    }
+
+    @Test
+    public void testCheckout_Timeout_CompensaCuandoInventarioTermina() throws Exception {
+        // DADO: Inventario tarda más que el límite en responder por el producto 2
+        inventario.setExtraLatency(2L, 800);
+
+        // CUANDO: se confirma el carrito
+        CheckoutException error = assertThrows(CheckoutException.class, () -> checkoutService.checkout(carrito(
+                new CheckoutItem(1L, 1), new CheckoutItem(2L, 1))));
+
+        // ENTONCES: se informa el timeout y, cuando la llamada lenta termina, también se devuelve su stock
+        assertTrue(error.getMessage().contains("no respondió"));
+        assertEquals(10, inventario.getStock(1L));
+        long limite = System.currentTimeMillis() + 5000;
+        while (inventario.getStock(2L) != 5 && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+        }
+        assertEquals(5, inventario.getStock(2L));
+        verify(orderService, never()).createOrders(anyList());
+    }
+
+    @Test
+    public void testCheckout_ErrorAlGuardar_DevuelveElStock() {
+        // DADO: la BD falla al guardar el pedido
+        when(orderService.createOrders(anyList())).thenThrow(new RuntimeException("Deadlock found"));
+
+        // CUANDO: se confirma
+        assertThrows(RuntimeException.class, () -> checkoutService.checkout(carrito(
+                new CheckoutItem(1L, 1), new CheckoutItem(5L, 3))));
+
+        // ENTONCES: el stock descontado se devuelve y no se encola ningún cobro
+        assertEquals(10, inventario.getStock(1L));
+        assertEquals(3, inventario.getStock(5L));
+        verifyNoInteractions(paymentPipeline);
+    }
+
+    @Test
+    public void testCheckout_CarritoInvalido_LanzaExcepcion() {
+        // DADO: un carrito vacío y uno con cantidad cero
+        // CUANDO / ENTONCES: se rechazan sin llamar a Inventario
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(new CheckoutRequest(4L, 2L, List.of())));
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(carrito(new CheckoutItem(1L, 0))));
+        assertEquals(10, inventario.getStock(1L));
+    }
+
+    @Test
+    public void testCheckout_Paralelo_MasRapidoQueSecuencial() {
+        // DADO: cada llamada a Inventario tarda 150 ms y el carrito tiene 5 productos
+        inventario.setLatencyMillis(150);
+        ReflectionTestUtils.setField(checkoutService, "callTimeoutMillis", 2000L);
+        when(orderService.createOrders(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        // CUANDO: se confirma
+        long inicio = System.nanoTime();
+        checkoutService.checkout(carrito(new CheckoutItem(1L, 1), new CheckoutItem(2L, 1),
+                new CheckoutItem(4L, 1), new CheckoutItem(5L, 1), new CheckoutItem(1L, 1)));
+        checkoutService.checkout(carrito(new CheckoutItem(1L, 1), new CheckoutItem(2L, 1),
+                new CheckoutItem(4L, 1), new CheckoutItem(5L, 1)));
+        long transcurridoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        // ENTONCES: cada checkout tarda cerca de una llamada y no la suma de todas (4 x 150 ms)
+        CheckoutStats stats = checkoutService.getStats();
+        assertTrue(stats.getAvgSequentialMillis() >= 550, "secuencial: " + stats.getAvgSequentialMillis());
+        assertTrue(stats.getAvgParallelMillis() < stats.getAvgSequentialMillis() / 2,
+                "paralelo: " + stats.getAvgParallelMillis());
+        assertTrue(transcurridoMs < 1200, "transcurrido: " + transcurridoMs);
+    }
+}
@@ -0,0 +1,156 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.IdempotencyRecord;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private Order nuevoPedido() {
+        return new Order(10L, 1L, Money.of(500.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+    }
+
+    @Test
+    public void testExecute_PrimeraVez_EjecutaYGuarda() {
+        // DADO: una clave nunca usada
+        Order pedido = nuevoPedido();
+
+        // CUANDO: se ejecuta la creación
+        IdempotencyService.Result resultado = idempotencyService.execute("clave-1", () -> pedido);
+
+        // ENTONCES: se crea el pedido y se guarda la clave
+        assertSame(pedido, resultado.order());
+        assertFalse(resultado.replayed());
+        verify(idempotencyRecordRepository).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    public void testExecute_Reintento_NoVuelveAEjecutar() {
+        // DADO: la clave ya se usó en esta instancia
+        AtomicInteger ejecuciones = new AtomicInteger();
+        idempotencyService.execute("clave-1", () -> {
+            ejecuciones.incrementAndGet();
+            return nuevoPedido();
+        });
+
+        // CUANDO: el cliente reintenta con la misma clave
+        IdempotencyService.Result resultado = idempotencyService.execute("clave-1", () -> {
+            ejecuciones.incrementAndGet();
+            return nuevoPedido();
+        });
+
+        // ENTONCES: se devuelve el pedido guardado sin crear otro
+        assertTrue(resultado.replayed());
+        assertEquals(10L, resultado.order().getId());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    public void testExecute_ClaveEnBD_DevuelveRespuestaGuardada() throws Exception {
+        // DADO: la clave fue guardada por otra instancia
+        String json = objectMapper.writeValueAsString(nuevoPedido());
+        when(idempotencyRecordRepository.findById("clave-2"))
+                .thenReturn(Optional.of(new IdempotencyRecord("clave-2", 10L, json, LocalDateTime.now())));
+
+        // CUANDO: llega el reintento
+        IdempotencyService.Result resultado = idempotencyService.execute("clave-2", () -> {
+            throw new AssertionError("No debe ejecutarse");
+        });
+
+        // ENTONCES: se responde desde la BD
+        assertTrue(resultado.replayed());
+        assertEquals(10L, resultado.order().getId());
+        verify(idempotencyRecordRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testExecute_ClaveVencida_SeEjecutaDeNuevo() throws Exception {
+        // DADO: la clave guardada superó el TTL
+        String json = objectMapper.writeValueAsString(nuevoPedido());
+        when(idempotencyRecordRepository.findById("clave-3"))
+                .thenReturn(Optional.of(new IdempotencyRecord("clave-3", 10L, json, LocalDateTime.now().minusDays(2))));
+
+        // CUANDO: se usa otra vez
+        IdempotencyService.Result resultado = idempotencyService.execute("clave-3", this::nuevoPedido);
+
+        // ENTONCES: se trata como una creación nueva
+        assertFalse(resultado.replayed());
+    }
+
+    @Test
+    public void testExecute_PeticionesConcurrentes_UnaSolaEjecucion() throws Exception {
+        // DADO: una creación lenta en curso
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<IdempotencyService.Result> primera = executor.submit(() -> idempotencyService.execute("clave-4", () -> {
+                ejecuciones.incrementAndGet();
+                enCurso.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return nuevoPedido();
+            }));
+            assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+            // CUANDO: llega la misma petición mientras la primera sigue en curso
+            Future<IdempotencyService.Result> segunda = executor.submit(() -> idempotencyService.execute("clave-4", () -> {
+                ejecuciones.incrementAndGet();
+                return nuevoPedido();
+            }));
+            liberar.countDown();
+
+            // ENTONCES: ambas reciben el mismo pedido y la creación se ejecutó una vez
+            assertFalse(primera.get(5, TimeUnit.SECONDS).replayed());
+            assertTrue(segunda.get(5, TimeUnit.SECONDS).replayed());
+            assertEquals(10L, segunda.get().order().getId());
+            assertEquals(1, ejecuciones.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_ClaveDemasiadoLarga_LanzaExcepcion() {
+        // CUANDO/ENTONCES: una clave de más de 100 caracteres se rechaza
+        String clave = "x".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(clave, this::nuevoPedido));
+    }
+}
@@ -0,0 +1,135 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.Money;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inventario en memoria para pruebas: mantiene stock, precio y vendedor por producto y puede
+ * simular la latencia de red de cada llamada o que Inventario no responda.
+ */
+public class InMemoryInventarioClient implements InventarioClient {
+
+    private final Map<Long, Integer> stock = new ConcurrentHashMap<>();
+    private final Map<Long, Money> prices = new ConcurrentHashMap<>();
+    private final Map<Long, Long> sellers = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDateTime> updatedAt = new ConcurrentHashMap<>();
+    private final AtomicInteger priceLookups = new AtomicInteger();
+    private final AtomicInteger priceFeedCalls = new AtomicInteger();
+    private volatile boolean unavailable;
+    private final Map<Long, Long> extraLatency = new ConcurrentHashMap<>();
+    private volatile long latencyMillis;
+
+    public InMemoryInventarioClient withProduct(Long productId, Long sellerId, int units, double price) {
+        stock.put(productId, units);
+        prices.put(productId, Money.of(price));
+        // ConcurrentHashMap no admite null: un producto sin vendedor simplemente no tiene entrada
+        if (sellerId != null) {
+            sellers.put(productId, sellerId);
+        } else {
+            sellers.remove(productId);
+        }
+        updatedAt.put(productId, LocalDateTime.now());
+        return this;
+    }
+
+    public void setPrice(Long productId, double price, LocalDateTime modifiedAt) {
+        prices.put(productId, Money.of(price));
+        updatedAt.put(productId, modifiedAt);
+    }
+
+    public void setUnavailable(boolean unavailable) {
+        this.unavailable = unavailable;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setExtraLatency(Long productId, long millis) {
+        extraLatency.put(productId, millis);
+    }
+
+    @Override
+    public StockReduction reduceStock(Long productId, int quantity) {
+        pause(productId);
+        synchronized (stock) {
+            Integer available = stock.get(productId);
+            if (available == null) {
+                throw new RuntimeException("Producto no encontrado con ID: " + productId);
+            }
+            if (available < quantity) {
+                throw new RuntimeException("Stock insuficiente. Disponible: " + available + ", Solicitado: " + quantity);
+            }
+            stock.put(productId, available - quantity);
+        }
+        return new StockReduction(prices.get(productId), sellers.get(productId));
+    }
+
+    @Override
+    public void addStock(Long productId, int quantity) {
+        pause(productId);
+        synchronized (stock) {
+            stock.merge(productId, quantity, Integer::sum);
+        }
+    }
+
+    @Override
+    public List<PriceQuote> findPriceChanges(LocalDateTime since) {
+        priceFeedCalls.incrementAndGet();
+        checkAvailable();
+        List<PriceQuote> changes = new ArrayList<>();
+        prices.forEach((productId, price) -> {
+            LocalDateTime modifiedAt = updatedAt.get(productId);
+            if (since == null || modifiedAt == null || !modifiedAt.isBefore(since)) {
+                changes.add(new PriceQuote(productId, price, modifiedAt));
+            }
+        });
+        return changes;
+    }
+
+    @Override
+    public PriceQuote getPrice(Long productId) {
+        priceLookups.incrementAndGet();
+        checkAvailable();
+        Money price = prices.get(productId);
+        if (price == null) {
+            throw new IllegalArgumentException("Producto no encontrado con ID: " + productId);
+        }
+        return new PriceQuote(productId, price, updatedAt.get(productId));
+    }
+
+    public int getPriceLookups() {
+        return priceLookups.get();
+    }
+
+    public int getPriceFeedCalls() {
+        return priceFeedCalls.get();
+    }
+
+    public int getStock(Long productId) {
+        return stock.getOrDefault(productId, 0);
+    }
+
+    private void checkAvailable() {
+        if (unavailable) {
+            throw new RuntimeException("Inventario respondió 503");
+        }
+    }
+
+    private void pause(Long productId) {
+        long millis = latencyMillis + extraLatency.getOrDefault(productId, 0L);
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.dto.ArchiveProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderArchiveJobTest {
+
+    @InjectMocks
+    private OrderArchiveJob orderArchiveJob;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderArchiveJob, "pauseMillis", 0L);
+        ReflectionTestUtils.setField(orderArchiveJob, "chunkSize", 2);
+    }
+
+    @Test
+    public void testRun_AvanzaPorBloquesYReportaProgreso() {
+        // DADO: tres pedidos por archivar en bloques de 2
+        when(orderArchiveService.countArchivable(any(LocalDateTime.class))).thenReturn(3L);
+        when(orderArchiveService.moveChunk(any(LocalDateTime.class), eq(0L), anyInt())).thenReturn(Arrays.asList(1L, 4L));
+        when(orderArchiveService.moveChunk(any(LocalDateTime.class), eq(4L), anyInt())).thenReturn(Collections.singletonList(9L));
+        when(orderArchiveService.moveChunk(any(LocalDateTime.class), eq(9L), anyInt())).thenReturn(Collections.emptyList());
+
+        // CUANDO: corre el archivado
+        orderArchiveJob.run();
+
+        // ENTONCES: el progreso indica todo archivado y el último ID
+        ArchiveProgress progreso = orderArchiveJob.getProgress();
+        assertFalse(progreso.isRunning());
+        assertEquals(3L, progreso.getTotal());
+        assertEquals(3L, progreso.getArchived());
+        assertEquals(9L, progreso.getLastId());
+        assertNotNull(progreso.getFinishedAt());
+        assertNull(progreso.getLastError());
+    }
+
+    @Test
+    public void testRun_ErrorEnUnBloque_SeDetieneYLoInforma() {
+        // DADO: el segundo bloque falla
+        when(orderArchiveService.countArchivable(any(LocalDateTime.class))).thenReturn(4L);
+        when(orderArchiveService.moveChunk(any(LocalDateTime.class), eq(0L), anyInt())).thenReturn(Arrays.asList(1L, 2L));
+        when(orderArchiveService.moveChunk(any(LocalDateTime.class), eq(2L), anyInt()))
+                .thenThrow(new RuntimeException("Lock wait timeout exceeded"));
+
+        // CUANDO: corre el archivado
+        orderArchiveJob.run();
+
+        // ENTONCES: lo movido queda registrado y la próxima ejecución puede continuar
+        ArchiveProgress progreso = orderArchiveJob.getProgress();
+        assertFalse(progreso.isRunning());
+        assertEquals(2L, progreso.getArchived());
+        assertEquals("Lock wait timeout exceeded", progreso.getLastError());
+    }
+}
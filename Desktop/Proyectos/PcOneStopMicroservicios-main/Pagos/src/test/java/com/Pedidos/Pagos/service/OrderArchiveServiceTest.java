@@ -0,0 +1,126 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.ArchivedOrder;
+import com.Pedidos.Pagos.model.ArchivedOrderItem;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.ArchivedOrderItemRepository;
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderArchiveServiceTest {
+
+    @InjectMocks
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private PartitionedOrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Mock
+    private OrderCache orderCache;
+
+    @Test
+    public void testMoveChunk_CopiaAntesDeBorrar() {
+        // DADO: dos pedidos terminados antes de la fecha de corte, en la misma partición
+        LocalDateTime corte = LocalDateTime.now().minusDays(365);
+        List<Long> ids = Arrays.asList(3L, 8L);
+        when(orderRepository.findArchivableIdsByPartition(eq(OrderArchiveService.ARCHIVABLE), eq(corte), eq(0L), anyInt()))
+                .thenReturn(Map.of(2, ids));
+        when(orderRepository.inPartition(eq(2), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+
+        // CUANDO: se archiva un bloque
+        List<Long> movidos = orderArchiveService.moveChunk(corte, 0L, 500);
+
+        // ENTONCES: se copian pedidos y líneas y recién después se borran de las tablas activas
+        assertEquals(ids, movidos);
+        InOrder orden = inOrder(archivedOrderRepository, archivedOrderItemRepository, orderRepository);
+        orden.verify(archivedOrderRepository).copyFromOrders(eq(ids), any(LocalDateTime.class));
+        orden.verify(archivedOrderItemRepository).copyFromOrderItems(ids);
+        orden.verify(orderRepository).deleteItemsByOrderIds(ids);
+        orden.verify(orderRepository).deleteByIds(ids);
+        verify(orderCache).evict(ids);
+    }
+
+    @Test
+    public void testMoveChunk_VariasParticiones_MueveCadaBloqueEnSuParticion() {
+        // DADO: pedidos por archivar en dos particiones
+        LocalDateTime corte = LocalDateTime.now().minusDays(365);
+        Map<Integer, List<Long>> porParticion = new TreeMap<>(Map.of(0, List.of(5L), 3, List.of(2L, 9L)));
+        when(orderRepository.findArchivableIdsByPartition(eq(OrderArchiveService.ARCHIVABLE), eq(corte), eq(0L), anyInt()))
+                .thenReturn(porParticion);
+        when(orderRepository.inPartition(anyInt(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+
+        // CUANDO: se archiva un bloque
+        List<Long> movidos = orderArchiveService.moveChunk(corte, 0L, 500);
+
+        // ENTONCES: cada partición borra solo sus pedidos y se devuelven todos ordenados por ID
+        assertEquals(List.of(2L, 5L, 9L), movidos);
+        verify(orderRepository).inPartition(eq(0), any());
+        verify(orderRepository).inPartition(eq(3), any());
+        verify(orderRepository).deleteByIds(List.of(5L));
+        verify(orderRepository).deleteByIds(List.of(2L, 9L));
+        verify(orderCache).evict(List.of(2L, 5L, 9L));
+    }
+
+    @Test
+    public void testMoveChunk_SinPendientes_NoModificaNada() {
+        // DADO: no quedan pedidos por archivar
+        when(orderRepository.findArchivableIdsByPartition(any(), any(), any(), anyInt())).thenReturn(Collections.emptyMap());
+
+        // CUANDO: se intenta archivar
+        List<Long> movidos = orderArchiveService.moveChunk(LocalDateTime.now(), 0L, 500);
+
+        // ENTONCES: no se copia ni se borra nada
+        assertTrue(movidos.isEmpty());
+        verifyNoInteractions(archivedOrderRepository, archivedOrderItemRepository);
+        verify(orderRepository, never()).deleteItemsByOrderIds(any());
+    }
+
+    @Test
+    public void testFindByUserId_ArmaPedidosConSusLineas() {
+        // DADO: un pedido archivado con una línea
+        LocalDateTime creado = LocalDateTime.now().minusYears(2);
+        ArchivedOrder archivado = new ArchivedOrder(2L, 4L, Money.of(2599.0), OrderStatus.COMPLETADO, "1", creado, 2L, LocalDateTime.now(), null);
+        when(archivedOrderRepository.findByUserId(4L)).thenReturn(List.of(archivado));
+        when(archivedOrderItemRepository.findByOrderIdIn(List.of(2L)))
+                .thenReturn(List.of(new ArchivedOrderItem(7L, 2L, 1L, 1, Money.of(2599.0))));
+
+        // CUANDO: se leen los archivados del usuario
+        List<Order> pedidos = orderArchiveService.findByUserId(4L);
+
+        // ENTONCES: se devuelven como Order con sus líneas
+        assertEquals(1, pedidos.size());
+        assertEquals(2L, pedidos.get(0).getId());
+        assertEquals(OrderStatus.COMPLETADO, pedidos.get(0).getStatus());
+        assertEquals(1, pedidos.get(0).getItems().size());
+        assertEquals(1L, pedidos.get(0).getItems().get(0).getProductId());
+    }
+}
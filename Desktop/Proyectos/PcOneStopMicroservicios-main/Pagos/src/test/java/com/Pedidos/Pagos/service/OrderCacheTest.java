@@ -0,0 +1,141 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderItem;
+import com.Pedidos.Pagos.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class OrderCacheTest {
+
+    private OrderCache orderCache;
+
+    @BeforeEach
+    void setUp() {
+        orderCache = new OrderCache();
+    }
+
+    private static Order pedido(Long id, OrderStatus status) {
+        Order order = new Order(id, 1L, Money.of(100.0), status, "4", LocalDateTime.now(), 5L, new ArrayList<>(), "c-1");
+        order.getItems().add(new OrderItem(10L, order, 4L, 1, Money.of(100.0)));
+        return order;
+    }
+
+    @Test
+    public void testOnSaved_GuardaUnaCopiaConSusLineas() {
+        // DADO: un pedido recién creado
+        Order pedido = pedido(1L, OrderStatus.PENDIENTE);
+
+        // CUANDO: se guarda fuera de una transacción
+        orderCache.onSaved(pedido);
+
+        // ENTONCES: el caché devuelve una copia independiente del pedido
+        Order cacheado = orderCache.get(1L);
+        assertNotSame(pedido, cacheado);
+        assertEquals(OrderStatus.PENDIENTE, cacheado.getStatus());
+        assertEquals(1, cacheado.getItems().size());
+        assertSame(cacheado, cacheado.getItems().get(0).getOrder());
+        pedido.setStatus(OrderStatus.CANCELADO);
+        assertEquals(OrderStatus.PENDIENTE, orderCache.get(1L).getStatus());
+    }
+
+    @Test
+    public void testOnStatusChanged_ActualizaYAvisa() throws Exception {
+        // DADO: un pedido en caché y un cliente esperando un cambio
+        orderCache.onSaved(pedido(1L, OrderStatus.PENDIENTE));
+        CompletableFuture<Order> espera = orderCache.watch(1L);
+
+        // CUANDO: el pago se confirma
+        orderCache.onStatusChanged(pedido(1L, OrderStatus.CONFIRMADO));
+
+        // ENTONCES: el caché tiene el nuevo estado y la espera se completa con él
+        assertEquals(OrderStatus.CONFIRMADO, orderCache.get(1L).getStatus());
+        assertEquals(OrderStatus.CONFIRMADO, espera.get(2, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    public void testOnDeleted_InvalidaYAvisaConNull() throws Exception {
+        // DADO: un pedido en caché con un cliente esperando
+        orderCache.onSaved(pedido(1L, OrderStatus.COMPLETADO));
+        CompletableFuture<Order> espera = orderCache.watch(1L);
+
+        // CUANDO: se elimina
+        orderCache.onDeleted(1L);
+
+        // ENTONCES: ya no está y el cliente debe volver a leerlo
+        assertNull(orderCache.get(1L));
+        assertNull(espera.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLoad_EscrituraDuranteLaLectura_NoSeGuarda() {
+        // DADO: una lectura empieza y mientras tanto el pedido cambia de estado
+        long marca = orderCache.writeMark(1L);
+        orderCache.onStatusChanged(pedido(1L, OrderStatus.CONFIRMADO));
+        orderCache.evict(List.of(1L));
+
+        // CUANDO: la lectura lenta intenta llenar el caché con el estado viejo
+        Order leido = orderCache.load(pedido(1L, OrderStatus.PENDIENTE), marca);
+
+        // ENTONCES: se devuelve pero no se guarda
+        assertEquals(OrderStatus.PENDIENTE, leido.getStatus());
+        assertNull(orderCache.get(1L));
+        orderCache.load(pedido(1L, OrderStatus.CONFIRMADO), orderCache.writeMark(1L));
+        assertEquals(OrderStatus.CONFIRMADO, orderCache.get(1L).getStatus());
+    }
+
+    @Test
+    public void testEnTransaccion_SoloSeAplicaAlConfirmar() {
+        // DADO: una transacción activa
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // CUANDO: se crea un pedido dentro de ella
+            orderCache.onSaved(pedido(1L, OrderStatus.PENDIENTE));
+
+            // ENTONCES: no está en caché hasta que la transacción confirma
+            assertNull(orderCache.get(1L));
+            List<TransactionSynchronization> pendientes = TransactionSynchronizationManager.getSynchronizations();
+            pendientes.forEach(TransactionSynchronization::afterCommit);
+            assertNotNull(orderCache.get(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testTamanoMaximo_DescartaElMenosUsado() {
+        // DADO: un caché de dos pedidos
+        ReflectionTestUtils.setField(orderCache, "cacheSize", 2);
+        orderCache.onSaved(pedido(1L, OrderStatus.PENDIENTE));
+        orderCache.onSaved(pedido(2L, OrderStatus.PENDIENTE));
+        orderCache.get(1L);
+
+        // CUANDO: entra un tercero
+        orderCache.onSaved(pedido(3L, OrderStatus.PENDIENTE));
+
+        // ENTONCES: sale el que hace más tiempo no se lee
+        assertNotNull(orderCache.get(1L));
+        assertNull(orderCache.get(2L));
+        assertNotNull(orderCache.get(3L));
+    }
+
+    @Test
+    public void testLongPollTimeout_SeLimitaAlMaximo() {
+        // CUANDO / ENTONCES: sin valor o mayor al máximo se usa el máximo
+        assertEquals(30000L, orderCache.longPollTimeout(null));
+        assertEquals(30000L, orderCache.longPollTimeout(120000L));
+        assertEquals(5000L, orderCache.longPollTimeout(5000L));
+    }
+}
@@ -0,0 +1,116 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.OrderItemRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderExportServiceTest {
+
+    @InjectMocks
+    private OrderExportService orderExportService;
+
+    @Mock
+    private PartitionedOrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderExportService, "pageSize", 2);
+    }
+
+    @Test
+    public void testExport_RecorrePaginasConCursor() throws Exception {
+        // DADO: tres pedidos del vendedor 2 en enero, en páginas de 2
+        LocalDateTime t1 = LocalDateTime.of(2025, 1, 3, 10, 0);
+        LocalDateTime t2 = LocalDateTime.of(2025, 1, 5, 12, 30);
+        LocalDateTime desde = LocalDate.of(2025, 1, 1).atStartOfDay();
+        LocalDateTime hasta = LocalDate.of(2025, 2, 1).atStartOfDay();
+        when(orderRepository.findSellerExportRows(eq(2L), eq(desde), eq(0L), eq(hasta), any(Pageable.class)))
+                .thenReturn(Arrays.asList(
+                        new Object[]{4L, t1, 7L, OrderStatus.COMPLETADO, Money.of(3798.0)},
+                        new Object[]{9L, t1, 8L, OrderStatus.CANCELADO, Money.of(899.0)}));
+        when(orderRepository.findSellerExportRows(eq(2L), eq(t1), eq(9L), eq(hasta), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(new Object[]{12L, t2, 7L, OrderStatus.PENDIENTE, Money.of(1299.0)}));
+        when(orderRepository.partitionOf(2L)).thenReturn(5);
+        when(orderRepository.inPartition(anyInt(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(orderItemRepository.findItemRowsByOrderIds(List.of(4L, 9L))).thenReturn(Arrays.asList(
+                new Object[]{4L, 1L, 1, Money.of(2599.0)},
+                new Object[]{4L, 5L, 1, Money.of(1199.0)},
+                new Object[]{9L, 3L, 1, Money.of(899.0)}));
+        when(orderItemRepository.findItemRowsByOrderIds(List.of(12L))).thenReturn(Collections.emptyList());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // CUANDO: se exporta enero
+        long exportados = orderExportService.exportSellerOrders(2L,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), out);
+
+        // ENTONCES: se escriben todas las filas en orden y la última página corta termina el recorrido
+        assertEquals(3L, exportados);
+        String[] lineas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lineas.length);
+        assertEquals(OrderExportService.HEADER, lineas[0]);
+        assertEquals("4,2025-01-03T10:00,7,COMPLETADO,3798.00,1x1@2599.00|5x1@1199.00", lineas[1]);
+        assertEquals("9,2025-01-03T10:00,8,CANCELADO,899.00,3x1@899.00", lineas[2]);
+        assertEquals("12,2025-01-05T12:30,7,PENDIENTE,1299.00,", lineas[3]);
+        verify(orderRepository, times(2)).findSellerExportRows(any(), any(), any(), any(), any(Pageable.class));
+        // Las líneas se leen en la partición del vendedor
+        verify(orderRepository, times(2)).inPartition(eq(5), any());
+    }
+
+    @Test
+    public void testExport_SinPedidos_SoloEncabezado() throws Exception {
+        // DADO: un vendedor sin pedidos
+        when(orderRepository.findSellerExportRows(eq(99L), any(), eq(0L), any(), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // CUANDO: se exporta sin rango
+        long exportados = orderExportService.exportSellerOrders(99L, null, null, out);
+
+        // ENTONCES: el archivo solo tiene el encabezado
+        assertEquals(0L, exportados);
+        assertEquals(OrderExportService.HEADER + "\n", out.toString(StandardCharsets.UTF_8));
+        verifyNoInteractions(orderItemRepository);
+    }
+
+    @Test
+    public void testExport_RangoInvertido_LanzaExcepcion() {
+        // CUANDO / ENTONCES: from posterior a to se rechaza
+        assertThrows(IllegalArgumentException.class, () -> orderExportService.exportSellerOrders(2L,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testEscape_ComillasYComas() {
+        assertEquals("1x1", OrderExportService.escape("1x1"));
+        assertEquals("\"a,b\"", OrderExportService.escape("a,b"));
+        assertEquals("\"di \"\"x\"\"\"", OrderExportService.escape("di \"x\""));
+    }
+}
@@ -0,0 +1,109 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.dto.PurgeProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderPurgeJobTest {
+
+    private static final LocalDate CORTE = LocalDate.of(2022, 1, 1);
+
+    @InjectMocks
+    private OrderPurgeJob orderPurgeJob;
+
+    @Mock
+    private OrderPurgeService orderPurgeService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderPurgeJob, "pauseMillis", 0L);
+        ReflectionTestUtils.setField(orderPurgeJob, "chunkSize", 2);
+        lenient().when(orderPurgeService.cutoff(CORTE)).thenReturn(CORTE.atStartOfDay());
+    }
+
+    @Test
+    public void testRun_PurgaActivosYArchivoPorBloques() {
+        // DADO: dos pedidos activos y uno archivado por purgar
+        LocalDateTime corte = CORTE.atStartOfDay();
+        when(orderPurgeService.countPurgeable(corte)).thenReturn(3L);
+        when(orderPurgeService.purgeOrdersChunk(eq(corte), eq(0L), anyInt())).thenReturn(Arrays.asList(1L, 4L));
+        when(orderPurgeService.purgeOrdersChunk(eq(corte), eq(4L), anyInt())).thenReturn(Collections.emptyList());
+        when(orderPurgeService.purgeArchivedChunk(eq(corte), eq(0L), anyInt())).thenReturn(Collections.singletonList(2L));
+        when(orderPurgeService.purgeArchivedChunk(eq(corte), eq(2L), anyInt())).thenReturn(Collections.emptyList());
+
+        // CUANDO: corre la purga
+        orderPurgeJob.run(CORTE);
+
+        // ENTONCES: el progreso cuenta ambas tablas
+        PurgeProgress progreso = orderPurgeJob.getProgress();
+        assertFalse(progreso.isRunning());
+        assertEquals(3L, progreso.getTotal());
+        assertEquals(3L, progreso.getPurged());
+        assertEquals("orders_archive", progreso.getTable());
+        assertNotNull(progreso.getFinishedAt());
+        assertNull(progreso.getLastError());
+    }
+
+    @Test
+    public void testRun_ErrorEnUnBloque_SeDetieneYLoInforma() {
+        // DADO: el segundo bloque falla
+        LocalDateTime corte = CORTE.atStartOfDay();
+        when(orderPurgeService.countPurgeable(corte)).thenReturn(4L);
+        when(orderPurgeService.purgeOrdersChunk(eq(corte), eq(0L), anyInt())).thenReturn(Arrays.asList(1L, 2L));
+        when(orderPurgeService.purgeOrdersChunk(eq(corte), eq(2L), anyInt()))
+                .thenThrow(new RuntimeException("Lock wait timeout exceeded"));
+
+        // CUANDO: corre la purga
+        orderPurgeJob.run(CORTE);
+
+        // ENTONCES: lo borrado queda registrado, no se sigue con el archivo y se puede relanzar
+        PurgeProgress progreso = orderPurgeJob.getProgress();
+        assertFalse(progreso.isRunning());
+        assertEquals(2L, progreso.getPurged());
+        assertEquals("Lock wait timeout exceeded", progreso.getLastError());
+        verify(orderPurgeService, never()).purgeArchivedChunk(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testDryRun_SoloCuenta() {
+        // DADO: hay pedidos por purgar
+        when(orderPurgeService.countPurgeable(CORTE.atStartOfDay())).thenReturn(1200L);
+
+        // CUANDO: se simula
+        PurgeProgress simulacion = orderPurgeJob.dryRun(CORTE);
+
+        // ENTONCES: devuelve el conteo sin borrar
+        assertTrue(simulacion.isDryRun());
+        assertEquals(1200L, simulacion.getTotal());
+        verify(orderPurgeService, never()).purgeOrdersChunk(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testStart_FechaInvalida_NoInicia() {
+        // DADO: una fecha de corte demasiado reciente
+        LocalDate reciente = LocalDate.now();
+        when(orderPurgeService.cutoff(reciente)).thenThrow(new IllegalArgumentException("Solo se pueden purgar pedidos con más de 730 días"));
+
+        // CUANDO / ENTONCES: falla antes de tomar la ejecución
+        assertThrows(IllegalArgumentException.class, () -> orderPurgeJob.start(reciente));
+        assertFalse(orderPurgeJob.getProgress().isRunning());
+        verify(orderPurgeService, never()).countPurgeable(any());
+    }
+}
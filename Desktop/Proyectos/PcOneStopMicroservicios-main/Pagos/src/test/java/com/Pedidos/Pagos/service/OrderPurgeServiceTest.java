@@ -0,0 +1,127 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.repository.ArchivedOrderItemRepository;
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderPurgeServiceTest {
+
+    @InjectMocks
+    private OrderPurgeService orderPurgeService;
+
+    @Mock
+    private PartitionedOrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Mock
+    private SellerRollupService sellerRollupService;
+
+    @Mock
+    private OrderStatusCounters statusCounters;
+
+    @Mock
+    private OrderCache orderCache;
+
+    @Test
+    public void testPurgeOrdersChunk_RestaRollupsYBorraLineasAntesQuePedidos() {
+        // DADO: dos pedidos terminados antes de la fecha de corte, en la misma partición
+        LocalDateTime corte = LocalDateTime.now().minusYears(3);
+        List<Long> ids = Arrays.asList(3L, 8L);
+        List<Object[]> agregados = List.<Object[]>of(new Object[]{5L, LocalDate.now().minusYears(4), "COMPLETADO", 2L, 5000L});
+        when(orderRepository.findArchivableIdsByPartition(eq(OrderArchiveService.ARCHIVABLE), eq(corte), eq(0L), anyInt()))
+                .thenReturn(Map.of(1, ids));
+        when(orderRepository.inPartition(eq(1), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(orderRepository.summarizeDailyByIds(ids)).thenReturn(agregados);
+
+        // CUANDO: se purga un bloque
+        List<Long> purgados = orderPurgeService.purgeOrdersChunk(corte, 0L, 1000);
+
+        // ENTONCES: se restan de rollups y contadores y se borran líneas y pedidos con un DELETE por tabla
+        assertEquals(ids, purgados);
+        verify(statusCounters).onPurged(agregados);
+        InOrder orden = inOrder(sellerRollupService, orderRepository);
+        orden.verify(sellerRollupService).onPurged(agregados);
+        orden.verify(orderRepository).deleteItemsByOrderIds(ids);
+        orden.verify(orderRepository).deleteByIds(ids);
+        verify(orderCache).evict(ids);
+    }
+
+    @Test
+    public void testPurgeArchivedChunk_BorraDelArchivo() {
+        // DADO: un pedido archivado antes de la fecha de corte
+        LocalDateTime corte = LocalDateTime.now().minusYears(3);
+        List<Long> ids = Collections.singletonList(12L);
+        when(archivedOrderRepository.findPurgeableIds(eq(corte), eq(0L), any(Pageable.class))).thenReturn(ids);
+
+        // CUANDO: se purga un bloque del archivo
+        List<Long> purgados = orderPurgeService.purgeArchivedChunk(corte, 0L, 1000);
+
+        // ENTONCES: se borran sus líneas y el pedido archivado, sin tocar las tablas activas
+        assertEquals(ids, purgados);
+        InOrder orden = inOrder(archivedOrderItemRepository, archivedOrderRepository);
+        orden.verify(archivedOrderItemRepository).deleteByOrderIds(ids);
+        orden.verify(archivedOrderRepository).deleteByIds(ids);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    public void testPurgeOrdersChunk_SinPendientes_NoModificaNada() {
+        // DADO: no quedan pedidos por purgar
+        when(orderRepository.findArchivableIdsByPartition(any(), any(), any(), anyInt())).thenReturn(Collections.emptyMap());
+
+        // CUANDO: se pide otro bloque
+        List<Long> purgados = orderPurgeService.purgeOrdersChunk(LocalDateTime.now().minusYears(3), 0L, 1000);
+
+        // ENTONCES: no se borra nada
+        assertTrue(purgados.isEmpty());
+        verifyNoInteractions(sellerRollupService, statusCounters, orderCache);
+        verify(orderRepository, never()).deleteItemsByOrderIds(any());
+        verify(orderRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    public void testCutoff_FechaReciente_Lanza() {
+        // CUANDO / ENTONCES: una fecha dentro de la antigüedad mínima se rechaza
+        assertThrows(IllegalArgumentException.class, () -> orderPurgeService.cutoff(LocalDate.now().minusDays(30)));
+        assertThrows(IllegalArgumentException.class, () -> orderPurgeService.cutoff(null));
+        assertEquals(LocalDate.of(2020, 1, 1).atStartOfDay(), orderPurgeService.cutoff(LocalDate.of(2020, 1, 1)));
+    }
+
+    @Test
+    public void testCountPurgeable_SumaActivosYArchivados() {
+        // DADO: pedidos terminados en ambas tablas
+        LocalDateTime corte = LocalDateTime.now().minusYears(3);
+        when(orderRepository.countArchivable(OrderArchiveService.ARCHIVABLE, corte)).thenReturn(40L);
+        when(archivedOrderRepository.countByCreatedAtBefore(corte)).thenReturn(1000L);
+
+        // CUANDO / ENTONCES: la simulación cuenta los de las dos
+        assertEquals(1040L, orderPurgeService.countPurgeable(corte));
+    }
+}
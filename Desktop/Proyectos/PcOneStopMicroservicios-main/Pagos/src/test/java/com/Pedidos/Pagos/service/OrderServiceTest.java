@@ -3,18 +3,32 @@ package com.Pedidos.Pagos.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.Pedidos.Pagos.dto.BulkStatusResult;
+import com.Pedidos.Pagos.dto.OrderPage;
+import com.Pedidos.Pagos.dto.OrderSearchCriteria;
+import com.Pedidos.Pagos.dto.ProductSales;
+import com.Pedidos.Pagos.model.Money;
 import com.Pedidos.Pagos.model.Order;
-import com.Pedidos.Pagos.repository.OrderRepository;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.model.OrderItem;
+import com.Pedidos.Pagos.repository.OrderItemRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @ExtendWith(MockitoExtension.class)
 public class OrderServiceTest {
@@ -23,42 +37,367 @@ public class OrderServiceTest {
     private OrderService orderService;
 
     @Mock
-    private OrderRepository orderRepository;
+    private PartitionedOrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private SellerRollupService sellerRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private OrderStatusCounters statusCounters;
+
+    @Mock
+    private OrderCache orderCache;
 
     // Tests createOrder() 
     @Test
     public void testCreateOrder_EstadoInicialPendiente() {
         // DADO: un pedido sin estado
-        Order pedido = new Order(null, 1L, 500.0, null, "1,2,3", LocalDateTime.now(), 5L);
+        Order pedido = new Order(null, 1L, Money.of(500.0), null, "1,2,3", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Map<Long, Money> precios = Map.of(1L, Money.of(100.0), 2L, Money.of(150.0), 3L, Money.of(250.0));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
 
         // CUANDO: creamos el pedido
-        Order resultado = orderService.createOrder(pedido);
+        Order resultado = orderService.createOrder(pedido, precios);
 
-        // ENTONCES: el estado es PENDIENTE
-        assertEquals("PENDIENTE", resultado.getStatus());
+        // ENTONCES: el estado es PENDIENTE y se suma al rollup del vendedor
+        assertEquals(OrderStatus.PENDIENTE, resultado.getStatus());
         verify(orderRepository).save(pedido);
+        verify(sellerRollupService).onCreated(pedido);
+        verify(statusCounters).onCreated(pedido);
+        verify(orderCache).onSaved(pedido);
+        verify(outboxService).recordCreated(pedido);
     }
 
     @Test
     public void testCreateOrder_SobreescribeEstadoSiVieneDiferente() {
         // DADO: un pedido con estado "COMPLETADO" (intento de manipulación)
-        Order pedido = new Order(null, 1L, 500.0, "COMPLETADO", "1,2", LocalDateTime.now(), 5L);
+        Order pedido = new Order(null, 1L, Money.of(500.0), OrderStatus.COMPLETADO, "1,2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Map<Long, Money> precios = Map.of(1L, Money.of(200.0), 2L, Money.of(300.0));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
 
         // CUANDO: creamos el pedido
-        Order resultado = orderService.createOrder(pedido);
+        Order resultado = orderService.createOrder(pedido, precios);
 
         // ENTONCES: siempre es PENDIENTE (se ignora el valor enviado)
-        assertEquals("PENDIENTE", resultado.getStatus());
+        assertEquals(OrderStatus.PENDIENTE, resultado.getStatus());
+    }
+
+    @Test
+    public void testCreateOrder_GeneraLineasDesdeCsv() {
+        // DADO: un pedido con el producto 4 repetido en el CSV
+        Order pedido = new Order(null, 1L, Money.of(500.0), null, "1,4,4", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Map<Long, Money> precios = Map.of(1L, Money.of(100.0), 4L, Money.of(200.0));
+        when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        // CUANDO: creamos el pedido
+        Order resultado = orderService.createOrder(pedido, precios);
+
+        // ENTONCES: hay una línea por producto y el repetido suma cantidad
+        assertEquals(2, resultado.getItems().size());
+        assertEquals(1L, resultado.getItems().get(0).getProductId());
+        assertEquals(1, resultado.getItems().get(0).getQuantity());
+        assertEquals(4L, resultado.getItems().get(1).getProductId());
+        assertEquals(2, resultado.getItems().get(1).getQuantity());
+        assertSame(resultado, resultado.getItems().get(1).getOrder());
+    }
+
+    @Test
+    public void testCreateOrder_ConLineas_CompletaCsv() {
+        // DADO: un pedido que trae sus líneas en vez del CSV
+        Order pedido = new Order(null, 1L, Money.of(500.0), null, null, LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        pedido.getItems().add(new OrderItem(null, null, 7L, 2, Money.of(200.0)));
+        pedido.getItems().add(new OrderItem(null, null, 3L, null, Money.of(100.0)));
+        Map<Long, Money> precios = Map.of(7L, Money.of(200.0), 3L, Money.of(100.0));
+        when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        // CUANDO: creamos el pedido
+        Order resultado = orderService.createOrder(pedido, precios);
+
+        // ENTONCES: productIds se mantiene para los clientes que aún lo leen
+        assertEquals("7,3", resultado.getProductIds());
+        assertEquals(1, resultado.getItems().get(1).getQuantity());
+        assertSame(resultado, resultado.getItems().get(0).getOrder());
+    }
+
+    @Test
+    public void testCreateOrder_CantidadInvalida_LanzaExcepcion() {
+        // DADO: una línea con cantidad cero
+        Order pedido = new Order(null, 1L, Money.of(500.0), null, null, LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        pedido.getItems().add(new OrderItem(null, null, 7L, 0, Money.of(200.0)));
+
+        // CUANDO/ENTONCES: se rechaza sin guardar
+        assertThrows(RuntimeException.class, () -> orderService.createOrder(pedido, Map.of()));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    public void testCreateOrder_SinTotal_LoCalculaConPreciosVigentes() {
+        // DADO: un pedido sin total y con un precio de línea desactualizado
+        Order pedido = new Order(null, 1L, null, null, null, LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        pedido.getItems().add(new OrderItem(null, null, 7L, 3, Money.of(10.0)));
+        Map<Long, Money> precios = Map.of(7L, Money.of(19.99));
+        when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        // CUANDO: creamos el pedido
+        Order resultado = orderService.createOrder(pedido, precios);
+
+        // ENTONCES: la línea toma el precio vigente y el total es exacto
+        assertEquals(Money.of(19.99), resultado.getItems().get(0).getUnitPrice());
+        assertEquals(Money.of(59.97), resultado.getTotalAmount());
+    }
+
+    @Test
+    public void testCreateOrder_TotalNoCoincide_LanzaExcepcion() {
+        // DADO: un total enviado menor al que dan los precios vigentes
+        Order pedido = new Order(null, 1L, Money.of(1.0), null, "1,2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Map<Long, Money> precios = Map.of(1L, Money.of(200.0), 2L, Money.of(300.0));
+
+        // CUANDO/ENTONCES: se rechaza sin guardar
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrder(pedido, precios));
+        assertTrue(error.getMessage().contains("500.00"));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(outboxService, never()).recordCreated(any(Order.class));
+    }
+
+    @Test
+    public void testCreateOrder_SinPrecioResuelto_LanzaExcepcion() {
+        // DADO: un producto cuyo precio no se resolvió antes de crear el pedido
+        Order pedido = new Order(null, 1L, null, null, "1,2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+
+        // CUANDO/ENTONCES: se rechaza sin guardar
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrder(pedido, Map.of(1L, Money.of(200.0))));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    public void testProductIdsOf_DesdeCsvOLineas() {
+        // CUANDO / ENTONCES: los productos se toman del CSV sin repetir, o de las líneas si las hay
+        Order desdeCsv = new Order(null, 1L, null, null, "1,4,4", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        assertEquals(Arrays.asList(1L, 4L), new ArrayList<>(OrderService.productIdsOf(desdeCsv)));
+        Order conLineas = new Order(null, 1L, null, null, null, LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        conLineas.getItems().add(new OrderItem(null, null, 7L, 2, null));
+        assertEquals(Arrays.asList(7L), new ArrayList<>(OrderService.productIdsOf(conLineas)));
+    }
+
+    // Tests createOrders()
+    @Test
+    public void testCreateOrders_GuardaTodosEnUnaLlamada() {
+        // DADO: dos pedidos de un mismo checkout, uno de ellos con estado enviado
+        Order p1 = new Order(null, 1L, Money.of(300.0), OrderStatus.COMPLETADO, null, LocalDateTime.now(), 5L, new ArrayList<>(), "chk-1");
+        p1.getItems().add(new OrderItem(null, null, 7L, 1, Money.of(300.0)));
+        Order p2 = new Order(null, 1L, Money.of(200.0), null, null, LocalDateTime.now(), 6L, new ArrayList<>(), "chk-1");
+        p2.getItems().add(new OrderItem(null, null, 8L, 2, Money.of(100.0)));
+        List<Order> pedidos = Arrays.asList(p1, p2);
+        when(orderRepository.saveAll(pedidos)).thenReturn(pedidos);
+
+        // CUANDO: se crean juntos
+        List<Order> resultado = orderService.createOrders(pedidos);
+
+        // ENTONCES: un solo saveAll, ambos PENDIENTE con sus líneas y hooks por pedido
+        verify(orderRepository, times(1)).saveAll(pedidos);
+        verify(orderRepository, never()).save(any(Order.class));
+        assertEquals(2, resultado.size());
+        assertEquals(OrderStatus.PENDIENTE, resultado.get(0).getStatus());
+        assertEquals(OrderStatus.PENDIENTE, resultado.get(1).getStatus());
+        assertEquals("8", resultado.get(1).getProductIds());
+        assertSame(p2, p2.getItems().get(0).getOrder());
+        verify(sellerRollupService).onCreated(p1);
+        verify(sellerRollupService).onCreated(p2);
+        verify(outboxService).recordCreated(p1);
+        verify(outboxService).recordCreated(p2);
+    }
+
+    // Tests migrateLegacyItems()
+    @Test
+    public void testMigrateLegacyItems_CreaLineasYDevuelveUltimoId() {
+        // DADO: un lote con dos pedidos antiguos solo con CSV
+        Order o1 = new Order(3L, 1L, Money.of(300.0), OrderStatus.PENDIENTE, "2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order o2 = new Order(8L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "[1,5]", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        when(orderRepository.findLegacyOrdersWithoutItems(eq(0L), any())).thenReturn(Arrays.asList(o1, o2));
+
+        // CUANDO: migramos el lote
+        Long ultimo = orderService.migrateLegacyItems(0L, 100);
+
+        // ENTONCES: cada pedido tiene sus líneas y el cursor avanza al último ID
+        assertEquals(8L, ultimo);
+        assertEquals(1, o1.getItems().size());
+        assertEquals(Money.of(300.0), o1.getItems().get(0).getUnitPrice());
+        assertEquals(2, o2.getItems().size());
+        assertNull(o2.getItems().get(0).getUnitPrice());
+        verify(orderRepository).saveAll(Arrays.asList(o1, o2));
+    }
+
+    @Test
+    public void testMigrateLegacyItems_SinPendientes_RetornaNull() {
+        // DADO: no quedan pedidos por migrar
+        when(orderRepository.findLegacyOrdersWithoutItems(eq(8L), any())).thenReturn(Collections.emptyList());
+
+        // CUANDO: migramos
+        Long ultimo = orderService.migrateLegacyItems(8L, 100);
+
+        // ENTONCES: no hay más lotes
+        assertNull(ultimo);
+        verify(orderRepository, never()).saveAll(any());
+    }
+
+    // Tests findPageBySellerId() 
+    @Test
+    public void testFindPageBySellerId_PrimeraPaginaConSiguiente() {
+        // DADO: el vendedor tiene más pedidos que el tamaño de página
+        LocalDateTime ahora = LocalDateTime.of(2025, 11, 3, 10, 0);
+        Order o1 = new Order(9L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", ahora, 5L, new ArrayList<>(), null);
+        Order o2 = new Order(7L, 2L, Money.of(200.0), OrderStatus.PENDIENTE, "2", ahora.minusHours(1), 5L, new ArrayList<>(), null);
+        Order o3 = new Order(4L, 3L, Money.of(300.0), OrderStatus.PENDIENTE, "3", ahora.minusHours(2), 5L, new ArrayList<>(), null);
+        when(orderRepository.findBySellerIdOrderByCreatedAtDescIdDesc(5L, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(o1, o2, o3));
+
+        // CUANDO: pedimos la primera página de 2
+        OrderPage pagina = orderService.findPageBySellerId(5L, null, 2);
+
+        // ENTONCES: se devuelven 2 pedidos y un cursor que apunta al último
+        assertEquals(Arrays.asList(o1, o2), pagina.getOrders());
+        assertEquals(OrderService.encodeCursor(o2), pagina.getNextCursor());
+    }
+
+    @Test
+    public void testFindPageBySellerId_ConCursor_ContinuaDesdeElUltimo() {
+        // DADO: un cursor de la página anterior
+        LocalDateTime fecha = LocalDateTime.of(2025, 11, 3, 9, 0);
+        Order anterior = new Order(7L, 2L, Money.of(200.0), OrderStatus.PENDIENTE, "2", fecha, 5L, new ArrayList<>(), null);
+        Order o3 = new Order(4L, 3L, Money.of(300.0), OrderStatus.PENDIENTE, "3", fecha.minusHours(1), 5L, new ArrayList<>(), null);
+        when(orderRepository.findSellerPageBefore(5L, fecha, 7L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(o3));
+
+        // CUANDO: pedimos la siguiente página
+        OrderPage pagina = orderService.findPageBySellerId(5L, OrderService.encodeCursor(anterior), 2);
+
+        // ENTONCES: es la última página
+        assertEquals(List.of(o3), pagina.getOrders());
+        assertNull(pagina.getNextCursor());
+    }
+
+    @Test
+    public void testFindPageByUserId_TamanoSeLimitaAlMaximo() {
+        // DADO: un usuario sin pedidos
+        when(orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(1L, PageRequest.of(0, OrderService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(Collections.emptyList());
+
+        // CUANDO: pedimos una página demasiado grande
+        OrderPage pagina = orderService.findPageByUserId(1L, null, 10_000);
+
+        // ENTONCES: se consulta como máximo MAX_PAGE_SIZE + 1 filas
+        assertTrue(pagina.getOrders().isEmpty());
+        assertNull(pagina.getNextCursor());
+    }
+
+    @Test
+    public void testFindPageByUserId_CursorInvalido_LanzaExcepcion() {
+        // CUANDO/ENTONCES: un cursor manipulado se rechaza
+        assertThrows(IllegalArgumentException.class, () -> orderService.findPageByUserId(1L, "no-es-un-cursor", 20));
+    }
+
+    // Tests search()
+    @Test
+    public void testSearch_CargaLaPaginaEnElOrdenDeLaBusqueda() {
+        // DADO: la búsqueda encuentra tres pedidos y se piden páginas de 2
+        LocalDateTime ahora = LocalDateTime.of(2025, 11, 3, 10, 0);
+        Order o1 = new Order(9L, 1L, Money.of(100.0), OrderStatus.COMPLETADO, "1", ahora, 5L, new ArrayList<>(), null);
+        Order o2 = new Order(7L, 2L, Money.of(200.0), OrderStatus.COMPLETADO, "2", ahora.minusHours(1), 5L, new ArrayList<>(), null);
+        OrderSearchCriteria filtros = new OrderSearchCriteria(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 30),
+                OrderStatus.COMPLETADO, null, null, null, null);
+        when(orderRepository.searchIds(filtros, null, null, 3)).thenReturn(Arrays.asList(9L, 7L, 4L));
+        when(orderRepository.findAllById(Arrays.asList(9L, 7L))).thenReturn(Arrays.asList(o2, o1));
+
+        // CUANDO: se busca la primera página
+        OrderPage pagina = orderService.search(filtros, null, 2);
+
+        // ENTONCES: se cargan solo los dos primeros, en orden, con cursor al último
+        assertEquals(Arrays.asList(o1, o2), pagina.getOrders());
+        assertEquals(OrderService.encodeCursor(o2), pagina.getNextCursor());
+    }
+
+    @Test
+    public void testSearch_ConCursor_ContinuaDesdeElUltimo() {
+        // DADO: un cursor de la página anterior y un solo pedido más
+        LocalDateTime fecha = LocalDateTime.of(2025, 11, 3, 9, 0);
+        Order anterior = new Order(7L, 2L, Money.of(200.0), OrderStatus.COMPLETADO, "2", fecha, 5L, new ArrayList<>(), null);
+        Order o3 = new Order(4L, 3L, Money.of(300.0), OrderStatus.COMPLETADO, "3", fecha.minusHours(1), 5L, new ArrayList<>(), null);
+        OrderSearchCriteria filtros = new OrderSearchCriteria(null, null, null, 5L, null, null, null);
+        when(orderRepository.searchIds(filtros, fecha, 7L, 3)).thenReturn(List.of(4L));
+        when(orderRepository.findAllById(List.of(4L))).thenReturn(List.of(o3));
+
+        // CUANDO: se pide la siguiente página
+        OrderPage pagina = orderService.search(filtros, OrderService.encodeCursor(anterior), 2);
+
+        // ENTONCES: es la última página
+        assertEquals(List.of(o3), pagina.getOrders());
+        assertNull(pagina.getNextCursor());
+    }
+
+    @Test
+    public void testSearch_RangosInvertidos_LanzaExcepcion() {
+        // CUANDO/ENTONCES: fechas o montos invertidos se rechazan sin consultar la BD
+        assertThrows(IllegalArgumentException.class, () -> orderService.search(new OrderSearchCriteria(
+                LocalDate.of(2025, 12, 1), LocalDate.of(2025, 11, 1), null, null, null, null, null), null, 20));
+        assertThrows(IllegalArgumentException.class, () -> orderService.search(new OrderSearchCriteria(
+                null, null, null, null, null, Money.of(500.0), Money.of(100.0)), null, 20));
+        verifyNoInteractions(orderRepository);
+    }
+
+    // Tests getProductSales() 
+    @Test
+    public void testGetProductSales_RetornaAgregados() {
+        // DADO: el producto 4 vendido en 2 pedidos activos y 1 archivado
+        List<Object[]> filas = Collections.singletonList(new Object[]{3L, 150000L, 2L});
+        when(orderItemRepository.summarizeSalesByProductId(4L)).thenReturn(filas);
+        when(orderArchiveService.summarizeSales(4L)).thenReturn(new Object[]{1L, 50000L, 1L});
+
+        // CUANDO: consultamos las ventas
+        ProductSales resultado = orderService.getProductSales(4L);
+
+        // ENTONCES: se suman unidades, ingresos y pedidos de ambas tablas
+        assertEquals(4L, resultado.getProductId());
+        assertEquals(4L, resultado.getUnitsSold());
+        assertEquals(Money.of(2000.0), resultado.getRevenue());
+        assertEquals(3L, resultado.getOrderCount());
+    }
+
+    // Tests includeArchived 
+    @Test
+    public void testFindBySellerId_IncludeArchived_UneAmbasTablas() {
+        // DADO: un pedido activo y uno archivado del vendedor 5
+        Order activo = new Order(9L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order archivado = new Order(2L, 1L, Money.of(200.0), OrderStatus.COMPLETADO, "2", LocalDateTime.now().minusYears(2), 5L, new ArrayList<>(), null);
+        when(orderRepository.findBySellerId(5L)).thenReturn(List.of(activo));
+        when(orderArchiveService.findBySellerId(5L)).thenReturn(List.of(archivado));
+
+        // CUANDO: se piden con y sin archivados
+        List<Order> soloActivos = orderService.findBySellerId(5L, false);
+        List<Order> todos = orderService.findBySellerId(5L, true);
+
+        // ENTONCES: por defecto solo se lee la tabla activa
+        assertEquals(List.of(activo), soloActivos);
+        assertEquals(Arrays.asList(activo, archivado), todos);
+        verify(orderArchiveService, times(1)).findBySellerId(5L);
     }
 
     // Tests findByUserId() 
     @Test
     public void testFindByUserId_RetornaPedidosDelUsuario() {
         // DADO: 2 pedidos del usuario 1
-        Order o1 = new Order(1L, 1L, 100.0, "PENDIENTE", "1", LocalDateTime.now(), 5L);
-        Order o2 = new Order(2L, 1L, 200.0, "ENVIADO", "2", LocalDateTime.now(), 5L);
+        Order o1 = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order o2 = new Order(2L, 1L, Money.of(200.0), OrderStatus.EN_CAMINO, "2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
         when(orderRepository.findByUserId(1L)).thenReturn(Arrays.asList(o1, o2));
 
         // CUANDO: buscamos por userId
@@ -84,7 +423,7 @@ public class OrderServiceTest {
     @Test
     public void testFindById_PedidoExiste() {
         // DADO: un pedido con ID 1
-        Order pedido = new Order(1L, 1L, 300.0, "PENDIENTE", "1,2", LocalDateTime.now(), 5L);
+        Order pedido = new Order(1L, 1L, Money.of(300.0), OrderStatus.PENDIENTE, "1,2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(pedido));
 
         // CUANDO: buscamos por ID
@@ -92,7 +431,7 @@ public class OrderServiceTest {
 
         // ENTONCES: retorna el pedido
         assertEquals(1L, resultado.getId());
-        assertEquals(300.0, resultado.getTotalAmount());
+        assertEquals(Money.of(300.0), resultado.getTotalAmount());
     }
 
     @Test
@@ -111,8 +450,8 @@ public class OrderServiceTest {
     @Test
     public void testFindBySellerId_RetornaPedidosDelVendedor() {
         // DADO: 2 pedidos del vendedor 5
-        Order o1 = new Order(1L, 10L, 100.0, "PENDIENTE", "1", LocalDateTime.now(), 5L);
-        Order o2 = new Order(2L, 20L, 200.0, "ENVIADO", "2", LocalDateTime.now(), 5L);
+        Order o1 = new Order(1L, 10L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order o2 = new Order(2L, 20L, Money.of(200.0), OrderStatus.EN_CAMINO, "2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
         when(orderRepository.findBySellerId(5L)).thenReturn(Arrays.asList(o1, o2));
 
         // CUANDO: buscamos por sellerId
@@ -138,39 +477,218 @@ public class OrderServiceTest {
     @Test
     public void testUpdateStatus_CambiaEstadoCorrectamente() {
         // DADO: un pedido en estado PENDIENTE
-        Order pedido = new Order(1L, 1L, 100.0, "PENDIENTE", "1", LocalDateTime.now(), 5L);
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(pedido));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
 
-        // CUANDO: actualizamos a ENVIADO
-        Order resultado = orderService.updateStatus(1L, "ENVIADO");
+        // CUANDO: actualizamos a CONFIRMADO
+        Order resultado = orderService.updateStatus(1L, OrderStatus.CONFIRMADO);
 
         // ENTONCES: el estado cambia
-        assertEquals("ENVIADO", resultado.getStatus());
+        assertEquals(OrderStatus.CONFIRMADO, resultado.getStatus());
         verify(orderRepository).save(pedido);
     }
 
     @Test
     public void testUpdateStatus_CambiarACompletado() {
-        // DADO: un pedido en estado ENVIADO
-        Order pedido = new Order(1L, 1L, 100.0, "ENVIADO", "1", LocalDateTime.now(), 5L);
+        // DADO: un pedido en estado EN_CAMINO
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.EN_CAMINO, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(pedido));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
 
         // CUANDO: actualizamos a COMPLETADO
-        Order resultado = orderService.updateStatus(1L, "COMPLETADO");
+        Order resultado = orderService.updateStatus(1L, OrderStatus.COMPLETADO);
+
+        // ENTONCES: el estado cambia y el pedido se mueve de rollup
+        assertEquals(OrderStatus.COMPLETADO, resultado.getStatus());
+        verify(sellerRollupService).onStatusChanged(pedido, OrderStatus.EN_CAMINO);
+        verify(statusCounters).onStatusChanged(pedido, OrderStatus.EN_CAMINO);
+        verify(orderCache).onStatusChanged(pedido);
+        verify(outboxService).recordStatusChanged(pedido, OrderStatus.EN_CAMINO);
+    }
 
-        // ENTONCES: el estado cambia
-        assertEquals("COMPLETADO", resultado.getStatus());
+    @Test
+    public void testUpdateStatus_TransicionNoPermitida_LanzaExcepcion() {
+        // DADO: un pedido PENDIENTE (todavía no confirmado)
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(pedido));
+
+        // CUANDO/ENTONCES: no se puede saltar directo a COMPLETADO
+        assertThrows(IllegalArgumentException.class, () -> orderService.updateStatus(1L, OrderStatus.COMPLETADO));
+        assertEquals(OrderStatus.PENDIENTE, pedido.getStatus());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    public void testUpdateStatus_EstadoFinal_NoSePuedeReabrir() {
+        // DADO: un pedido cancelado
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.CANCELADO, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(pedido));
+
+        // CUANDO/ENTONCES: no vuelve a PENDIENTE
+        assertThrows(IllegalArgumentException.class, () -> orderService.updateStatus(1L, OrderStatus.PENDIENTE));
+    }
+
+    @Test
+    public void testUpdateStatus_MismoEstado_NoGuarda() {
+        // DADO: un pedido ya CONFIRMADO
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.CONFIRMADO, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(pedido));
+
+        // CUANDO: se repite la misma actualización
+        Order resultado = orderService.updateStatus(1L, OrderStatus.CONFIRMADO);
+
+        // ENTONCES: no hay cambios
+        assertEquals(OrderStatus.CONFIRMADO, resultado.getStatus());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    // Tests updateStatusBulk() 
+    @Test
+    public void testUpdateStatusBulk_ResultadoPorPedido() {
+        // DADO: dos pedidos confirmados, uno pendiente, uno de otro vendedor y un ID inexistente
+        Order c1 = new Order(1L, 1L, Money.of(100.0), OrderStatus.CONFIRMADO, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order c2 = new Order(2L, 1L, Money.of(200.0), OrderStatus.CONFIRMADO, "2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order pendiente = new Order(3L, 1L, Money.of(300.0), OrderStatus.PENDIENTE, "3", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order ajeno = new Order(4L, 1L, Money.of(400.0), OrderStatus.CONFIRMADO, "4", LocalDateTime.now(), 9L, new ArrayList<>(), null);
+        List<Long> ids = Arrays.asList(1L, 2L, 3L, 4L, 99L);
+        when(orderRepository.findAllById(ids)).thenReturn(Arrays.asList(c1, c2, pendiente, ajeno));
+        when(orderRepository.updateStatusBulk(Arrays.asList(1L, 2L), OrderStatus.CONFIRMADO, OrderStatus.EN_CAMINO))
+                .thenReturn(2);
+
+        // CUANDO: el vendedor 5 despacha todos
+        List<BulkStatusResult> resultados = orderService.updateStatusBulk(ids, OrderStatus.EN_CAMINO, 5L);
+
+        // ENTONCES: solo los confirmados del vendedor cambian, con un solo UPDATE
+        assertEquals(5, resultados.size());
+        assertTrue(resultados.get(0).isUpdated());
+        assertTrue(resultados.get(1).isUpdated());
+        assertFalse(resultados.get(2).isUpdated());
+        assertEquals(OrderStatus.PENDIENTE, resultados.get(2).getPreviousStatus());
+        assertFalse(resultados.get(3).isUpdated());
+        assertEquals("El pedido no pertenece al vendedor", resultados.get(3).getMessage());
+        assertFalse(resultados.get(4).isUpdated());
+        assertNull(resultados.get(4).getPreviousStatus());
+        verify(orderRepository, times(1)).updateStatusBulk(any(), any(), any());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(sellerRollupService).onStatusChanged(c1, OrderStatus.CONFIRMADO);
+        verify(sellerRollupService).onStatusChanged(c2, OrderStatus.CONFIRMADO);
+        verify(statusCounters).onStatusChanged(c1, OrderStatus.CONFIRMADO);
+        verify(statusCounters).onStatusChanged(c2, OrderStatus.CONFIRMADO);
+    }
+
+    @Test
+    public void testUpdateStatusBulk_CambioConcurrente_SeInforma() {
+        // DADO: uno de los pedidos cambió de estado entre la lectura y el UPDATE
+        Order c1 = new Order(1L, 1L, Money.of(100.0), OrderStatus.CONFIRMADO, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order c2 = new Order(2L, 1L, Money.of(200.0), OrderStatus.CONFIRMADO, "2", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        List<Long> ids = Arrays.asList(1L, 2L);
+        when(orderRepository.findAllById(ids)).thenReturn(Arrays.asList(c1, c2));
+        when(orderRepository.updateStatusBulk(ids, OrderStatus.CONFIRMADO, OrderStatus.EN_CAMINO)).thenReturn(1);
+        when(orderRepository.findStatusesByIdIn(ids)).thenReturn(Arrays.asList(
+                new Object[]{1L, OrderStatus.EN_CAMINO},
+                new Object[]{2L, OrderStatus.CANCELADO}));
+
+        // CUANDO: se aplica el cambio masivo
+        List<BulkStatusResult> resultados = orderService.updateStatusBulk(ids, OrderStatus.EN_CAMINO, null);
+
+        // ENTONCES: solo el pedido realmente actualizado se informa como tal
+        assertTrue(resultados.get(0).isUpdated());
+        assertFalse(resultados.get(1).isUpdated());
+        verify(sellerRollupService, times(1)).onStatusChanged(any(Order.class), any());
+    }
+
+    @Test
+    public void testUpdateStatusBulk_DemasiadosPedidos_LanzaExcepcion() {
+        // DADO: más pedidos que el máximo permitido
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= OrderService.MAX_BULK_ORDERS + 1; i++) {
+            ids.add(i);
+        }
+
+        // CUANDO/ENTONCES: se rechaza sin consultar la BD
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.updateStatusBulk(ids, OrderStatus.EN_CAMINO, null));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    public void testOrderStatusFrom_IgnoraMayusculas() {
+        // CUANDO/ENTONCES: "completado" se reconoce igual que "COMPLETADO"
+        assertEquals(OrderStatus.COMPLETADO, OrderStatus.from("completado"));
+        assertThrows(IllegalArgumentException.class, () -> OrderStatus.from("ENVIADO"));
+    }
+
+    // Tests findCachedById() / awaitStatusChange()
+    @Test
+    public void testFindCachedById_EnCache_NoConsultaLaBd() {
+        // DADO: el pedido está en caché
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        when(orderCache.get(1L)).thenReturn(pedido);
+
+        // CUANDO: se lee para mostrarlo
+        Order resultado = orderService.findCachedById(1L);
+
+        // ENTONCES: se devuelve sin ir a la BD
+        assertSame(pedido, resultado);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    public void testFindCachedById_NoEstaEnCache_LoCarga() {
+        // DADO: el pedido no está en caché
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        Order copia = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", pedido.getCreatedAt(), 5L, new ArrayList<>(), null);
+        when(orderCache.writeMark(1L)).thenReturn(7L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(pedido));
+        when(orderCache.load(pedido, 7L)).thenReturn(copia);
+
+        // CUANDO: se lee para mostrarlo
+        Order resultado = orderService.findCachedById(1L);
+
+        // ENTONCES: se lee de la BD con la marca tomada antes de leer
+        assertSame(copia, resultado);
+    }
+
+    @Test
+    public void testAwaitStatusChange_EstadoYaCambio_RespondeDeInmediato() {
+        // DADO: el cliente conoce PENDIENTE pero el pedido ya está CONFIRMADO
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.CONFIRMADO, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        CompletableFuture<Order> espera = new CompletableFuture<>();
+        when(orderCache.watch(1L)).thenReturn(espera);
+        when(orderCache.get(1L)).thenReturn(pedido);
+
+        // CUANDO: se espera un cambio
+        CompletableFuture<Order> resultado = orderService.awaitStatusChange(1L, OrderStatus.PENDIENTE);
+
+        // ENTONCES: ya está completo y la espera registrada se libera
+        assertSame(pedido, resultado.join());
+        assertTrue(espera.isCancelled());
+    }
+
+    @Test
+    public void testAwaitStatusChange_MismoEstado_Espera() {
+        // DADO: el pedido sigue PENDIENTE
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        CompletableFuture<Order> espera = new CompletableFuture<>();
+        when(orderCache.watch(1L)).thenReturn(espera);
+        when(orderCache.get(1L)).thenReturn(pedido);
+
+        // CUANDO: se espera un cambio
+        CompletableFuture<Order> resultado = orderService.awaitStatusChange(1L, OrderStatus.PENDIENTE);
+
+        // ENTONCES: se devuelve la espera pendiente
+        assertSame(espera, resultado);
+        assertFalse(resultado.isDone());
     }
 
     // Tests findAll() 
     @Test
     public void testFindAll_RetornaTodosLosPedidos() {
         // DADO: 3 pedidos en la BD
-        Order o1 = new Order(1L, 1L, 100.0, "PENDIENTE", "1", LocalDateTime.now(), 2L);
-        Order o2 = new Order(2L, 2L, 200.0, "COMPLETADO", "2,3", LocalDateTime.now(), 3L);
-        Order o3 = new Order(3L, 1L, 150.0, "EN_CAMINO", "4", LocalDateTime.now(), 2L);
+        Order o1 = new Order(1L, 1L, Money.of(100.0), OrderStatus.PENDIENTE, "1", LocalDateTime.now(), 2L, new ArrayList<>(), null);
+        Order o2 = new Order(2L, 2L, Money.of(200.0), OrderStatus.COMPLETADO, "2,3", LocalDateTime.now(), 3L, new ArrayList<>(), null);
+        Order o3 = new Order(3L, 1L, Money.of(150.0), OrderStatus.EN_CAMINO, "4", LocalDateTime.now(), 2L, new ArrayList<>(), null);
         when(orderRepository.findAll()).thenReturn(Arrays.asList(o1, o2, o3));
 
         // CUANDO: obtenemos todos
@@ -205,6 +723,22 @@ public class OrderServiceTest {
         verify(orderRepository).deleteById(1L);
     }
 
+    @Test
+    public void testDeleteById_RestaDelRollup() {
+        // DADO: un pedido completado que existe
+        Order pedido = new Order(1L, 1L, Money.of(100.0), OrderStatus.COMPLETADO, "1", LocalDateTime.now(), 5L, new ArrayList<>(), null);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(pedido));
+
+        // CUANDO: eliminamos el pedido
+        orderService.deleteById(1L);
+
+        // ENTONCES: se descuenta de los rollups y de los contadores del vendedor
+        verify(sellerRollupService).onDeleted(pedido);
+        verify(statusCounters).onDeleted(pedido);
+        verify(orderRepository).deleteById(1L);
+        verify(orderCache).onDeleted(1L);
+    }
+
     @Test
     public void testDeleteById_NoLanzaExcepcionSiNoExiste() {
         // DADO: un ID que no existe
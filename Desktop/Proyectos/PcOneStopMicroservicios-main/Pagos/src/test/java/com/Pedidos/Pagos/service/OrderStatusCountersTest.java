@@ -0,0 +1,207 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.dto.OrderStatusCounts;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderStatusCountersTest {
+
+    @InjectMocks
+    private OrderStatusCounters counters;
+
+    @Mock
+    private PartitionedOrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private static Order pedido(Long sellerId, OrderStatus status) {
+        return new Order(null, 1L, Money.of(100.0), status, "1", LocalDateTime.now(), sellerId, new ArrayList<>(), null);
+    }
+
+    @Test
+    public void testCambios_AjustanGlobalYVendedor() {
+        // DADO: dos pedidos nuevos de vendedores distintos
+        Order p1 = pedido(2L, OrderStatus.PENDIENTE);
+        Order p2 = pedido(3L, OrderStatus.PENDIENTE);
+        counters.onCreated(p1);
+        counters.onCreated(p2);
+
+        // CUANDO: uno se confirma y el otro se cancela y se elimina
+        p1.setStatus(OrderStatus.CONFIRMADO);
+        counters.onStatusChanged(p1, OrderStatus.PENDIENTE);
+        p2.setStatus(OrderStatus.CANCELADO);
+        counters.onStatusChanged(p2, OrderStatus.PENDIENTE);
+        counters.onDeleted(p2);
+
+        // ENTONCES: los contadores reflejan cada cambio
+        OrderStatusCounts global = counters.getGlobalCounts();
+        assertEquals(1L, global.getTotal());
+        assertEquals(0L, global.getByStatus().get(OrderStatus.PENDIENTE));
+        assertEquals(1L, global.getByStatus().get(OrderStatus.CONFIRMADO));
+        assertEquals(0L, global.getByStatus().get(OrderStatus.CANCELADO));
+        assertEquals(1L, counters.getSellerCounts(2L).getByStatus().get(OrderStatus.CONFIRMADO));
+        assertEquals(0L, counters.getSellerCounts(3L).getTotal());
+    }
+
+    @Test
+    public void testGetSellerCounts_SinPedidos_EnCero() {
+        // DADO: un vendedor sin pedidos
+        // CUANDO: se consultan sus contadores
+        OrderStatusCounts conteo = counters.getSellerCounts(9L);
+
+        // ENTONCES: todos los estados en cero
+        assertEquals(9L, conteo.getSellerId());
+        assertEquals(0L, conteo.getTotal());
+        assertEquals(OrderStatus.values().length, conteo.getByStatus().size());
+    }
+
+    @Test
+    public void testRebuild_SumaPedidosYArchivados() {
+        // DADO: pedidos activos y archivados en la BD, y un contador desfasado en memoria
+        counters.onCreated(pedido(2L, OrderStatus.PENDIENTE));
+        when(orderRepository.countBySellerAndStatus()).thenReturn(Arrays.asList(
+                new Object[]{2L, OrderStatus.PENDIENTE, 4L},
+                new Object[]{3L, OrderStatus.EN_CAMINO, 1L}));
+        when(archivedOrderRepository.countBySellerAndStatus()).thenReturn(Collections.singletonList(
+                new Object[]{2L, OrderStatus.COMPLETADO, 10L}));
+
+        // CUANDO: se reconstruyen
+        counters.rebuild();
+
+        // ENTONCES: quedan los valores de la BD
+        OrderStatusCounts global = counters.getGlobalCounts();
+        assertEquals(15L, global.getTotal());
+        assertEquals(4L, global.getByStatus().get(OrderStatus.PENDIENTE));
+        OrderStatusCounts vendedor = counters.getSellerCounts(2L);
+        assertEquals(14L, vendedor.getTotal());
+        assertEquals(10L, vendedor.getByStatus().get(OrderStatus.COMPLETADO));
+    }
+
+    @Test
+    public void testRebuild_CambioDuranteLaLectura_NoSePierde() {
+        // DADO: mientras se leen los pedidos activos se confirma uno nuevo que la lectura no vio
+        when(orderRepository.countBySellerAndStatus()).thenAnswer(invocation -> {
+            counters.onCreated(pedido(2L, OrderStatus.PENDIENTE));
+            return Collections.singletonList(new Object[]{2L, OrderStatus.PENDIENTE, 4L});
+        });
+        when(archivedOrderRepository.countBySellerAndStatus()).thenReturn(Collections.emptyList());
+
+        // CUANDO: se reconstruyen
+        counters.rebuild();
+
+        // ENTONCES: el pedido confirmado durante el recálculo se suma a lo leído
+        assertEquals(5L, counters.getGlobalCounts().getByStatus().get(OrderStatus.PENDIENTE));
+        assertEquals(5L, counters.getSellerCounts(2L).getTotal());
+
+        // Y los cambios posteriores ya no se registran aparte
+        counters.onCreated(pedido(2L, OrderStatus.PENDIENTE));
+        assertEquals(6L, counters.getSellerCounts(2L).getTotal());
+    }
+
+    @Test
+    public void testRebuild_CambioAntesDeLaFoto_NoSeCuentaDosVeces() {
+        // DADO: un pedido que confirma antes de que la transacción tome la foto (ya está en los conteos)
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            counters.onCreated(pedido(2L, OrderStatus.PENDIENTE));
+            return Collections.singletonList(51L);
+        });
+        when(orderRepository.countBySellerAndStatus()).thenReturn(Collections.singletonList(
+                new Object[]{2L, OrderStatus.PENDIENTE, 5L}));
+        when(archivedOrderRepository.countBySellerAndStatus()).thenReturn(Collections.emptyList());
+
+        // CUANDO: se reconstruyen
+        counters.rebuild();
+
+        // ENTONCES: queda una sola vez, y todos los conteos se leen en una transacción REPEATABLE_READ después de la foto
+        assertEquals(5L, counters.getSellerCounts(2L).getTotal());
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        InOrder orden = inOrder(jdbcTemplate, orderRepository, archivedOrderRepository, transactionManager);
+        orden.verify(jdbcTemplate).queryForList(anyString(), eq(Long.class));
+        orden.verify(orderRepository).countBySellerAndStatus();
+        orden.verify(archivedOrderRepository).countBySellerAndStatus();
+        orden.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void testRebuild_FallaLaLectura_ConservaContadores() {
+        // DADO: contadores en memoria y la BD no responde
+        counters.onCreated(pedido(2L, OrderStatus.PENDIENTE));
+        when(orderRepository.countBySellerAndStatus()).thenThrow(new RuntimeException("Communications link failure"));
+
+        // CUANDO / ENTONCES: el recálculo falla sin tocar los contadores
+        assertThrows(RuntimeException.class, () -> counters.rebuild());
+        counters.onCreated(pedido(2L, OrderStatus.PENDIENTE));
+        assertEquals(2L, counters.getSellerCounts(2L).getTotal());
+    }
+
+    @Test
+    public void testOnPurged_RestaPorVendedorYEstado() {
+        // DADO: tres pedidos completados del vendedor 2
+        for (int i = 0; i < 3; i++) {
+            counters.onCreated(pedido(2L, OrderStatus.COMPLETADO));
+        }
+
+        // CUANDO: se purgan dos, informados como agregados diarios
+        counters.onPurged(Collections.singletonList(
+                new Object[]{2L, java.sql.Date.valueOf("2021-03-01"), "COMPLETADO", 2L, 20000L}));
+
+        // ENTONCES: se restan sin recalcular desde la BD
+        assertEquals(1L, counters.getSellerCounts(2L).getByStatus().get(OrderStatus.COMPLETADO));
+        assertEquals(1L, counters.getGlobalCounts().getTotal());
+        verifyNoInteractions(orderRepository, archivedOrderRepository);
+    }
+
+    @Test
+    public void testEnTransaccion_SoloSeAplicaAlConfirmar() {
+        // DADO: una transacción activa
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // CUANDO: se crea un pedido dentro de ella
+            counters.onCreated(pedido(2L, OrderStatus.PENDIENTE));
+
+            // ENTONCES: no se cuenta hasta que la transacción confirma
+            assertEquals(0L, counters.getGlobalCounts().getTotal());
+            List<TransactionSynchronization> pendientes = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, pendientes.size());
+            pendientes.forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1L, counters.getGlobalCounts().getTotal());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.model.OutboxEvent;
+import com.Pedidos.Pagos.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxBatchServiceTest {
+
+    @InjectMocks
+    private OutboxBatchService outboxBatchService;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxEvent evento(long id, LocalDateTime leaseUntil) {
+        return new OutboxEvent(id, 10L + id, OutboxEvent.ORDER_CREATED, "{}", LocalDateTime.now(), null, 0, null,
+                leaseUntil);
+    }
+
+    @Test
+    public void testClaimNextBatch_TomaElLote() {
+        // DADO: dos eventos pendientes, uno con un lease ya vencido
+        List<OutboxEvent> lote = Arrays.asList(evento(1, LocalDateTime.now().minusMinutes(5)), evento(2, null));
+        when(outboxEventRepository.findNextBatch(any(Pageable.class))).thenReturn(lote);
+        LocalDateTime hasta = LocalDateTime.now().plusMinutes(1);
+
+        // CUANDO: se toma el siguiente lote
+        List<OutboxEvent> tomados = outboxBatchService.claimNextBatch(100, hasta);
+
+        // ENTONCES: ambos quedan tomados hasta la fecha indicada
+        assertEquals(2, tomados.size());
+        assertEquals(hasta, lote.get(0).getLeaseUntil());
+        assertEquals(hasta, lote.get(1).getLeaseUntil());
+    }
+
+    @Test
+    public void testClaimNextBatch_LeaseVigente_NoToma() {
+        // DADO: el primer evento está esperando un reintento
+        LocalDateTime reintento = LocalDateTime.now().plusSeconds(30);
+        List<OutboxEvent> lote = Arrays.asList(evento(1, reintento), evento(2, null));
+        when(outboxEventRepository.findNextBatch(any(Pageable.class))).thenReturn(lote);
+
+        // CUANDO: otro relay intenta tomar el lote
+        List<OutboxEvent> tomados = outboxBatchService.claimNextBatch(100, LocalDateTime.now().plusMinutes(1));
+
+        // ENTONCES: no toma nada, ni siquiera el segundo, para no desordenar la entrega
+        assertTrue(tomados.isEmpty());
+        assertEquals(reintento, lote.get(0).getLeaseUntil());
+        assertNull(lote.get(1).getLeaseUntil());
+    }
+
+    @Test
+    public void testMarkFailed_RegistraEnElPrimeroYRetieneElLote() {
+        // DADO: un lote que no se pudo entregar
+        List<Long> ids = Arrays.asList(1L, 2L);
+        LocalDateTime reintento = LocalDateTime.now().plusSeconds(2);
+
+        // CUANDO: se registra el fallo
+        outboxBatchService.markFailed(ids, "Read timed out", reintento);
+
+        // ENTONCES: el intento se cuenta en el primero y todo el lote espera al reintento
+        verify(outboxEventRepository).recordFailure(1L, "Read timed out");
+        verify(outboxEventRepository).extendLease(ids, reintento);
+    }
+}
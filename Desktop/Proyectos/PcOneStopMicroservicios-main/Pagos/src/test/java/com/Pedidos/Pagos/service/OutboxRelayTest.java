@@ -0,0 +1,144 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.dto.OutboxStats;
+import com.Pedidos.Pagos.model.OutboxEvent;
+import com.Pedidos.Pagos.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxBatchService outboxBatchService;
+
+    private RecordingOrderEventSink sink;
+
+    @BeforeEach
+    void setUp() {
+        sink = new RecordingOrderEventSink();
+        ReflectionTestUtils.setField(outboxRelay, "sinks", List.of(sink));
+    }
+
+    private OutboxEvent evento(long id) {
+        return new OutboxEvent(id, 10L + id, OutboxEvent.ORDER_CREATED, "{\"orderId\":" + (10 + id) + "}",
+                LocalDateTime.now(), null, 0, null, null);
+    }
+
+    @Test
+    public void testRelay_EntregaEnOrdenYMarcaPublicados() {
+        // DADO: dos eventos pendientes
+        List<OutboxEvent> lote = Arrays.asList(evento(1), evento(2));
+        when(outboxBatchService.claimNextBatch(anyInt(), any())).thenReturn(lote);
+
+        // CUANDO: corre el relay
+        int entregados = outboxRelay.relay();
+
+        // ENTONCES: el destino los recibe en orden y se marcan publicados después de entregarlos
+        assertEquals(2, entregados);
+        assertEquals(1, sink.getBatches().size());
+        assertEquals(1L, sink.getBatches().get(0).get(0).getId());
+        assertEquals(2L, sink.getBatches().get(0).get(1).getId());
+        verify(outboxBatchService).markPublished(eq(Arrays.asList(1L, 2L)), any(LocalDateTime.class));
+        verify(outboxBatchService, never()).markFailed(any(), any(), any());
+    }
+
+    @Test
+    public void testRelay_FalloDelDestino_NoMarcaYReintenta() {
+        // DADO: el destino no responde
+        List<OutboxEvent> lote = Arrays.asList(evento(1), evento(2));
+        when(outboxBatchService.claimNextBatch(anyInt(), any())).thenReturn(lote);
+        sink.failWith(new RuntimeException("Connection refused"));
+        LocalDateTime antes = LocalDateTime.now();
+
+        // CUANDO: corre el relay
+        int entregados = outboxRelay.relay();
+
+        // ENTONCES: nada queda publicado y el lote se retiene hasta el reintento
+        assertEquals(0, entregados);
+        verify(outboxBatchService, never()).markPublished(any(), any());
+        ArgumentCaptor<LocalDateTime> reintento = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxBatchService).markFailed(eq(Arrays.asList(1L, 2L)), eq("Connection refused"), reintento.capture());
+        assertTrue(reintento.getValue().isAfter(antes.plusNanos(900_000_000L)));
+        assertEquals("Connection refused", outboxRelay.getStats().getLastError());
+    }
+
+    @Test
+    public void testRelay_LoteTomadoPorOtroRelay_NoEntrega() {
+        // DADO: el siguiente lote está tomado por otra instancia o esperando reintento
+        when(outboxBatchService.claimNextBatch(anyInt(), any())).thenReturn(Collections.emptyList());
+
+        // CUANDO: corre el relay
+        int entregados = outboxRelay.relay();
+
+        // ENTONCES: no se entrega nada ni se adelantan eventos
+        assertEquals(0, entregados);
+        assertTrue(sink.getBatches().isEmpty());
+        verify(outboxBatchService, never()).markPublished(any(), any());
+    }
+
+    @Test
+    public void testBackoffMillis_DuplicaHastaElMaximo() {
+        // CUANDO / ENTONCES: 1 s, 2 s, 4 s... sin pasar de max-backoff-ms
+        assertEquals(1000L, outboxRelay.backoffMillis(1));
+        assertEquals(2000L, outboxRelay.backoffMillis(2));
+        assertEquals(4000L, outboxRelay.backoffMillis(3));
+        assertEquals(60_000L, outboxRelay.backoffMillis(10));
+        assertEquals(60_000L, outboxRelay.backoffMillis(500));
+    }
+
+    @Test
+    public void testRelay_SinDestinos_NoConsulta() {
+        // DADO: no hay destinos configurados
+        ReflectionTestUtils.setField(outboxRelay, "sinks", new ArrayList<OrderEventSink>());
+
+        // CUANDO: corre el relay
+        int entregados = outboxRelay.relay();
+
+        // ENTONCES: los eventos quedan pendientes hasta que exista un destino
+        assertEquals(0, entregados);
+        verifyNoInteractions(outboxEventRepository, outboxBatchService);
+    }
+
+    @Test
+    public void testGetStats_RetrasoYThroughput() {
+        // DADO: un lote entregado y un evento pendiente desde hace 30 segundos
+        when(outboxBatchService.claimNextBatch(anyInt(), any())).thenReturn(Arrays.asList(evento(1), evento(2)));
+        outboxRelay.relay();
+        when(outboxEventRepository.countByPublishedAtIsNull()).thenReturn(1L);
+        when(outboxEventRepository.findOldestPendingCreatedAt()).thenReturn(LocalDateTime.now().minusSeconds(30));
+
+        // CUANDO: se consultan las métricas
+        OutboxStats stats = outboxRelay.getStats();
+
+        // ENTONCES: reflejan el pendiente y lo entregado
+        assertEquals(1L, stats.getPending());
+        assertTrue(stats.getLagSeconds() >= 30);
+        assertEquals(2L, stats.getDeliveredTotal());
+        assertTrue(stats.getThroughputPerSecond() > 0);
+    }
+}
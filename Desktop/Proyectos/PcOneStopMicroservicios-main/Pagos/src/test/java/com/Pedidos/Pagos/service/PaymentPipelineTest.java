@@ -0,0 +1,185 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.dto.BulkStatusResult;
+import com.Pedidos.Pagos.dto.PaymentStats;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentPipelineTest {
+
+    @InjectMocks
+    private PaymentPipeline paymentPipeline;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PartitionedOrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentPipeline, "queueCapacity", 3);
+        ReflectionTestUtils.setField(paymentPipeline, "batchSize", 10);
+        ReflectionTestUtils.setField(paymentPipeline, "maxAttempts", 2);
+        ReflectionTestUtils.setField(paymentPipeline, "backoffMillis", 0L);
+        paymentPipeline.init();
+    }
+
+    private static Order pedido(Long id, double total) {
+        return new Order(id, 4L, Money.of(total), OrderStatus.PENDIENTE, null, LocalDateTime.now(), 2L,
+                new ArrayList<>(), "0f8fad5b-d9cb-469f-a165-70867728950e");
+    }
+
+    // updateStatusBulk que actualiza todos los pedidos recibidos
+    @SuppressWarnings("unchecked")
+    private void actualizaTodos() {
+        when(orderService.updateStatusBulk(anyList(), any(OrderStatus.class), isNull())).thenAnswer(inv ->
+                ((List<Long>) inv.getArgument(0)).stream()
+                        .map(id -> new BulkStatusResult(id, true, OrderStatus.PENDIENTE, "Estado actualizado"))
+                        .toList());
+    }
+
+    @Test
+    public void testProcessBatch_AprobadosYRechazados() throws Exception {
+        // DADO: tres pedidos encolados, uno rechazado por la pasarela
+        actualizaTodos();
+        when(paymentGateway.confirm(anyList())).thenReturn(Map.of(
+                1L, PaymentGateway.Result.APROBADO,
+                2L, PaymentGateway.Result.RECHAZADO,
+                3L, PaymentGateway.Result.APROBADO));
+        assertEquals(3, paymentPipeline.submit(Arrays.asList(pedido(1L, 100.0), pedido(2L, 9_000_000.0), pedido(3L, 50.0))));
+
+        // CUANDO: un worker toma el lote
+        int procesados = paymentPipeline.processBatch(0);
+
+        // ENTONCES: se cobran en una sola llamada y se aplican por estado
+        assertEquals(3, procesados);
+        verify(paymentGateway, times(1)).confirm(anyList());
+        verify(orderService).updateStatusBulk(Arrays.asList(1L, 3L), OrderStatus.CONFIRMADO, null);
+        verify(orderService).updateStatusBulk(List.of(2L), OrderStatus.CANCELADO, null);
+        PaymentStats stats = paymentPipeline.getStats();
+        assertEquals(0L, stats.getQueued());
+        assertEquals(2L, stats.getConfirmed());
+        assertEquals(1L, stats.getRejected());
+        assertEquals(1L, stats.getGatewayLatency().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(3L, stats.getEndToEndLatency().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testProcessBatch_PasarelaCaida_ReintentaConBackoff() throws Exception {
+        // DADO: la pasarela falla la primera vez
+        actualizaTodos();
+        when(paymentGateway.confirm(anyList()))
+                .thenThrow(new IllegalStateException("Connection refused"))
+                .thenReturn(Map.of(1L, PaymentGateway.Result.APROBADO));
+        paymentPipeline.submit(List.of(pedido(1L, 100.0)));
+
+        // CUANDO: se procesa dos veces
+        paymentPipeline.processBatch(0);
+        PaymentStats intermedio = paymentPipeline.getStats();
+        paymentPipeline.processBatch(0);
+
+        // ENTONCES: el primer intento queda en reintento y el segundo confirma
+        assertEquals(1L, intermedio.getRetrying());
+        assertEquals("Connection refused", intermedio.getLastError());
+        PaymentStats stats = paymentPipeline.getStats();
+        assertEquals(1L, stats.getRetries());
+        assertEquals(1L, stats.getConfirmed());
+        assertEquals(0L, stats.getRetrying());
+    }
+
+    @Test
+    public void testProcessBatch_ReintentosAgotados_SeAbandona() throws Exception {
+        // DADO: la pasarela no informa el resultado del pedido
+        when(paymentGateway.confirm(anyList())).thenReturn(Collections.emptyMap());
+        paymentPipeline.submit(List.of(pedido(1L, 100.0)));
+
+        // CUANDO: se agotan los intentos
+        paymentPipeline.processBatch(0);
+        paymentPipeline.processBatch(0);
+
+        // ENTONCES: se abandona sin tocar el pedido y se puede volver a encolar
+        assertEquals(1L, paymentPipeline.getStats().getAbandoned());
+        verifyNoInteractions(orderService);
+        assertEquals(1, paymentPipeline.submit(List.of(pedido(1L, 100.0))));
+    }
+
+    @Test
+    public void testProcessBatch_ErrorDeBd_Reintenta() throws Exception {
+        // DADO: la pasarela aprueba pero la BD falla al aplicar
+        when(paymentGateway.confirm(anyList())).thenReturn(Map.of(1L, PaymentGateway.Result.APROBADO));
+        when(orderService.updateStatusBulk(anyList(), eq(OrderStatus.CONFIRMADO), isNull()))
+                .thenThrow(new RuntimeException("Lock wait timeout exceeded"));
+        paymentPipeline.submit(List.of(pedido(1L, 100.0)));
+
+        // CUANDO: se procesa
+        paymentPipeline.processBatch(0);
+
+        // ENTONCES: el cobro vuelve a la cola de reintentos
+        PaymentStats stats = paymentPipeline.getStats();
+        assertEquals(1L, stats.getRetrying());
+        assertEquals(0L, stats.getConfirmed());
+    }
+
+    @Test
+    public void testSubmit_ColaLlena_NoBloquea() {
+        // DADO: una cola con capacidad 3
+        // CUANDO: se encolan cinco pedidos y uno repetido
+        int aceptados = paymentPipeline.submit(Arrays.asList(pedido(1L, 1.0), pedido(2L, 1.0), pedido(1L, 1.0),
+                pedido(3L, 1.0), pedido(4L, 1.0), pedido(5L, 1.0)));
+
+        // ENTONCES: entran tres y el resto queda para el barrido
+        assertEquals(3, aceptados);
+        PaymentStats stats = paymentPipeline.getStats();
+        assertEquals(3L, stats.getQueued());
+        assertEquals(2L, stats.getOverflowed());
+    }
+
+    @Test
+    public void testProcessBatch_ColaVacia_NoLlamaALaPasarela() {
+        // CUANDO: no hay cobros pendientes
+        // ENTONCES: el worker vuelve sin hacer nada
+        assertEquals(0, paymentPipeline.processBatch(0));
+        verifyNoInteractions(paymentGateway);
+    }
+
+    @Test
+    public void testEnqueueUnpaid_EncolaPendientesDeCheckout() {
+        // DADO: dos pedidos de checkout PENDIENTE olvidados, uno ya en la cola
+        paymentPipeline.submit(List.of(pedido(7L, 10.0)));
+        when(orderRepository.findUnpaidCheckoutOrders(eq(OrderStatus.PENDIENTE), any(LocalDateTime.class), eq(0L), any()))
+                .thenReturn(Arrays.asList(
+                        new Object[]{7L, 4L, Money.of(10.0), LocalDateTime.now().minusHours(2)},
+                        new Object[]{8L, 5L, Money.of(20.0), LocalDateTime.now().minusHours(1)}));
+
+        // CUANDO: corre el barrido
+        int encolados = paymentPipeline.enqueueUnpaid();
+
+        // ENTONCES: solo se encola el que faltaba
+        assertEquals(1, encolados);
+        assertEquals(2L, paymentPipeline.getStats().getQueued());
+    }
+}
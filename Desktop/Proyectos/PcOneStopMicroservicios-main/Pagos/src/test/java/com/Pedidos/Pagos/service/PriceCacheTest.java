@@ -0,0 +1,108 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Pedidos.Pagos.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+public class PriceCacheTest {
+
+    private PriceCache priceCache;
+    private InMemoryInventarioClient inventario;
+
+    @BeforeEach
+    void setUp() {
+        inventario = new InMemoryInventarioClient()
+                .withProduct(1L, 2L, 10, 2599.0)
+                .withProduct(2L, 2L, 5, 1299.0);
+        priceCache = new PriceCache();
+        ReflectionTestUtils.setField(priceCache, "inventarioClient", inventario);
+    }
+
+    @Test
+    public void testRefresh_CargaCatalogoYRespondeSinLlamarAInventario() {
+        // DADO: el caché cargado con el catálogo completo
+        priceCache.refresh();
+
+        // CUANDO: se consultan precios muchas veces
+        for (int i = 0; i < 1000; i++) {
+            priceCache.getPrice(1L);
+            priceCache.getPrice(2L);
+        }
+
+        // ENTONCES: todos salen del caché
+        assertEquals(2, priceCache.size());
+        assertEquals(Money.of(2599.0), priceCache.getPrice(1L));
+        assertEquals(0, inventario.getPriceLookups());
+    }
+
+    @Test
+    public void testRefresh_AplicaSoloLosCambios() {
+        // DADO: el caché cargado y luego un cambio de precio en Inventario
+        priceCache.refresh();
+        inventario.setPrice(2L, 1199.0, LocalDateTime.now().plusMinutes(1));
+
+        // CUANDO: corre la actualización periódica
+        priceCache.refresh();
+
+        // ENTONCES: el caché tiene el precio nuevo sin consultas individuales
+        assertEquals(Money.of(1199.0), priceCache.getPrice(2L));
+        assertEquals(2, inventario.getPriceFeedCalls());
+        assertEquals(0, inventario.getPriceLookups());
+    }
+
+    @Test
+    public void testGetPrice_ProductoNuevo_ConsultaUnaVez() {
+        // DADO: un producto que aún no llegó al caché
+        priceCache.refresh();
+        inventario.withProduct(3L, 2L, 1, 899.0);
+
+        // CUANDO: se pide su precio dos veces
+        Money primero = priceCache.getPrice(3L);
+        Money segundo = priceCache.getPrice(3L);
+
+        // ENTONCES: solo la primera vez se consulta a Inventario
+        assertEquals(Money.of(899.0), primero);
+        assertEquals(primero, segundo);
+        assertEquals(1, inventario.getPriceLookups());
+    }
+
+    @Test
+    public void testGetPrice_Vencido_VuelveAConsultar() {
+        // DADO: un caché sin actualizaciones recientes (límite de antigüedad en cero)
+        ReflectionTestUtils.setField(priceCache, "maxAgeMillis", 0L);
+        priceCache.refresh();
+        inventario.setPrice(1L, 2499.0, LocalDateTime.now());
+
+        // CUANDO: se pide el precio
+        Money precio = priceCache.getPrice(1L);
+
+        // ENTONCES: no se usa el valor vencido sino el de Inventario
+        assertEquals(Money.of(2499.0), precio);
+        assertEquals(1, inventario.getPriceLookups());
+    }
+
+    @Test
+    public void testRefresh_InventarioCaido_ConservaPrecios() {
+        // DADO: el caché cargado y luego Inventario sin responder
+        priceCache.refresh();
+        inventario.setUnavailable(true);
+
+        // CUANDO: falla la actualización periódica
+        priceCache.refresh();
+
+        // ENTONCES: los precios cargados se siguen usando dentro del límite
+        assertEquals(Money.of(1299.0), priceCache.getPrice(2L));
+    }
+
+    @Test
+    public void testGetPrice_ProductoInexistente_LanzaExcepcion() {
+        // DADO: un producto que Inventario no conoce
+        // CUANDO / ENTONCES: se rechaza
+        assertThrows(IllegalArgumentException.class, () -> priceCache.getPrice(99L));
+    }
+}
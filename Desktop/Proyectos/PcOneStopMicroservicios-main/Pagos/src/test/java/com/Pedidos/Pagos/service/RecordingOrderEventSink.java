@@ -0,0 +1,31 @@
+package com.Pedidos.Pagos.service;
+
+import com.Pedidos.Pagos.model.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Destino de eventos para pruebas: guarda los lotes recibidos y puede simular fallos.
+ */
+public class RecordingOrderEventSink implements OrderEventSink {
+
+    private final List<List<OutboxEvent>> batches = new ArrayList<>();
+    private RuntimeException failure;
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        if (failure != null) {
+            throw failure;
+        }
+        batches.add(new ArrayList<>(events));
+    }
+
+    public void failWith(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    public List<List<OutboxEvent>> getBatches() {
+        return batches;
+    }
+}
@@ -0,0 +1,59 @@
+package com.Pedidos.Pagos.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import com.Pedidos.Pagos.repository.SellerDailyRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+@ExtendWith(MockitoExtension.class)
+public class SellerRollupReconcilerTest {
+
+    @InjectMocks
+    private SellerRollupReconciler reconciler;
+
+    @Mock
+    private SellerDailyRollupRepository rollupRepository;
+
+    @Mock
+    private PartitionedOrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Test
+    public void testReconcileDay_BloqueaAntesDeContarYSumaArchivo() {
+        // DADO: el día tiene filas PENDIENTE y CANCELADO; ya no quedan pedidos cancelados
+        LocalDate dia = LocalDate.of(2025, 11, 3);
+        when(rollupRepository.lockDay(2L, dia)).thenReturn(Arrays.asList("PENDIENTE", "CANCELADO"));
+        when(orderRepository.summarizeSellerDay(2L, dia.atStartOfDay(), dia.plusDays(1).atStartOfDay()))
+                .thenReturn(Collections.singletonList(new Object[]{"PENDIENTE", 2L, 60000L}));
+        when(archivedOrderRepository.summarizeSellerDay(2L, dia.atStartOfDay(), dia.plusDays(1).atStartOfDay()))
+                .thenReturn(Collections.singletonList(new Object[]{"COMPLETADO", 1L, 25000L}));
+
+        // CUANDO: se corrige el día
+        reconciler.reconcileDay(2L, dia);
+
+        // ENTONCES: las filas se bloquean antes de leer los pedidos y cada estado queda con su conteo
+        InOrder orden = inOrder(rollupRepository, orderRepository);
+        orden.verify(rollupRepository).lockDay(2L, dia);
+        orden.verify(orderRepository).summarizeSellerDay(eq(2L), any(), any());
+        verify(rollupRepository).set(2L, dia, "PENDIENTE", 2L, 60000L);
+        verify(rollupRepository).set(2L, dia, "COMPLETADO", 1L, 25000L);
+        verify(rollupRepository).set(2L, dia, "CANCELADO", 0L, 0L);
+        verify(rollupRepository, never()).increment(anyLong(), any(), any(), anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,148 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.dto.SellerDashboard;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.Order;
+import com.Pedidos.Pagos.model.OrderStatus;
+import com.Pedidos.Pagos.model.SellerDailyRollup;
+import com.Pedidos.Pagos.repository.ArchivedOrderRepository;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import com.Pedidos.Pagos.repository.SellerDailyRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class SellerRollupServiceTest {
+
+    @InjectMocks
+    private SellerRollupService sellerRollupService;
+
+    @Mock
+    private SellerDailyRollupRepository rollupRepository;
+
+    @Mock
+    private PartitionedOrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private SellerRollupReconciler reconciler;
+
+    @Test
+    public void testOnStatusChanged_MueveElPedidoDeEstado() {
+        // DADO: un pedido de 300 que pasó de PENDIENTE a CONFIRMADO
+        LocalDateTime creado = LocalDateTime.of(2025, 11, 3, 10, 0);
+        Order pedido = new Order(1L, 4L, Money.of(300.0), OrderStatus.CONFIRMADO, "1", creado, 2L, new ArrayList<>(), null);
+
+        // CUANDO: se registra el cambio
+        sellerRollupService.onStatusChanged(pedido, OrderStatus.PENDIENTE);
+
+        // ENTONCES: se resta de PENDIENTE y se suma a CONFIRMADO en el día de creación
+        LocalDate dia = LocalDate.of(2025, 11, 3);
+        verify(rollupRepository).increment(2L, dia, "PENDIENTE", -1, -30000L);
+        verify(rollupRepository).increment(2L, dia, "CONFIRMADO", 1, 30000L);
+    }
+
+    @Test
+    public void testGetDashboard_SumaSinCancelados() {
+        // DADO: rollups de dos días, uno con un pedido cancelado
+        LocalDate desde = LocalDate.of(2025, 11, 1);
+        LocalDate hasta = LocalDate.of(2025, 11, 30);
+        List<SellerDailyRollup> filas = Arrays.asList(
+                new SellerDailyRollup(1L, 2L, LocalDate.of(2025, 11, 3), OrderStatus.COMPLETADO, 2L, Money.of(4000.0)),
+                new SellerDailyRollup(2L, 2L, LocalDate.of(2025, 11, 3), OrderStatus.CANCELADO, 1L, Money.of(999.0)),
+                new SellerDailyRollup(3L, 2L, LocalDate.of(2025, 11, 4), OrderStatus.PENDIENTE, 1L, Money.of(500.0))
+        );
+        when(rollupRepository.findBySellerIdAndDayBetweenOrderByDayAsc(2L, desde, hasta)).thenReturn(filas);
+
+        // CUANDO: pedimos el dashboard
+        SellerDashboard dashboard = sellerRollupService.getDashboard(2L, desde, hasta);
+
+        // ENTONCES: cuenta todos los pedidos pero los ingresos excluyen cancelados
+        assertEquals(4L, dashboard.getOrderCount());
+        assertEquals(Money.of(4500.0), dashboard.getRevenue());
+        assertEquals(3, dashboard.getDays().size());
+    }
+
+    @Test
+    public void testGetDashboard_RangoInvertido_LanzaExcepcion() {
+        // CUANDO/ENTONCES: from posterior a to se rechaza sin consultar
+        assertThrows(IllegalArgumentException.class, () -> sellerRollupService.getDashboard(
+                2L, LocalDate.of(2025, 12, 1), LocalDate.of(2025, 11, 1)));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    public void testRebuild_UneBloquesYCorrigeSoloDiasDesviados() {
+        // DADO: pedidos con IDs 1..10 repartidos en bloques de 5 y uno archivado del mismo día
+        ReflectionTestUtils.setField(sellerRollupService, "chunkSize", 5L);
+        LocalDate dia = LocalDate.of(2025, 11, 3);
+        LocalDate otroDia = LocalDate.of(2025, 11, 4);
+        when(orderRepository.findIdRange()).thenReturn(Collections.singletonList(new Object[]{1L, 10L}));
+        when(orderRepository.summarizeDailyByIdRange(0L, 5L)).thenReturn(Arrays.asList(
+                new Object[]{2L, java.sql.Date.valueOf(dia), "COMPLETADO", 2L, 100000L},
+                new Object[]{2L, java.sql.Date.valueOf(otroDia), "PENDIENTE", 1L, 1000L}));
+        when(orderRepository.summarizeDailyByIdRange(5L, 10L)).thenReturn(Collections.singletonList(
+                new Object[]{2L, java.sql.Date.valueOf(dia), "COMPLETADO", 1L, 50000L}));
+        when(archivedOrderRepository.findIdRange()).thenReturn(Collections.singletonList(new Object[]{20L, 20L}));
+        when(archivedOrderRepository.summarizeDailyByIdRange(19L, 20L)).thenReturn(Collections.singletonList(
+                new Object[]{2L, dia, "COMPLETADO", 1L, 25000L}));
+        // El día 3 suma 4 pedidos pero su rollup dice 3; el día 4 coincide
+        when(rollupRepository.findAll()).thenReturn(Arrays.asList(
+                new SellerDailyRollup(1L, 2L, dia, OrderStatus.COMPLETADO, 3L, Money.ofCents(150000L)),
+                new SellerDailyRollup(2L, 2L, otroDia, OrderStatus.PENDIENTE, 1L, Money.ofCents(1000L))));
+
+        // CUANDO: se recalcula
+        sellerRollupService.rebuild();
+
+        // ENTONCES: solo se corrige el día desviado y la tabla no se reemplaza
+        verify(orderRepository, times(2)).summarizeDailyByIdRange(anyLong(), anyLong());
+        verify(reconciler).reconcileDay(2L, dia);
+        verify(reconciler, never()).reconcileDay(2L, otroDia);
+        verify(rollupRepository, never()).deleteAllInBatch();
+        verify(rollupRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testRebuild_IncrementoDuranteLaLectura_NoSePierde() {
+        // DADO: mientras se lee el bloque se crea un pedido del mismo día, que el bloque ya no ve
+        LocalDate dia = LocalDate.of(2025, 11, 3);
+        Order nuevo = new Order(11L, 1L, Money.of(300.0), OrderStatus.PENDIENTE, null, dia.atTime(12, 0), 2L,
+                new ArrayList<>(), null);
+        when(orderRepository.findIdRange()).thenReturn(Collections.singletonList(new Object[]{1L, 10L}));
+        when(orderRepository.summarizeDailyByIdRange(0L, 10L)).thenAnswer(invocation -> {
+            sellerRollupService.onCreated(nuevo);
+            return Collections.singletonList(new Object[]{2L, java.sql.Date.valueOf(dia), "PENDIENTE", 1L, 1000L});
+        });
+        when(archivedOrderRepository.findIdRange()).thenReturn(Collections.emptyList());
+        // El rollup ya incluye el incremento: 2 pedidos
+        when(rollupRepository.findAll()).thenReturn(Collections.singletonList(
+                new SellerDailyRollup(1L, 2L, dia, OrderStatus.PENDIENTE, 2L, Money.ofCents(31000L))));
+
+        // CUANDO: se recalcula
+        sellerRollupService.rebuild();
+
+        // ENTONCES: el incremento se aplicó y el día se vuelve a contar bajo bloqueo en lugar de pisarlo con 1
+        verify(rollupRepository).increment(2L, dia, "PENDIENTE", 1L, 30000L);
+        verify(reconciler).reconcileDay(2L, dia);
+        verify(rollupRepository, never()).set(anyLong(), any(), any(), anyLong(), anyLong());
+        verify(rollupRepository, never()).deleteAllInBatch();
+    }
+}
@@ -0,0 +1,162 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.dto.SettlementProgress;
+import com.Pedidos.Pagos.model.Money;
+import com.Pedidos.Pagos.model.SettlementRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+public class SettlementJobTest {
+
+    private static final LocalDate DESDE = LocalDate.of(2025, 11, 1);
+    private static final LocalDate HASTA = LocalDate.of(2025, 11, 30);
+
+    @InjectMocks
+    private SettlementJob settlementJob;
+
+    @Mock
+    private SettlementService settlementService;
+
+    private SettlementRun ejecucion;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(settlementJob, "chunkSize", 3);
+        ejecucion = new SettlementRun(7L, DESDE, HASTA, SettlementRun.State.EN_CURSO, DESDE.atStartOfDay(), 0L, 0L,
+                LocalDateTime.now(), null, null);
+    }
+
+    private static Object[] fila(long id, int dia, Long sellerId, double total) {
+        return new Object[]{id, LocalDateTime.of(2025, 11, dia, 10, 0), sellerId, Money.of(total)};
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRun_SumaPorVendedorYAvanzaPorBloques() {
+        // DADO: cuatro pedidos completados en bloques de 3
+        when(settlementService.prepare(DESDE, HASTA, false)).thenReturn(ejecucion);
+        when(settlementService.getRun(7L)).thenReturn(ejecucion);
+        when(settlementService.nextChunk(ejecucion, 3)).thenReturn(
+                Arrays.asList(fila(1, 2, 2L, 100.0), fila(4, 3, 3L, 50.5), fila(5, 3, 2L, 20.25)),
+                Collections.singletonList(fila(9, 20, 3L, 10.0)),
+                Collections.emptyList());
+
+        // CUANDO: corre la liquidación
+        assertTrue(settlementJob.run(DESDE, HASTA, false));
+
+        // ENTONCES: cada bloque se aplica con sus totales por vendedor y su punto de control
+        ArgumentCaptor<Map<Long, long[]>> totales = ArgumentCaptor.forClass(Map.class);
+        verify(settlementService).applyChunk(eq(ejecucion), eq(LocalDateTime.of(2025, 11, 3, 10, 0)), eq(5L), eq(3L),
+                totales.capture());
+        assertArrayEquals(new long[]{2, 12025}, totales.getValue().get(2L));
+        assertArrayEquals(new long[]{1, 5050}, totales.getValue().get(3L));
+        verify(settlementService).applyChunk(eq(ejecucion), eq(LocalDateTime.of(2025, 11, 20, 10, 0)), eq(9L), eq(1L),
+                anyMap());
+        verify(settlementService).finish(7L);
+
+        SettlementProgress progreso = settlementJob.getProgress();
+        assertFalse(progreso.isRunning());
+        assertEquals(4L, progreso.getOrdersProcessed());
+        assertEquals(9L, progreso.getLastOrderId());
+        assertTrue(progreso.getRowsPerSecond() > 0);
+        assertNull(progreso.getLastError());
+    }
+
+    @Test
+    public void testRun_ErrorEnUnBloque_MarcaFallida() {
+        // DADO: el segundo bloque no se puede guardar
+        when(settlementService.prepare(DESDE, HASTA, false)).thenReturn(ejecucion);
+        when(settlementService.getRun(7L)).thenReturn(ejecucion);
+        when(settlementService.nextChunk(ejecucion, 3)).thenReturn(
+                Collections.singletonList(fila(1, 2, 2L, 100.0)),
+                Collections.singletonList(fila(2, 2, 2L, 100.0)));
+        doNothing().doThrow(new RuntimeException("Lock wait timeout exceeded"))
+                .when(settlementService).applyChunk(any(), any(), anyLong(), anyLong(), anyMap());
+
+        // CUANDO: corre la liquidación
+        settlementJob.run(DESDE, HASTA, false);
+
+        // ENTONCES: queda FALLIDO con el primer bloque confirmado para reanudar después
+        verify(settlementService).fail(7L, "Lock wait timeout exceeded");
+        verify(settlementService, never()).finish(anyLong());
+        SettlementProgress progreso = settlementJob.getProgress();
+        assertEquals(1L, progreso.getOrdersProcessed());
+        assertEquals("Lock wait timeout exceeded", progreso.getLastError());
+    }
+
+    @Test
+    public void testRun_PeriodoInvalido_LiberaElJob() {
+        // DADO: un período que el servicio rechaza
+        when(settlementService.prepare(HASTA, DESDE, false))
+                .thenThrow(new IllegalArgumentException("La fecha inicial no puede ser posterior a la final"));
+        when(settlementService.prepare(DESDE, HASTA, false)).thenReturn(ejecucion);
+        when(settlementService.getRun(7L)).thenReturn(ejecucion);
+        when(settlementService.nextChunk(ejecucion, 3)).thenReturn(Collections.emptyList());
+
+        // CUANDO: se pide primero el período inválido
+        assertThrows(IllegalArgumentException.class, () -> settlementJob.run(HASTA, DESDE, false));
+
+        // ENTONCES: se puede iniciar otra liquidación
+        assertTrue(settlementJob.run(DESDE, HASTA, false));
+        verify(settlementService).finish(7L);
+    }
+
+    @Test
+    public void testResumeInterrupted_ContinuaDesdeElPuntoDeControl() throws Exception {
+        // DADO: una ejecución que quedó EN_CURSO con 4000 pedidos ya sumados
+        ejecucion.setLastOrderId(4000L);
+        ejecucion.setOrdersProcessed(4000L);
+        when(settlementService.findInterrupted()).thenReturn(List.of(ejecucion));
+        when(settlementService.getRun(7L)).thenReturn(ejecucion);
+        when(settlementService.nextChunk(ejecucion, 3)).thenReturn(
+                Collections.singletonList(fila(4001, 28, 2L, 10.0)), Collections.emptyList());
+
+        // CUANDO: inicia el servicio
+        settlementJob.resumeInterrupted();
+
+        // ENTONCES: la ejecución termina sumando solo lo que faltaba
+        long limite = System.currentTimeMillis() + 5000;
+        while (settlementJob.getProgress().isRunning() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        verify(settlementService, timeout(5000)).finish(7L);
+        assertEquals(4001L, settlementJob.getProgress().getOrdersProcessed());
+        verify(settlementService, never()).prepare(any(), any(), anyBoolean());
+    }
+
+    @Test
+    public void testAggregate_IgnoraPedidosSinVendedor() {
+        // DADO: muchas filas de dos vendedores y una sin vendedor
+        List<Object[]> filas = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            filas.add(fila(i, 5, i % 2 == 0 ? 2L : 3L, 1.01));
+        }
+        filas.add(fila(10_000, 5, null, 999.0));
+
+        // CUANDO: se agrega el bloque
+        Map<Long, long[]> totales = SettlementJob.aggregate(filas);
+
+        // ENTONCES: la suma es exacta por vendedor
+        assertEquals(2, totales.size());
+        assertArrayEquals(new long[]{5000, 505000}, totales.get(2L));
+        assertArrayEquals(new long[]{5000, 505000}, totales.get(3L));
+    }
+}
@@ -0,0 +1,144 @@
+package com.Pedidos.Pagos.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Pedidos.Pagos.model.SettlementRun;
+import com.Pedidos.Pagos.repository.PartitionedOrderRepository;
+import com.Pedidos.Pagos.repository.SellerSettlementRepository;
+import com.Pedidos.Pagos.repository.SettlementRunRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+public class SettlementServiceTest {
+
+    @InjectMocks
+    private SettlementService settlementService;
+
+    @Mock
+    private SettlementRunRepository runRepository;
+
+    @Mock
+    private SellerSettlementRepository settlementRepository;
+
+    @Mock
+    private PartitionedOrderRepository orderRepository;
+
+    private static final LocalDate DESDE = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+    private static final LocalDate HASTA = DESDE.plusMonths(1).minusDays(1);
+
+    private static SettlementRun ejecucion(SettlementRun.State estado, long lastOrderId, long procesados) {
+        return new SettlementRun(3L, DESDE, HASTA, estado, DESDE.plusDays(10).atStartOfDay(), lastOrderId, procesados,
+                LocalDateTime.now().minusHours(1), null, "Conexión perdida");
+    }
+
+    @Test
+    public void testPrepare_PeriodoNuevo_CreaEjecucion() {
+        // DADO: el período no se liquidó nunca
+        when(runRepository.findByPeriodStartAndPeriodEnd(DESDE, HASTA)).thenReturn(Optional.empty());
+        when(runRepository.save(any(SettlementRun.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // CUANDO: se prepara
+        SettlementRun run = settlementService.prepare(DESDE, HASTA, false);
+
+        // ENTONCES: empieza EN_CURSO desde el primer instante del período
+        assertEquals(SettlementRun.State.EN_CURSO, run.getState());
+        assertEquals(DESDE.atStartOfDay(), run.getLastCreatedAt());
+        assertEquals(0L, run.getLastOrderId());
+        assertEquals(0L, run.getOrdersProcessed());
+    }
+
+    @Test
+    public void testPrepare_Fallida_ReanudaDesdeElPuntoDeControl() {
+        // DADO: una ejecución FALLIDO a mitad del período
+        SettlementRun existente = ejecucion(SettlementRun.State.FALLIDO, 800L, 800L);
+        when(runRepository.findByPeriodStartAndPeriodEnd(DESDE, HASTA)).thenReturn(Optional.of(existente));
+        when(runRepository.save(existente)).thenReturn(existente);
+
+        // CUANDO: se vuelve a pedir sin rerun
+        SettlementRun run = settlementService.prepare(DESDE, HASTA, false);
+
+        // ENTONCES: conserva el punto de control y lo ya sumado
+        assertEquals(SettlementRun.State.EN_CURSO, run.getState());
+        assertEquals(800L, run.getLastOrderId());
+        assertEquals(800L, run.getOrdersProcessed());
+        assertNull(run.getLastError());
+        verify(settlementRepository, never()).deleteByRunId(anyLong());
+    }
+
+    @Test
+    public void testPrepare_Terminada_SinRerun_LanzaExcepcion() {
+        // DADO: el período ya fue liquidado
+        when(runRepository.findByPeriodStartAndPeriodEnd(DESDE, HASTA))
+                .thenReturn(Optional.of(ejecucion(SettlementRun.State.TERMINADO, 900L, 900L)));
+
+        // CUANDO / ENTONCES: se rechaza
+        assertThrows(IllegalStateException.class, () -> settlementService.prepare(DESDE, HASTA, false));
+        verify(runRepository, never()).save(any());
+    }
+
+    @Test
+    public void testPrepare_Rerun_BorraYEmpiezaDeCero() {
+        // DADO: el período ya fue liquidado
+        SettlementRun existente = ejecucion(SettlementRun.State.TERMINADO, 900L, 900L);
+        when(runRepository.findByPeriodStartAndPeriodEnd(DESDE, HASTA)).thenReturn(Optional.of(existente));
+        when(runRepository.save(existente)).thenReturn(existente);
+
+        // CUANDO: se pide con rerun
+        SettlementRun run = settlementService.prepare(DESDE, HASTA, true);
+
+        // ENTONCES: se borran sus liquidaciones y el punto de control vuelve al inicio
+        verify(settlementRepository).deleteByRunId(3L);
+        assertEquals(DESDE.atStartOfDay(), run.getLastCreatedAt());
+        assertEquals(0L, run.getLastOrderId());
+        assertEquals(0L, run.getOrdersProcessed());
+        assertEquals(SettlementRun.State.EN_CURSO, run.getState());
+    }
+
+    @Test
+    public void testPrepare_PeriodoInvalido_LanzaExcepcion() {
+        // CUANDO / ENTONCES: período invertido o sin cerrar
+        assertThrows(IllegalArgumentException.class, () -> settlementService.prepare(HASTA, DESDE, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> settlementService.prepare(LocalDate.now().withDayOfMonth(1), LocalDate.now(), false));
+        assertThrows(IllegalArgumentException.class,
+                () -> settlementService.prepare(LocalDate.now().minusYears(3), LocalDate.now().minusYears(2), false));
+        verifyNoInteractions(runRepository);
+    }
+
+    @Test
+    public void testApplyChunk_SumaPorVendedor() {
+        // DADO: el punto de control sigue donde se leyó el bloque
+        SettlementRun run = ejecucion(SettlementRun.State.EN_CURSO, 800L, 800L);
+        LocalDateTime hasta = DESDE.plusDays(12).atTime(9, 30);
+        when(runRepository.advance(3L, run.getLastCreatedAt(), 800L, hasta, 950L, 150L)).thenReturn(1);
+
+        // CUANDO: se aplica el bloque
+        settlementService.applyChunk(run, hasta, 950L, 150L, Map.of(2L, new long[]{100, 500000}, 5L, new long[]{50, 1999}));
+
+        // ENTONCES: una suma por vendedor
+        verify(settlementRepository).increment(3L, 2L, 100L, 500000L);
+        verify(settlementRepository).increment(3L, 5L, 50L, 1999L);
+    }
+
+    @Test
+    public void testApplyChunk_PuntoDeControlMovido_NoSuma() {
+        // DADO: otra ejecución ya avanzó el punto de control
+        SettlementRun run = ejecucion(SettlementRun.State.EN_CURSO, 800L, 800L);
+        when(runRepository.advance(anyLong(), any(), anyLong(), any(), anyLong(), anyLong())).thenReturn(0);
+
+        // CUANDO / ENTONCES: el bloque se rechaza sin sumar nada
+        assertThrows(IllegalStateException.class, () -> settlementService.applyChunk(run,
+                DESDE.plusDays(12).atStartOfDay(), 950L, 150L, Map.of(2L, new long[]{150, 500000})));
+        verify(settlementRepository, never()).increment(anyLong(), anyLong(), anyLong(), anyLong());
+    }
+}